@@ -27,7 +27,8 @@ public class BroadcastBinaryDoubleOperations {
 
     @Param({
         ",2x100", "2x100,", "1x1,2x10", "2x10,1x1", "1x10,2x10", "2x10,1x10",
-        "2x2x2,2x2", "2x2,2x2x2", "20x200,20x20x200", "20x1x20,20x20x20"})
+        "2x2x2,2x2", "2x2,2x2x2", "20x200,20x20x200", "20x1x20,20x20x20",
+        "200x200,200", "200x200,200x1", "200x1,1x200"})
 
     public String dims;
 
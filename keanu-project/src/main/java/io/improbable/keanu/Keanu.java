@@ -1,7 +1,9 @@
 package io.improbable.keanu;
 
+import io.improbable.keanu.algorithms.MultiChainNetworkSamples;
 import io.improbable.keanu.algorithms.PosteriorSamplingAlgorithm;
 import io.improbable.keanu.algorithms.graphtraversal.DifferentiableChecker;
+import io.improbable.keanu.algorithms.mcmc.ParallelChains;
 import io.improbable.keanu.algorithms.mcmc.RollBackToCachedValuesOnRejection;
 import io.improbable.keanu.algorithms.mcmc.proposal.PriorProposalDistribution;
 import io.improbable.keanu.algorithms.variational.optimizer.gradient.GradientOptimizer;
@@ -76,6 +78,22 @@ public class Keanu {
             public static io.improbable.keanu.algorithms.mcmc.MetropolisHastings.MetropolisHastingsBuilder builder() {
                 return io.improbable.keanu.algorithms.mcmc.MetropolisHastings.builder();
             }
+
+            /**
+             * Runs independent Metropolis Hastings chains in parallel, each on its own copy of the network.
+             *
+             * @param network     network to sample the latent vertices of. It is left unchanged.
+             * @param chainCount  the number of chains to run
+             * @param sampleCount the number of samples to take in each chain
+             * @return the samples of every chain
+             */
+            public static MultiChainNetworkSamples runChains(BayesianNetwork network, int chainCount, int sampleCount) {
+                return ParallelChains.builder()
+                    .algorithmForChain(MetropolisHastings::withDefaultConfig)
+                    .modelForNetwork(KeanuProbabilisticModel::new)
+                    .build()
+                    .getPosteriorSamples(network, chainCount, sampleCount);
+            }
         }
 
         @UtilityClass
@@ -94,6 +112,40 @@ public class Keanu {
             public static io.improbable.keanu.algorithms.mcmc.nuts.NUTS.NUTSBuilder builder() {
                 return io.improbable.keanu.algorithms.mcmc.nuts.NUTS.builder();
             }
+
+            /**
+             * Runs independent NUTS chains in parallel, each on its own copy of the network.
+             *
+             * @param network     network to sample the latent vertices of. It is left unchanged.
+             * @param chainCount  the number of chains to run
+             * @param sampleCount the number of samples to take in each chain
+             * @return the samples of every chain
+             */
+            public static MultiChainNetworkSamples runChains(BayesianNetwork network, int chainCount, int sampleCount) {
+                return ParallelChains.builder()
+                    .algorithmForChain(NUTS::withDefaultConfig)
+                    .modelForNetwork(KeanuProbabilisticModelWithGradient::new)
+                    .build()
+                    .getPosteriorSamples(network, chainCount, sampleCount);
+            }
+        }
+
+        @UtilityClass
+        public static class ParallelTempering {
+
+            public static io.improbable.keanu.algorithms.mcmc.ParallelTempering withDefaultConfig() {
+                return withDefaultConfig(KeanuRandom.getDefaultRandom());
+            }
+
+            public static io.improbable.keanu.algorithms.mcmc.ParallelTempering withDefaultConfig(KeanuRandom random) {
+                return builder()
+                    .random(random)
+                    .build();
+            }
+
+            public static io.improbable.keanu.algorithms.mcmc.ParallelTempering.ParallelTemperingBuilder builder() {
+                return io.improbable.keanu.algorithms.mcmc.ParallelTempering.builder();
+            }
         }
 
         @UtilityClass
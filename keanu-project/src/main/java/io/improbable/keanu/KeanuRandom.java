@@ -37,14 +37,47 @@ public class KeanuRandom {
         DEFAULT_RANDOM.set(new KeanuRandom(seed));
     }
 
+    /**
+     * @param seed the seed of the generator
+     * @return a random that is not synchronized, so it must only be used by one thread at a time, and is faster than
+     * one created with {@link #KeanuRandom(long)}. Use {@link #split()} to get a random for each thread.
+     */
+    public static KeanuRandom splittable(long seed) {
+        return new KeanuRandom(new SplittableRandomGenerator(seed));
+    }
+
     private final RandomGenerator random;
 
+    /**
+     * The generator that draws the numbers. If {@link #random} is a {@link SynchronizedRandomGenerator}, which locks
+     * on itself, it wraps this, so bulk fills lock random once and draw from this directly.
+     */
+    private final RandomGenerator unsynchronized;
+
     public KeanuRandom() {
         this(System.currentTimeMillis());
     }
 
     public KeanuRandom(long seed) {
-        random = new SynchronizedRandomGenerator(new MersenneTwister(seed));
+        this.unsynchronized = new MersenneTwister(seed);
+        this.random = new SynchronizedRandomGenerator(unsynchronized);
+    }
+
+    private KeanuRandom(SplittableRandomGenerator generator) {
+        this.unsynchronized = generator;
+        this.random = generator;
+    }
+
+    /**
+     * @return a new random for use by another thread or chain, whose numbers are determined by the state of this
+     * random. A splittable random is split without synchronization, and any other random seeds the new one from
+     * {@link #nextLong()}.
+     */
+    public KeanuRandom split() {
+        if (random instanceof SplittableRandomGenerator) {
+            return new KeanuRandom(((SplittableRandomGenerator) random).split());
+        }
+        return new KeanuRandom(nextLong());
     }
 
     public DoubleTensor nextDouble(long[] shape) {
@@ -126,30 +159,88 @@ public class KeanuRandom {
         return random.nextInt();
     }
 
-    private int[] nextIntBuffer(int length) {
-        int[] buffer = new int[length];
-        for (int i = 0; i < length; i++) {
-            buffer[i] = nextInt();
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    /**
+     * Fills the buffer with uniformly distributed ints, taking any lock once rather than once per number.
+     *
+     * @param buffer the buffer to fill
+     */
+    public void nextInt(int[] buffer) {
+        if (random == unsynchronized) {
+            fillInt(buffer);
+        } else {
+            synchronized (random) {
+                fillInt(buffer);
+            }
         }
+    }
 
+    /**
+     * Fills the buffer with doubles uniformly distributed in [0, 1), taking any lock once rather than once per number.
+     *
+     * @param buffer the buffer to fill
+     */
+    public void nextDouble(double[] buffer) {
+        if (random == unsynchronized) {
+            fillDouble(buffer);
+        } else {
+            synchronized (random) {
+                fillDouble(buffer);
+            }
+        }
+    }
+
+    /**
+     * Fills the buffer with standard normal doubles, taking any lock once rather than once per number.
+     *
+     * @param buffer the buffer to fill
+     */
+    public void nextGaussian(double[] buffer) {
+        if (random == unsynchronized) {
+            fillGaussian(buffer);
+        } else {
+            synchronized (random) {
+                fillGaussian(buffer);
+            }
+        }
+    }
+
+    private void fillInt(int[] buffer) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = unsynchronized.nextInt();
+        }
+    }
+
+    private void fillDouble(double[] buffer) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = unsynchronized.nextDouble();
+        }
+    }
+
+    private void fillGaussian(double[] buffer) {
+        for (int i = 0; i < buffer.length; i++) {
+            buffer[i] = unsynchronized.nextGaussian();
+        }
+    }
+
+    private int[] nextIntBuffer(int length) {
+        int[] buffer = new int[length];
+        nextInt(buffer);
         return buffer;
     }
 
     private double[] nextDoubleBuffer(int length) {
         double[] buffer = new double[length];
-        for (int i = 0; i < length; i++) {
-            buffer[i] = nextDouble();
-        }
-
+        nextDouble(buffer);
         return buffer;
     }
 
     private double[] nextGaussianBuffer(int length) {
         double[] buffer = new double[length];
-        for (int i = 0; i < length; i++) {
-            buffer[i] = nextGaussian();
-        }
-
+        nextGaussian(buffer);
         return buffer;
     }
 
@@ -0,0 +1,82 @@
+package io.improbable.keanu;
+
+import org.apache.commons.math3.random.BitsStreamGenerator;
+
+import java.util.SplittableRandom;
+
+/**
+ * An unsynchronized {@link org.apache.commons.math3.random.RandomGenerator} backed by the SplitMix64 generator of
+ * {@link SplittableRandom}. It must only be used by one thread at a time, and {@link #split()} gives a generator
+ * for another thread whose stream is statistically independent of this one and is the same for the same seed.
+ */
+class SplittableRandomGenerator extends BitsStreamGenerator {
+
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private SplittableRandom random;
+
+    SplittableRandomGenerator(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private SplittableRandomGenerator(SplittableRandom random) {
+        this.random = random;
+    }
+
+    SplittableRandomGenerator split() {
+        return new SplittableRandomGenerator(random.split());
+    }
+
+    @Override
+    public void setSeed(int seed) {
+        setSeed((long) seed);
+    }
+
+    @Override
+    public void setSeed(int[] seed) {
+        long combined = 0;
+        for (int s : seed) {
+            combined = combined * 31 + s;
+        }
+        setSeed(combined);
+    }
+
+    @Override
+    public void setSeed(long seed) {
+        random = new SplittableRandom(seed);
+        clear();
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (random.nextLong() >>> (64 - bits));
+    }
+
+    @Override
+    public int nextInt() {
+        return random.nextInt();
+    }
+
+    @Override
+    public int nextInt(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Bound must be positive but was " + n);
+        }
+        return random.nextInt(n);
+    }
+
+    @Override
+    public long nextLong() {
+        return random.nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return random.nextLong() < 0;
+    }
+
+    @Override
+    public double nextDouble() {
+        return (random.nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+}
@@ -0,0 +1,131 @@
+package io.improbable.keanu.algorithms;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.columnar.DoubleSampleColumn;
+import io.improbable.keanu.algorithms.columnar.SampleColumns;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Network samples taken from several independent chains. The samples of all chains are concatenated in chain order,
+ * so this can be used anywhere a {@link NetworkSamples} is expected, and each sample is tagged with the id of the chain
+ * that produced it.
+ */
+public class MultiChainNetworkSamples extends NetworkSamples {
+
+    private final List<NetworkSamples> chains;
+    private final int[] chainStartIndex;
+
+    private MultiChainNetworkSamples(Map<VariableReference, List<?>> samplesByVariable,
+                                     List<Double> logOfMasterPForEachSample,
+                                     List<NetworkSamples> chains,
+                                     int[] chainStartIndex) {
+        super(samplesByVariable, logOfMasterPForEachSample, logOfMasterPForEachSample.size());
+        this.chains = chains;
+        this.chainStartIndex = chainStartIndex;
+    }
+
+    /**
+     * @param chains the samples of each chain, where the chain id is the position in the list. Every chain
+     *               must contain samples for the same variables.
+     * @return the samples of all chains merged into one collection of samples
+     */
+    public static MultiChainNetworkSamples fromChains(List<NetworkSamples> chains) {
+        Preconditions.checkArgument(!chains.isEmpty(), "At least one chain is required.");
+
+        Map<VariableReference, List<?>> samplesByVariable = new HashMap<>();
+        List<Double> logOfMasterPForEachSample = new DoubleSampleColumn();
+        int[] chainStartIndex = new int[chains.size()];
+
+        for (int chainId = 0; chainId < chains.size(); chainId++) {
+            NetworkSamples chain = chains.get(chainId);
+            chainStartIndex[chainId] = logOfMasterPForEachSample.size();
+
+            for (Map.Entry<VariableReference, ? extends List> entry : chain.getSamplesByVariable().entrySet()) {
+                addSamplesForVariable(entry.getKey(), entry.getValue(), samplesByVariable);
+            }
+
+            for (int i = 0; i < chain.size(); i++) {
+                logOfMasterPForEachSample.add(chain.getLogOfMasterP(i));
+            }
+        }
+
+        return new MultiChainNetworkSamples(
+            samplesByVariable,
+            logOfMasterPForEachSample,
+            Collections.unmodifiableList(new ArrayList<>(chains)),
+            chainStartIndex
+        );
+    }
+
+    private static <T> void addSamplesForVariable(VariableReference variableReference,
+                                                  List<T> chainSamples,
+                                                  Map<VariableReference, List<?>> samplesByVariable) {
+        List<T> samplesForVariable = (List<T>) samplesByVariable.computeIfAbsent(
+            variableReference,
+            v -> chainSamples.isEmpty() ? new ArrayList<T>() : SampleColumns.newListFor(chainSamples.get(0))
+        );
+        samplesForVariable.addAll(chainSamples);
+    }
+
+    public int getChainCount() {
+        return chains.size();
+    }
+
+    /**
+     * @param chainId the id of the chain
+     * @return the samples taken by that chain only
+     */
+    public NetworkSamples getChain(int chainId) {
+        Preconditions.checkElementIndex(chainId, chains.size(), "Chain id");
+        return chains.get(chainId);
+    }
+
+    public List<NetworkSamples> getChains() {
+        return chains;
+    }
+
+    /**
+     * @param sample the index of a sample in the merged samples
+     * @return the id of the chain that took the sample
+     */
+    public int getChainId(int sample) {
+        Preconditions.checkElementIndex(sample, size(), "Sample");
+        int chainId = chains.size() - 1;
+        while (chainStartIndex[chainId] > sample) {
+            chainId--;
+        }
+        return chainId;
+    }
+
+    /**
+     * Drops the first dropCount samples from each chain.
+     *
+     * @param dropCount the number of samples to drop from the start of every chain
+     * @return the remaining samples of every chain
+     */
+    @Override
+    public MultiChainNetworkSamples drop(int dropCount) {
+        return fromChains(chains.stream()
+            .map(chain -> chain.drop(dropCount))
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Down-samples each chain separately.
+     *
+     * @param downSampleInterval take one of every downSampleInterval samples of every chain
+     * @return the down-sampled samples of every chain
+     */
+    @Override
+    public MultiChainNetworkSamples downSample(int downSampleInterval) {
+        return fromChains(chains.stream()
+            .map(chain -> chain.downSample(downSampleInterval))
+            .collect(Collectors.toList()));
+    }
+}
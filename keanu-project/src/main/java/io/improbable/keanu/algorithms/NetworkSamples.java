@@ -1,6 +1,8 @@
 package io.improbable.keanu.algorithms;
 
 import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.columnar.DoubleSampleColumn;
+import io.improbable.keanu.algorithms.columnar.SampleColumns;
 import io.improbable.keanu.network.NetworkState;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
@@ -44,7 +46,7 @@ public class NetworkSamples {
 
     public static NetworkSamples from(List<NetworkSample> networkSamples) {
         Map<VariableReference, List<?>> samplesByVariable = new HashMap<>();
-        List<Double> logOfMasterPForEachSample = new ArrayList<>();
+        List<Double> logOfMasterPForEachSample = new DoubleSampleColumn();
 
         networkSamples.forEach(networkSample -> addSamplesForNetworkSample(networkSample, samplesByVariable));
         networkSamples.forEach(networkSample -> logOfMasterPForEachSample.add(networkSample.getLogOfMasterP()));
@@ -58,7 +60,7 @@ public class NetworkSamples {
     }
 
     private static <T> void addSampleForVariable(VariableReference variableReference, T value, Map<VariableReference, List<?>> samples) {
-        List<T> samplesForVertex = (List<T>) samples.computeIfAbsent(variableReference, v -> new ArrayList<T>());
+        List<T> samplesForVertex = (List<T>) samples.computeIfAbsent(variableReference, v -> SampleColumns.newListFor(value));
         samplesForVertex.add(value);
     }
 
@@ -66,6 +68,10 @@ public class NetworkSamples {
         return this.size;
     }
 
+    Map<VariableReference, ? extends List> getSamplesByVariable() {
+        return samplesByVariable;
+    }
+
     public <T> Samples<T> get(Variable<T, ?> variable) {
         if (variable instanceof DoubleVertex) {
             return (Samples<T>) getDoubleTensorSamples(variable.getReference());
@@ -128,29 +134,14 @@ public class NetworkSamples {
         final Map<VariableReference, List<?>> withSamplesDownSampled = samplesByVariable.entrySet().parallelStream()
             .collect(toMap(
                 Map.Entry::getKey,
-                e -> downSample((List<?>) e.getValue(), downSampleInterval)
+                e -> SampleColumns.downSample((List<?>) e.getValue(), downSampleInterval)
                 )
             );
-        final List<Double> withLogProbsDownSampled = downSample(logOfMasterPForEachSample, downSampleInterval);
+        final List<Double> withLogProbsDownSampled = SampleColumns.downSample(logOfMasterPForEachSample, downSampleInterval);
 
         return new NetworkSamples(withSamplesDownSampled, withLogProbsDownSampled, size / downSampleInterval);
     }
 
-    private static <T> List<T> downSample(final List<T> samples, final int downSampleInterval) {
-
-        List<T> downSampled = new ArrayList<>();
-        int i = 0;
-
-        for (T sample : samples) {
-            if (i % downSampleInterval == 0) {
-                downSampled.add(sample);
-            }
-            i++;
-        }
-
-        return downSampled;
-    }
-
     public double probability(Function<NetworkState, Boolean> predicate) {
         List<NetworkState> networkStates = toNetworkStates();
         long trueCount = networkStates.parallelStream()
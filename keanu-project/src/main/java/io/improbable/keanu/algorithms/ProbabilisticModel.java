@@ -1,8 +1,11 @@
 package io.improbable.keanu.algorithms;
 
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -37,6 +40,67 @@ public interface ProbabilisticModel extends AutoCloseable {
         return logProb(newValues);
     }
 
+    /**
+     * @return a dense index of {@link #getLatentVariables()}, for algorithms that hold latent values in arrays
+     */
+    default VariableIndex<Variable> getLatentVariableIndex() {
+        return VariableIndex.of(getLatentVariables());
+    }
+
+    /**
+     * @param latentValues a value for every latent variable, by position in {@link #getLatentVariableIndex()}
+     * @return the log probability of the model with its latent variables set to those values
+     */
+    default double logProbAt(Object[] latentValues) {
+        return logProb(getLatentVariableIndex().toMap(latentValues));
+    }
+
+    /**
+     * Calculates the log probability of the model at many points. Implementations that can evaluate the model over a
+     * batch dimension do so in one pass. Otherwise the model is evaluated at one point at a time, and is left with
+     * its latent variables set to the values of the last point.
+     *
+     * @param batchedLatentValues a value for every latent variable, with an extra leading dimension of the same
+     *                            length for every variable. The value of a variable at point k is its slice at index
+     *                            k of that dimension.
+     * @return the log probability of the model at each point
+     */
+    default double[] logProbBatch(Map<VariableReference, ? extends Tensor<?, ?>> batchedLatentValues) {
+        int batchSize = batchSize(batchedLatentValues);
+        double[] logProbs = new double[batchSize];
+
+        Map<VariableReference, Object> point = new HashMap<>();
+        for (int k = 0; k < batchSize; k++) {
+            for (Map.Entry<VariableReference, ? extends Tensor<?, ?>> batchedValue : batchedLatentValues.entrySet()) {
+                point.put(batchedValue.getKey(), batchedValue.getValue().slice(0, k));
+            }
+            logProbs[k] = logProb(point);
+        }
+
+        return logProbs;
+    }
+
+    /**
+     * @param batchedValues values with an extra leading dimension that indexes the point in a batch
+     * @return the number of points in the batch
+     * @throws IllegalArgumentException if there are no values or the values do not have the same number of points
+     */
+    static int batchSize(Map<VariableReference, ? extends Tensor<?, ?>> batchedValues) {
+        Preconditions.checkArgument(!batchedValues.isEmpty(), "A batch needs values for at least one variable");
+
+        long batchSize = -1;
+        for (Map.Entry<VariableReference, ? extends Tensor<?, ?>> batchedValue : batchedValues.entrySet()) {
+            long[] shape = batchedValue.getValue().getShape();
+            Preconditions.checkArgument(shape.length > 0, "Batched value of %s has no batch dimension", batchedValue.getKey());
+            Preconditions.checkArgument(batchSize == -1 || shape[0] == batchSize,
+                "Batched value of %s has %s points but expected %s", batchedValue.getKey(), shape[0], batchSize
+            );
+            batchSize = shape[0];
+        }
+
+        return Math.toIntExact(batchSize);
+    }
+
     @Override
     default void close() {
 
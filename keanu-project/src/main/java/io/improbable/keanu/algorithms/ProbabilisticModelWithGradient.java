@@ -1,7 +1,11 @@
 package io.improbable.keanu.algorithms;
 
+import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -17,4 +21,78 @@ public interface ProbabilisticModelWithGradient extends ProbabilisticModel {
 
     Map<VariableReference, DoubleTensor> logLikelihoodGradients();
 
+    /**
+     * @return a dense index of {@link #getContinuousLatentVariables()}, for algorithms that hold latent values and
+     * gradients in arrays
+     */
+    default VariableIndex<Variable<DoubleTensor, ?>> getContinuousLatentVariableIndex() {
+        return VariableIndex.of(getContinuousLatentVariables());
+    }
+
+    /**
+     * @param continuousLatentValues a value for every continuous latent variable, by position in
+     *                               {@link #getContinuousLatentVariableIndex()}
+     * @return the gradient of the log probability with respect to each continuous latent variable, by position
+     */
+    default DoubleTensor[] logProbGradientsAt(DoubleTensor[] continuousLatentValues) {
+        VariableIndex<Variable<DoubleTensor, ?>> index = getContinuousLatentVariableIndex();
+        return gradientsByPosition(index, logProbGradients(index.toMap(continuousLatentValues)));
+    }
+
+    /**
+     * Sets the continuous latent variables to the given values, for when their log probability is already known.
+     * Models that can't set values without calculating the log probability calculate it and ignore the result.
+     *
+     * @param continuousLatentValues a value for every continuous latent variable, by position in
+     *                               {@link #getContinuousLatentVariableIndex()}
+     */
+    default void setContinuousLatentValues(DoubleTensor[] continuousLatentValues) {
+        logProb(getContinuousLatentVariableIndex().toMap(continuousLatentValues));
+    }
+
+    /**
+     * Calculates the gradient of the log probability at many points. The model is evaluated at one point at a time,
+     * and is left with its latent variables set to the values of the last point.
+     *
+     * @param batchedLatentValues a value for every latent variable, with an extra leading dimension that indexes the
+     *                            point, as for {@link #logProbBatch(Map)}
+     * @return the gradient with respect to each continuous latent variable at every point, stacked along a leading
+     * dimension
+     */
+    default Map<VariableReference, DoubleTensor> logProbGradientsBatch(Map<VariableReference, ? extends Tensor<?, ?>> batchedLatentValues) {
+        int batchSize = ProbabilisticModel.batchSize(batchedLatentValues);
+
+        Map<VariableReference, List<DoubleTensor>> gradientsByPoint = new HashMap<>();
+        Map<VariableReference, Object> point = new HashMap<>();
+        for (int k = 0; k < batchSize; k++) {
+            for (Map.Entry<VariableReference, ? extends Tensor<?, ?>> batchedValue : batchedLatentValues.entrySet()) {
+                point.put(batchedValue.getKey(), batchedValue.getValue().slice(0, k));
+            }
+            for (Map.Entry<VariableReference, DoubleTensor> gradient : logProbGradients(point).entrySet()) {
+                gradientsByPoint.computeIfAbsent(gradient.getKey(), r -> new ArrayList<>()).add(gradient.getValue());
+            }
+        }
+
+        Map<VariableReference, DoubleTensor> gradients = new HashMap<>();
+        for (Map.Entry<VariableReference, List<DoubleTensor>> gradient : gradientsByPoint.entrySet()) {
+            gradients.put(gradient.getKey(), DoubleTensor.stack(0, gradient.getValue().toArray(new DoubleTensor[0])));
+        }
+        return gradients;
+    }
+
+    /**
+     * @param index     the variables to get the gradients of
+     * @param gradients the gradient of each variable. Variables that do not affect the log probability can be missing.
+     * @return the gradient of each variable in the index, by position. Missing gradients are zero.
+     */
+    static DoubleTensor[] gradientsByPosition(VariableIndex<? extends Variable<DoubleTensor, ?>> index,
+                                              Map<? extends VariableReference, DoubleTensor> gradients) {
+        DoubleTensor[] gradientsByPosition = new DoubleTensor[index.size()];
+        for (int i = 0; i < gradientsByPosition.length; i++) {
+            Variable<DoubleTensor, ?> variable = index.get(i);
+            DoubleTensor gradient = gradients.get(variable.getReference());
+            gradientsByPosition[i] = gradient == null ? DoubleTensor.zeros(variable.getShape()) : gradient;
+        }
+        return gradientsByPosition;
+    }
 }
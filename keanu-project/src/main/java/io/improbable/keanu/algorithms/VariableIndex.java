@@ -0,0 +1,110 @@
+package io.improbable.keanu.algorithms;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A dense, zero based index of a fixed list of variables.
+ * <p>
+ * Algorithms that touch every variable on every iteration can use the index to hold per variable state in arrays,
+ * indexed by position, rather than in maps keyed by {@link VariableReference}. The reference of each variable is
+ * hashed once, when the index is created.
+ *
+ * @param <V> the type of the indexed variables
+ */
+public class VariableIndex<V extends Variable> {
+
+    private final List<V> variables;
+    private final Map<VariableReference, Integer> positions;
+
+    private VariableIndex(List<V> variables) {
+        this.variables = variables;
+        this.positions = new HashMap<>();
+        for (int i = 0; i < variables.size(); i++) {
+            Integer previous = positions.put(variables.get(i).getReference(), i);
+            Preconditions.checkArgument(previous == null, "Variable %s is indexed more than once", variables.get(i).getReference());
+        }
+    }
+
+    /**
+     * @param variables the variables to index, in order
+     * @param <V>       the type of the variables
+     * @return an index where each variable's position is its position in the given list
+     */
+    public static <V extends Variable> VariableIndex<V> of(List<? extends V> variables) {
+        return new VariableIndex<>(ImmutableList.copyOf(variables));
+    }
+
+    public int size() {
+        return variables.size();
+    }
+
+    /**
+     * @param position the position of a variable in this index
+     * @return the variable at that position
+     */
+    public V get(int position) {
+        return variables.get(position);
+    }
+
+    public List<V> getVariables() {
+        return variables;
+    }
+
+    /**
+     * @param reference the reference of a variable
+     * @return the position of the variable in this index or -1 if it is not indexed
+     */
+    public int indexOf(VariableReference reference) {
+        Integer position = positions.get(reference);
+        return position == null ? -1 : position;
+    }
+
+    /**
+     * @param reference the reference of a variable
+     * @return true if the variable is in this index
+     */
+    public boolean contains(VariableReference reference) {
+        return positions.containsKey(reference);
+    }
+
+    /**
+     * @param valuesByVariable a value for every variable in this index
+     * @param into             the array to write the values to, by position
+     * @param <T>              the type of the values
+     * @return the given array
+     * @throws IllegalArgumentException if a variable does not have a value
+     */
+    public <T> T[] toArray(Map<? extends VariableReference, ? extends T> valuesByVariable, T[] into) {
+        Preconditions.checkArgument(into.length == variables.size(),
+            "Array of length %s does not match index of %s variables", into.length, variables.size()
+        );
+        for (int i = 0; i < variables.size(); i++) {
+            VariableReference reference = variables.get(i).getReference();
+            T value = valuesByVariable.get(reference);
+            Preconditions.checkArgument(value != null || valuesByVariable.containsKey(reference), "No value for variable %s", reference);
+            into[i] = value;
+        }
+        return into;
+    }
+
+    /**
+     * @param valuesByPosition a value for every variable in this index, by position
+     * @param <T>              the type of the values
+     * @return the values keyed by the reference of each variable
+     */
+    public <T> Map<VariableReference, T> toMap(T[] valuesByPosition) {
+        Preconditions.checkArgument(valuesByPosition.length == variables.size(),
+            "Array of length %s does not match index of %s variables", valuesByPosition.length, variables.size()
+        );
+        Map<VariableReference, T> valuesByVariable = new HashMap<>();
+        for (int i = 0; i < variables.size(); i++) {
+            valuesByVariable.put(variables.get(i).getReference(), valuesByPosition[i]);
+        }
+        return valuesByVariable;
+    }
+}
@@ -0,0 +1,65 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+
+/**
+ * A column of {@link BooleanTensor} samples stored in a single primitive boolean array.
+ */
+public class BooleanTensorSampleColumn extends SampleColumn<BooleanTensor, BooleanColumnStore> {
+
+    public BooleanTensorSampleColumn() {
+        super(new BooleanColumnStore());
+    }
+
+    private BooleanTensorSampleColumn(BooleanColumnStore store, int start, int step, int size) {
+        super(store, start, step, size);
+    }
+
+    @Override
+    protected BooleanTensor getSample(int sample) {
+        ColumnStore.Block block = store.blockOf(sample);
+        boolean[] values = store.get(ColumnStore.firstElementOf(sample, block), block.getSampleLength());
+        return BooleanTensor.create(values, store.getSampleShape(sample));
+    }
+
+    @Override
+    protected void appendSample(BooleanTensor value) {
+        store.append(value.asFlatBooleanArray(), value.getShape());
+    }
+
+    @Override
+    protected BooleanTensorSampleColumn createView(int start, int step, int size) {
+        return new BooleanTensorSampleColumn(store, start, step, size);
+    }
+
+    @Override
+    public BooleanTensorSampleColumn subList(int fromIndex, int toIndex) {
+        return (BooleanTensorSampleColumn) super.subList(fromIndex, toIndex);
+    }
+
+    @Override
+    public BooleanTensorSampleColumn downSample(int downSampleInterval) {
+        return (BooleanTensorSampleColumn) super.downSample(downSampleInterval);
+    }
+
+    /**
+     * @return the samples stacked along a new leading dimension. All samples must have the same shape.
+     */
+    public BooleanTensor asTensor() {
+        Preconditions.checkState(hasSingleShape(), "Samples must all have the same shape.");
+        Preconditions.checkState(!isEmpty(), "No samples exist.");
+        long[] sampleShape = store.getSampleShape(sampleIndexOf(0));
+        int sampleLength = TensorShape.getLengthAsInt(sampleShape);
+        boolean[] stacked = new boolean[size() * sampleLength];
+        for (int i = 0; i < size(); i++) {
+            int sample = sampleIndexOf(i);
+            long firstElement = ColumnStore.firstElementOf(sample, store.blockOf(sample));
+            for (int j = 0; j < sampleLength; j++) {
+                stacked[i * sampleLength + j] = store.get(firstElement + j);
+            }
+        }
+        return BooleanTensor.create(stacked, TensorShape.concat(new long[]{size()}, sampleShape));
+    }
+}
@@ -0,0 +1,162 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import io.improbable.keanu.tensor.TensorShape;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only primitive storage for the samples of a single variable.
+ * <p>
+ * The values of every sample are stored back to back. Consecutive samples with the same shape form a block, so the
+ * position of any sample can be calculated from its block without storing an offset per sample.
+ */
+public abstract class ColumnStore {
+
+    private static final int MAX_ARRAY_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private final List<Block> blocks = new ArrayList<>();
+    private int sampleCount = 0;
+    private long elementCount = 0;
+
+    @AllArgsConstructor
+    @Getter
+    public static class BlockDescription {
+        private final long[] shape;
+        private final int sampleCount;
+    }
+
+    @AllArgsConstructor
+    @Getter
+    static class Block {
+        private final long[] shape;
+        private final int sampleLength;
+        private final int firstSample;
+        private final long firstElement;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    /**
+     * @return true if every sample in this store has the same shape
+     */
+    public boolean hasSingleShape() {
+        return blocks.size() <= 1;
+    }
+
+    /**
+     * @param sample the index of a sample in this store
+     * @return the shape of that sample
+     */
+    public long[] getSampleShape(int sample) {
+        long[] shape = blockOf(sample).getShape();
+        return Arrays.copyOf(shape, shape.length);
+    }
+
+    /**
+     * Reserves space for the values of a new sample.
+     *
+     * @param shape the shape of the new sample
+     * @return the index of the first element of the new sample
+     */
+    protected long appendSample(long[] shape) {
+        Block last = blocks.isEmpty() ? null : blocks.get(blocks.size() - 1);
+
+        if (last == null || !Arrays.equals(last.getShape(), shape)) {
+            last = new Block(Arrays.copyOf(shape, shape.length), TensorShape.getLengthAsInt(shape), sampleCount, elementCount);
+            blocks.add(last);
+        }
+
+        long firstElement = elementCount;
+        long newElementCount = elementCount + last.getSampleLength();
+        ensureCapacity(newElementCount);
+
+        elementCount = newElementCount;
+        sampleCount++;
+        return firstElement;
+    }
+
+    /**
+     * @param elementCount the number of elements that the store must be able to hold
+     */
+    protected abstract void ensureCapacity(long elementCount);
+
+    /**
+     * @param currentCapacity  the current capacity of an array backed store
+     * @param requiredCapacity the capacity that the store must grow to
+     * @return the capacity to grow the array to
+     * @throws IllegalStateException if the required capacity is too large for an array
+     */
+    protected static int grownArrayCapacity(int currentCapacity, long requiredCapacity) {
+        if (requiredCapacity > MAX_ARRAY_CAPACITY) {
+            throw new IllegalStateException(
+                "Too many sample values to hold in memory. Consider spilling samples to disk."
+            );
+        }
+        long grown = (long) currentCapacity + (currentCapacity >> 1) + 1;
+        return (int) Math.min(MAX_ARRAY_CAPACITY, Math.max(grown, requiredCapacity));
+    }
+
+    /**
+     * @return the shape and number of samples of each block, in order
+     */
+    public List<BlockDescription> describeBlocks() {
+        List<BlockDescription> descriptions = new ArrayList<>(blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            int nextFirstSample = i + 1 < blocks.size() ? blocks.get(i + 1).getFirstSample() : sampleCount;
+            Block block = blocks.get(i);
+            descriptions.add(new BlockDescription(
+                Arrays.copyOf(block.getShape(), block.getShape().length),
+                nextFirstSample - block.getFirstSample()
+            ));
+        }
+        return descriptions;
+    }
+
+    /**
+     * Registers samples whose values are already present in the store, e.g. when reopening a store on disk.
+     *
+     * @param blockDescriptions the shape and number of samples of each block, in order
+     */
+    protected void restoreBlocks(List<BlockDescription> blockDescriptions) {
+        for (BlockDescription description : blockDescriptions) {
+            long[] shape = description.getShape();
+            Block block = new Block(Arrays.copyOf(shape, shape.length), TensorShape.getLengthAsInt(shape), sampleCount, elementCount);
+            blocks.add(block);
+            sampleCount += description.getSampleCount();
+            elementCount += (long) description.getSampleCount() * block.getSampleLength();
+        }
+        ensureCapacity(elementCount);
+    }
+
+    Block blockOf(int sample) {
+        if (blocks.size() == 1) {
+            return blocks.get(0);
+        }
+
+        int low = 0;
+        int high = blocks.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (blocks.get(mid).getFirstSample() <= sample) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return blocks.get(low);
+    }
+
+    static long firstElementOf(int sample, Block block) {
+        return block.getFirstElement() + (long) (sample - block.getFirstSample()) * block.getSampleLength();
+    }
+}
@@ -0,0 +1,44 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
+
+import java.util.Arrays;
+
+/**
+ * A {@link ColumnStore} of double sample values. Where the values are kept is left to the implementation.
+ */
+public abstract class DoubleColumnStore extends ColumnStore {
+
+    public void append(double value) {
+        long firstElement = appendSample(Tensor.SCALAR_SHAPE);
+        set(firstElement, value);
+    }
+
+    public void append(double[] values, long[] shape) {
+        Preconditions.checkArgument(values.length == TensorShape.getLength(shape),
+            "Length of values %s does not match shape %s", values.length, Arrays.toString(shape)
+        );
+        long firstElement = appendSample(shape);
+        set(firstElement, values);
+    }
+
+    public abstract double get(long element);
+
+    public double[] get(long firstElement, int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = get(firstElement + i);
+        }
+        return values;
+    }
+
+    protected abstract void set(long element, double value);
+
+    protected void set(long firstElement, double[] values) {
+        for (int i = 0; i < values.length; i++) {
+            set(firstElement + i, values[i]);
+        }
+    }
+}
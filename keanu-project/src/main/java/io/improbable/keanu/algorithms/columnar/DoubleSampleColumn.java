@@ -0,0 +1,57 @@
+package io.improbable.keanu.algorithms.columnar;
+
+/**
+ * A column of scalar double samples, such as the log probability of each sample, stored in a primitive
+ * {@link DoubleColumnStore}.
+ */
+public class DoubleSampleColumn extends SampleColumn<Double, DoubleColumnStore> {
+
+    public DoubleSampleColumn() {
+        super(new HeapDoubleColumnStore());
+    }
+
+    /**
+     * @param store the store to read samples from and append samples to
+     */
+    public DoubleSampleColumn(DoubleColumnStore store) {
+        super(store);
+    }
+
+    private DoubleSampleColumn(DoubleColumnStore store, int start, int step, int size) {
+        super(store, start, step, size);
+    }
+
+    /**
+     * @param index index of a sample in this column
+     * @return the unboxed value of that sample
+     */
+    public double getDouble(int index) {
+        int sample = sampleIndexOf(index);
+        return store.get(ColumnStore.firstElementOf(sample, store.blockOf(sample)));
+    }
+
+    @Override
+    protected Double getSample(int sample) {
+        return store.get(ColumnStore.firstElementOf(sample, store.blockOf(sample)));
+    }
+
+    @Override
+    protected void appendSample(Double value) {
+        store.append(value);
+    }
+
+    @Override
+    protected DoubleSampleColumn createView(int start, int step, int size) {
+        return new DoubleSampleColumn(store, start, step, size);
+    }
+
+    @Override
+    public DoubleSampleColumn subList(int fromIndex, int toIndex) {
+        return (DoubleSampleColumn) super.subList(fromIndex, toIndex);
+    }
+
+    @Override
+    public DoubleSampleColumn downSample(int downSampleInterval) {
+        return (DoubleSampleColumn) super.downSample(downSampleInterval);
+    }
+}
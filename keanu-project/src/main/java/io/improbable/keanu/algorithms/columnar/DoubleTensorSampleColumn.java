@@ -0,0 +1,131 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+/**
+ * A column of {@link DoubleTensor} samples stored in a primitive {@link DoubleColumnStore}.
+ */
+public class DoubleTensorSampleColumn extends SampleColumn<DoubleTensor, DoubleColumnStore> {
+
+    public DoubleTensorSampleColumn() {
+        super(new HeapDoubleColumnStore());
+    }
+
+    /**
+     * @param store the store to read samples from and append samples to
+     */
+    public DoubleTensorSampleColumn(DoubleColumnStore store) {
+        super(store);
+    }
+
+    private DoubleTensorSampleColumn(DoubleColumnStore store, int start, int step, int size) {
+        super(store, start, step, size);
+    }
+
+    @Override
+    protected DoubleTensor getSample(int sample) {
+        ColumnStore.Block block = store.blockOf(sample);
+        double[] values = store.get(ColumnStore.firstElementOf(sample, block), block.getSampleLength());
+        return DoubleTensor.create(values, store.getSampleShape(sample));
+    }
+
+    @Override
+    protected void appendSample(DoubleTensor value) {
+        store.append(value.asFlatDoubleArray(), value.getShape());
+    }
+
+    @Override
+    protected DoubleTensorSampleColumn createView(int start, int step, int size) {
+        return new DoubleTensorSampleColumn(store, start, step, size);
+    }
+
+    @Override
+    public DoubleTensorSampleColumn subList(int fromIndex, int toIndex) {
+        return (DoubleTensorSampleColumn) super.subList(fromIndex, toIndex);
+    }
+
+    @Override
+    public DoubleTensorSampleColumn downSample(int downSampleInterval) {
+        return (DoubleTensorSampleColumn) super.downSample(downSampleInterval);
+    }
+
+    /**
+     * @param flatIndex the flat index of an element within a sample
+     * @return the value of that element in every sample of this column
+     */
+    public double[] valuesAt(int flatIndex) {
+        double[] values = new double[size()];
+        for (int i = 0; i < values.length; i++) {
+            int sample = sampleIndexOf(i);
+            values[i] = store.get(ColumnStore.firstElementOf(sample, store.blockOf(sample)) + flatIndex);
+        }
+        return values;
+    }
+
+    /**
+     * @return the element-wise mean of the samples. All samples must have the same shape.
+     */
+    public DoubleTensor mean() {
+        long[] sampleShape = sampleShape();
+        double[] sums = sums(false);
+        int n = size();
+        for (int j = 0; j < sums.length; j++) {
+            sums[j] /= n;
+        }
+        return DoubleTensor.create(sums, sampleShape);
+    }
+
+    /**
+     * @return the element-wise unbiased variance of the samples. All samples must have the same shape.
+     */
+    public DoubleTensor variance() {
+        long[] sampleShape = sampleShape();
+        double[] sums = sums(false);
+        double[] sumsOfSquares = sums(true);
+        int n = size();
+        double[] variances = new double[sums.length];
+        for (int j = 0; j < sums.length; j++) {
+            double mean = sums[j] / n;
+            variances[j] = (sumsOfSquares[j] / n - mean * mean) * n / (n - 1.);
+        }
+        return DoubleTensor.create(variances, sampleShape);
+    }
+
+    /**
+     * @return the samples stacked along a new leading dimension. All samples must have the same shape.
+     */
+    public DoubleTensor asTensor() {
+        long[] sampleShape = sampleShape();
+        int sampleLength = TensorShape.getLengthAsInt(sampleShape);
+        double[] stacked = new double[size() * sampleLength];
+        for (int i = 0; i < size(); i++) {
+            int sample = sampleIndexOf(i);
+            long firstElement = ColumnStore.firstElementOf(sample, store.blockOf(sample));
+            for (int j = 0; j < sampleLength; j++) {
+                stacked[i * sampleLength + j] = store.get(firstElement + j);
+            }
+        }
+        return DoubleTensor.create(stacked, TensorShape.concat(new long[]{size()}, sampleShape));
+    }
+
+    private long[] sampleShape() {
+        Preconditions.checkState(hasSingleShape(), "Samples must all have the same shape.");
+        Preconditions.checkState(!isEmpty(), "No samples exist.");
+        return store.getSampleShape(sampleIndexOf(0));
+    }
+
+    private double[] sums(boolean squared) {
+        ColumnStore.Block block = store.blockOf(sampleIndexOf(0));
+        double[] sums = new double[block.getSampleLength()];
+        for (int i = 0; i < size(); i++) {
+            long firstElement = ColumnStore.firstElementOf(sampleIndexOf(i), block);
+            for (int j = 0; j < sums.length; j++) {
+                double value = store.get(firstElement + j);
+                sums[j] += squared ? value * value : value;
+            }
+        }
+        return sums;
+    }
+}
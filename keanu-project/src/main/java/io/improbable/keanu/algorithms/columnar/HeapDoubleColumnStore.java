@@ -0,0 +1,38 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import java.util.Arrays;
+
+/**
+ * A {@link DoubleColumnStore} that keeps sample values in a growable double array.
+ */
+public class HeapDoubleColumnStore extends DoubleColumnStore {
+
+    private double[] data = new double[0];
+
+    @Override
+    public double get(long element) {
+        return data[(int) element];
+    }
+
+    @Override
+    public double[] get(long firstElement, int length) {
+        return Arrays.copyOfRange(data, (int) firstElement, (int) firstElement + length);
+    }
+
+    @Override
+    protected void set(long element, double value) {
+        data[(int) element] = value;
+    }
+
+    @Override
+    protected void set(long firstElement, double[] values) {
+        System.arraycopy(values, 0, data, (int) firstElement, values.length);
+    }
+
+    @Override
+    protected void ensureCapacity(long elementCount) {
+        if (elementCount > data.length) {
+            data = Arrays.copyOf(data, grownArrayCapacity(data.length, elementCount));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
+
+import java.util.Arrays;
+
+/**
+ * A {@link ColumnStore} that keeps sample values in a growable int array.
+ */
+public class IntegerColumnStore extends ColumnStore {
+
+    private int[] data = new int[0];
+
+    public void append(int value) {
+        long firstElement = appendSample(Tensor.SCALAR_SHAPE);
+        data[(int) firstElement] = value;
+    }
+
+    public void append(int[] values, long[] shape) {
+        Preconditions.checkArgument(values.length == TensorShape.getLength(shape),
+            "Length of values %s does not match shape %s", values.length, Arrays.toString(shape)
+        );
+        long firstElement = appendSample(shape);
+        System.arraycopy(values, 0, data, (int) firstElement, values.length);
+    }
+
+    public int get(long element) {
+        return data[(int) element];
+    }
+
+    public int[] get(long firstElement, int length) {
+        return Arrays.copyOfRange(data, (int) firstElement, (int) firstElement + length);
+    }
+
+    @Override
+    protected void ensureCapacity(long elementCount) {
+        if (elementCount > data.length) {
+            data = Arrays.copyOf(data, grownArrayCapacity(data.length, elementCount));
+        }
+    }
+}
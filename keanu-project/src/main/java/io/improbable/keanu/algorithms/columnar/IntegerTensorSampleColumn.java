@@ -0,0 +1,91 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+
+/**
+ * A column of {@link IntegerTensor} samples stored in a single primitive int array.
+ */
+public class IntegerTensorSampleColumn extends SampleColumn<IntegerTensor, IntegerColumnStore> {
+
+    public IntegerTensorSampleColumn() {
+        super(new IntegerColumnStore());
+    }
+
+    private IntegerTensorSampleColumn(IntegerColumnStore store, int start, int step, int size) {
+        super(store, start, step, size);
+    }
+
+    @Override
+    protected IntegerTensor getSample(int sample) {
+        ColumnStore.Block block = store.blockOf(sample);
+        int[] values = store.get(ColumnStore.firstElementOf(sample, block), block.getSampleLength());
+        return IntegerTensor.create(values, store.getSampleShape(sample));
+    }
+
+    @Override
+    protected void appendSample(IntegerTensor value) {
+        store.append(value.asFlatIntegerArray(), value.getShape());
+    }
+
+    @Override
+    protected IntegerTensorSampleColumn createView(int start, int step, int size) {
+        return new IntegerTensorSampleColumn(store, start, step, size);
+    }
+
+    @Override
+    public IntegerTensorSampleColumn subList(int fromIndex, int toIndex) {
+        return (IntegerTensorSampleColumn) super.subList(fromIndex, toIndex);
+    }
+
+    @Override
+    public IntegerTensorSampleColumn downSample(int downSampleInterval) {
+        return (IntegerTensorSampleColumn) super.downSample(downSampleInterval);
+    }
+
+    /**
+     * @return the element-wise mean of the samples. All samples must have the same shape.
+     */
+    public DoubleTensor mean() {
+        long[] sampleShape = sampleShape();
+        ColumnStore.Block block = store.blockOf(sampleIndexOf(0));
+        long[] sums = new long[block.getSampleLength()];
+        for (int i = 0; i < size(); i++) {
+            long firstElement = ColumnStore.firstElementOf(sampleIndexOf(i), block);
+            for (int j = 0; j < sums.length; j++) {
+                sums[j] += store.get(firstElement + j);
+            }
+        }
+
+        double[] means = new double[sums.length];
+        for (int j = 0; j < sums.length; j++) {
+            means[j] = (double) sums[j] / size();
+        }
+        return DoubleTensor.create(means, sampleShape);
+    }
+
+    /**
+     * @return the samples stacked along a new leading dimension. All samples must have the same shape.
+     */
+    public IntegerTensor asTensor() {
+        long[] sampleShape = sampleShape();
+        int sampleLength = TensorShape.getLengthAsInt(sampleShape);
+        int[] stacked = new int[size() * sampleLength];
+        for (int i = 0; i < size(); i++) {
+            int sample = sampleIndexOf(i);
+            long firstElement = ColumnStore.firstElementOf(sample, store.blockOf(sample));
+            for (int j = 0; j < sampleLength; j++) {
+                stacked[i * sampleLength + j] = store.get(firstElement + j);
+            }
+        }
+        return IntegerTensor.create(stacked, TensorShape.concat(new long[]{size()}, sampleShape));
+    }
+
+    private long[] sampleShape() {
+        Preconditions.checkState(hasSingleShape(), "Samples must all have the same shape.");
+        Preconditions.checkState(!isEmpty(), "No samples exist.");
+        return store.getSampleShape(sampleIndexOf(0));
+    }
+}
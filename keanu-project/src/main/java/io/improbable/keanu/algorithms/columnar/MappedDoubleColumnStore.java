@@ -0,0 +1,143 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link DoubleColumnStore} that keeps sample values in a memory mapped file rather than on the heap, so the number
+ * of samples that can be stored is limited by disk space rather than by memory.
+ * <p>
+ * Values are written as little-endian doubles back to back. The file is mapped in fixed size segments as it grows,
+ * which lets the operating system page samples in and out as they are read. Mapping a segment extends the file to
+ * the end of the segment, so the file is truncated to the values written when the store is closed. The writable
+ * segments are then replaced by read-only segments that end at the end of the file, and are never read again.
+ */
+public class MappedDoubleColumnStore extends DoubleColumnStore implements Closeable {
+
+    private static final int SEGMENT_SHIFT = 20;
+    private static final long SEGMENT_ELEMENTS = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_ELEMENTS - 1;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private boolean readOnly;
+    private FileChannel channel;
+
+    private MappedDoubleColumnStore(FileChannel channel, boolean readOnly) {
+        this.channel = channel;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * @param file the file to write sample values to. Any existing content is discarded.
+     * @return an empty store that appends sample values to the file
+     */
+    public static MappedDoubleColumnStore create(Path file) {
+        try {
+            return new MappedDoubleColumnStore(FileChannel.open(file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE
+            ), false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param file   a file previously written by a store created with {@link #create(Path)}
+     * @param blocks the blocks of the samples held in the file, as returned by {@link #describeBlocks()}
+     * @return a read-only store of the samples in the file
+     */
+    public static MappedDoubleColumnStore open(Path file, List<BlockDescription> blocks) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedDoubleColumnStore store = new MappedDoubleColumnStore(channel, true);
+            store.restoreBlocks(blocks);
+            store.channel = null;
+            return store;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public double get(long element) {
+        return segments.get((int) (element >>> SEGMENT_SHIFT)).getDouble((int) (element & SEGMENT_MASK) * Double.BYTES);
+    }
+
+    @Override
+    protected void set(long element, double value) {
+        segments.get((int) (element >>> SEGMENT_SHIFT)).putDouble((int) (element & SEGMENT_MASK) * Double.BYTES, value);
+    }
+
+    @Override
+    protected void ensureCapacity(long elementCount) {
+        while ((long) segments.size() * SEGMENT_ELEMENTS < elementCount) {
+            if (channel == null) {
+                throw new IllegalStateException("Samples cannot be added to a closed or reopened store");
+            }
+            mapSegment(segments.size());
+        }
+    }
+
+    private void mapSegment(int segment) {
+        long position = segment * SEGMENT_ELEMENTS * Double.BYTES;
+        FileChannel.MapMode mode = readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
+        try {
+            long size = readOnly
+                ? Math.min(SEGMENT_ELEMENTS * Double.BYTES, channel.size() - position)
+                : SEGMENT_ELEMENTS * Double.BYTES;
+            MappedByteBuffer buffer = channel.map(mode, position, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            segments.add(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes any sample values that are still only in memory to the file.
+     */
+    public void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Flushes the store, truncates its file to the sample values written and releases its file handle. The samples
+     * in the store can still be read after it is closed but no more samples can be added.
+     */
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        flush();
+        try {
+            long elementCount = getElementCount();
+            channel.truncate(elementCount * Double.BYTES);
+
+            readOnly = true;
+            segments.clear();
+            long segmentCount = (elementCount + SEGMENT_MASK) >>> SEGMENT_SHIFT;
+            for (int segment = 0; segment < segmentCount; segment++) {
+                mapSegment(segment);
+            }
+
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.backend.StringVariableReference;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import lombok.AllArgsConstructor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes samples to memory mapped files in a directory as they are taken, and reopens them later.
+ * <p>
+ * Each double valued variable is written to its own {@link MappedDoubleColumnStore} file, as are the log
+ * probabilities of the samples. An index file records which file holds which variable and the shapes of its samples.
+ * Samples of other types are kept in memory and are not written to the directory.
+ */
+public class MappedSamples implements Closeable {
+
+    private static final String INDEX_FILE = "index.txt";
+    private static final String LOG_PROB_FILE = "logProbs.bin";
+
+    private static final String SAMPLES_ENTRY = "samples";
+    private static final String LOG_PROB_ENTRY = "logProbs";
+    private static final String VARIABLE_ENTRY = "variable";
+    private static final String TENSOR_KIND = "tensor";
+    private static final String SCALAR_KIND = "scalar";
+
+    private final Path directory;
+    private final MappedDoubleColumnStore logProbStore;
+    private final Map<VariableReference, MappedVariable> variables = new LinkedHashMap<>();
+
+    @AllArgsConstructor
+    private static class MappedVariable {
+        private final String fileName;
+        private final String kind;
+        private final MappedDoubleColumnStore store;
+    }
+
+    private MappedSamples(Path directory) {
+        this.directory = directory;
+        this.logProbStore = MappedDoubleColumnStore.create(directory.resolve(LOG_PROB_FILE));
+    }
+
+    /**
+     * @param directory the directory to write samples to. It is created if it does not exist.
+     * @return a writer of samples to that directory
+     */
+    public static MappedSamples writeTo(Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new MappedSamples(directory);
+    }
+
+    /**
+     * @return an empty list of log probabilities that is written to the directory
+     */
+    public List<Double> newLogProbColumn() {
+        return new DoubleSampleColumn(logProbStore);
+    }
+
+    /**
+     * Replaces the in memory samples of every double valued variable with samples that are written to the directory.
+     * Samples already taken are copied to the directory. This is expected to be called once the first sample has
+     * been taken, when the type of each variable's samples is known.
+     *
+     * @param samplesByVariable the samples taken so far, which is updated in place
+     */
+    public void moveToDisk(Map<VariableReference, List<?>> samplesByVariable) {
+        for (Map.Entry<VariableReference, List<?>> entry : samplesByVariable.entrySet()) {
+            if (variables.containsKey(entry.getKey()) || entry.getValue().isEmpty()) {
+                continue;
+            }
+            List<?> mapped = mappedListFor(entry.getKey(), entry.getValue().get(0));
+            if (mapped != null) {
+                addAll(mapped, entry.getValue());
+                entry.setValue(mapped);
+            }
+        }
+    }
+
+    private List<?> mappedListFor(VariableReference variable, Object firstSample) {
+        String kind;
+        if (firstSample instanceof DoubleTensor) {
+            kind = TENSOR_KIND;
+        } else if (firstSample instanceof Double) {
+            kind = SCALAR_KIND;
+        } else {
+            return null;
+        }
+
+        String fileName = "variable-" + variables.size() + ".bin";
+        MappedDoubleColumnStore store = MappedDoubleColumnStore.create(directory.resolve(fileName));
+        variables.put(variable, new MappedVariable(fileName, kind, store));
+        return columnFor(kind, store);
+    }
+
+    private static <T> void addAll(List<T> target, List<?> samples) {
+        target.addAll((List<T>) samples);
+    }
+
+    /**
+     * Flushes every sample to the directory, writes the index and closes the files for writing.
+     *
+     * @param samplesByVariable         the samples of every variable
+     * @param logOfMasterPForEachSample the log probability of each sample
+     * @param sampleCount               the number of samples taken
+     * @return the samples. Samples that were written to the directory are read from it.
+     */
+    public NetworkSamples finish(Map<VariableReference, List<?>> samplesByVariable,
+                                 List<Double> logOfMasterPForEachSample,
+                                 int sampleCount) {
+        close();
+        writeIndex(sampleCount);
+        return new NetworkSamples(samplesByVariable, logOfMasterPForEachSample, sampleCount);
+    }
+
+    /**
+     * Closes the files for writing without writing the index, for when sampling stops before it finishes. This does
+     * nothing once the samples are finished.
+     */
+    @Override
+    public void close() {
+        logProbStore.close();
+        for (MappedVariable variable : variables.values()) {
+            variable.store.close();
+        }
+    }
+
+    private void writeIndex(int sampleCount) {
+        try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8)) {
+            writeLine(writer, SAMPLES_ENTRY, Integer.toString(sampleCount));
+            writeLine(writer, LOG_PROB_ENTRY, LOG_PROB_FILE, encodeBlocks(logProbStore.describeBlocks()));
+            for (Map.Entry<VariableReference, MappedVariable> entry : variables.entrySet()) {
+                MappedVariable variable = entry.getValue();
+                writeLine(writer,
+                    VARIABLE_ENTRY,
+                    entry.getKey().toStringReference(),
+                    variable.fileName,
+                    variable.kind,
+                    encodeBlocks(variable.store.describeBlocks())
+                );
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeLine(BufferedWriter writer, String... fields) throws IOException {
+        writer.write(String.join("\t", fields));
+        writer.newLine();
+    }
+
+    /**
+     * Reopens samples previously written to a directory. Samples are read from disk as they are accessed.
+     *
+     * @param directory the directory that samples were written to
+     * @return the samples, keyed by a {@link StringVariableReference} of each variable's string reference
+     */
+    public static NetworkSamples open(Path directory) {
+        return open(directory, StringVariableReference::new);
+    }
+
+    /**
+     * Reopens samples previously written to a directory. Samples are read from disk as they are accessed.
+     *
+     * @param directory the directory that samples were written to
+     * @param variables the variables to key the samples by, matched by their string reference. Variables that
+     *                  are not in the directory are ignored.
+     * @return the samples, keyed by the given variables
+     */
+    public static NetworkSamples open(Path directory, Collection<? extends VariableReference> variables) {
+        Map<String, VariableReference> byStringReference = variables.stream()
+            .collect(Collectors.toMap(VariableReference::toStringReference, v -> v));
+        return open(directory, byStringReference::get);
+    }
+
+    private static NetworkSamples open(Path directory, Function<String, VariableReference> variableForReference) {
+        List<String[]> lines = readIndex(directory);
+        Preconditions.checkArgument(!lines.isEmpty() && lines.get(0)[0].equals(SAMPLES_ENTRY),
+            "%s does not contain a sample index", directory
+        );
+
+        int sampleCount = Integer.parseInt(lines.get(0)[1]);
+        List<Double> logOfMasterPForEachSample = null;
+        Map<VariableReference, List<?>> samplesByVariable = new HashMap<>();
+
+        for (String[] line : lines.subList(1, lines.size())) {
+            if (line[0].equals(LOG_PROB_ENTRY)) {
+                logOfMasterPForEachSample = new DoubleSampleColumn(
+                    MappedDoubleColumnStore.open(directory.resolve(line[1]), decodeBlocks(line[2]))
+                );
+            } else if (line[0].equals(VARIABLE_ENTRY)) {
+                VariableReference variable = variableForReference.apply(line[1]);
+                if (variable != null) {
+                    MappedDoubleColumnStore store = MappedDoubleColumnStore.open(directory.resolve(line[2]), decodeBlocks(line[4]));
+                    samplesByVariable.put(variable, columnFor(line[3], store));
+                }
+            }
+        }
+
+        Preconditions.checkArgument(logOfMasterPForEachSample != null,
+            "%s does not contain log probabilities", directory
+        );
+        return new NetworkSamples(samplesByVariable, logOfMasterPForEachSample, sampleCount);
+    }
+
+    private static List<String[]> readIndex(Path directory) {
+        List<String[]> lines = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    lines.add(line.split("\t", -1));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines;
+    }
+
+    private static List<?> columnFor(String kind, DoubleColumnStore store) {
+        return kind.equals(TENSOR_KIND) ? new DoubleTensorSampleColumn(store) : new DoubleSampleColumn(store);
+    }
+
+    /**
+     * Blocks are written as "shape x count" pairs separated by ';', where the shape's dimensions are separated
+     * by ',' and a scalar shape is empty, e.g. "2,3x10;x5".
+     */
+    private static String encodeBlocks(List<ColumnStore.BlockDescription> blocks) {
+        return blocks.stream()
+            .map(block -> joinShape(block.getShape()) + "x" + block.getSampleCount())
+            .collect(Collectors.joining(";"));
+    }
+
+    private static String joinShape(long[] shape) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < shape.length; i++) {
+            if (i > 0) {
+                joined.append(',');
+            }
+            joined.append(shape[i]);
+        }
+        return joined.toString();
+    }
+
+    private static List<ColumnStore.BlockDescription> decodeBlocks(String encoded) {
+        List<ColumnStore.BlockDescription> blocks = new ArrayList<>();
+        if (encoded.isEmpty()) {
+            return blocks;
+        }
+        for (String block : encoded.split(";")) {
+            int separator = block.lastIndexOf('x');
+            String dimensions = block.substring(0, separator);
+            long[] shape = dimensions.isEmpty() ? Tensor.SCALAR_SHAPE : splitShape(dimensions);
+            blocks.add(new ColumnStore.BlockDescription(shape, Integer.parseInt(block.substring(separator + 1))));
+        }
+        return blocks;
+    }
+
+    private static long[] splitShape(String dimensions) {
+        String[] parts = dimensions.split(",");
+        long[] shape = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            shape[i] = Long.parseLong(parts[i]);
+        }
+        return shape;
+    }
+}
@@ -0,0 +1,102 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * A list of samples that is backed by a primitive {@link ColumnStore} rather than by a sample object per entry.
+ * Values are only boxed into a sample object when they are read.
+ * <p>
+ * A column created with its public constructor is appendable and grows as samples are added. Sub lists and
+ * down-sampled columns are read-only views that share the store of the column they were taken from, so neither
+ * copies any sample values.
+ *
+ * @param <T> the type of the samples
+ * @param <S> the type of the store holding the sample values
+ */
+public abstract class SampleColumn<T, S extends ColumnStore> extends AbstractList<T> implements RandomAccess {
+
+    private static final int APPENDABLE = -1;
+
+    protected final S store;
+    private final int start;
+    private final int step;
+    private final int viewSize;
+
+    protected SampleColumn(S store) {
+        this(store, 0, 1, APPENDABLE);
+    }
+
+    protected SampleColumn(S store, int start, int step, int viewSize) {
+        this.store = store;
+        this.start = start;
+        this.step = step;
+        this.viewSize = viewSize;
+    }
+
+    /**
+     * @param sample index of a sample in the store
+     * @return the value of that sample
+     */
+    protected abstract T getSample(int sample);
+
+    /**
+     * @param value the value to add to the store as a new sample
+     */
+    protected abstract void appendSample(T value);
+
+    protected abstract SampleColumn<T, S> createView(int start, int step, int size);
+
+    @Override
+    public int size() {
+        return viewSize == APPENDABLE ? store.getSampleCount() - start : viewSize;
+    }
+
+    @Override
+    public T get(int index) {
+        Preconditions.checkElementIndex(index, size());
+        return getSample(sampleIndexOf(index));
+    }
+
+    @Override
+    public boolean add(T value) {
+        if (viewSize != APPENDABLE) {
+            throw new UnsupportedOperationException("Samples cannot be added to a view of a sample column");
+        }
+        appendSample(value);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public SampleColumn<T, S> subList(int fromIndex, int toIndex) {
+        Preconditions.checkPositionIndexes(fromIndex, toIndex, size());
+        return createView(start + fromIndex * step, step, toIndex - fromIndex);
+    }
+
+    /**
+     * @param downSampleInterval take one of every downSampleInterval samples, starting with the first
+     * @return a view of every downSampleInterval'th sample in this column
+     */
+    public SampleColumn<T, S> downSample(int downSampleInterval) {
+        Preconditions.checkArgument(downSampleInterval > 0, "Down sample interval of %s is invalid. Sample interval must be positive.", downSampleInterval);
+        return createView(start, step * downSampleInterval, (size() + downSampleInterval - 1) / downSampleInterval);
+    }
+
+    /**
+     * @return true if every sample in the underlying store has the same shape
+     */
+    public boolean hasSingleShape() {
+        return store.hasSingleShape();
+    }
+
+    /**
+     * @param index index of a sample in this column
+     * @return the index of that sample in the store
+     */
+    protected int sampleIndexOf(int index) {
+        return start + index * step;
+    }
+}
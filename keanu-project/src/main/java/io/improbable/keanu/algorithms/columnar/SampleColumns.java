@@ -0,0 +1,58 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import lombok.experimental.UtilityClass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@UtilityClass
+public class SampleColumns {
+
+    /**
+     * @param firstSample the first sample that will be added to the list
+     * @param <T>         the type of the samples
+     * @return an empty list for samples of the same type as the given sample. This is a primitive backed
+     * {@link SampleColumn} where one exists for the type, and an {@link ArrayList} otherwise.
+     */
+    public static <T> List<T> newListFor(T firstSample) {
+        if (firstSample instanceof DoubleTensor) {
+            return (List<T>) new DoubleTensorSampleColumn();
+        } else if (firstSample instanceof IntegerTensor) {
+            return (List<T>) new IntegerTensorSampleColumn();
+        } else if (firstSample instanceof BooleanTensor) {
+            return (List<T>) new BooleanTensorSampleColumn();
+        } else if (firstSample instanceof Double) {
+            return (List<T>) new DoubleSampleColumn();
+        } else {
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * @param samples            the samples to down-sample
+     * @param downSampleInterval take one of every downSampleInterval samples, starting with the first
+     * @param <T>                the type of the samples
+     * @return the down-sampled samples. This is a view that does not copy any samples if the samples are stored in a
+     * {@link SampleColumn}.
+     */
+    public static <T> List<T> downSample(List<T> samples, int downSampleInterval) {
+        if (samples instanceof SampleColumn) {
+            return ((SampleColumn<T, ?>) samples).downSample(downSampleInterval);
+        }
+
+        List<T> downSampled = new ArrayList<>();
+        int i = 0;
+
+        for (T sample : samples) {
+            if (i % downSampleInterval == 0) {
+                downSampled.add(sample);
+            }
+            i++;
+        }
+
+        return downSampled;
+    }
+}
@@ -0,0 +1,97 @@
+package io.improbable.keanu.algorithms.graphtraversal;
+
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The order in which vertices are updated when cascading from a set of vertices: the vertices cascaded from and
+ * their non-probabilistic descendants, in topological order.
+ * <p>
+ * The order only depends on the structure of the graph, so a plan can be calculated once and applied for every
+ * cascade from the same vertices for as long as the graph is unchanged.
+ */
+public class CascadePlan {
+
+    private final Vertex[] order;
+    private final TopologyVersion[] graphVersions;
+    private final long[] versions;
+
+    private CascadePlan(Vertex[] order, TopologyVersion[] graphVersions, long[] versions) {
+        this.order = order;
+        this.graphVersions = graphVersions;
+        this.versions = versions;
+    }
+
+    /**
+     * @param cascadeFrom the vertices that will be updated
+     * @return the plan for cascading updates from those vertices
+     */
+    public static CascadePlan of(Collection<? extends Vertex> cascadeFrom) {
+        Set<TopologyVersion> graphVersionSet = new LinkedHashSet<>();
+        for (Vertex<?, ?> vertex : cascadeFrom) {
+            graphVersionSet.add(vertex.getTopologyVersion().getGraphVersion());
+        }
+        TopologyVersion[] graphVersions = graphVersionSet.toArray(new TopologyVersion[0]);
+        long[] versions = new long[graphVersions.length];
+        for (int i = 0; i < graphVersions.length; i++) {
+            versions[i] = graphVersions[i].current();
+        }
+
+        PriorityQueue<Vertex> priorityQueue = new PriorityQueue<>(Comparator.comparing(Vertex::getId, Comparator.naturalOrder()));
+        priorityQueue.addAll(cascadeFrom);
+
+        Set<Vertex> alreadyQueued = new HashSet<>(cascadeFrom);
+        List<Vertex> order = new ArrayList<>();
+
+        while (!priorityQueue.isEmpty()) {
+            Vertex<?, ?> visiting = priorityQueue.poll();
+            order.add(visiting);
+
+            for (Vertex<?, ?> child : visiting.getChildren()) {
+
+                if (!child.isProbabilistic() && !alreadyQueued.contains(child)) {
+                    priorityQueue.offer(child);
+                    alreadyQueued.add(child);
+                }
+            }
+        }
+
+        return new CascadePlan(order.toArray(new Vertex[0]), graphVersions, versions);
+    }
+
+    /**
+     * @return true if an edge has been added to the graph of any vertex cascaded from since this plan was calculated
+     */
+    public boolean isOutOfDate() {
+        for (int i = 0; i < graphVersions.length; i++) {
+            if (graphVersions[i].current() != versions[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of vertices updated by this plan
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * Updates the value of every vertex in the plan, in order.
+     */
+    public void apply() {
+        for (Vertex vertex : order) {
+            VertexValuePropagation.updateVertexValue(vertex);
+        }
+    }
+}
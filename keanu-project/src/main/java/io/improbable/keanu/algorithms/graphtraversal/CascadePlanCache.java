@@ -0,0 +1,69 @@
+package io.improbable.keanu.algorithms.graphtraversal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers the {@link CascadePlan} for each set of vertices that are cascaded from, so that repeatedly cascading
+ * from the same vertices, as MCMC does for every proposal, does not traverse the graph each time.
+ * <p>
+ * Plans are recalculated when the structure of the graph changes. When the cache is full, the plan that was used
+ * least recently is forgotten. This class is not thread safe.
+ */
+public class CascadePlanCache {
+
+    private static final int DEFAULT_MAX_PLANS = 64;
+
+    private final Map<Set<?>, CascadePlan> plans;
+
+    public CascadePlanCache() {
+        this(DEFAULT_MAX_PLANS);
+    }
+
+    /**
+     * @param maxPlans the number of plans to remember, e.g. one for each latent vertex of a network and one for all
+     *                 of them
+     */
+    public CascadePlanCache(int maxPlans) {
+        Preconditions.checkArgument(maxPlans > 0, "Cannot remember %s plans", maxPlans);
+        this.plans = new LinkedHashMap<Set<?>, CascadePlan>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Set<?>, CascadePlan> eldest) {
+                return size() > maxPlans;
+            }
+        };
+    }
+
+    /**
+     * @param cascadeFrom the vertices that have been updated, which is also the key of their plan
+     */
+    public void cascadeUpdate(Set<? extends Vertex> cascadeFrom) {
+        cascadeUpdate(cascadeFrom, cascadeFrom);
+    }
+
+    /**
+     * @param key         anything that identifies the vertices cascaded from, e.g. their references. This must have
+     *                    the same elements whenever it identifies the same vertices.
+     * @param cascadeFrom the vertices that have been updated
+     */
+    public void cascadeUpdate(Set<?> key, Collection<? extends Vertex> cascadeFrom) {
+        getPlan(key, cascadeFrom).apply();
+    }
+
+    private CascadePlan getPlan(Set<?> key, Collection<? extends Vertex> cascadeFrom) {
+        CascadePlan plan = plans.get(key);
+
+        if (plan == null || plan.isOutOfDate()) {
+            plan = CascadePlan.of(cascadeFrom);
+            plans.put(ImmutableSet.copyOf(key), plan);
+        }
+
+        return plan;
+    }
+}
@@ -0,0 +1,62 @@
+package io.improbable.keanu.algorithms.graphtraversal;
+
+/**
+ * Counts changes to the structure of a connected graph of vertices, so that anything derived from the structure of a
+ * graph, such as a {@link CascadePlan}, can tell when it is out of date.
+ * <p>
+ * Every vertex starts with a version of its own. When an edge is added between two vertices their graphs become one,
+ * and the versions are joined so that they both refer to the version of the joined graph. Adding an edge to a graph
+ * doesn't change the version of any other graph.
+ */
+public class TopologyVersion {
+
+    private static final Object LOCK = new Object();
+
+    private volatile TopologyVersion joinedInto;
+    private volatile long version;
+    private int size = 1;
+
+    /**
+     * @return the version of the graph that this version is part of
+     */
+    public TopologyVersion getGraphVersion() {
+        TopologyVersion root = this;
+        TopologyVersion next;
+        while ((next = root.joinedInto) != null) {
+            root = next;
+        }
+        return root;
+    }
+
+    /**
+     * @return a number that changes whenever an edge is added to the graph
+     */
+    public long current() {
+        return getGraphVersion().version;
+    }
+
+    /**
+     * Records that an edge has been added between the graphs of two versions.
+     *
+     * @param from the version of the graph of the parent
+     * @param to   the version of the graph of the child
+     */
+    public static void addEdge(TopologyVersion from, TopologyVersion to) {
+        synchronized (LOCK) {
+            TopologyVersion fromRoot = from.getGraphVersion();
+            TopologyVersion toRoot = to.getGraphVersion();
+
+            if (fromRoot == toRoot) {
+                fromRoot.version++;
+                return;
+            }
+
+            TopologyVersion larger = fromRoot.size >= toRoot.size ? fromRoot : toRoot;
+            TopologyVersion smaller = larger == fromRoot ? toRoot : fromRoot;
+
+            larger.version = Math.max(larger.version, smaller.version) + 1;
+            larger.size += smaller.size;
+            smaller.joinedInto = larger;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.NetworkSample;
+import io.improbable.keanu.util.status.StatusBar;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Samples taken by a {@link SamplingAlgorithm} running on its own thread, so that consuming a sample (e.g. writing it
+ * to disk or updating a statistic) overlaps with taking the next one.
+ * <p>
+ * The sampler pushes samples into a fixed size ring buffer that the consumer takes them from, in order. When the
+ * consumer falls behind and the buffer fills, the {@link BackPressurePolicy} decides whether the sampler waits or a
+ * sample is discarded. Sampling carries on until the stream is closed, which stops the sampler thread and waits for
+ * it to finish its current step, after which the network being sampled from is no longer touched by it.
+ * <p>
+ * The network being sampled from must not be changed by any other thread while the stream is open.
+ */
+public class AsyncSampleStream implements Iterator<NetworkSample>, AutoCloseable {
+
+    private final SamplingAlgorithm algorithm;
+    private final int dropCount;
+    private final int downSampleInterval;
+    private final BackPressurePolicy backPressurePolicy;
+    private final StatusBar statusBar;
+
+    private final NetworkSample[] buffer;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    private final Thread sampler;
+
+    private int head = 0;
+    private int count = 0;
+    private long sampleCount = 0;
+    private long discardedCount = 0;
+    private boolean closed = false;
+    private Throwable samplerFailure = null;
+
+    /**
+     * Creates a stream and starts its sampler thread.
+     *
+     * @param algorithm          the algorithm to take samples with
+     * @param dropCount          the number of steps to take before the first sample
+     * @param downSampleInterval the number of steps per sample
+     * @param bufferSize         the number of samples that can be taken ahead of the consumer
+     * @param backPressurePolicy what to do with a new sample when the buffer is full
+     * @param statusBar          the status bar to report progress on
+     * @return the stream, which must be closed to stop the sampler
+     */
+    static AsyncSampleStream start(SamplingAlgorithm algorithm,
+                                   int dropCount,
+                                   int downSampleInterval,
+                                   int bufferSize,
+                                   BackPressurePolicy backPressurePolicy,
+                                   StatusBar statusBar) {
+        AsyncSampleStream stream = new AsyncSampleStream(algorithm, dropCount, downSampleInterval, bufferSize, backPressurePolicy, statusBar);
+        stream.sampler.start();
+        return stream;
+    }
+
+    private AsyncSampleStream(SamplingAlgorithm algorithm,
+                              int dropCount,
+                              int downSampleInterval,
+                              int bufferSize,
+                              BackPressurePolicy backPressurePolicy,
+                              StatusBar statusBar) {
+        Preconditions.checkArgument(bufferSize > 0, "Buffer size of %s is invalid. At least one sample must be buffered.", bufferSize);
+
+        this.algorithm = algorithm;
+        this.dropCount = dropCount;
+        this.downSampleInterval = downSampleInterval;
+        this.backPressurePolicy = backPressurePolicy;
+        this.statusBar = statusBar;
+        this.buffer = new NetworkSample[bufferSize];
+
+        this.sampler = new Thread(this::runSampler, "keanu-sampler");
+        this.sampler.setDaemon(true);
+    }
+
+    /**
+     * Waits until the sampler has taken a sample that has not been consumed.
+     *
+     * @return false if the stream has been closed
+     * @throws SamplerFailedException if the sampling algorithm failed, with what it threw as the cause
+     */
+    @Override
+    public boolean hasNext() {
+        lock.lock();
+        try {
+            while (count == 0 && !closed && samplerFailure == null) {
+                notEmpty.awaitUninterruptibly();
+            }
+            if (count == 0 && samplerFailure != null) {
+                throw new SamplerFailedException(samplerFailure);
+            }
+            return count > 0 && !closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public NetworkSample next() {
+        lock.lock();
+        try {
+            if (!hasNext()) {
+                throw new NoSuchElementException("The sample stream has been closed");
+            }
+            NetworkSample sample = buffer[head];
+            buffer[head] = null;
+            head = (head + 1) % buffer.length;
+            count--;
+            notFull.signal();
+            return sample;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the samples in the order they were taken. Closing the stream closes this.
+     */
+    public Stream<NetworkSample> stream() {
+        Spliterator<NetworkSample> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * @return the number of samples discarded because the buffer was full
+     */
+    public long getDiscardedCount() {
+        lock.lock();
+        try {
+            return discardedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the sampler and waits for it to finish the step it is taking.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notFull.signalAll();
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        if (Thread.currentThread() != sampler) {
+            boolean interrupted = false;
+            while (sampler.isAlive()) {
+                try {
+                    sampler.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        statusBar.finish();
+    }
+
+    private void runSampler() {
+        try {
+            for (int i = 0; i < dropCount && !isClosed(); i++) {
+                algorithm.step();
+            }
+
+            while (!isClosed()) {
+                for (int i = 0; i < downSampleInterval - 1; i++) {
+                    algorithm.step();
+                }
+                offer(algorithm.sample());
+            }
+        } catch (Throwable e) {
+            lock.lock();
+            try {
+                samplerFailure = e;
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void offer(NetworkSample sample) {
+        lock.lock();
+        try {
+            if (count == buffer.length) {
+                switch (backPressurePolicy) {
+                    case BLOCK:
+                        while (count == buffer.length && !closed) {
+                            notFull.awaitUninterruptibly();
+                        }
+                        break;
+                    case DROP_NEWEST:
+                        discardedCount++;
+                        return;
+                    case DROP_OLDEST:
+                        buffer[head] = null;
+                        head = (head + 1) % buffer.length;
+                        count--;
+                        discardedCount++;
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown back pressure policy " + backPressurePolicy);
+                }
+            }
+
+            if (closed) {
+                return;
+            }
+
+            buffer[(head + count) % buffer.length] = sample;
+            count++;
+            sampleCount++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        statusBar.setMessage(String.format("Sample #%,d completed", sampleCount));
+    }
+}
@@ -0,0 +1,24 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+/**
+ * What an {@link AsyncSampleStream} does with a new sample when its buffer is full because the consumer has fallen
+ * behind the sampler.
+ */
+public enum BackPressurePolicy {
+
+    /**
+     * The sampler waits until the consumer takes a sample. No samples are lost.
+     */
+    BLOCK,
+
+    /**
+     * The new sample is discarded and the sampler carries on.
+     */
+    DROP_NEWEST,
+
+    /**
+     * The oldest sample in the buffer is discarded to make room for the new one, so the consumer always sees the most
+     * recent samples.
+     */
+    DROP_OLDEST
+}
@@ -45,6 +45,9 @@ public class MetropolisHastingsStep {
     }
 
     /**
+     * A proposal that is not accepted is rejected, including when calculating its log probability throws, so that the
+     * rejection strategy always either keeps or undoes the proposal before the step returns.
+     *
      * @param chosenVariables          variables to get a proposed change for
      * @param logProbabilityBeforeStep The log of the previous state's probability
      * @param temperature              Temperature for simulated annealing. This
@@ -58,31 +61,39 @@ public class MetropolisHastingsStep {
 
         Proposal proposal = proposalDistribution.getProposal(chosenVariables, random);
         rejectionStrategy.onProposalCreated(proposal);
-        final double logProbabilityAfterStep = model.logProbAfter(proposal.getProposalTo(), logProbabilityBeforeStep);
 
-        if (!ProbabilityCalculator.isImpossibleLogProb(logProbabilityAfterStep)) {
+        boolean shouldAccept = false;
+        try {
+            final double logProbabilityAfterStep = model.logProbAfter(proposal.getProposalTo(), logProbabilityBeforeStep);
 
-            final double logProbabilityDelta = logProbabilityAfterStep - logProbabilityBeforeStep;
+            if (!ProbabilityCalculator.isImpossibleLogProb(logProbabilityAfterStep)) {
 
-            final double pqxOld = proposalDistribution.logProbAtFromGivenTo(proposal);
-            final double pqxNew = proposalDistribution.logProbAtToGivenFrom(proposal);
+                final double logProbabilityDelta = logProbabilityAfterStep - logProbabilityBeforeStep;
 
-            final double annealFactor = (1.0 / temperature);
-            final double hastingsCorrection = pqxOld - pqxNew;
-            final double logR = annealFactor * logProbabilityDelta + hastingsCorrection;
-            final double r = Math.exp(logR);
+                final double pqxOld = proposalDistribution.logProbAtFromGivenTo(proposal);
+                final double pqxNew = proposalDistribution.logProbAtToGivenFrom(proposal);
 
-            final boolean shouldAccept = r >= random.nextDouble();
+                final double annealFactor = (1.0 / temperature);
+                final double hastingsCorrection = pqxOld - pqxNew;
+                final double logR = annealFactor * logProbabilityDelta + hastingsCorrection;
+                final double r = Math.exp(logR);
 
+                shouldAccept = r >= random.nextDouble();
+
+                if (shouldAccept) {
+                    return new StepResult(true, logProbabilityAfterStep);
+                }
+            }
+
+            return new StepResult(false, logProbabilityBeforeStep);
+        } finally {
             if (shouldAccept) {
-                return new StepResult(true, logProbabilityAfterStep);
+                rejectionStrategy.onProposalAccepted(proposal);
+            } else {
+                proposalDistribution.onProposalRejected();
+                rejectionStrategy.onProposalRejected(proposal);
             }
         }
-
-        proposalDistribution.onProposalRejected();
-        rejectionStrategy.onProposalRejected(proposal);
-
-        return new StepResult(false, logProbabilityBeforeStep);
     }
 
     @Value
@@ -4,11 +4,14 @@ import com.google.common.base.Preconditions;
 import io.improbable.keanu.algorithms.NetworkSample;
 import io.improbable.keanu.algorithms.NetworkSamples;
 import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.columnar.DoubleSampleColumn;
+import io.improbable.keanu.algorithms.columnar.MappedSamples;
+import io.improbable.keanu.algorithms.statistics.ConvergenceMonitor;
 import io.improbable.keanu.util.status.PercentageComponent;
 import io.improbable.keanu.util.status.RemainingTimeComponent;
 import io.improbable.keanu.util.status.StatusBar;
 
-import java.util.ArrayList;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,10 +21,14 @@ import java.util.stream.Stream;
 
 public class NetworkSamplesGenerator {
 
+    private static final int CONVERGENCE_CHECK_INTERVAL = 100;
+
     private final SamplingAlgorithm algorithm;
 
     private int dropCount = 0;
     private int downSampleInterval = 1;
+    private Path spillDirectory = null;
+    private ConvergenceMonitor convergenceMonitor = null;
 
     private Supplier<StatusBar> statusBarSupplier;
 
@@ -71,6 +78,39 @@ public class NetworkSamplesGenerator {
         return this;
     }
 
+    public Path getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    /**
+     * @param spillDirectory a directory to write double valued samples and log probabilities to as they are taken,
+     *                       rather than holding them in memory. The samples returned by {@link #generate(int)} read
+     *                       from memory mapped files in this directory and can be reopened later with
+     *                       {@link MappedSamples#open(Path)}. If this is null then samples are held in memory.
+     * @return this NetworkSamplesGenerator set to write samples to the specified directory
+     */
+    public NetworkSamplesGenerator spillToDisk(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+        return this;
+    }
+
+    public ConvergenceMonitor getConvergenceMonitor() {
+        return convergenceMonitor;
+    }
+
+    /**
+     * @param convergenceMonitor records every collected sample of the variables it monitors, and sampling stops as
+     *                           soon as it reports that they have converged, which is checked every 100
+     *                           collected samples. The total sample count given to {@link #generate(int)} becomes
+     *                           the most samples that are taken. Samples are recorded as chain 0 of the monitor.
+     *                           If this is null then the total sample count is always taken.
+     * @return this NetworkSamplesGenerator set to stop when the monitored variables have converged
+     */
+    public NetworkSamplesGenerator stopWhenConverged(ConvergenceMonitor convergenceMonitor) {
+        this.convergenceMonitor = convergenceMonitor;
+        return this;
+    }
+
     /**
      * @param totalSampleCount The total number of samples to generate. This is the total before any dropping
      *                         or down-sampling is done. If you drop 10 and down sample 2 and request a totalSampleCount
@@ -86,30 +126,57 @@ public class NetworkSamplesGenerator {
 
         StatusBar statusBar = statusBarSupplier.get();
 
-        Map<VariableReference, List<?>> samplesByVariable = new HashMap<>();
-        List<Double> logOfMasterPForEachSample = new ArrayList<>();
-
-        dropSamples(dropCount, statusBar);
+        MappedSamples mappedSamples = spillDirectory == null ? null : MappedSamples.writeTo(spillDirectory);
+        try {
+            Map<VariableReference, List<?>> samplesByVariable = new HashMap<>();
+            List<Double> logOfMasterPForEachSample = mappedSamples == null ? new DoubleSampleColumn() : mappedSamples.newLogProbColumn();
+
+            dropSamples(dropCount, statusBar);
+
+            PercentageComponent statusPercentage = newPercentageComponentAndAddToStatusBar(statusBar);
+            RemainingTimeComponent remainingTimeComponent = new RemainingTimeComponent(totalSampleCount);
+            statusBar.addComponent(remainingTimeComponent);
+            statusBar.setMessage("Sampling...");
+            int sampleCount = 0;
+            int samplesLeft = totalSampleCount - dropCount;
+            for (int i = 0; i < samplesLeft; i++) {
+                if (i % downSampleInterval == 0) {
+                    algorithm.sample(samplesByVariable, logOfMasterPForEachSample);
+                    if (sampleCount == 0 && mappedSamples != null) {
+                        mappedSamples.moveToDisk(samplesByVariable);
+                    }
+                    sampleCount++;
+
+                    if (convergenceMonitor != null && hasConverged(samplesByVariable, sampleCount)) {
+                        statusBar.setMessage(String.format("Converged after %,d samples", sampleCount));
+                        break;
+                    }
+                } else {
+                    algorithm.step();
+                }
+                remainingTimeComponent.step();
+                statusPercentage.progress((double) (i + 1) / samplesLeft);
+            }
 
-        PercentageComponent statusPercentage = newPercentageComponentAndAddToStatusBar(statusBar);
-        RemainingTimeComponent remainingTimeComponent = new RemainingTimeComponent(totalSampleCount);
-        statusBar.addComponent(remainingTimeComponent);
-        statusBar.setMessage("Sampling...");
-        int sampleCount = 0;
-        int samplesLeft = totalSampleCount - dropCount;
-        for (int i = 0; i < samplesLeft; i++) {
-            if (i % downSampleInterval == 0) {
-                algorithm.sample(samplesByVariable, logOfMasterPForEachSample);
-                sampleCount++;
-            } else {
-                algorithm.step();
+            statusBar.finish();
+            if (mappedSamples != null) {
+                return mappedSamples.finish(samplesByVariable, logOfMasterPForEachSample, sampleCount);
+            }
+            return new NetworkSamples(samplesByVariable, logOfMasterPForEachSample, sampleCount);
+        } finally {
+            if (mappedSamples != null) {
+                mappedSamples.close();
             }
-            remainingTimeComponent.step();
-            statusPercentage.progress((double) (i + 1) / samplesLeft);
         }
+    }
 
-        statusBar.finish();
-        return new NetworkSamples(samplesByVariable, logOfMasterPForEachSample, sampleCount);
+    private boolean hasConverged(Map<VariableReference, List<?>> samplesByVariable, int sampleCount) {
+        for (VariableReference reference : convergenceMonitor.getReferences()) {
+            List<?> samples = samplesByVariable.get(reference);
+            Preconditions.checkArgument(samples != null, "Cannot monitor %s as it is not being sampled", reference);
+            convergenceMonitor.record(0, reference, samples.get(samples.size() - 1));
+        }
+        return sampleCount % CONVERGENCE_CHECK_INTERVAL == 0 && convergenceMonitor.hasConverged();
     }
 
     private PercentageComponent newPercentageComponentAndAddToStatusBar(StatusBar statusBar) {
@@ -144,6 +211,18 @@ public class NetworkSamplesGenerator {
         }).onClose(statusBar::finish);
     }
 
+    /**
+     * Starts sampling on a separate thread, so that consuming samples overlaps with taking them. The sampler drops
+     * and down-samples as {@link #stream()} does. The returned stream must be closed to stop the sampler.
+     *
+     * @param bufferSize         the number of samples that can be taken ahead of the consumer
+     * @param backPressurePolicy what to do with a new sample when the buffer is full
+     * @return the samples, in the order they are taken
+     */
+    public AsyncSampleStream streamAsync(int bufferSize, BackPressurePolicy backPressurePolicy) {
+        return AsyncSampleStream.start(algorithm, dropCount, downSampleInterval, bufferSize, backPressurePolicy, statusBarSupplier.get());
+    }
+
     private void dropSamples(int dropCount, StatusBar statusBar) {
         if (dropCount == 0) {
             return;
@@ -0,0 +1,198 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.MultiChainNetworkSamples;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.PosteriorSamplingAlgorithm;
+import io.improbable.keanu.algorithms.ProbabilisticModel;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.columnar.DoubleSampleColumn;
+import io.improbable.keanu.algorithms.columnar.SampleColumns;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.KeanuProbabilisticModel;
+import io.improbable.keanu.network.NetworkCopy;
+import io.improbable.keanu.vertices.Vertex;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Runs several independent chains of a {@link PosteriorSamplingAlgorithm} in parallel.
+ * <p>
+ * Sampling algorithms mutate the state of the vertices they sample from, so each chain samples from its own
+ * {@link NetworkCopy} of the network. Each chain is driven by its own {@link KeanuRandom}, split from the random
+ * given to this class, which keeps runs reproducible regardless of how the chains are scheduled.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ParallelChains {
+
+    @Getter
+    @NonNull
+    private final Function<KeanuRandom, ? extends PosteriorSamplingAlgorithm> algorithmForChain;
+
+    @Getter
+    @NonNull
+    private final Function<BayesianNetwork, ? extends ProbabilisticModel> modelForNetwork;
+
+    @Getter
+    private final KeanuRandom random;
+
+    @Getter
+    private final int parallelism;
+
+    public static ParallelChainsBuilder builder() {
+        return new ParallelChainsBuilder();
+    }
+
+    /**
+     * @param network     the network to sample from. This network is copied for each chain and left unchanged.
+     * @param chainCount  the number of chains to run
+     * @param sampleCount the number of samples to take in each chain
+     * @return the samples of the latent vertices from every chain
+     */
+    public MultiChainNetworkSamples getPosteriorSamples(BayesianNetwork network, int chainCount, int sampleCount) {
+        return getPosteriorSamples(network, network.getLatentVertices(), chainCount, sampleCount);
+    }
+
+    /**
+     * @param network              the network to sample from. This network is copied for each chain and left unchanged.
+     * @param verticesToSampleFrom the vertices of the network to include in the returned samples
+     * @param chainCount           the number of chains to run
+     * @param sampleCount          the number of samples to take in each chain
+     * @return the samples from every chain, keyed by the vertices of the given network
+     */
+    public MultiChainNetworkSamples getPosteriorSamples(BayesianNetwork network,
+                                                        List<? extends Vertex> verticesToSampleFrom,
+                                                        int chainCount,
+                                                        int sampleCount) {
+        Preconditions.checkArgument(chainCount > 0, "Chain count of %s is invalid. At least one chain is required.", chainCount);
+
+        List<NetworkCopy> copies = new ArrayList<>(chainCount);
+        KeanuRandom[] chainRandoms = new KeanuRandom[chainCount];
+        for (int chainId = 0; chainId < chainCount; chainId++) {
+            copies.add(NetworkCopy.of(network));
+            chainRandoms[chainId] = random.split();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Math.min(parallelism, chainCount));
+        try {
+            List<ForkJoinTask<NetworkSamples>> chains = new ArrayList<>(chainCount);
+            for (int chainId = 0; chainId < chainCount; chainId++) {
+                NetworkCopy copy = copies.get(chainId);
+                KeanuRandom chainRandom = chainRandoms[chainId];
+                chains.add(pool.submit(() -> runChain(copy, verticesToSampleFrom, chainRandom, sampleCount)));
+            }
+
+            List<NetworkSamples> samplesByChain = new ArrayList<>(chainCount);
+            for (ForkJoinTask<NetworkSamples> chain : chains) {
+                samplesByChain.add(chain.join());
+            }
+
+            return MultiChainNetworkSamples.fromChains(samplesByChain);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private NetworkSamples runChain(NetworkCopy copy,
+                                    List<? extends Vertex> verticesToSampleFrom,
+                                    KeanuRandom chainRandom,
+                                    int sampleCount) {
+
+        List<Vertex> copiedVerticesToSampleFrom = new ArrayList<>(verticesToSampleFrom.size());
+        for (Vertex vertex : verticesToSampleFrom) {
+            copiedVerticesToSampleFrom.add(copy.getCopyOf(vertex.getId()));
+        }
+
+        ProbabilisticModel model = modelForNetwork.apply(copy.getNetwork());
+        NetworkSamples samples = algorithmForChain.apply(chainRandom)
+            .getPosteriorSamples(model, copiedVerticesToSampleFrom, sampleCount);
+
+        Map<VariableReference, List<?>> samplesByOriginalVariable = new HashMap<>();
+        for (Vertex copiedVertex : copiedVerticesToSampleFrom) {
+            samplesByOriginalVariable.put(
+                copy.getOriginalOf(copiedVertex.getId()),
+                toSampleList(samples.get(copiedVertex.getId()).asList())
+            );
+        }
+
+        List<Double> logOfMasterPForEachSample = new DoubleSampleColumn();
+        for (int i = 0; i < samples.size(); i++) {
+            logOfMasterPForEachSample.add(samples.getLogOfMasterP(i));
+        }
+
+        return new NetworkSamples(samplesByOriginalVariable, logOfMasterPForEachSample, samples.size());
+    }
+
+    private static <T> List<T> toSampleList(List<T> samples) {
+        List<T> sampleList = samples.isEmpty() ? new ArrayList<>() : SampleColumns.newListFor(samples.get(0));
+        sampleList.addAll(samples);
+        return sampleList;
+    }
+
+    public static class ParallelChainsBuilder {
+        private Function<KeanuRandom, ? extends PosteriorSamplingAlgorithm> algorithmForChain;
+        private Function<BayesianNetwork, ? extends ProbabilisticModel> modelForNetwork = KeanuProbabilisticModel::new;
+        private KeanuRandom random = KeanuRandom.getDefaultRandom();
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * @param algorithmForChain creates the sampling algorithm for a chain given the chain's random number generator
+         * @return the builder for ParallelChains
+         */
+        public ParallelChainsBuilder algorithmForChain(Function<KeanuRandom, ? extends PosteriorSamplingAlgorithm> algorithmForChain) {
+            this.algorithmForChain = algorithmForChain;
+            return this;
+        }
+
+        /**
+         * @param modelForNetwork creates the probabilistic model that a chain samples from given the chain's copy of
+         *                        the network. This defaults to a {@link KeanuProbabilisticModel}.
+         * @return the builder for ParallelChains
+         */
+        public ParallelChainsBuilder modelForNetwork(Function<BayesianNetwork, ? extends ProbabilisticModel> modelForNetwork) {
+            this.modelForNetwork = modelForNetwork;
+            return this;
+        }
+
+        /**
+         * @param random the random number generator used to seed the random number generator of each chain
+         * @return the builder for ParallelChains
+         */
+        public ParallelChainsBuilder random(KeanuRandom random) {
+            this.random = random;
+            return this;
+        }
+
+        /**
+         * @param parallelism the maximum number of chains to run at the same time. This defaults to the number of
+         *                    available processors.
+         * @return the builder for ParallelChains
+         */
+        public ParallelChainsBuilder parallelism(int parallelism) {
+            if (parallelism <= 0) {
+                throw new IllegalArgumentException("Parallelism must be greater than 0");
+            }
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public ParallelChains build() {
+            return new ParallelChains(algorithmForChain, modelForNetwork, random, parallelism);
+        }
+
+        public String toString() {
+            return "ParallelChains.ParallelChainsBuilder(random=" + this.random + ", parallelism=" + this.parallelism + ")";
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.ProbabilisticModel;
+import io.improbable.keanu.algorithms.mcmc.proposal.MHStepVariableSelector;
+import io.improbable.keanu.algorithms.mcmc.proposal.PriorProposalDistribution;
+import io.improbable.keanu.algorithms.mcmc.proposal.ProposalDistribution;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.KeanuProbabilisticModel;
+import io.improbable.keanu.network.NetworkCopy;
+import io.improbable.keanu.util.status.StatusBar;
+import io.improbable.keanu.vertices.Vertex;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static io.improbable.keanu.algorithms.mcmc.proposal.MHStepVariableSelector.SINGLE_VARIABLE_SELECTOR;
+
+/**
+ * Parallel tempering (replica exchange) runs a ladder of Metropolis Hastings chains, each sampling from the posterior
+ * raised to the power of 1 / temperature. Hot chains move freely between the modes of a multimodal posterior and
+ * pass their states down the ladder through swaps between neighbouring temperatures, which are accepted with the
+ * Metropolis Hastings rule. Only the chain at a temperature of 1 samples from the posterior, so only its samples are
+ * returned.
+ * <p>
+ * Each chain samples from its own {@link NetworkCopy} of the network and is driven by its own {@link KeanuRandom},
+ * split from the random given to this class. The chains step concurrently on a {@link ForkJoinPool} between swaps.
+ */
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ParallelTempering {
+
+    private static final MHStepVariableSelector DEFAULT_VARIABLE_SELECTOR = SINGLE_VARIABLE_SELECTOR;
+    private static final double[] DEFAULT_TEMPERATURES = geometricTemperatures(4, 8.0);
+
+    @Getter
+    private final KeanuRandom random;
+
+    @Getter
+    @NonNull
+    private final Function<ProbabilisticModel, ? extends ProposalDistribution> proposalDistributionForChain;
+
+    @Getter
+    @NonNull
+    private final Supplier<? extends ProposalRejectionStrategy> rejectionStrategyForChain;
+
+    @Getter
+    private final MHStepVariableSelector variableSelector;
+
+    @Getter
+    @NonNull
+    private final Function<BayesianNetwork, ? extends ProbabilisticModel> modelForNetwork;
+
+    private final double[] temperatures;
+
+    @Getter
+    private final int stepsBetweenSwaps;
+
+    @Getter
+    private final ForkJoinPool pool;
+
+    public static ParallelTemperingBuilder builder() {
+        return new ParallelTemperingBuilder();
+    }
+
+    /**
+     * @param count          the number of temperatures
+     * @param maxTemperature the temperature of the hottest chain
+     * @return temperatures from 1 to maxTemperature that are evenly spaced in log space, which makes swaps between
+     * neighbouring temperatures roughly equally likely when the log prob is approximately Gaussian
+     */
+    public static double[] geometricTemperatures(int count, double maxTemperature) {
+        Preconditions.checkArgument(count > 0, "Temperature count of %s is invalid. At least one temperature is required.", count);
+        Preconditions.checkArgument(maxTemperature >= 1.0, "Max temperature of %s is invalid. It must be at least 1.", maxTemperature);
+
+        double[] temperatures = new double[count];
+        for (int i = 0; i < count; i++) {
+            temperatures[i] = count == 1 ? 1.0 : Math.pow(maxTemperature, (double) i / (count - 1));
+        }
+        return temperatures;
+    }
+
+    /**
+     * @return the temperature of each chain, coldest first
+     */
+    public double[] getTemperatures() {
+        return temperatures.clone();
+    }
+
+    /**
+     * @param network     the network to sample from. This network is copied for each chain and left unchanged.
+     * @param sampleCount the number of samples to take from the chain at a temperature of 1
+     * @return the samples of the latent vertices of the network
+     */
+    public NetworkSamples getPosteriorSamples(BayesianNetwork network, int sampleCount) {
+        return getPosteriorSamples(network, network.getLatentVertices(), sampleCount);
+    }
+
+    /**
+     * @param network              the network to sample from. This network is copied for each chain and left unchanged.
+     * @param verticesToSampleFrom the vertices of the network to include in the returned samples
+     * @param sampleCount          the number of samples to take from the chain at a temperature of 1
+     * @return the samples, keyed by the vertices of the given network
+     */
+    public NetworkSamples getPosteriorSamples(BayesianNetwork network,
+                                              List<? extends Vertex> verticesToSampleFrom,
+                                              int sampleCount) {
+        return generatePosteriorSamples(network, verticesToSampleFrom).generate(sampleCount);
+    }
+
+    /**
+     * @param network              the network to sample from. This network is copied for each chain and left unchanged.
+     * @param verticesToSampleFrom the vertices of the network to include in the samples
+     * @return a generator of samples from the chain at a temperature of 1, keyed by the vertices of the given network
+     */
+    public NetworkSamplesGenerator generatePosteriorSamples(BayesianNetwork network,
+                                                            List<? extends Vertex> verticesToSampleFrom) {
+        return new NetworkSamplesGenerator(setupSampler(network, verticesToSampleFrom), StatusBar::new);
+    }
+
+    private ParallelTemperingSampler setupSampler(BayesianNetwork network, List<? extends Vertex> verticesToSampleFrom) {
+        List<ParallelTemperingSampler.Chain> chains = new ArrayList<>(temperatures.length);
+        for (int i = 0; i < temperatures.length; i++) {
+            NetworkCopy copy = NetworkCopy.of(network);
+            ProbabilisticModel model = modelForNetwork.apply(copy.getNetwork());
+
+            MetropolisHastingsStep mhStep = new MetropolisHastingsStep(
+                model,
+                proposalDistributionForChain.apply(model),
+                rejectionStrategyForChain.get(),
+                random.split()
+            );
+
+            chains.add(new ParallelTemperingSampler.Chain(copy, model, mhStep, verticesToSampleFrom));
+        }
+
+        return new ParallelTemperingSampler(chains, temperatures, variableSelector, stepsBetweenSwaps, random, pool);
+    }
+
+    public static class ParallelTemperingBuilder {
+        private KeanuRandom random = KeanuRandom.getDefaultRandom();
+        private Function<ProbabilisticModel, ? extends ProposalDistribution> proposalDistributionForChain = model -> new PriorProposalDistribution();
+        private Supplier<? extends ProposalRejectionStrategy> rejectionStrategyForChain = RollBackToCachedValuesOnRejection::new;
+        private MHStepVariableSelector variableSelector = DEFAULT_VARIABLE_SELECTOR;
+        private Function<BayesianNetwork, ? extends ProbabilisticModel> modelForNetwork = KeanuProbabilisticModel::new;
+        private double[] temperatures = DEFAULT_TEMPERATURES;
+        private int stepsBetweenSwaps = 1;
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        /**
+         * @param random the random number generator used to propose swaps and to seed the random number generator
+         *               of each chain
+         * @return the builder for ParallelTempering
+         */
+        public ParallelTemperingBuilder random(KeanuRandom random) {
+            this.random = random;
+            return this;
+        }
+
+        /**
+         * @param proposalDistributionForChain creates the proposal distribution of a chain given the model the chain
+         *                                     samples from. Each chain has its own, as a proposal distribution refers
+         *                                     to the variables of one copy of the network and may adapt to its chain.
+         * @return the builder for ParallelTempering
+         */
+        public ParallelTemperingBuilder proposalDistributionForChain(Function<ProbabilisticModel, ? extends ProposalDistribution> proposalDistributionForChain) {
+            this.proposalDistributionForChain = proposalDistributionForChain;
+            return this;
+        }
+
+        /**
+         * @param rejectionStrategyForChain creates the rejection strategy of a chain
+         * @return the builder for ParallelTempering
+         */
+        public ParallelTemperingBuilder rejectionStrategyForChain(Supplier<? extends ProposalRejectionStrategy> rejectionStrategyForChain) {
+            this.rejectionStrategyForChain = rejectionStrategyForChain;
+            return this;
+        }
+
+        public ParallelTemperingBuilder variableSelector(MHStepVariableSelector variableSelector) {
+            this.variableSelector = variableSelector;
+            return this;
+        }
+
+        /**
+         * @param modelForNetwork creates the probabilistic model that a chain samples from given the chain's copy of
+         *                        the network. This defaults to a {@link KeanuProbabilisticModel}.
+         * @return the builder for ParallelTempering
+         */
+        public ParallelTemperingBuilder modelForNetwork(Function<BayesianNetwork, ? extends ProbabilisticModel> modelForNetwork) {
+            this.modelForNetwork = modelForNetwork;
+            return this;
+        }
+
+        /**
+         * @param temperatures the temperature of each chain. The first must be 1 and each must be greater than the one
+         *                     before it. This defaults to 4 temperatures from 1 to 8 (see {@link #geometricTemperatures}).
+         * @return the builder for ParallelTempering
+         */
+        public ParallelTemperingBuilder temperatures(double... temperatures) {
+            Preconditions.checkArgument(temperatures.length > 0 && temperatures[0] == 1.0,
+                "Temperatures %s are invalid. The first temperature must be 1.", Arrays.toString(temperatures)
+            );
+            for (int i = 1; i < temperatures.length; i++) {
+                Preconditions.checkArgument(temperatures[i] > temperatures[i - 1],
+                    "Temperatures %s are invalid. They must be in increasing order.", Arrays.toString(temperatures)
+                );
+            }
+            this.temperatures = temperatures.clone();
+            return this;
+        }
+
+        /**
+         * @param stepsBetweenSwaps the number of Metropolis Hastings steps each chain takes between proposed swaps,
+         *                          which is also the number of steps between samples. This defaults to 1.
+         * @return the builder for ParallelTempering
+         */
+        public ParallelTemperingBuilder stepsBetweenSwaps(int stepsBetweenSwaps) {
+            Preconditions.checkArgument(stepsBetweenSwaps > 0,
+                "Steps between swaps of %s is invalid. At least one step is required.", stepsBetweenSwaps
+            );
+            this.stepsBetweenSwaps = stepsBetweenSwaps;
+            return this;
+        }
+
+        /**
+         * @param pool the pool that the chains step on. This defaults to the common pool. If null the chains step
+         *             one after another on the sampling thread.
+         * @return the builder for ParallelTempering
+         */
+        public ParallelTemperingBuilder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        public ParallelTempering build() {
+            return new ParallelTempering(
+                random,
+                proposalDistributionForChain,
+                rejectionStrategyForChain,
+                variableSelector,
+                modelForNetwork,
+                temperatures,
+                stepsBetweenSwaps,
+                pool
+            );
+        }
+
+        public String toString() {
+            return "ParallelTempering.ParallelTemperingBuilder(random=" + this.random + ", variableSelector=" + this.variableSelector + ", temperatures=" + Arrays.toString(this.temperatures) + ", stepsBetweenSwaps=" + this.stepsBetweenSwaps + ")";
+        }
+    }
+}
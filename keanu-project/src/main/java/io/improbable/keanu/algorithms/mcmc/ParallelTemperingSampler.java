@@ -0,0 +1,179 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.NetworkSample;
+import io.improbable.keanu.algorithms.ProbabilisticModel;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.mcmc.proposal.MHStepVariableSelector;
+import io.improbable.keanu.network.NetworkCopy;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static io.improbable.keanu.algorithms.mcmc.SamplingUtil.addSampleForVariable;
+
+/**
+ * Steps the chains of {@link ParallelTempering} and proposes swaps between them.
+ * <p>
+ * A swap exchanges the temperatures of two chains rather than their states, so no values are copied between
+ * networks. Swaps are proposed between every other pair of neighbouring temperatures, alternating between the even
+ * and the odd pairs, so each chain is in at most one swap at a time.
+ */
+public class ParallelTemperingSampler implements SamplingAlgorithm {
+
+    private final List<Chain> chains;
+    private final double[] temperatures;
+    private final MHStepVariableSelector variableSelector;
+    private final int stepsBetweenSwaps;
+    private final KeanuRandom random;
+    private final ForkJoinPool pool;
+
+    private final int[] chainAtTemperature;
+    private final long[] swapsProposed;
+    private final long[] swapsAccepted;
+    private int swapRound;
+
+    ParallelTemperingSampler(List<Chain> chains,
+                             double[] temperatures,
+                             MHStepVariableSelector variableSelector,
+                             int stepsBetweenSwaps,
+                             KeanuRandom random,
+                             ForkJoinPool pool) {
+        this.chains = chains;
+        this.temperatures = temperatures;
+        this.variableSelector = variableSelector;
+        this.stepsBetweenSwaps = stepsBetweenSwaps;
+        this.random = random;
+        this.pool = pool;
+
+        this.chainAtTemperature = new int[temperatures.length];
+        for (int i = 0; i < chainAtTemperature.length; i++) {
+            chainAtTemperature[i] = i;
+        }
+        this.swapsProposed = new long[Math.max(temperatures.length - 1, 0)];
+        this.swapsAccepted = new long[swapsProposed.length];
+        this.swapRound = 0;
+    }
+
+    /**
+     * @return for each pair of neighbouring temperatures, coldest first, the proportion of proposed swaps between
+     * them that were accepted. A pair whose swaps are rarely accepted is a bottleneck in the ladder.
+     */
+    public double[] getSwapAcceptanceRates() {
+        double[] rates = new double[swapsProposed.length];
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = swapsProposed[i] == 0 ? 0.0 : (double) swapsAccepted[i] / swapsProposed[i];
+        }
+        return rates;
+    }
+
+    @Override
+    public void step() {
+        stepChains();
+        proposeSwaps();
+    }
+
+    @Override
+    public void sample(Map<VariableReference, List<?>> samplesByVariable, List<Double> logOfMasterPForEachSample) {
+        step();
+        Chain coldChain = coldChain();
+        for (int i = 0; i < coldChain.sampledVertices.size(); i++) {
+            addSampleForVariable(coldChain.sampledReferences.get(i), coldChain.sampledVertices.get(i).getValue(), samplesByVariable);
+        }
+        logOfMasterPForEachSample.add(coldChain.logProbability);
+    }
+
+    @Override
+    public NetworkSample sample() {
+        step();
+        Chain coldChain = coldChain();
+        Map<VariableReference, Object> sample = new HashMap<>();
+        for (int i = 0; i < coldChain.sampledVertices.size(); i++) {
+            sample.put(coldChain.sampledReferences.get(i), coldChain.sampledVertices.get(i).getValue());
+        }
+        return new NetworkSample(sample, coldChain.logProbability);
+    }
+
+    private Chain coldChain() {
+        return chains.get(chainAtTemperature[0]);
+    }
+
+    private void stepChains() {
+        if (pool == null || chains.size() == 1) {
+            for (int i = 0; i < chainAtTemperature.length; i++) {
+                chains.get(chainAtTemperature[i]).step(variableSelector, temperatures[i], stepsBetweenSwaps);
+            }
+            return;
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(chains.size());
+        for (int i = 0; i < chainAtTemperature.length; i++) {
+            Chain chain = chains.get(chainAtTemperature[i]);
+            double temperature = temperatures[i];
+            tasks.add(pool.submit(() -> chain.step(variableSelector, temperature, stepsBetweenSwaps)));
+        }
+
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    private void proposeSwaps() {
+        for (int i = swapRound % 2; i + 1 < chainAtTemperature.length; i += 2) {
+            Chain colder = chains.get(chainAtTemperature[i]);
+            Chain hotter = chains.get(chainAtTemperature[i + 1]);
+
+            double logR = (1.0 / temperatures[i] - 1.0 / temperatures[i + 1]) * (hotter.logProbability - colder.logProbability);
+
+            swapsProposed[i]++;
+            if (Math.exp(logR) >= random.nextDouble()) {
+                int swapped = chainAtTemperature[i];
+                chainAtTemperature[i] = chainAtTemperature[i + 1];
+                chainAtTemperature[i + 1] = swapped;
+                swapsAccepted[i]++;
+            }
+        }
+        swapRound++;
+    }
+
+    static class Chain {
+        private final List<? extends Variable> latentVariables;
+        private final MetropolisHastingsStep mhStep;
+        private final List<VariableReference> sampledReferences;
+        private final List<Vertex<?, ?>> sampledVertices;
+
+        private double logProbability;
+        private int sampleNum;
+
+        Chain(NetworkCopy copy,
+              ProbabilisticModel model,
+              MetropolisHastingsStep mhStep,
+              List<? extends Vertex> verticesToSampleFrom) {
+            this.latentVariables = model.getLatentVariables();
+            this.mhStep = mhStep;
+            this.sampledReferences = new ArrayList<>(verticesToSampleFrom.size());
+            this.sampledVertices = new ArrayList<>(verticesToSampleFrom.size());
+            for (Vertex<?, ?> vertex : verticesToSampleFrom) {
+                sampledReferences.add(vertex.getId());
+                sampledVertices.add(copy.getCopyOf(vertex.getId()));
+            }
+            this.logProbability = model.logProb();
+            this.sampleNum = 0;
+        }
+
+        void step(MHStepVariableSelector variableSelector, double temperature, int steps) {
+            for (int i = 0; i < steps; i++) {
+                Set<Variable> chosenVariables = variableSelector.select(latentVariables, sampleNum);
+                logProbability = mhStep.step(chosenVariables, logProbability, temperature).getLogProbabilityAfterStep();
+                sampleNum++;
+            }
+        }
+    }
+}
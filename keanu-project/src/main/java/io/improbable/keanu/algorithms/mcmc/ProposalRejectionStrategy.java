@@ -1,5 +1,6 @@
 package io.improbable.keanu.algorithms.mcmc;
 
+import io.improbable.keanu.algorithms.mcmc.proposal.Proposal;
 import io.improbable.keanu.algorithms.mcmc.proposal.ProposalListener;
 
 
@@ -8,4 +9,12 @@ import io.improbable.keanu.algorithms.mcmc.proposal.ProposalListener;
  * Options are {@link RollBackToCachedValuesOnRejection} and {@link RollbackAndCascadeOnRejection}.
  */
 public interface ProposalRejectionStrategy extends ProposalListener {
+
+    /**
+     * Called when {@link MetropolisHastings} accepts a proposal, after which it will not be rejected.
+     *
+     * @param proposal the accepted proposal
+     */
+    default void onProposalAccepted(Proposal proposal) {
+    }
 }
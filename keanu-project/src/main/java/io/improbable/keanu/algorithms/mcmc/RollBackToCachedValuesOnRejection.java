@@ -1,33 +1,40 @@
 package io.improbable.keanu.algorithms.mcmc;
 
+import io.improbable.keanu.algorithms.Variable;
 import io.improbable.keanu.algorithms.mcmc.proposal.Proposal;
-import io.improbable.keanu.network.LambdaSectionSnapshot;
-import io.improbable.keanu.network.NetworkSnapshot;
 import io.improbable.keanu.vertices.Vertex;
-
-import java.util.Set;
+import io.improbable.keanu.vertices.VertexUndoLog;
 
 /**
- * When a proposal is created, take a snapshot of the vertices' {@link io.improbable.keanu.network.LambdaSection}s
- * When a proposal is rejected, apply the snapshot to reset the Bayes Net to the old values.
+ * When a proposal is created, start recording the state of each vertex as it is changed in a {@link VertexUndoLog}.
+ * When a proposal is rejected, restore the recorded states to reset the Bayes Net to the old values.
+ * Only the vertices that a proposal changes are recorded, and accepting a proposal just forgets them.
  * This is more performant than {@link RollbackAndCascadeOnRejection}
  */
 public class RollBackToCachedValuesOnRejection implements ProposalRejectionStrategy {
-    private final LambdaSectionSnapshot lambdaSectionSnapshot;
-    private NetworkSnapshot networkSnapshot;
+    private final VertexUndoLog undoLog;
 
     public RollBackToCachedValuesOnRejection() {
-        lambdaSectionSnapshot = new LambdaSectionSnapshot();
+        undoLog = new VertexUndoLog();
     }
 
     @Override
     public void onProposalCreated(Proposal proposal) {
-        Set<Vertex> affectedVariables = lambdaSectionSnapshot.getAllVerticesAffectedBy(proposal.getVariablesWithProposal());
-        networkSnapshot = NetworkSnapshot.create(affectedVariables);
+        for (Variable variable : proposal.getVariablesWithProposal()) {
+            if (!(variable instanceof Vertex)) {
+                throw new IllegalArgumentException(this.getClass().getSimpleName() + " is to only be used with Keanu's Vertex");
+            }
+        }
+        undoLog.begin();
+    }
+
+    @Override
+    public void onProposalAccepted(Proposal proposal) {
+        undoLog.commit();
     }
 
     @Override
     public void onProposalRejected(Proposal proposal) {
-        networkSnapshot.apply();
+        undoLog.rollback();
     }
 }
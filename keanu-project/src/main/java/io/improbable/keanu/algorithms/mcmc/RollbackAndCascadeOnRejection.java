@@ -1,7 +1,7 @@
 package io.improbable.keanu.algorithms.mcmc;
 
 import io.improbable.keanu.algorithms.Variable;
-import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
+import io.improbable.keanu.algorithms.graphtraversal.CascadePlanCache;
 import io.improbable.keanu.algorithms.mcmc.proposal.Proposal;
 import io.improbable.keanu.vertices.Vertex;
 
@@ -15,6 +15,7 @@ import java.util.Map;
  */
 public class RollbackAndCascadeOnRejection implements ProposalRejectionStrategy {
 
+    private final CascadePlanCache cascadePlans = new CascadePlanCache();
     private Map<Vertex, Object> fromValues;
 
     @Override
@@ -40,6 +41,6 @@ public class RollbackAndCascadeOnRejection implements ProposalRejectionStrategy
             Vertex vertex = entry.getKey();
             vertex.setValue(oldValue);
         }
-        VertexValuePropagation.cascadeUpdate(fromValues.keySet());
+        cascadePlans.cascadeUpdate(fromValues.keySet());
     }
 }
@@ -0,0 +1,13 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+/**
+ * {@code SamplerFailedException} is an unchecked exception thrown to the consumer of an
+ * {@link AsyncSampleStream} when its sampling algorithm fails. The cause is what the algorithm threw.
+ */
+public class SamplerFailedException extends RuntimeException {
+
+    public SamplerFailedException(Throwable cause) {
+        super("The sampler of an async sample stream failed", cause);
+    }
+
+}
@@ -2,9 +2,9 @@ package io.improbable.keanu.algorithms.mcmc;
 
 import io.improbable.keanu.algorithms.Variable;
 import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.columnar.SampleColumns;
 import lombok.experimental.UtilityClass;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -16,8 +16,20 @@ public class SamplingUtil {
     }
 
     private static <T> void addSampleForVariable(Variable<T, ?> variable, Map<VariableReference, List<?>> samples) {
-        List<T> samplesForVariable = (List<T>) samples.computeIfAbsent(variable.getReference(), v -> new ArrayList<T>());
-        T value = variable.getValue();
+        addSampleForVariable(variable.getReference(), variable.getValue(), samples);
+    }
+
+    /**
+     * Adds a sample to the samples of a variable. The samples of variables with tensor values are stored in
+     * primitive backed {@link io.improbable.keanu.algorithms.columnar.SampleColumn}s.
+     *
+     * @param reference the variable that was sampled
+     * @param value     the sampled value
+     * @param samples   map to store sampled variable values
+     * @param <T>       the type of the sampled value
+     */
+    public static <T> void addSampleForVariable(VariableReference reference, T value, Map<VariableReference, List<?>> samples) {
+        List<T> samplesForVariable = (List<T>) samples.computeIfAbsent(reference, v -> SampleColumns.newListFor(value));
         samplesForVariable.add(value);
     }
 
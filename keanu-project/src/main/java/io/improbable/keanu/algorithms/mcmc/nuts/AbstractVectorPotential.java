@@ -0,0 +1,68 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+import java.util.Map;
+
+/**
+ * A {@link VectorPotential} whose map based {@link Potential} methods pack their arguments into vectors, so that
+ * implementations only need to provide the vector methods.
+ */
+public abstract class AbstractVectorPotential implements VectorPotential {
+
+    private VectorLayout layout;
+
+    @Override
+    public void initialize(Map<VariableReference, DoubleTensor> shapeLike) {
+        initialize(VectorLayout.of(shapeLike));
+    }
+
+    @Override
+    public void initialize(VectorLayout layout) {
+        this.layout = layout;
+        initialize(layout.getLength());
+    }
+
+    /**
+     * @param dimension the length of the vectors that this potential will be given
+     */
+    protected abstract void initialize(int dimension);
+
+    @Override
+    public void update(Map<VariableReference, DoubleTensor> position) {
+        update(pack(position));
+    }
+
+    @Override
+    public Map<VariableReference, DoubleTensor> randomMomentum(KeanuRandom random) {
+        double[] momentum = new double[layout.getLength()];
+        randomMomentum(random, momentum);
+        return layout.unpackToMap(momentum);
+    }
+
+    @Override
+    public Map<VariableReference, DoubleTensor> getVelocity(Map<VariableReference, DoubleTensor> momentum) {
+        double[] velocity = new double[layout.getLength()];
+        velocity(pack(momentum), velocity);
+        return layout.unpackToMap(velocity);
+    }
+
+    @Override
+    public double getKineticEnergy(Map<VariableReference, DoubleTensor> momentum, Map<VariableReference, DoubleTensor> velocity) {
+        return kineticEnergy(pack(momentum), pack(velocity));
+    }
+
+    private double[] pack(Map<VariableReference, DoubleTensor> values) {
+        return layout.pack(values, new double[layout.getLength()]);
+    }
+
+    protected static double dot(double[] left, double[] right) {
+        double dot = 0.0;
+        for (int i = 0; i < left.length; i++) {
+            dot += left[i] * right[i];
+        }
+        return dot;
+    }
+}
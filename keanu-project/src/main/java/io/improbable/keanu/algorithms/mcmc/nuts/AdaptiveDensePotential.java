@@ -0,0 +1,172 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.statistics.RunningCovariance;
+import io.improbable.keanu.tensor.dbl.KeanuLapack;
+
+import java.util.Arrays;
+
+/**
+ * A dense mass matrix that is the inverse of the covariance of the positions seen so far, which suits posteriors
+ * whose variables are strongly correlated.
+ * <p>
+ * The covariance is estimated with a {@link RunningCovariance}. Unlike {@link AdaptiveDiagonalPotential} the mass
+ * matrix is only updated at the end of each window of adaptionWindowSize samples, when the estimate of the last two
+ * windows is regularised towards the identity and factorised with {@link KeanuLapack#dpotrf}. The Cholesky factor
+ * L of the covariance is used to draw momentum p = L^-T z for a standard normal z, so that p has covariance equal
+ * to the mass matrix.
+ */
+public class AdaptiveDensePotential extends AbstractVectorPotential {
+
+    private static final double REGULARISATION_WEIGHT = 5.0;
+    private static final double REGULARISATION_VARIANCE = 1e-3;
+
+    private final double initialMean;
+    private final double initialVariance;
+    private final double initialWeight;
+    private final int adaptionWindowSize;
+
+    private int dimension;
+
+    /**
+     * Covariance of the positions, which is the inverse mass matrix, in row major order.
+     */
+    private double[] covariance;
+
+    /**
+     * Lower triangular Cholesky factor of the covariance, in row major order.
+     */
+    private double[] choleskyFactor;
+
+    private RunningCovariance forwardCovariance;
+    private RunningCovariance backgroundCovariance;
+
+    private long nSamples;
+
+    public AdaptiveDensePotential(double initialMean,
+                                  double initialVariance,
+                                  double initialWeight,
+                                  int adaptionWindowSize) {
+        Preconditions.checkArgument(adaptionWindowSize > 1, "Adapt window size must be greater than 1");
+        Preconditions.checkArgument(initialVariance > 0.0, "Initial variance must be greater than 0");
+        Preconditions.checkArgument(initialWeight >= 0.0, "Initial weight must be greater than or equal to 0");
+
+        this.initialMean = initialMean;
+        this.initialVariance = initialVariance;
+        this.initialWeight = initialWeight;
+        this.adaptionWindowSize = adaptionWindowSize;
+    }
+
+    @Override
+    protected void initialize(int dimension) {
+        this.dimension = dimension;
+
+        this.covariance = identityTimes(initialVariance);
+        this.choleskyFactor = identityTimes(Math.sqrt(initialVariance));
+
+        this.forwardCovariance = new RunningCovariance(dimension, initialMean, initialVariance, initialWeight);
+        this.backgroundCovariance = new RunningCovariance(dimension);
+
+        this.nSamples = 0;
+    }
+
+    private double[] identityTimes(double value) {
+        double[] matrix = new double[dimension * dimension];
+        for (int i = 0; i < dimension; i++) {
+            matrix[i * dimension + i] = value;
+        }
+        return matrix;
+    }
+
+    @Override
+    public void update(double[] position) {
+
+        forwardCovariance.add(position);
+        backgroundCovariance.add(position);
+
+        nSamples++;
+
+        if (nSamples % adaptionWindowSize == 0) {
+            setCovariance(regularised(forwardCovariance));
+            forwardCovariance = backgroundCovariance;
+            backgroundCovariance = new RunningCovariance(dimension);
+        }
+    }
+
+    /**
+     * @return the covariance shrunk towards a small multiple of the identity, which keeps it positive definite when
+     * there are few samples compared to the dimension
+     */
+    private double[] regularised(RunningCovariance runningCovariance) {
+        final double weight = runningCovariance.getWeight();
+        final double shrinkage = weight / (weight + REGULARISATION_WEIGHT);
+        final double jitter = REGULARISATION_VARIANCE * REGULARISATION_WEIGHT / (weight + REGULARISATION_WEIGHT);
+
+        double[] covariance = runningCovariance.getCovariance();
+        for (int i = 0; i < covariance.length; i++) {
+            covariance[i] *= shrinkage;
+        }
+        for (int i = 0; i < dimension; i++) {
+            covariance[i * dimension + i] += jitter;
+        }
+        return covariance;
+    }
+
+    /**
+     * Keeps the current mass matrix if the new covariance is not positive definite.
+     */
+    private void setCovariance(double[] newCovariance) {
+        double[] newCholeskyFactor = Arrays.copyOf(newCovariance, newCovariance.length);
+        if (KeanuLapack.dpotrf(KeanuLapack.Triangular.LOWER, dimension, newCholeskyFactor) != 0) {
+            return;
+        }
+        for (int i = 0; i < dimension; i++) {
+            for (int j = i + 1; j < dimension; j++) {
+                newCholeskyFactor[i * dimension + j] = 0.0;
+            }
+        }
+        this.covariance = newCovariance;
+        this.choleskyFactor = newCholeskyFactor;
+    }
+
+    @Override
+    public void randomMomentum(KeanuRandom random, double[] momentum) {
+        for (int i = 0; i < dimension; i++) {
+            momentum[i] = random.nextGaussian();
+        }
+
+        //solve L^T p = z in place by back substitution
+        for (int i = dimension - 1; i >= 0; i--) {
+            double sum = momentum[i];
+            for (int j = i + 1; j < dimension; j++) {
+                sum -= choleskyFactor[j * dimension + i] * momentum[j];
+            }
+            momentum[i] = sum / choleskyFactor[i * dimension + i];
+        }
+    }
+
+    @Override
+    public void velocity(double[] momentum, double[] velocity) {
+        for (int i = 0; i < dimension; i++) {
+            double sum = 0.0;
+            final int row = i * dimension;
+            for (int j = 0; j < dimension; j++) {
+                sum += covariance[row + j] * momentum[j];
+            }
+            velocity[i] = sum;
+        }
+    }
+
+    @Override
+    public double kineticEnergy(double[] momentum, double[] velocity) {
+        return 0.5 * dot(momentum, velocity);
+    }
+
+    /**
+     * @return the covariance of the positions, which is the inverse of the mass matrix, in row major order
+     */
+    public double[] getCovariance() {
+        return Arrays.copyOf(covariance, covariance.length);
+    }
+}
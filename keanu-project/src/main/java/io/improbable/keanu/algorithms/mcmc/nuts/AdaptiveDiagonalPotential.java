@@ -0,0 +1,127 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.KeanuRandom;
+
+import java.util.Arrays;
+
+/**
+ * The vector equivalent of {@link AdaptiveQuadraticPotential}: a diagonal mass matrix that is the inverse of the
+ * variance of the positions seen so far. The variance is estimated with Welford's online algorithm over windows of
+ * adaptionWindowSize samples, where the estimate from each window starts the next.
+ */
+public class AdaptiveDiagonalPotential extends AbstractVectorPotential {
+
+    private final double initialMean;
+    private final double initialVariance;
+    private final double initialWeight;
+    private final int adaptionWindowSize;
+
+    private double[] variance;
+    private double[] standardDeviation;
+
+    private double forwardCount;
+    private double[] forwardMean;
+    private double[] forwardM2;
+
+    private double backgroundCount;
+    private double[] backgroundMean;
+    private double[] backgroundM2;
+
+    private long nSamples;
+
+    public AdaptiveDiagonalPotential(double initialMean,
+                                     double initialVariance,
+                                     double initialWeight,
+                                     int adaptionWindowSize) {
+        Preconditions.checkArgument(adaptionWindowSize > 1, "Adapt window size must be greater than 1");
+        Preconditions.checkArgument(initialWeight >= 0.0, "Initial weight must be greater than or equal to 0");
+
+        this.initialMean = initialMean;
+        this.initialVariance = initialVariance;
+        this.initialWeight = initialWeight;
+        this.adaptionWindowSize = adaptionWindowSize;
+    }
+
+    @Override
+    protected void initialize(int dimension) {
+        variance = new double[dimension];
+        standardDeviation = new double[dimension];
+        Arrays.fill(variance, initialVariance);
+        Arrays.fill(standardDeviation, Math.sqrt(initialVariance));
+
+        forwardCount = initialWeight;
+        forwardMean = new double[dimension];
+        forwardM2 = new double[dimension];
+        Arrays.fill(forwardMean, initialMean);
+        Arrays.fill(forwardM2, initialVariance * initialWeight);
+
+        backgroundCount = 0;
+        backgroundMean = new double[dimension];
+        backgroundM2 = new double[dimension];
+
+        nSamples = 0;
+    }
+
+    @Override
+    public void update(double[] position) {
+
+        if (nSamples > 0 && nSamples % adaptionWindowSize == 0) {
+            double[] oldForwardMean = forwardMean;
+            double[] oldForwardM2 = forwardM2;
+
+            forwardCount = backgroundCount;
+            forwardMean = backgroundMean;
+            forwardM2 = backgroundM2;
+
+            backgroundCount = 0;
+            backgroundMean = oldForwardMean;
+            backgroundM2 = oldForwardM2;
+            Arrays.fill(backgroundMean, 0.0);
+            Arrays.fill(backgroundM2, 0.0);
+        }
+
+        forwardCount += 1.0;
+        backgroundCount += 1.0;
+        addSample(position, forwardCount, forwardMean, forwardM2);
+        addSample(position, backgroundCount, backgroundMean, backgroundM2);
+
+        for (int i = 0; i < variance.length; i++) {
+            variance[i] = forwardM2[i] / forwardCount;
+            standardDeviation[i] = Math.sqrt(variance[i]);
+        }
+
+        nSamples++;
+    }
+
+    private static void addSample(double[] sample, double count, double[] mean, double[] M2) {
+        for (int i = 0; i < sample.length; i++) {
+            double delta = sample[i] - mean[i];
+            mean[i] += delta / count;
+            M2[i] += delta * (sample[i] - mean[i]);
+        }
+    }
+
+    @Override
+    public void randomMomentum(KeanuRandom random, double[] momentum) {
+        for (int i = 0; i < momentum.length; i++) {
+            momentum[i] = random.nextGaussian() / standardDeviation[i];
+        }
+    }
+
+    @Override
+    public void velocity(double[] momentum, double[] velocity) {
+        for (int i = 0; i < momentum.length; i++) {
+            velocity[i] = variance[i] * momentum[i];
+        }
+    }
+
+    @Override
+    public double kineticEnergy(double[] momentum, double[] velocity) {
+        return 0.5 * dot(momentum, velocity);
+    }
+
+    public double[] getVariance() {
+        return Arrays.copyOf(variance, variance.length);
+    }
+}
@@ -63,10 +63,21 @@ class AdaptiveStepSize {
      * @return a new step size
      */
     public double adaptStepSize(Tree tree) {
+        return adaptStepSize(tree.getSumMetropolisAcceptanceProbability(), tree.getTreeSize());
+    }
+
+    /**
+     * Adapts the step size based on the acceptance of the steps taken to compute a sample
+     *
+     * @param sumMetropolisAcceptanceProbability the sum of the metropolis acceptance probability of each step
+     * @param treeSize                           the number of steps taken
+     * @return a new step size
+     */
+    public double adaptStepSize(double sumMetropolisAcceptanceProbability, int treeSize) {
 
         if (stepNum <= adaptCount) {
 
-            stepSize = Math.exp(updateLogStepSize(tree));
+            stepSize = Math.exp(updateLogStepSize(sumMetropolisAcceptanceProbability, treeSize));
 
         } else if (stepNum == adaptCount + 1) {
 
@@ -78,10 +89,10 @@ class AdaptiveStepSize {
         return stepSize;
     }
 
-    private double updateLogStepSize(Tree tree) {
+    private double updateLogStepSize(double sumMetropolisAcceptanceProbability, int treeSize) {
 
-        final double alpha = tree.getSumMetropolisAcceptanceProbability();
-        final double nuAlpha = tree.getTreeSize();
+        final double alpha = sumMetropolisAcceptanceProbability;
+        final double nuAlpha = treeSize;
 
         final double w = 1.0 / (stepNum + t0);
 
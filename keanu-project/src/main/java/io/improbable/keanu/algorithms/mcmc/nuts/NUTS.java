@@ -8,6 +8,7 @@ import io.improbable.keanu.algorithms.ProbabilisticModel;
 import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
 import io.improbable.keanu.algorithms.Statistics;
 import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableIndex;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.algorithms.mcmc.NetworkSamplesGenerator;
 import io.improbable.keanu.algorithms.mcmc.SamplingAlgorithm;
@@ -72,6 +73,8 @@ public class NUTS implements PosteriorSamplingAlgorithm {
 
     private final boolean saveStatistics;
 
+    private final boolean flatVectorsEnabled;
+
     private final Statistics statistics = new Statistics(Metrics.values());
 
     /**
@@ -92,7 +95,11 @@ public class NUTS implements PosteriorSamplingAlgorithm {
     public NetworkSamplesGenerator generatePosteriorSamples(final ProbabilisticModel model,
                                                             final List<? extends Variable> fromVariables) {
         Preconditions.checkArgument(model instanceof ProbabilisticModelWithGradient, "NUTS requires a model on which gradients can be calculated.");
-        return new NetworkSamplesGenerator(setupSampler((ProbabilisticModelWithGradient) model, fromVariables), StatusBar::new);
+        ProbabilisticModelWithGradient modelWithGradient = (ProbabilisticModelWithGradient) model;
+        SamplingAlgorithm sampler = flatVectorsEnabled ?
+            setupVectorSampler(modelWithGradient, fromVariables) :
+            setupSampler(modelWithGradient, fromVariables);
+        return new NetworkSamplesGenerator(sampler, StatusBar::new);
     }
 
     private NUTSSampler setupSampler(final ProbabilisticModelWithGradient model,
@@ -146,6 +153,60 @@ public class NUTS implements PosteriorSamplingAlgorithm {
         );
     }
 
+    private VectorNUTSSampler setupVectorSampler(final ProbabilisticModelWithGradient model,
+                                                 final List<? extends Variable> sampleFromVariables) {
+
+        Preconditions.checkArgument(!sampleFromVariables.isEmpty(), "List of variables to sample from is empty");
+
+        final VariableIndex<? extends Variable<DoubleTensor, ?>> latentVariables = model.getContinuousLatentVariableIndex();
+        final VectorLayout layout = VectorLayout.of(latentVariables);
+
+        DoubleTensor[] startingValues = new DoubleTensor[latentVariables.size()];
+        for (int i = 0; i < startingValues.length; i++) {
+            startingValues[i] = latentVariables.get(i).getValue();
+        }
+
+        double[] position = layout.pack(startingValues, new double[layout.getLength()]);
+        double[] gradient = layout.pack(model.logProbGradientsAt(startingValues), new double[layout.getLength()]);
+        double initialLogOfMasterP = model.logProb();
+
+        Preconditions.checkArgument(
+            !ProbabilityCalculator.isImpossibleLogProb(initialLogOfMasterP),
+            "Sampler starting position is invalid. Please start from a non-zero probability position."
+        );
+
+        double startingStepSize = (initialStepSize == null) ?
+            findStartingStepSize(0.25, latentVariables.getVariables()) :
+            initialStepSize;
+
+        AdaptiveStepSize stepSize = new AdaptiveStepSize(
+            startingStepSize,
+            targetAcceptanceProb,
+            adaptCount
+        );
+
+        VectorPotential vectorPotential = (VectorPotential) potential;
+        vectorPotential.initialize(layout);
+        VectorProposal initialProposal = new VectorProposal(position, gradient, initialLogOfMasterP);
+
+        return new VectorNUTSSampler(
+            sampleFromVariables,
+            model,
+            layout,
+            adaptPotentialEnabled,
+            vectorPotential,
+            adaptStepSizeEnabled,
+            stepSize,
+            adaptCount,
+            maxEnergyChange,
+            maxTreeHeight,
+            initialProposal,
+            random,
+            statistics,
+            saveStatistics
+        );
+    }
+
     public Statistics getStatistics() {
         return statistics;
     }
@@ -157,12 +218,14 @@ public class NUTS implements PosteriorSamplingAlgorithm {
         private long adaptCount = 1000;
         private boolean adaptStepSizeEnabled = true;
         private Double initialStepSize = null;
-        private Potential potential = new AdaptiveQuadraticPotential(0, 1, 10.0, 100);
+        private Potential potential = null;
         private boolean adaptPotentialEnabled = true;
         private double targetAcceptanceProb = 0.8;
         private double maxEnergyChange = 1000.0;
         private int maxTreeHeight = 10;
         private boolean saveStatistics = false;
+        private boolean flatVectorsEnabled = false;
+        private boolean denseMassMatrixEnabled = false;
 
         public NUTSBuilder random(KeanuRandom random) {
             this.random = random;
@@ -227,7 +290,10 @@ public class NUTS implements PosteriorSamplingAlgorithm {
         }
 
         /**
-         * @param potential provides mass in velocity and energy calculations
+         * @param potential provides mass in velocity and energy calculations. This defaults to an
+         *                  {@link AdaptiveQuadraticPotential}, or an {@link AdaptiveDiagonalPotential} if flat
+         *                  vectors are enabled, or an {@link AdaptiveDensePotential} if a dense mass matrix is
+         *                  enabled.
          * @return the builder for NUTS
          */
         public NUTSBuilder potential(Potential potential) {
@@ -273,16 +339,55 @@ public class NUTS implements PosteriorSamplingAlgorithm {
             return this;
         }
 
+        /**
+         * @param flatVectorsEnabled Set to true to hold the position, momentum and gradient of the latent variables
+         *                           in flat vectors rather than maps of tensors while sampling. This avoids
+         *                           allocating maps and tensors on every leapfrog step and requires the potential
+         *                           to be a {@link VectorPotential}. This defaults to false.
+         * @return the builder for NUTS
+         */
+        public NUTSBuilder flatVectorsEnabled(boolean flatVectorsEnabled) {
+            this.flatVectorsEnabled = flatVectorsEnabled;
+            return this;
+        }
+
+        /**
+         * @param denseMassMatrixEnabled Set to true to adapt a dense mass matrix from the covariance of the
+         *                               latent variables, rather than a diagonal one from their variance. This
+         *                               allows larger steps when the latent variables are strongly correlated but
+         *                               costs time quadratic in the number of latent values on each step. It only
+         *                               changes the default potential, so it has no effect if a potential is set.
+         * @return the builder for NUTS
+         */
+        public NUTSBuilder denseMassMatrixEnabled(boolean denseMassMatrixEnabled) {
+            this.denseMassMatrixEnabled = denseMassMatrixEnabled;
+            return this;
+        }
+
         public NUTS build() {
+            Potential resolvedPotential = potential;
+            if (resolvedPotential == null) {
+                if (denseMassMatrixEnabled) {
+                    resolvedPotential = new AdaptiveDensePotential(0, 1, 10.0, 100);
+                } else if (flatVectorsEnabled) {
+                    resolvedPotential = new AdaptiveDiagonalPotential(0, 1, 10.0, 100);
+                } else {
+                    resolvedPotential = new AdaptiveQuadraticPotential(0, 1, 10.0, 100);
+                }
+            }
+            if (flatVectorsEnabled && !(resolvedPotential instanceof VectorPotential)) {
+                throw new IllegalArgumentException("Flat vectors require a VectorPotential");
+            }
             return new NUTS(random, targetAcceptanceProb, adaptCount, adaptStepSizeEnabled, initialStepSize,
-                potential, adaptPotentialEnabled, maxEnergyChange, maxTreeHeight, saveStatistics);
+                resolvedPotential, adaptPotentialEnabled, maxEnergyChange, maxTreeHeight, saveStatistics, flatVectorsEnabled);
         }
 
         public String toString() {
             return "NUTS.NUTSBuilder(random=" + this.random + ", adaptCount=" + this.adaptCount +
                 ", targetAcceptanceProb=" + this.targetAcceptanceProb + ", adaptStepSizeEnabled=" +
                 this.adaptStepSizeEnabled + ", initialStepSize=" + this.initialStepSize + ", maxTreeHeight=" +
-                this.maxTreeHeight + ", saveStatistics=" + this.saveStatistics + ")";
+                this.maxTreeHeight + ", saveStatistics=" + this.saveStatistics + ", flatVectorsEnabled=" +
+                this.flatVectorsEnabled + ", denseMassMatrixEnabled=" + this.denseMassMatrixEnabled + ")";
         }
     }
 }
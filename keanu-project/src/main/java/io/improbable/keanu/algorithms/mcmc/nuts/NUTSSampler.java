@@ -7,10 +7,10 @@ import io.improbable.keanu.algorithms.Statistics;
 import io.improbable.keanu.algorithms.Variable;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.algorithms.mcmc.SamplingAlgorithm;
+import io.improbable.keanu.algorithms.mcmc.SamplingUtil;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -179,13 +179,8 @@ class NUTSSampler implements SamplingAlgorithm {
      */
     private static void addSampleFromCache(Map<VariableReference, List<?>> samples, Map<VariableReference, ?> cachedSample) {
         for (Map.Entry<VariableReference, ?> sampleEntry : cachedSample.entrySet()) {
-            addSampleForVariable(sampleEntry.getKey(), sampleEntry.getValue(), samples);
+            SamplingUtil.addSampleForVariable(sampleEntry.getKey(), sampleEntry.getValue(), samples);
         }
     }
 
-    private static <T> void addSampleForVariable(VariableReference id, T value, Map<VariableReference, List<?>> samples) {
-        List<T> samplesForVariable = (List<T>) samples.computeIfAbsent(id, v -> new ArrayList<T>());
-        samplesForVariable.add(value);
-    }
-
 }
@@ -15,6 +15,7 @@ import java.util.Map;
 
 import static io.improbable.keanu.algorithms.mcmc.SamplingAlgorithm.takeSample;
 import static io.improbable.keanu.algorithms.mcmc.nuts.VariableValues.add;
+import static io.improbable.keanu.algorithms.statistics.LogSumExp.logSumExp;
 
 
 /**
@@ -261,11 +262,6 @@ class Tree {
 
     }
 
-    public static double logSumExp(double a, double b) {
-        double max = Math.max(a, b);
-        return max + Math.log(Math.exp(a - max) + Math.exp(b - max));
-    }
-
     private SubTree treeBuilderBaseCase(final LeapfrogState leapfrogState,
                                         final int buildDirection,
                                         final double timeStep) {
@@ -324,8 +320,8 @@ class Tree {
         }
     }
 
-    private static boolean acceptOtherProposalWithProbability(double probability,
-                                                              KeanuRandom random) {
+    static boolean acceptOtherProposalWithProbability(double probability,
+                                                      KeanuRandom random) {
 
         return Math.log(random.nextDouble()) < probability;
     }
@@ -0,0 +1,173 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableIndex;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The position of each variable's values in a single flat vector. Variables are laid out back to back, in order,
+ * with each variable's values in row major order.
+ */
+public class VectorLayout {
+
+    private final VariableReference[] references;
+    private final long[][] shapes;
+    private final int[] offsets;
+    private final int length;
+
+    private VectorLayout(VariableReference[] references, long[][] shapes) {
+        this.references = references;
+        this.shapes = shapes;
+        this.offsets = new int[references.length];
+
+        int offset = 0;
+        for (int i = 0; i < references.length; i++) {
+            offsets[i] = offset;
+            offset = Math.addExact(offset, TensorShape.getLengthAsInt(shapes[i]));
+        }
+        this.length = offset;
+    }
+
+    /**
+     * @param index the variables to lay out, in the order of the index
+     * @return the layout of the variables using the shape of each variable's current value
+     */
+    public static VectorLayout of(VariableIndex<? extends Variable<DoubleTensor, ?>> index) {
+        VariableReference[] references = new VariableReference[index.size()];
+        long[][] shapes = new long[index.size()][];
+        for (int i = 0; i < references.length; i++) {
+            references[i] = index.get(i).getReference();
+            shapes[i] = index.get(i).getValue().getShape();
+        }
+        return new VectorLayout(references, shapes);
+    }
+
+    /**
+     * @param shapeLike a value for each variable to lay out, in the map's iteration order
+     * @return the layout of the variables using the shape of each value
+     */
+    public static VectorLayout of(Map<? extends VariableReference, DoubleTensor> shapeLike) {
+        VariableReference[] references = new VariableReference[shapeLike.size()];
+        long[][] shapes = new long[shapeLike.size()][];
+        int i = 0;
+        for (Map.Entry<? extends VariableReference, DoubleTensor> entry : shapeLike.entrySet()) {
+            references[i] = entry.getKey();
+            shapes[i] = entry.getValue().getShape();
+            i++;
+        }
+        return new VectorLayout(references, shapes);
+    }
+
+    /**
+     * @return the total number of values of every variable
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public int getVariableCount() {
+        return references.length;
+    }
+
+    /**
+     * @param values a value for each variable, by position
+     * @param into   the vector to write the values to
+     * @return the given vector
+     */
+    public double[] pack(DoubleTensor[] values, double[] into) {
+        Preconditions.checkArgument(values.length == references.length,
+            "Expected %s values but got %s", references.length, values.length
+        );
+        for (int i = 0; i < values.length; i++) {
+            copyInto(values[i], i, into);
+        }
+        return into;
+    }
+
+    /**
+     * @param values a value for every variable in this layout, keyed by reference
+     * @param into   the vector to write the values to
+     * @return the given vector
+     */
+    public double[] pack(Map<? extends VariableReference, DoubleTensor> values, double[] into) {
+        for (int i = 0; i < references.length; i++) {
+            DoubleTensor value = values.get(references[i]);
+            Preconditions.checkArgument(value != null, "No value for variable %s", references[i]);
+            copyInto(value, i, into);
+        }
+        return into;
+    }
+
+    private void copyInto(DoubleTensor value, int variable, double[] into) {
+        double[] flat = value.asFlatDoubleArray();
+        Preconditions.checkArgument(flat.length == lengthOf(variable),
+            "Value of length %s does not fit variable %s", flat.length, references[variable]
+        );
+        System.arraycopy(flat, 0, into, offsets[variable], flat.length);
+    }
+
+    /**
+     * @param vector a flat vector of every variable's values
+     * @return the value of each variable, by position
+     */
+    public DoubleTensor[] unpack(double[] vector) {
+        DoubleTensor[] values = new DoubleTensor[references.length];
+        for (int i = 0; i < references.length; i++) {
+            values[i] = valueOf(vector, i);
+        }
+        return values;
+    }
+
+    /**
+     * @param vector a flat vector of every variable's values
+     * @param into   a tensor for each variable, by position, whose values are overwritten. Null elements are replaced
+     *               by new tensors.
+     * @return the given tensors
+     */
+    public DoubleTensor[] unpack(double[] vector, DoubleTensor[] into) {
+        Preconditions.checkArgument(into.length == references.length,
+            "Expected %s tensors but got %s", references.length, into.length
+        );
+        for (int i = 0; i < references.length; i++) {
+            if (into[i] == null) {
+                into[i] = valueOf(vector, i);
+            } else {
+                Tensor.FlattenedView<Double> values = into[i].getFlattenedView();
+                int length = lengthOf(i);
+                for (int j = 0; j < length; j++) {
+                    values.set(j, vector[offsets[i] + j]);
+                }
+            }
+        }
+        return into;
+    }
+
+    /**
+     * @param vector a flat vector of every variable's values
+     * @return the value of each variable, keyed by reference
+     */
+    public Map<VariableReference, DoubleTensor> unpackToMap(double[] vector) {
+        Map<VariableReference, DoubleTensor> values = new HashMap<>();
+        for (int i = 0; i < references.length; i++) {
+            values.put(references[i], valueOf(vector, i));
+        }
+        return values;
+    }
+
+    private DoubleTensor valueOf(double[] vector, int variable) {
+        double[] values = new double[lengthOf(variable)];
+        System.arraycopy(vector, offsets[variable], values, 0, values.length);
+        return DoubleTensor.create(values, shapes[variable]);
+    }
+
+    private int lengthOf(int variable) {
+        return (variable + 1 < offsets.length ? offsets[variable + 1] : length) - offsets[variable];
+    }
+}
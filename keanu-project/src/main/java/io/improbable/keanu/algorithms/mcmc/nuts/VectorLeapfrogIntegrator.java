@@ -0,0 +1,65 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+
+/**
+ * The vector equivalent of {@link LeapfrogIntegrator}, which steps a {@link VectorLeapfrogState} in place.
+ * <p>
+ * Values are only converted to tensors to evaluate the model, and the same tensors are overwritten at every step.
+ * They are left as the values of the model's latent variables, so the model must be given new values before its
+ * values are kept, as {@link VectorNUTSSampler} does before taking a sample.
+ */
+class VectorLeapfrogIntegrator {
+
+    private final VectorPotential potential;
+
+    private final VectorLayout layout;
+
+    private final DoubleTensor[] positionValues;
+
+    VectorLeapfrogIntegrator(VectorPotential potential, VectorLayout layout) {
+        this.potential = potential;
+        this.layout = layout;
+        this.positionValues = new DoubleTensor[layout.getVariableCount()];
+    }
+
+    /**
+     * Performs one leapfrog of the variables with a time delta as defined by timeStep
+     *
+     * @param state                     the state to leap from, which is updated in place
+     * @param logProbGradientCalculator the calculator for the log prob gradient
+     * @param timeStep                  the time delta
+     */
+    public void step(VectorLeapfrogState state, final ProbabilisticModelWithGradient logProbGradientCalculator, final double timeStep) {
+
+        final double halfTimeStep = timeStep / 2.0;
+
+        final double[] position = state.getPosition();
+        final double[] momentum = state.getMomentum();
+        final double[] velocity = state.getVelocity();
+        final double[] gradient = state.getGradient();
+
+        stepMomentum(halfTimeStep, momentum, gradient);
+
+        potential.velocity(momentum, velocity);
+
+        for (int i = 0; i < position.length; i++) {
+            position[i] += velocity[i] * timeStep;
+        }
+
+        DoubleTensor[] nextPositionGradient = logProbGradientCalculator.logProbGradientsAt(layout.unpack(position, positionValues));
+        layout.pack(nextPositionGradient, gradient);
+        state.setLogProb(logProbGradientCalculator.logProb());
+
+        stepMomentum(halfTimeStep, momentum, gradient);
+
+        state.updateEnergy(potential);
+    }
+
+    private static void stepMomentum(double dt, double[] momentum, double[] gradient) {
+        for (int i = 0; i < momentum.length; i++) {
+            momentum[i] += gradient[i] * dt;
+        }
+    }
+}
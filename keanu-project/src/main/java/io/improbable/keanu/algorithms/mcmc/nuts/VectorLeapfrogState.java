@@ -0,0 +1,85 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * The vector equivalent of {@link LeapfrogState}. Unlike {@link LeapfrogState} it is mutable: a
+ * {@link VectorLeapfrogIntegrator} steps it in place so that no vectors are allocated on each step.
+ */
+@Getter
+class VectorLeapfrogState {
+
+    private final double[] position;
+
+    private final double[] momentum;
+
+    private final double[] velocity;
+
+    private final double[] gradient;
+
+    private double logProb;
+
+    private double kineticEnergy;
+
+    private double energy;
+
+    private VectorLeapfrogState(double[] position, double[] momentum, double[] velocity, double[] gradient,
+                                double logProb, double kineticEnergy, double energy) {
+        this.position = position;
+        this.momentum = momentum;
+        this.velocity = velocity;
+        this.gradient = gradient;
+        this.logProb = logProb;
+        this.kineticEnergy = kineticEnergy;
+        this.energy = energy;
+    }
+
+    /**
+     * @param position  the position of the variables, which is copied
+     * @param momentum  the momentum of the variables, which is copied
+     * @param gradient  the gradient of the log probability at the position, which is copied
+     * @param logProb   the log probability at the position
+     * @param potential the potential to use for calculating velocity and kinetic energy
+     */
+    VectorLeapfrogState(double[] position,
+                        double[] momentum,
+                        double[] gradient,
+                        double logProb,
+                        VectorPotential potential) {
+        this(
+            Arrays.copyOf(position, position.length),
+            Arrays.copyOf(momentum, momentum.length),
+            new double[momentum.length],
+            Arrays.copyOf(gradient, gradient.length),
+            logProb, 0.0, 0.0
+        );
+        updateEnergy(potential);
+    }
+
+    VectorLeapfrogState copy() {
+        return new VectorLeapfrogState(
+            Arrays.copyOf(position, position.length),
+            Arrays.copyOf(momentum, momentum.length),
+            Arrays.copyOf(velocity, velocity.length),
+            Arrays.copyOf(gradient, gradient.length),
+            logProb, kineticEnergy, energy
+        );
+    }
+
+    void setLogProb(double logProb) {
+        this.logProb = logProb;
+    }
+
+    /**
+     * Recalculates the velocity, kinetic energy and energy from the momentum and log probability.
+     *
+     * @param potential the potential to use for calculating velocity and kinetic energy
+     */
+    void updateEnergy(VectorPotential potential) {
+        potential.velocity(momentum, velocity);
+        kineticEnergy = potential.kineticEnergy(momentum, velocity);
+        energy = kineticEnergy - logProb;
+    }
+}
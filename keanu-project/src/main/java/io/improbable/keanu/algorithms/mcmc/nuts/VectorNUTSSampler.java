@@ -0,0 +1,188 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.NetworkSample;
+import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
+import io.improbable.keanu.algorithms.Statistics;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.mcmc.SamplingAlgorithm;
+import io.improbable.keanu.algorithms.mcmc.SamplingUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The same algorithm as {@link NUTSSampler} with the position, momentum and gradient of the latent variables held
+ * in flat vectors, as laid out by a {@link VectorLayout}, rather than in maps of tensors.
+ * <p>
+ * Candidate positions are not sampled as they are visited. Instead the model is returned to the accepted position
+ * at the end of each step and the variables to sample from are read from it.
+ */
+@Slf4j
+class VectorNUTSSampler implements SamplingAlgorithm {
+
+    private final List<? extends Variable> sampleFromVariables;
+    private final ProbabilisticModelWithGradient logProbGradientCalculator;
+    private final VectorLayout layout;
+    private final VectorLeapfrogIntegrator leapfrogIntegrator;
+
+    private final boolean adaptPotentialEnabled;
+    private final VectorPotential potential;
+
+    private final boolean adaptStepSizeEnabled;
+    private final AdaptiveStepSize stepSize;
+
+    private final long adaptCount;
+
+    private long stepCount;
+
+    private final int maxTreeHeight;
+
+    private VectorProposal proposal;
+
+    private final double[] initialMomentum;
+
+    private final KeanuRandom random;
+
+    private final double maxEnergyChange;
+
+    private final Statistics statistics;
+    private final boolean saveStatistics;
+
+    /**
+     * @param sampleFromVariables       variables to sample from
+     * @param logProbGradientCalculator gradient calculator for diff of log prob with respect to latents
+     * @param layout                    the layout of the continuous latent variables of the model
+     * @param adaptPotentialEnabled     enable the potential adaption
+     * @param potential                 provides mass in velocity and energy calculations
+     * @param adaptStepSizeEnabled      enable the NUTS step size adaptation
+     * @param stepSize                  configuration for tuning the stepSize, if adaptStepSizeEnabled
+     * @param adaptCount                number of steps to adapt potential and step size
+     * @param maxEnergyChange           the maximum change in energy before a step is considered divergent
+     * @param maxTreeHeight             The largest tree height before stopping the Hamiltonian process
+     * @param initialProposal           the starting proposal for the tree
+     * @param random                    the source of randomness
+     * @param statistics                the sampler statistics
+     * @param saveStatistics            whether to record statistics
+     */
+    public VectorNUTSSampler(List<? extends Variable> sampleFromVariables,
+                             ProbabilisticModelWithGradient logProbGradientCalculator,
+                             VectorLayout layout,
+                             boolean adaptPotentialEnabled,
+                             VectorPotential potential,
+                             boolean adaptStepSizeEnabled,
+                             AdaptiveStepSize stepSize,
+                             long adaptCount,
+                             double maxEnergyChange,
+                             int maxTreeHeight,
+                             VectorProposal initialProposal,
+                             KeanuRandom random,
+                             Statistics statistics,
+                             boolean saveStatistics) {
+
+        this.sampleFromVariables = sampleFromVariables;
+        this.logProbGradientCalculator = logProbGradientCalculator;
+        this.layout = layout;
+        this.leapfrogIntegrator = new VectorLeapfrogIntegrator(potential, layout);
+
+        this.adaptPotentialEnabled = adaptPotentialEnabled;
+        this.potential = potential;
+
+        this.adaptStepSizeEnabled = adaptStepSizeEnabled;
+        this.stepSize = stepSize;
+
+        this.adaptCount = adaptCount;
+        this.stepCount = 0;
+
+        this.maxEnergyChange = maxEnergyChange;
+        this.maxTreeHeight = maxTreeHeight;
+
+        this.proposal = initialProposal;
+        this.initialMomentum = new double[layout.getLength()];
+
+        this.random = random;
+        this.statistics = statistics;
+        this.saveStatistics = saveStatistics;
+    }
+
+    @Override
+    public void sample(Map<VariableReference, List<?>> samples, List<Double> logOfMasterPForEachSample) {
+        step();
+        moveModelToProposal();
+        for (Variable variable : sampleFromVariables) {
+            SamplingUtil.addSampleForVariable(variable.getReference(), variable.getValue(), samples);
+        }
+        logOfMasterPForEachSample.add(proposal.getLogProb());
+    }
+
+    @Override
+    public NetworkSample sample() {
+        step();
+        moveModelToProposal();
+        return new NetworkSample(SamplingAlgorithm.takeSample(sampleFromVariables), proposal.getLogProb());
+    }
+
+    /**
+     * The log prob of the proposal is already known from the tree, so the model is only given the proposal's values.
+     */
+    private void moveModelToProposal() {
+        logProbGradientCalculator.setContinuousLatentValues(layout.unpack(proposal.getPosition()));
+    }
+
+    @Override
+    public void step() {
+
+        potential.randomMomentum(random, initialMomentum);
+
+        VectorLeapfrogState startState = new VectorLeapfrogState(
+            proposal.getPosition(),
+            initialMomentum,
+            proposal.getGradient(),
+            proposal.getLogProb(),
+            potential
+        );
+
+        VectorTree tree = new VectorTree(
+            startState,
+            proposal,
+            maxEnergyChange,
+            logProbGradientCalculator,
+            leapfrogIntegrator,
+            random
+        );
+
+        while (tree.shouldContinue() && tree.getTreeHeight() < maxTreeHeight) {
+
+            //build tree direction -1 = backwards OR 1 = forwards
+            int buildDirection = random.nextBoolean() ? 1 : -1;
+
+            tree.grow(buildDirection, stepSize.getStepSize());
+        }
+
+        this.proposal = tree.getProposal();
+
+        if (saveStatistics) {
+            stepSize.save(statistics);
+            tree.save(statistics);
+        }
+
+        if (this.adaptStepSizeEnabled) {
+            stepSize.adaptStepSize(tree.getSumMetropolisAcceptanceProbability(), tree.getTreeSize());
+        }
+
+        if (stepCount < adaptCount && this.adaptPotentialEnabled) {
+            potential.update(proposal.getPosition());
+        }
+
+        if (stepCount > adaptCount) {
+            if (tree.isDiverged()) {
+                statistics.store(NUTS.Metrics.DIVERGENT_SAMPLE, (double) stepCount);
+                log.warn("Divergent NUTS sample after adaption ended. Increase the number or samples to adapt for or the max energy change.");
+            }
+        }
+
+        stepCount++;
+    }
+}
@@ -0,0 +1,29 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import io.improbable.keanu.KeanuRandom;
+
+/**
+ * A {@link Potential} that can also work on flat vectors of every variable's values, as laid out by a
+ * {@link VectorLayout}. Vector methods write their results into arrays provided by the caller so that no
+ * allocation is needed on each leapfrog step.
+ */
+public interface VectorPotential extends Potential {
+
+    void initialize(VectorLayout layout);
+
+    void update(double[] position);
+
+    /**
+     * @param random   the source of randomness
+     * @param momentum the vector to write the random momentum to
+     */
+    void randomMomentum(KeanuRandom random, double[] momentum);
+
+    /**
+     * @param momentum the momentum of every variable
+     * @param velocity the vector to write the velocity to
+     */
+    void velocity(double[] momentum, double[] velocity);
+
+    double kineticEnergy(double[] momentum, double[] velocity);
+}
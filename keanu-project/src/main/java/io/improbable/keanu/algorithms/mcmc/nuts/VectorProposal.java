@@ -0,0 +1,16 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import lombok.Value;
+
+/**
+ * The vector equivalent of {@link Proposal}. The sample of the variables to sample from is only taken once a
+ * proposal has been accepted, rather than for every candidate.
+ */
+@Value
+class VectorProposal {
+
+    private final double[] position;
+    private final double[] gradient;
+    private final double logProb;
+
+}
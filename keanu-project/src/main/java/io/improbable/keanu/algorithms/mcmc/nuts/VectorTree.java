@@ -0,0 +1,390 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
+import io.improbable.keanu.algorithms.Statistics;
+import lombok.Getter;
+
+import java.util.Arrays;
+
+import static io.improbable.keanu.algorithms.mcmc.nuts.Tree.acceptOtherProposalWithProbability;
+import static io.improbable.keanu.algorithms.statistics.LogSumExp.logSumExp;
+
+/**
+ * The vector equivalent of {@link Tree}.
+ * <p>
+ * The forward and backward most states of the tree are stepped in place as the tree grows in each direction. A
+ * sub tree therefore only keeps the velocity at the end it was built from, as the state at its other end is the
+ * state being stepped.
+ */
+class VectorTree {
+
+    private final ProbabilisticModelWithGradient logProbGradientCalculator;
+
+    private final VectorLeapfrogIntegrator leapfrogIntegrator;
+
+    private final KeanuRandom random;
+
+    /**
+     * The forward most state in the tree
+     */
+    @Getter
+    private final VectorLeapfrogState forward;
+
+    /**
+     * The backward most state in the tree
+     */
+    @Getter
+    private final VectorLeapfrogState backward;
+
+    /**
+     * The accepted position in the tree
+     */
+    @Getter
+    private VectorProposal proposal;
+
+    /**
+     * Sum of momentum over all steps in tree
+     */
+    private final double[] sumMomentum;
+
+    /**
+     * The energy at the start state
+     */
+    @Getter
+    private final double startEnergy;
+
+    /**
+     * Maximum energy change on a step before the step is considered divergent
+     */
+    @Getter
+    private final double maxEnergyChange;
+
+    /**
+     * log sum of negative energy change
+     */
+    @Getter
+    private double logSumWeight;
+
+    /**
+     * A summation of the metropolis acceptance probability over each step in tree.
+     */
+    @Getter
+    private double sumMetropolisAcceptanceProbability;
+
+    /**
+     * Total number of steps in tree
+     */
+    @Getter
+    private int treeSize;
+
+    /**
+     * Height of binary tree as of last growth
+     */
+    @Getter
+    private int treeHeight;
+
+    /**
+     * True if the tree stopped growth if the max energy change was exceeded on one of the steps
+     */
+    @Getter
+    private boolean diverged;
+
+    /**
+     * True if the tree stopped growth due to u-turn
+     */
+    @Getter
+    private boolean uTurned;
+
+    /**
+     * @param startState                The leap frog for is initial step in the tree. It is stepped forward in place.
+     * @param proposal                  The current accepted position.
+     * @param logProbGradientCalculator logProb gradient and logProb function
+     * @param random                    Source of randomness
+     */
+    public VectorTree(VectorLeapfrogState startState,
+                      VectorProposal proposal,
+                      double maxEnergyChange,
+                      ProbabilisticModelWithGradient logProbGradientCalculator,
+                      VectorLeapfrogIntegrator leapfrogIntegrator,
+                      KeanuRandom random) {
+
+        this.forward = startState;
+        this.backward = startState.copy();
+        this.proposal = proposal;
+        this.maxEnergyChange = maxEnergyChange;
+        this.logProbGradientCalculator = logProbGradientCalculator;
+        this.leapfrogIntegrator = leapfrogIntegrator;
+        this.random = random;
+        this.sumMomentum = Arrays.copyOf(startState.getMomentum(), startState.getMomentum().length);
+        this.startEnergy = startState.getEnergy();
+        this.logSumWeight = 0.0;
+        this.sumMetropolisAcceptanceProbability = 0.0;
+        this.treeSize = 0;
+        this.treeHeight = 0;
+        this.diverged = false;
+        this.uTurned = false;
+    }
+
+    public void grow(int buildDirection,
+                     double timeStep) {
+
+        SubTree otherHalfTree = buildTree(
+            buildDirection == -1 ? backward : forward,
+            buildDirection,
+            treeHeight,
+            timeStep
+        );
+
+        sumMetropolisAcceptanceProbability += otherHalfTree.sumMetropolisAcceptanceProbability;
+        treeSize += otherHalfTree.treeSize;
+
+        if (otherHalfTree.shouldContinue()) {
+
+            if (acceptOtherProposalWithProbability(otherHalfTree.logSumWeight - logSumWeight, random)) {
+                proposal = otherHalfTree.proposal;
+            }
+
+            logSumWeight = logSumExp(logSumWeight, otherHalfTree.logSumWeight);
+
+            addInPlace(sumMomentum, otherHalfTree.sumMomentum);
+        }
+
+        diverged = otherHalfTree.diverged;
+
+        if (!diverged) {
+
+            uTurned = otherHalfTree.uTurned || isUTurning(
+                forward.getVelocity(),
+                backward.getVelocity(),
+                sumMomentum
+            );
+        }
+
+        treeHeight++;
+    }
+
+    /**
+     * @param buildFrom      The leap frog to build the tree from, which is stepped in place
+     * @param buildDirection either 1 for forward or -1 for backwards in time
+     * @param treeHeight     The height to build the tree to
+     * @param timeStep       The time step delta for each new step
+     * @return A subtree with treeHeight height
+     */
+    private SubTree buildTree(VectorLeapfrogState buildFrom,
+                              int buildDirection,
+                              int treeHeight,
+                              double timeStep) {
+        if (treeHeight == 0) {
+
+            //Base case-take one leapfrog step in the build direction
+
+            return treeBuilderBaseCase(
+                buildFrom,
+                buildDirection,
+                timeStep
+            );
+
+        } else {
+            //Recursion-implicitly build the left and right subtrees.
+
+            SubTree subTree = buildTree(
+                buildFrom,
+                buildDirection,
+                treeHeight - 1,
+                timeStep
+            );
+
+            //Should continue building other half if first half's shouldContinue is true
+            if (subTree.shouldContinue()) {
+
+                SubTree extendedSubTree = buildTree(
+                    buildFrom,
+                    buildDirection,
+                    treeHeight - 1,
+                    timeStep
+                );
+
+                subTree.diverged = extendedSubTree.diverged;
+                subTree.uTurned = extendedSubTree.uTurned;
+
+                if (extendedSubTree.shouldContinue()) {
+
+                    addInPlace(subTree.sumMomentum, extendedSubTree.sumMomentum);
+
+                    subTree.uTurned = isUTurning(
+                        buildFrom.getVelocity(),
+                        subTree.startVelocity,
+                        subTree.sumMomentum
+                    );
+
+                    final double totalLogSumWeight = logSumExp(subTree.logSumWeight, extendedSubTree.logSumWeight);
+
+                    subTree.logSumWeight = totalLogSumWeight;
+
+                    if (acceptOtherProposalWithProbability(extendedSubTree.logSumWeight - totalLogSumWeight, random)) {
+                        subTree.proposal = extendedSubTree.proposal;
+                    }
+
+                }
+
+                subTree.sumMetropolisAcceptanceProbability += extendedSubTree.sumMetropolisAcceptanceProbability;
+                subTree.treeSize += extendedSubTree.treeSize;
+            }
+
+            return subTree;
+        }
+
+    }
+
+    private SubTree treeBuilderBaseCase(final VectorLeapfrogState leapfrogState,
+                                        final int buildDirection,
+                                        final double timeStep) {
+
+        leapfrogIntegrator.step(leapfrogState, logProbGradientCalculator, timeStep * buildDirection);
+
+        final double energyAfterStep = leapfrogState.getEnergy();
+
+        final double energyChange = energyAfterStep - startEnergy;
+
+        final boolean isDivergent = Math.abs(energyChange) >= maxEnergyChange || Double.isNaN(energyChange);
+
+        final double[] velocity = leapfrogState.getVelocity();
+        final double[] momentum = leapfrogState.getMomentum();
+
+        if (isDivergent) {
+
+            return new SubTree(
+                Arrays.copyOf(velocity, velocity.length),
+                Arrays.copyOf(momentum, momentum.length),
+                null,
+                Double.NEGATIVE_INFINITY,
+                true,
+                0,
+                1
+            );
+
+        } else {
+
+            final double logSumWeight = -energyChange;
+
+            final double metropolisAcceptanceProbability = Math.min(
+                1.0,
+                Math.exp(logSumWeight)
+            );
+
+            final double[] position = leapfrogState.getPosition();
+            final double[] gradient = leapfrogState.getGradient();
+
+            VectorProposal proposal = new VectorProposal(
+                Arrays.copyOf(position, position.length),
+                Arrays.copyOf(gradient, gradient.length),
+                leapfrogState.getLogProb()
+            );
+
+            return new SubTree(
+                Arrays.copyOf(velocity, velocity.length),
+                Arrays.copyOf(momentum, momentum.length),
+                proposal,
+                logSumWeight,
+                false,
+                metropolisAcceptanceProbability,
+                1
+            );
+        }
+    }
+
+    private static void addInPlace(double[] sum, double[] values) {
+        for (int i = 0; i < sum.length; i++) {
+            sum[i] += values[i];
+        }
+    }
+
+    private static boolean isUTurning(double[] velocityForward,
+                                      double[] velocityBackward,
+                                      double[] rho) {
+        double forward = 0.0;
+        double backward = 0.0;
+
+        for (int i = 0; i < rho.length; i++) {
+            forward += velocityForward[i] * rho[i];
+            backward += velocityBackward[i] * rho[i];
+        }
+
+        return (forward < 0.0) || (backward < 0.0);
+    }
+
+    public boolean shouldContinue() {
+        return !diverged && !uTurned;
+    }
+
+    public void save(Statistics statistics) {
+        statistics.store(NUTS.Metrics.LOG_PROB, proposal.getLogProb());
+        statistics.store(NUTS.Metrics.TREE_SIZE, (double) treeSize);
+    }
+
+    private static class SubTree {
+
+        /**
+         * The velocity after the first step of the sub tree. The velocity at its other end is the velocity of the
+         * state that the sub tree was built from.
+         */
+        private final double[] startVelocity;
+
+        /**
+         * The sum of all of the momentum from each step
+         */
+        private final double[] sumMomentum;
+
+        /**
+         * The current accepted proposal.
+         */
+        private VectorProposal proposal;
+
+        /**
+         * log sum of negative energy change
+         */
+        private double logSumWeight;
+
+        /**
+         * A flag indicating the a step diverged due to significant energy change.
+         */
+        private boolean diverged;
+
+        /**
+         * A flag indicating the steps are turning
+         */
+        private boolean uTurned;
+
+        /**
+         * A summation of the metropolis acceptance probability from each step
+         */
+        private double sumMetropolisAcceptanceProbability;
+
+        /**
+         * The size of the sub tree, which is the number of steps taken to build the tree.
+         */
+        private int treeSize;
+
+        SubTree(double[] startVelocity,
+                double[] sumMomentum,
+                VectorProposal proposal,
+                double logSumWeight,
+                boolean diverged,
+                double sumMetropolisAcceptanceProbability,
+                int treeSize) {
+            this.startVelocity = startVelocity;
+            this.sumMomentum = sumMomentum;
+            this.proposal = proposal;
+            this.logSumWeight = logSumWeight;
+            this.diverged = diverged;
+            this.uTurned = false;
+            this.sumMetropolisAcceptanceProbability = sumMetropolisAcceptanceProbability;
+            this.treeSize = treeSize;
+        }
+
+        public boolean shouldContinue() {
+            return !diverged && !uTurned;
+        }
+    }
+}
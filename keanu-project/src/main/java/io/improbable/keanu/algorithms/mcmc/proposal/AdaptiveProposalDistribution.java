@@ -0,0 +1,410 @@
+package io.improbable.keanu.algorithms.mcmc.proposal;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.statistics.RunningCovariance;
+import io.improbable.keanu.distributions.continuous.Gaussian;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.dbl.KeanuLapack;
+import io.improbable.keanu.vertices.Probabilistic;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Gaussian random walk proposal that tunes itself while the chain burns in, so that a sigma does not have to be
+ * chosen by hand for every variable.
+ * <p>
+ * Each variable has a scale that multiplies its proposal sigma. After every proposal the log of the scale of each
+ * proposed variable is moved by a Robbins-Monro step towards the target acceptance rate, with a step size that
+ * decays as the number of proposals grows. A proposal counts as accepted unless {@link #onProposalRejected()} is
+ * called before the next proposal is made.
+ * <p>
+ * If learnCovariance is set then, as in the adaptive Metropolis algorithm of Haario et al, the covariance of the
+ * values of all the variables is also estimated with Welford's online algorithm. Once there are enough samples the
+ * proposal for a set of variables is drawn from the corresponding block of that covariance, scaled by 2.38^2 / d
+ * where d is the number of values proposed. The Cholesky factor of each block is reused until the estimate is next
+ * refreshed, which is every 100 proposals. The scales are reset when the covariance is first used and then
+ * adapted as before, which corrects the 2.38^2 / d factor for targets that are far from Gaussian.
+ * <p>
+ * Adaptation stops after adaptationSteps proposals, or when {@link #freeze()} is called, and from then on the
+ * proposal is a fixed symmetric random walk. Samples taken while it is adapting are not from the posterior and
+ * should be dropped.
+ */
+public class AdaptiveProposalDistribution implements ProposalDistribution {
+
+    private static final double ONE_DIMENSIONAL_TARGET_ACCEPTANCE_RATE = 0.44;
+    private static final double MULTI_DIMENSIONAL_TARGET_ACCEPTANCE_RATE = 0.234;
+    private static final double SCALE_STEP_DECAY = 0.6;
+    private static final double OPTIMAL_COVARIANCE_SCALE = 2.38 * 2.38;
+    private static final int COVARIANCE_REFRESH_INTERVAL = 100;
+    private static final double COVARIANCE_REGULARISATION = 1e-6;
+
+    private final Map<Variable, VariableScale> scales;
+    private final double initialSigma;
+    private final Double targetAcceptanceRate;
+    private final int adaptationSteps;
+    private final RunningCovariance covariance;
+    private final ProposalNotifier proposalNotifier;
+
+    private final Map<List<Variable>, double[]> choleskyFactors = new HashMap<>();
+    private final Map<Variable, DoubleTensor> proposalSigmas = new HashMap<>();
+
+    private Proposal lastProposal;
+    private boolean lastProposalRejected;
+    private int steps;
+    private boolean adapting;
+
+    private AdaptiveProposalDistribution(List<? extends Variable> variables,
+                                         double initialSigma,
+                                         Double targetAcceptanceRate,
+                                         int adaptationSteps,
+                                         boolean learnCovariance,
+                                         List<ProposalListener> listeners) {
+        this.scales = new LinkedHashMap<>();
+        int offset = 0;
+        for (Variable variable : variables) {
+            int length = Math.toIntExact(TensorShape.getLength(variable.getShape()));
+            scales.put(variable, new VariableScale(offset, length));
+            offset += length;
+        }
+        this.initialSigma = initialSigma;
+        this.targetAcceptanceRate = targetAcceptanceRate;
+        this.adaptationSteps = adaptationSteps;
+        this.covariance = learnCovariance ? new RunningCovariance(offset) : null;
+        this.proposalNotifier = new ProposalNotifier(listeners);
+        this.adapting = adaptationSteps > 0;
+    }
+
+    public static AdaptiveProposalDistributionBuilder builder() {
+        return new AdaptiveProposalDistributionBuilder();
+    }
+
+    @Override
+    public Proposal getProposal(Set<? extends Variable> variables, KeanuRandom random) {
+        for (Variable variable : variables) {
+            if (!(variable.getValue() instanceof DoubleTensor)) {
+                throw new IllegalStateException("Adaptive proposal function cannot be used for discrete variable " + variable);
+            }
+            if (!scales.containsKey(variable)) {
+                throw new IllegalStateException("Adaptive proposal was not created with variable " + variable);
+            }
+        }
+
+        if (adapting) {
+            adapt();
+        }
+
+        List<Variable> ordered = ImmutableList.<Variable>copyOf(variables);
+        double[] choleskyFactor = covariance == null ? null : getCholeskyFactor(ordered);
+
+        Proposal proposal = choleskyFactor == null ?
+            proposeIndependently(ordered, random) :
+            proposeJointly(ordered, choleskyFactor, random);
+
+        lastProposal = proposal;
+        lastProposalRejected = false;
+        proposalNotifier.notifyProposalCreated(proposal);
+        return proposal;
+    }
+
+    private Proposal proposeIndependently(List<Variable> variables, KeanuRandom random) {
+        Proposal proposal = new Proposal();
+        for (Variable variable : variables) {
+            DoubleTensor sigma = DoubleTensor.scalar(initialSigma * scales.get(variable).getScale());
+            DoubleTensor sample = random.nextGaussian(variable.getShape(), (DoubleTensor) variable.getValue(), sigma);
+            proposalSigmas.put(variable, sigma);
+            proposal.setProposal(variable, sample);
+        }
+        return proposal;
+    }
+
+    /**
+     * Draws x' = x + S L z for a standard normal z, where L is the Cholesky factor of the scaled covariance of the
+     * variables and S is diagonal with the scale of the variable each value belongs to.
+     */
+    private Proposal proposeJointly(List<Variable> variables, double[] choleskyFactor, KeanuRandom random) {
+        final int dimension = dimensionOf(variables);
+        double[] z = new double[dimension];
+        for (int i = 0; i < dimension; i++) {
+            z[i] = random.nextGaussian();
+        }
+
+        Proposal proposal = new Proposal();
+        int row = 0;
+        for (Variable variable : variables) {
+            final double scale = scales.get(variable).getScale();
+            final int length = scales.get(variable).length;
+            double[] step = new double[length];
+            double[] sigma = new double[length];
+            for (int i = 0; i < length; i++, row++) {
+                double sum = 0.0;
+                double variance = 0.0;
+                for (int j = 0; j <= row; j++) {
+                    final double l = choleskyFactor[row * dimension + j];
+                    sum += l * z[j];
+                    variance += l * l;
+                }
+                step[i] = scale * sum;
+                sigma[i] = scale * Math.sqrt(variance);
+            }
+            DoubleTensor sample = ((DoubleTensor) variable.getValue()).plus(DoubleTensor.create(step, variable.getShape()));
+            proposalSigmas.put(variable, DoubleTensor.create(sigma, variable.getShape()));
+            proposal.setProposal(variable, sample);
+        }
+        return proposal;
+    }
+
+    /**
+     * The joint proposal is symmetric, as is the independent one, so any symmetric q cancels in the Metropolis
+     * Hastings ratio. This uses the marginal Gaussian of each value with the sigma it was last proposed with.
+     */
+    @Override
+    public <T> double logProb(Probabilistic<T> variable, T ofValue, T givenValue) {
+        if (!(ofValue instanceof DoubleTensor)) {
+            throw new ClassCastException("Only DoubleTensor values are supported - not " + ofValue.getClass().getSimpleName());
+        }
+        if (!proposalSigmas.containsKey(variable)) {
+            throw new IllegalStateException("A proposal has not been made for variable " + variable);
+        }
+        Gaussian proposalDistribution = (Gaussian) Gaussian.withParameters((DoubleTensor) ofValue, proposalSigmas.get(variable));
+        return proposalDistribution.logProb((DoubleTensor) givenValue).sumNumber();
+    }
+
+    @Override
+    public void onProposalRejected() {
+        lastProposalRejected = true;
+        proposalNotifier.notifyProposalRejected();
+    }
+
+    /**
+     * Stops adapting, so that from now on proposals are drawn from a fixed distribution.
+     */
+    public void freeze() {
+        adapting = false;
+        lastProposal = null;
+        choleskyFactors.clear();
+    }
+
+    public boolean isAdapting() {
+        return adapting;
+    }
+
+    /**
+     * @param variable a variable this proposal was created with
+     * @return the factor that the proposal sigma of the variable has been scaled by
+     */
+    public double getScale(Variable variable) {
+        Preconditions.checkArgument(scales.containsKey(variable), "Adaptive proposal was not created with variable %s", variable);
+        return scales.get(variable).getScale();
+    }
+
+    private void adapt() {
+        if (lastProposal != null) {
+            Set<Variable> proposed = lastProposal.getVariablesWithProposal();
+            final double accepted = lastProposalRejected ? 0.0 : 1.0;
+            final double target = getTargetAcceptanceRate(proposed);
+            for (Variable variable : proposed) {
+                scales.get(variable).update(accepted - target);
+            }
+            steps++;
+        }
+
+        if (covariance != null) {
+            covariance.add(currentValues());
+            if (covariance.getCount() == COVARIANCE_REFRESH_INTERVAL) {
+                resetScales();
+            }
+            if (covariance.getCount() % COVARIANCE_REFRESH_INTERVAL == 0) {
+                choleskyFactors.clear();
+            }
+        }
+
+        if (steps >= adaptationSteps) {
+            freeze();
+        }
+    }
+
+    /**
+     * The scales that suited the initial sigma do not suit the covariance, which is already scaled to be close to
+     * optimal, so adaptation starts again from a scale of 1.
+     */
+    private void resetScales() {
+        for (VariableScale scale : scales.values()) {
+            scale.logScale = 0.0;
+        }
+    }
+
+    private double getTargetAcceptanceRate(Set<Variable> proposed) {
+        if (targetAcceptanceRate != null) {
+            return targetAcceptanceRate;
+        }
+        return dimensionOf(proposed) == 1 ? ONE_DIMENSIONAL_TARGET_ACCEPTANCE_RATE : MULTI_DIMENSIONAL_TARGET_ACCEPTANCE_RATE;
+    }
+
+    private double[] currentValues() {
+        double[] values = new double[covariance.getDimension()];
+        for (Map.Entry<Variable, VariableScale> entry : scales.entrySet()) {
+            double[] value = ((DoubleTensor) entry.getKey().getValue()).asFlatDoubleArray();
+            System.arraycopy(value, 0, values, entry.getValue().offset, entry.getValue().length);
+        }
+        return values;
+    }
+
+    /**
+     * @return the lower triangular Cholesky factor of the scaled covariance of the variables in row major order, or
+     * null if there are not yet enough samples to estimate it
+     */
+    private double[] getCholeskyFactor(List<Variable> variables) {
+        if (covariance.getCount() < COVARIANCE_REFRESH_INTERVAL) {
+            return null;
+        }
+        double[] cached = choleskyFactors.get(variables);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<Integer> indices = new ArrayList<>();
+        for (Variable variable : variables) {
+            VariableScale scale = scales.get(variable);
+            for (int i = 0; i < scale.length; i++) {
+                indices.add(scale.offset + i);
+            }
+        }
+
+        final int dimension = indices.size();
+        final double factor = OPTIMAL_COVARIANCE_SCALE / dimension;
+        final double jitter = COVARIANCE_REGULARISATION * initialSigma * initialSigma;
+        double[] choleskyFactor = new double[dimension * dimension];
+        for (int i = 0; i < dimension; i++) {
+            for (int j = 0; j <= i; j++) {
+                double value = covariance.getCovariance(indices.get(i), indices.get(j));
+                if (i == j) {
+                    value += jitter;
+                }
+                choleskyFactor[i * dimension + j] = factor * value;
+            }
+        }
+
+        if (KeanuLapack.dpotrf(KeanuLapack.Triangular.LOWER, dimension, choleskyFactor) != 0) {
+            return null;
+        }
+        choleskyFactors.put(variables, choleskyFactor);
+        return choleskyFactor;
+    }
+
+    private int dimensionOf(Collection<? extends Variable> variables) {
+        int dimension = 0;
+        for (Variable variable : variables) {
+            dimension += scales.get(variable).length;
+        }
+        return dimension;
+    }
+
+    private static class VariableScale {
+
+        private final int offset;
+        private final int length;
+        private double logScale;
+        private long updates;
+
+        VariableScale(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        void update(double acceptanceError) {
+            updates++;
+            logScale += Math.pow(updates, -SCALE_STEP_DECAY) * acceptanceError;
+        }
+
+        double getScale() {
+            return Math.exp(logScale);
+        }
+    }
+
+    public static class AdaptiveProposalDistributionBuilder {
+        private List<? extends Variable> variables;
+        private double initialSigma = 1.0;
+        private Double targetAcceptanceRate = null;
+        private int adaptationSteps = 1000;
+        private boolean learnCovariance = false;
+        private List<ProposalListener> listeners = Collections.emptyList();
+
+        /**
+         * @param variables the variables that may be proposed, which must all be double valued
+         * @return this builder
+         */
+        public AdaptiveProposalDistributionBuilder variables(List<? extends Variable> variables) {
+            this.variables = variables;
+            return this;
+        }
+
+        /**
+         * @param initialSigma the proposal sigma of every value before it is adapted
+         * @return this builder
+         */
+        public AdaptiveProposalDistributionBuilder initialSigma(double initialSigma) {
+            this.initialSigma = initialSigma;
+            return this;
+        }
+
+        /**
+         * @param targetAcceptanceRate the acceptance rate the scales are tuned towards. By default this is 0.44
+         *                             when a single value is proposed and 0.234 when more than one is.
+         * @return this builder
+         */
+        public AdaptiveProposalDistributionBuilder targetAcceptanceRate(double targetAcceptanceRate) {
+            this.targetAcceptanceRate = targetAcceptanceRate;
+            return this;
+        }
+
+        /**
+         * @param adaptationSteps the number of proposals to adapt for before the proposal is frozen. The drop count
+         *                        of the sampler should be at least this.
+         * @return this builder
+         */
+        public AdaptiveProposalDistributionBuilder adaptationSteps(int adaptationSteps) {
+            this.adaptationSteps = adaptationSteps;
+            return this;
+        }
+
+        /**
+         * @param learnCovariance whether to propose from the covariance of the values seen while adapting, rather
+         *                        than proposing each value independently. This takes time and memory that grow with
+         *                        the square of the number of values.
+         * @return this builder
+         */
+        public AdaptiveProposalDistributionBuilder learnCovariance(boolean learnCovariance) {
+            this.learnCovariance = learnCovariance;
+            return this;
+        }
+
+        public AdaptiveProposalDistributionBuilder listeners(List<ProposalListener> listeners) {
+            this.listeners = listeners;
+            return this;
+        }
+
+        public AdaptiveProposalDistribution build() {
+            Preconditions.checkArgument(variables != null && !variables.isEmpty(), "Adaptive proposal requires at least one variable");
+            Preconditions.checkArgument(initialSigma > 0.0, "Initial sigma must be greater than 0");
+            Preconditions.checkArgument(targetAcceptanceRate == null || (targetAcceptanceRate > 0.0 && targetAcceptanceRate < 1.0),
+                "Target acceptance rate must be between 0 and 1");
+            Preconditions.checkArgument(adaptationSteps >= 0, "Adaptation steps must not be negative");
+            return new AdaptiveProposalDistribution(variables, initialSigma, targetAcceptanceRate, adaptationSteps, learnCovariance, listeners);
+        }
+
+        public String toString() {
+            return "AdaptiveProposalDistribution.AdaptiveProposalDistributionBuilder(variables=" + this.variables + ", initialSigma=" + this.initialSigma + ", targetAcceptanceRate=" + this.targetAcceptanceRate + ", adaptationSteps=" + this.adaptationSteps + ", learnCovariance=" + this.learnCovariance + ", listeners=" + this.listeners + ")";
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package io.improbable.keanu.algorithms.mcmc.proposal;
+
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.graphtraversal.CascadePlanCache;
+import io.improbable.keanu.network.LambdaSection;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.ProbabilityCalculator;
+import io.improbable.keanu.vertices.Probabilistic;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.tensor.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.tensor.generic.probabilistic.discrete.CategoricalVertex;
+import io.improbable.keanu.vertices.tensor.number.fixed.intgr.probabilistic.UniformIntVertex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.improbable.keanu.algorithms.statistics.LogSumExp.logSumExp;
+
+/**
+ * Proposes a new value for a discrete latent with finite support by sampling exactly from its conditional
+ * distribution given every other vertex, so that the proposal is always accepted.
+ * <p>
+ * When a single {@link BernoulliVertex}, {@link CategoricalVertex} or {@link UniformIntVertex} is proposed, one of
+ * its elements is chosen at random. Each state that element can take is scored by the log prob of the downstream
+ * {@link LambdaSection} of the vertex, which is the only part of the network whose log prob depends on it, and the
+ * new state is drawn in proportion to those probabilities. q(x'|x) is then p(x'|rest) / p(x|rest) times q(x|x'),
+ * which cancels the change in the log prob of the network in the Metropolis Hastings ratio.
+ * <p>
+ * Any other set of variables, including a set of more than one variable, is proposed by the fallback proposal
+ * distribution. This should therefore be used with
+ * {@link MHStepVariableSelector#SINGLE_VARIABLE_SELECTOR}, which proposes one variable at a time.
+ */
+public class GibbsProposalDistribution implements ProposalDistribution {
+
+    private static final int DEFAULT_MAX_STATES = 1024;
+
+    private final ProposalDistribution fallbackProposalDistribution;
+    private final int maxStates;
+    private final ProposalNotifier proposalNotifier;
+
+    private final Map<Vertex, DownstreamVertices> downstreamVertices = new HashMap<>();
+    private final CascadePlanCache cascadePlans = new CascadePlanCache();
+
+    private Variable enumeratedVariable;
+    private long enumeratedIndex;
+    private List<Object> enumeratedStates;
+    private double[] logConditionals;
+
+    public GibbsProposalDistribution() {
+        this(new PriorProposalDistribution());
+    }
+
+    public GibbsProposalDistribution(ProposalDistribution fallbackProposalDistribution) {
+        this(fallbackProposalDistribution, DEFAULT_MAX_STATES, Collections.emptyList());
+    }
+
+    /**
+     * @param fallbackProposalDistribution proposes the variables that cannot be enumerated
+     * @param maxStates                    the most states of an element of a {@link UniformIntVertex} to enumerate.
+     *                                     Vertices with more are proposed by the fallback proposal distribution.
+     * @param listeners                    listeners to notify of every proposal, including fallback proposals
+     */
+    public GibbsProposalDistribution(ProposalDistribution fallbackProposalDistribution, int maxStates, List<ProposalListener> listeners) {
+        this.fallbackProposalDistribution = fallbackProposalDistribution;
+        this.maxStates = maxStates;
+        this.proposalNotifier = new ProposalNotifier(listeners);
+    }
+
+    @Override
+    public Proposal getProposal(Set<? extends Variable> variables, KeanuRandom random) {
+        enumeratedVariable = null;
+
+        Proposal proposal = null;
+        if (variables.size() == 1) {
+            Variable variable = variables.iterator().next();
+            if (variable instanceof Vertex) {
+                proposal = enumerate((Vertex) variable, random);
+            }
+        }
+
+        if (proposal == null) {
+            proposal = fallbackProposalDistribution.getProposal(variables, random);
+        }
+
+        proposalNotifier.notifyProposalCreated(proposal);
+        return proposal;
+    }
+
+    /**
+     * @return a proposal for an element of the vertex drawn from its conditional, or null if the vertex does not
+     * have a finite support that can be enumerated
+     */
+    private Proposal enumerate(Vertex vertex, KeanuRandom random) {
+        final Tensor current = (Tensor) vertex.getValue();
+        final long length = TensorShape.getLength(vertex.getShape());
+        final long index = length == 1 ? 0 : random.nextInt(Math.toIntExact(length));
+
+        List<Object> states = getStates(vertex, index);
+        if (states == null) {
+            return null;
+        }
+
+        Set<Vertex> cascadeFrom = Collections.singleton(vertex);
+        Set<Vertex> scored = getDownstreamVertices(vertex);
+
+        double[] logProbs = new double[states.size()];
+        for (int i = 0; i < logProbs.length; i++) {
+            vertex.setValue(withState(current, index, states.get(i)));
+            cascadePlans.cascadeUpdate(cascadeFrom);
+            logProbs[i] = ProbabilityCalculator.calculateLogProbFor(scored);
+        }
+        vertex.setValue(current);
+        cascadePlans.cascadeUpdate(cascadeFrom);
+
+        final double logNormaliser = logSumExp(logProbs);
+        if (ProbabilityCalculator.isImpossibleLogProb(logNormaliser)) {
+            return null;
+        }
+
+        double[] conditionals = new double[logProbs.length];
+        for (int i = 0; i < logProbs.length; i++) {
+            conditionals[i] = logProbs[i] - logNormaliser;
+        }
+
+        enumeratedVariable = vertex;
+        enumeratedIndex = index;
+        enumeratedStates = states;
+        logConditionals = conditionals;
+
+        Proposal proposal = new Proposal();
+        proposal.setProposal(vertex, withState(current, index, states.get(sample(conditionals, random))));
+        return proposal;
+    }
+
+    /**
+     * @return the vertices whose log prob depends on the vertex, which are found again if an edge has been added to
+     * its graph since they were last found
+     */
+    private Set<Vertex> getDownstreamVertices(Vertex vertex) {
+        final long topologyVersion = vertex.getTopologyVersion().current();
+        DownstreamVertices downstream = downstreamVertices.get(vertex);
+
+        if (downstream == null || downstream.topologyVersion != topologyVersion) {
+            downstream = new DownstreamVertices(
+                topologyVersion,
+                LambdaSection.getDownstreamLambdaSection(vertex, true).getAllVertices()
+            );
+            downstreamVertices.put(vertex, downstream);
+        }
+
+        return downstream.vertices;
+    }
+
+    /**
+     * @return the states that the element at the index can take, or null if they cannot be enumerated
+     */
+    private List<Object> getStates(Vertex vertex, long index) {
+        if (vertex instanceof BernoulliVertex) {
+            return Arrays.asList(false, true);
+        } else if (vertex instanceof CategoricalVertex) {
+            return new ArrayList<>(((CategoricalVertex<?>) vertex).getSelectableValues().keySet());
+        } else if (vertex instanceof UniformIntVertex) {
+            UniformIntVertex uniformInt = (UniformIntVertex) vertex;
+            IntegerTensor min = uniformInt.getMin().getValue();
+            IntegerTensor max = uniformInt.getMax().getValue();
+            final int lower = min.getFlattenedView().getOrScalar(index);
+            final int upper = max.getFlattenedView().getOrScalar(index);
+            if ((long) upper - lower > maxStates) {
+                return null;
+            }
+            List<Object> states = new ArrayList<>(upper - lower);
+            for (int state = lower; state < upper; state++) {
+                states.add(state);
+            }
+            return states;
+        }
+        return null;
+    }
+
+    private static Object withState(Tensor tensor, long index, Object state) {
+        Tensor withState = tensor.duplicate();
+        withState.getFlattenedView().set(index, state);
+        return withState;
+    }
+
+    private static int sample(double[] logConditionals, KeanuRandom random) {
+        final double u = random.nextDouble();
+        double cumulative = 0.0;
+        int last = 0;
+        for (int i = 0; i < logConditionals.length; i++) {
+            final double probability = Math.exp(logConditionals[i]);
+            if (probability > 0.0) {
+                cumulative += probability;
+                last = i;
+                if (u < cumulative) {
+                    return i;
+                }
+            }
+        }
+        return last;
+    }
+
+    /**
+     * For an enumerated variable this is the log of the conditional probability of the state of ofValue at the
+     * element that was enumerated, which is the same whatever the givenValue as the rest of the network is fixed.
+     */
+    @Override
+    public <T> double logProb(Probabilistic<T> variable, T ofValue, T givenValue) {
+        if (variable != enumeratedVariable) {
+            return fallbackProposalDistribution.logProb(variable, ofValue, givenValue);
+        }
+        final int state = enumeratedStates.indexOf(((Tensor) ofValue).getFlattenedView().get(enumeratedIndex));
+        return state < 0 ? Double.NEGATIVE_INFINITY : logConditionals[state];
+    }
+
+    @Override
+    public void onProposalRejected() {
+        if (enumeratedVariable == null) {
+            fallbackProposalDistribution.onProposalRejected();
+        }
+        proposalNotifier.notifyProposalRejected();
+    }
+
+    private static class DownstreamVertices {
+        private final long topologyVersion;
+        private final Set<Vertex> vertices;
+
+        DownstreamVertices(long topologyVersion, Set<Vertex> vertices) {
+            this.topologyVersion = topologyVersion;
+            this.vertices = vertices;
+        }
+    }
+}
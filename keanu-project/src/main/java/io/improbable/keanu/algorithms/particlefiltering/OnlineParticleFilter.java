@@ -0,0 +1,383 @@
+package io.improbable.keanu.algorithms.particlefiltering;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.graphtraversal.CascadePlan;
+import io.improbable.keanu.algorithms.graphtraversal.TopologicalSort;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.LambdaSection;
+import io.improbable.keanu.network.NetworkCopy;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Probabilistic;
+import io.improbable.keanu.vertices.ProbabilityCalculator;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static io.improbable.keanu.algorithms.statistics.LogSumExp.logSumExp;
+
+/**
+ * A bootstrap particle filter that takes observations one at a time, as they arrive.
+ * <p>
+ * Each observation extends the particles with samples of the latent vertices that it depends on and that no earlier
+ * observation depended on, drawn from their priors. Each particle is then weighted by the probability of the
+ * observation, which is the only thing scored, so the cost of an observation does not grow with the number of
+ * observations before it. Weights are held as logs and normalised with log-sum-exp. The particles are resampled
+ * whenever their effective sample size falls below a proportion of the number of particles.
+ * <p>
+ * The values of the particles are held in primitive arrays, one per latent vertex. The particles are split between
+ * {@link NetworkCopy copies} of the network, one for each thread of the pool given to the filter, and each copy is
+ * driven by its own {@link KeanuRandom}. The network given to the filter is not changed by it.
+ */
+public class OnlineParticleFilter {
+
+    private final int particleCount;
+    private final ResamplingScheme resamplingScheme;
+    private final double resamplingThreshold;
+    private final KeanuRandom random;
+    private final ForkJoinPool pool;
+
+    private final List<NetworkCopy> copies;
+    private final KeanuRandom[] copyRandoms;
+
+    private final ParticleColumns columns;
+    private final Map<VariableReference, Integer> columnsByVertex;
+    private final Set<VariableReference> observed;
+
+    private final double[] logWeights;
+    private final double[] logWeightIncrements;
+    private final double[] weights;
+    private final int[] ancestors;
+
+    private double logMarginalLikelihood = 0.0;
+
+    /**
+     * Creates a {@link OnlineParticleFilterBuilder} for a network. The vertices that are already observed in the
+     * network are filtered when the filter is built.
+     *
+     * @param network the network to filter
+     * @return a builder for the filter
+     */
+    public static OnlineParticleFilterBuilder ofNetwork(BayesianNetwork network) {
+        return new OnlineParticleFilterBuilder(network);
+    }
+
+    OnlineParticleFilter(BayesianNetwork network,
+                         int particleCount,
+                         ResamplingScheme resamplingScheme,
+                         double resamplingThreshold,
+                         KeanuRandom random,
+                         ForkJoinPool pool) {
+        Preconditions.checkArgument(particleCount > 0, "Particle count of %s is invalid. At least one particle is required.", particleCount);
+        Preconditions.checkArgument(resamplingThreshold >= 0.0 && resamplingThreshold <= 1.0,
+            "Resampling threshold of %s is invalid. It must be between 0 and 1.", resamplingThreshold
+        );
+
+        this.particleCount = particleCount;
+        this.resamplingScheme = resamplingScheme;
+        this.resamplingThreshold = resamplingThreshold;
+        this.random = random;
+        this.pool = pool;
+
+        int copyCount = pool == null ? 1 : Math.min(pool.getParallelism(), particleCount);
+        this.copies = new ArrayList<>(copyCount);
+        this.copyRandoms = new KeanuRandom[copyCount];
+        for (int i = 0; i < copyCount; i++) {
+            copies.add(NetworkCopy.of(network));
+            copyRandoms[i] = random.split();
+        }
+
+        this.columns = new ParticleColumns(particleCount);
+        this.columnsByVertex = new HashMap<>();
+        this.observed = new HashSet<>();
+
+        this.logWeights = new double[particleCount];
+        this.logWeightIncrements = new double[particleCount];
+        this.weights = new double[particleCount];
+        this.ancestors = new int[particleCount];
+        Arrays.fill(logWeights, -Math.log(particleCount));
+
+        for (Vertex observedVertex : LatentIncrementSort.sort(network.getVertices()).keySet()) {
+            update(observedVertex);
+        }
+    }
+
+    /**
+     * Observes a vertex of the network and updates the particles with the observation.
+     *
+     * @param vertex a vertex of the network given to the filter. Only the filter's copies of the network are
+     *               observed, the vertex itself is left unchanged.
+     * @param value  the observed value
+     * @param <T>    the type of the value
+     * @throws IllegalArgumentException if the vertex has already been observed or sampled by the filter
+     * @throws IllegalStateException    if the observation is impossible for every particle
+     */
+    public <T> void observe(Vertex<T, ?> vertex, T value) {
+        Preconditions.checkArgument(!observed.contains(vertex.getId()), "%s has already been observed", vertex.getId());
+        Preconditions.checkArgument(!columnsByVertex.containsKey(vertex.getId()),
+            "%s has already been sampled as a latent of an earlier observation", vertex.getId()
+        );
+
+        for (NetworkCopy copy : copies) {
+            ((Vertex<T, ?>) copy.getCopyOf(vertex.getId())).observe(value);
+        }
+
+        update(vertex);
+    }
+
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    /**
+     * @return the normalised weight of each particle
+     */
+    public double[] getWeights() {
+        double[] normalisedWeights = new double[particleCount];
+        for (int i = 0; i < particleCount; i++) {
+            normalisedWeights[i] = Math.exp(logWeights[i]);
+        }
+        return normalisedWeights;
+    }
+
+    /**
+     * @return the effective number of independent particles given their weights, which is the number of particles
+     * just after resampling
+     */
+    public double getEffectiveSampleSize() {
+        double sumOfSquaredWeights = 0.0;
+        for (double logWeight : logWeights) {
+            double weight = Math.exp(logWeight);
+            sumOfSquaredWeights += weight * weight;
+        }
+        return 1.0 / sumOfSquaredWeights;
+    }
+
+    /**
+     * @return an estimate of the log of the probability of every observation so far
+     */
+    public double getLogMarginalLikelihood() {
+        return logMarginalLikelihood;
+    }
+
+    /**
+     * @param vertex a latent vertex of the network given to the filter
+     * @param <T>    the type of the values of the vertex
+     * @return the value of the vertex in each particle
+     * @throws IllegalArgumentException if no observation so far depends on the vertex
+     */
+    public <T> List<T> getValuesOf(Vertex<T, ?> vertex) {
+        int column = getColumnOf(vertex);
+        List<T> values = new ArrayList<>(particleCount);
+        for (int i = 0; i < particleCount; i++) {
+            values.add((T) columns.get(column, i));
+        }
+        return values;
+    }
+
+    /**
+     * @param vertex a latent double vertex of the network given to the filter
+     * @return the mean of the value of the vertex over the particles, weighted by the weight of each particle
+     * @throws IllegalArgumentException if no observation so far depends on the vertex
+     */
+    public DoubleTensor getWeightedMeanOf(Vertex<DoubleTensor, ?> vertex) {
+        int column = getColumnOf(vertex);
+        double[] values = columns.getDoubles(column);
+        int length = values.length / particleCount;
+
+        double[] mean = new double[length];
+        for (int i = 0; i < particleCount; i++) {
+            double weight = Math.exp(logWeights[i]);
+            for (int j = 0; j < length; j++) {
+                mean[j] += weight * values[i * length + j];
+            }
+        }
+        return DoubleTensor.create(mean, columns.getShape(column));
+    }
+
+    private int getColumnOf(Vertex<?, ?> vertex) {
+        Integer column = columnsByVertex.get(vertex.getId());
+        if (column == null) {
+            throw new IllegalArgumentException("No observation so far depends on " + vertex.getId());
+        }
+        return column;
+    }
+
+    private void update(Vertex<?, ?> observation) {
+        List<Vertex> newLatents = unsampledLatentsUpstreamOf(observation);
+
+        List<Vertex> sampledFrom = new ArrayList<>(newLatents);
+        sampledFrom.add(observation);
+        List<Vertex> requiredLatents = sampledLatentsUpstreamOf(sampledFrom);
+
+        for (Vertex<?, ?> latent : newLatents) {
+            columnsByVertex.put(latent.getId(), columns.addColumn(latent.ofType(), latent.getShape()));
+        }
+        observed.add(observation.getId());
+
+        propagateParticles(observation, newLatents, requiredLatents);
+        reweight(observation);
+
+        if (getEffectiveSampleSize() < resamplingThreshold * particleCount) {
+            resample();
+        }
+    }
+
+    /**
+     * @return the latent vertices that the observation depends on and that have not been sampled, in topological order
+     */
+    private List<Vertex> unsampledLatentsUpstreamOf(Vertex<?, ?> observation) {
+        List<Vertex> latents = new ArrayList<>();
+        Set<Vertex> visited = new HashSet<>();
+        Deque<Vertex> toVisit = new ArrayDeque<>(observation.getParents());
+
+        while (!toVisit.isEmpty()) {
+            Vertex<?, ?> visiting = toVisit.pop();
+            boolean isObserved = visiting.isObserved() || observed.contains(visiting.getId());
+
+            if (!visited.add(visiting) || isObserved || columnsByVertex.containsKey(visiting.getId())) {
+                continue;
+            }
+
+            if (visiting.isProbabilistic()) {
+                latents.add(visiting);
+            }
+            toVisit.addAll(visiting.getParents());
+        }
+
+        return TopologicalSort.sort(latents);
+    }
+
+    /**
+     * @return the latent vertices sampled by earlier observations whose values are needed to sample or score the
+     * given vertices
+     */
+    private List<Vertex> sampledLatentsUpstreamOf(List<Vertex> vertices) {
+        List<Vertex> latents = new ArrayList<>();
+        for (Vertex vertex : LambdaSection.getUpstreamLambdaSectionForCollection(vertices, false).getLatentAndObservedVertices()) {
+            if (columnsByVertex.containsKey(vertex.getId())) {
+                latents.add(vertex);
+            }
+        }
+        return latents;
+    }
+
+    private void propagateParticles(Vertex<?, ?> observation, List<Vertex> newLatents, List<Vertex> requiredLatents) {
+        if (copies.size() == 1) {
+            propagateParticles(0, observation, newLatents, requiredLatents, 0, particleCount);
+            return;
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(copies.size());
+        for (int i = 0; i < copies.size(); i++) {
+            int copyIndex = i;
+            int from = (int) ((long) i * particleCount / copies.size());
+            int to = (int) ((long) (i + 1) * particleCount / copies.size());
+            tasks.add(pool.submit(() -> propagateParticles(copyIndex, observation, newLatents, requiredLatents, from, to)));
+        }
+
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    /**
+     * Samples the new latents of the particles in a range and calculates the log probability of the observation for
+     * each of them, using one copy of the network.
+     */
+    private void propagateParticles(int copyIndex,
+                                    Vertex<?, ?> observation,
+                                    List<Vertex> newLatents,
+                                    List<Vertex> requiredLatents,
+                                    int from,
+                                    int to) {
+        NetworkCopy copy = copies.get(copyIndex);
+        KeanuRandom copyRandom = copyRandoms[copyIndex];
+
+        List<Vertex> required = copiesOf(copy, requiredLatents);
+        int[] requiredColumns = columnsOf(requiredLatents);
+        Object[] requiredValues = new Object[requiredColumns.length];
+        CascadePlan requiredPlan = CascadePlan.of(required);
+
+        List<Vertex> latents = copiesOf(copy, newLatents);
+        int[] latentColumns = columnsOf(newLatents);
+        CascadePlan[] latentPlans = new CascadePlan[latents.size()];
+        for (int i = 0; i < latentPlans.length; i++) {
+            latentPlans[i] = CascadePlan.of(Collections.singletonList(latents.get(i)));
+        }
+
+        List<Vertex> observationCopy = Collections.singletonList(copy.getCopyOf(observation.getId()));
+
+        for (int particle = from; particle < to; particle++) {
+            for (int i = 0; i < requiredColumns.length; i++) {
+                requiredValues[i] = columns.read(requiredColumns[i], particle, requiredValues[i]);
+                required.get(i).setValue(requiredValues[i]);
+            }
+            requiredPlan.apply();
+
+            for (int i = 0; i < latentColumns.length; i++) {
+                Vertex latent = latents.get(i);
+                Object sample = ((Probabilistic) latent).sample(copyRandom);
+                latent.setValue(sample);
+                latentPlans[i].apply();
+                columns.set(latentColumns[i], particle, sample);
+            }
+
+            logWeightIncrements[particle] = ProbabilityCalculator.calculateLogProbFor(observationCopy);
+        }
+    }
+
+    private void reweight(Vertex<?, ?> observation) {
+        for (int i = 0; i < particleCount; i++) {
+            logWeights[i] += logWeightIncrements[i];
+        }
+
+        double logSumOfWeights = logSumExp(logWeights);
+        if (ProbabilityCalculator.isImpossibleLogProb(logSumOfWeights)) {
+            throw new IllegalStateException("Observation of " + observation.getId() + " is impossible for every particle");
+        }
+
+        logMarginalLikelihood += logSumOfWeights;
+        for (int i = 0; i < particleCount; i++) {
+            logWeights[i] -= logSumOfWeights;
+        }
+    }
+
+    private void resample() {
+        for (int i = 0; i < particleCount; i++) {
+            weights[i] = Math.exp(logWeights[i]);
+        }
+
+        resamplingScheme.resample(weights, random, ancestors);
+        columns.resample(ancestors);
+        Arrays.fill(logWeights, -Math.log(particleCount));
+    }
+
+    private List<Vertex> copiesOf(NetworkCopy copy, List<Vertex> vertices) {
+        List<Vertex> copiedVertices = new ArrayList<>(vertices.size());
+        for (Vertex vertex : vertices) {
+            copiedVertices.add(copy.getCopyOf(vertex.getId()));
+        }
+        return copiedVertices;
+    }
+
+    private int[] columnsOf(List<Vertex> vertices) {
+        int[] vertexColumns = new int[vertices.size()];
+        for (int i = 0; i < vertexColumns.length; i++) {
+            vertexColumns[i] = columnsByVertex.get(vertices.get(i).getId());
+        }
+        return vertexColumns;
+    }
+}
@@ -0,0 +1,76 @@
+package io.improbable.keanu.algorithms.particlefiltering;
+
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.network.BayesianNetwork;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class OnlineParticleFilterBuilder {
+
+    private final BayesianNetwork network;
+    private int numParticles = 1000;
+    private ResamplingScheme resamplingScheme = ResamplingScheme.SYSTEMATIC;
+    private double resamplingThreshold = 0.5;
+    private KeanuRandom random = KeanuRandom.getDefaultRandom();
+    private ForkJoinPool pool = null;
+
+    /**
+     * @param network the Bayesian network to filter
+     */
+    public OnlineParticleFilterBuilder(BayesianNetwork network) {
+        this.network = network;
+    }
+
+    /**
+     * @param numParticles the number of particles to generate (a larger number will yield better results but is more
+     *                     computationally expensive)
+     * @return this
+     */
+    public OnlineParticleFilterBuilder withNumParticles(int numParticles) {
+        this.numParticles = numParticles;
+        return this;
+    }
+
+    /**
+     * @param resamplingScheme how particles are chosen when they are resampled
+     * @return this
+     */
+    public OnlineParticleFilterBuilder withResamplingScheme(ResamplingScheme resamplingScheme) {
+        this.resamplingScheme = resamplingScheme;
+        return this;
+    }
+
+    /**
+     * @param resamplingThreshold the particles are resampled after an observation if their effective sample size is
+     *                            less than this proportion of the number of particles. 1 resamples after every
+     *                            observation and 0 never resamples.
+     * @return this
+     */
+    public OnlineParticleFilterBuilder withResamplingThreshold(double resamplingThreshold) {
+        this.resamplingThreshold = resamplingThreshold;
+        return this;
+    }
+
+    /**
+     * @param random A {@link KeanuRandom KeanuRandom} used for resampling and to seed the random of each thread
+     * @return this
+     */
+    public OnlineParticleFilterBuilder withRandom(KeanuRandom random) {
+        this.random = random;
+        return this;
+    }
+
+    /**
+     * @param pool the pool to update particles in. The particles are split between a copy of the network for each
+     *             thread of the pool. By default the particles are updated in the calling thread.
+     * @return this
+     */
+    public OnlineParticleFilterBuilder withPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    public OnlineParticleFilter build() {
+        return new OnlineParticleFilter(network, numParticles, resamplingScheme, resamplingThreshold, random, pool);
+    }
+}
@@ -0,0 +1,281 @@
+package io.improbable.keanu.algorithms.particlefiltering;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleBuffer;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.dbl.JVMDoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerBuffer;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.tensor.intgr.JVMIntegerTensor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The values of the latent vertices of every particle in an {@link OnlineParticleFilter}. The values of each vertex
+ * are held in one column, which for double, integer and boolean tensors is a single primitive array with the values
+ * of every particle laid out one after another.
+ * <p>
+ * Particles are written to by many threads, each of which owns a distinct range of particles. Columns are only added
+ * and particles are only resampled by one thread, between the writes.
+ */
+class ParticleColumns {
+
+    private final int particleCount;
+    private final List<Column> columns;
+
+    ParticleColumns(int particleCount) {
+        this.particleCount = particleCount;
+        this.columns = new ArrayList<>();
+    }
+
+    /**
+     * @param type  the type of the values of the vertex (see {@link io.improbable.keanu.vertices.Vertex#ofType()})
+     * @param shape the shape of the values of the vertex
+     * @return the index of the new column
+     */
+    int addColumn(Class<?> type, long[] shape) {
+        if (DoubleTensor.class.equals(type)) {
+            columns.add(new DoubleColumn(shape, particleCount));
+        } else if (IntegerTensor.class.equals(type)) {
+            columns.add(new IntegerColumn(shape, particleCount));
+        } else if (BooleanTensor.class.equals(type)) {
+            columns.add(new BooleanColumn(shape, particleCount));
+        } else {
+            columns.add(new ObjectColumn(particleCount));
+        }
+        return columns.size() - 1;
+    }
+
+    void set(int column, int particle, Object value) {
+        columns.get(column).set(particle, value);
+    }
+
+    Object get(int column, int particle) {
+        return columns.get(column).get(particle);
+    }
+
+    /**
+     * Reads the value of a particle into a tensor that was returned by an earlier read of the same column, rather than
+     * allocating a new one. This is for values that are only used until the next particle is read, such as the values
+     * given to a copy of the network.
+     *
+     * @param reused a value previously returned by this method for the column, or null
+     * @return reused holding the value of the particle, or a new value if there is nothing to reuse
+     */
+    Object read(int column, int particle, Object reused) {
+        return columns.get(column).read(particle, reused);
+    }
+
+    /**
+     * @param column a column of double tensors
+     * @return the values of every particle, one after another. This is the array backing the column, so must not
+     * be modified.
+     */
+    double[] getDoubles(int column) {
+        Column values = columns.get(column);
+        Preconditions.checkArgument(values instanceof DoubleColumn, "Column %s does not hold double tensors", column);
+        return ((DoubleColumn) values).data;
+    }
+
+    long[] getShape(int column) {
+        return columns.get(column).shape;
+    }
+
+    /**
+     * Replaces the particles by copies of their ancestors
+     *
+     * @param ancestors the particle that each particle is a copy of
+     */
+    void resample(int[] ancestors) {
+        for (Column column : columns) {
+            column.resample(ancestors);
+        }
+    }
+
+    private abstract static class Column {
+        final long[] shape;
+        final int length;
+
+        Column(long[] shape) {
+            this.shape = shape;
+            this.length = Math.toIntExact(TensorShape.getLength(shape));
+        }
+
+        abstract void set(int particle, Object value);
+
+        abstract Object get(int particle);
+
+        Object read(int particle, Object reused) {
+            return get(particle);
+        }
+
+        abstract void resample(int[] ancestors);
+
+        void checkShape(long[] valueShape) {
+            Preconditions.checkArgument(Arrays.equals(shape, valueShape),
+                "Expected a value of shape %s but got %s", Arrays.toString(shape), Arrays.toString(valueShape)
+            );
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+        private double[] data;
+        private double[] scratch;
+
+        DoubleColumn(long[] shape, int particleCount) {
+            super(shape);
+            this.data = new double[particleCount * length];
+            this.scratch = new double[particleCount * length];
+        }
+
+        @Override
+        void set(int particle, Object value) {
+            DoubleTensor tensor = (DoubleTensor) value;
+            checkShape(tensor.getShape());
+            System.arraycopy(tensor.asFlatDoubleArray(), 0, data, particle * length, length);
+        }
+
+        @Override
+        Object get(int particle) {
+            return DoubleTensor.create(Arrays.copyOfRange(data, particle * length, (particle + 1) * length), shape);
+        }
+
+        @Override
+        Object read(int particle, Object reused) {
+            if (!(reused instanceof JVMDoubleTensor)) {
+                return get(particle);
+            }
+            DoubleBuffer.PrimitiveDoubleWrapper buffer = ((JVMDoubleTensor) reused).getBuffer();
+            final int offset = particle * length;
+            for (int i = 0; i < length; i++) {
+                buffer.setDouble(data[offset + i], i);
+            }
+            return reused;
+        }
+
+        @Override
+        void resample(int[] ancestors) {
+            for (int i = 0; i < ancestors.length; i++) {
+                System.arraycopy(data, ancestors[i] * length, scratch, i * length, length);
+            }
+            double[] resampled = scratch;
+            scratch = data;
+            data = resampled;
+        }
+    }
+
+    private static class IntegerColumn extends Column {
+        private int[] data;
+        private int[] scratch;
+
+        IntegerColumn(long[] shape, int particleCount) {
+            super(shape);
+            this.data = new int[particleCount * length];
+            this.scratch = new int[particleCount * length];
+        }
+
+        @Override
+        void set(int particle, Object value) {
+            IntegerTensor tensor = (IntegerTensor) value;
+            checkShape(tensor.getShape());
+            System.arraycopy(tensor.asFlatIntegerArray(), 0, data, particle * length, length);
+        }
+
+        @Override
+        Object get(int particle) {
+            return IntegerTensor.create(Arrays.copyOfRange(data, particle * length, (particle + 1) * length), shape);
+        }
+
+        @Override
+        Object read(int particle, Object reused) {
+            if (!(reused instanceof JVMIntegerTensor)) {
+                return get(particle);
+            }
+            IntegerBuffer.PrimitiveIntegerWrapper buffer = ((JVMIntegerTensor) reused).getBuffer();
+            if (buffer instanceof IntegerBuffer.IntegerArrayWrapper) {
+                System.arraycopy(data, particle * length, buffer.asIntegerArray(), 0, length);
+            } else {
+                buffer.set(data[particle * length], 0);
+            }
+            return reused;
+        }
+
+        @Override
+        void resample(int[] ancestors) {
+            for (int i = 0; i < ancestors.length; i++) {
+                System.arraycopy(data, ancestors[i] * length, scratch, i * length, length);
+            }
+            int[] resampled = scratch;
+            scratch = data;
+            data = resampled;
+        }
+    }
+
+    private static class BooleanColumn extends Column {
+        private boolean[] data;
+        private boolean[] scratch;
+
+        BooleanColumn(long[] shape, int particleCount) {
+            super(shape);
+            this.data = new boolean[particleCount * length];
+            this.scratch = new boolean[particleCount * length];
+        }
+
+        @Override
+        void set(int particle, Object value) {
+            BooleanTensor tensor = (BooleanTensor) value;
+            checkShape(tensor.getShape());
+            System.arraycopy(tensor.asFlatBooleanArray(), 0, data, particle * length, length);
+        }
+
+        @Override
+        Object get(int particle) {
+            return BooleanTensor.create(Arrays.copyOfRange(data, particle * length, (particle + 1) * length), shape);
+        }
+
+        @Override
+        void resample(int[] ancestors) {
+            for (int i = 0; i < ancestors.length; i++) {
+                System.arraycopy(data, ancestors[i] * length, scratch, i * length, length);
+            }
+            boolean[] resampled = scratch;
+            scratch = data;
+            data = resampled;
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        private Object[] data;
+        private Object[] scratch;
+
+        ObjectColumn(int particleCount) {
+            super(new long[0]);
+            this.data = new Object[particleCount];
+            this.scratch = new Object[particleCount];
+        }
+
+        @Override
+        void set(int particle, Object value) {
+            data[particle] = value;
+        }
+
+        @Override
+        Object get(int particle) {
+            return data[particle];
+        }
+
+        @Override
+        void resample(int[] ancestors) {
+            for (int i = 0; i < ancestors.length; i++) {
+                scratch[i] = data[ancestors[i]];
+            }
+            Object[] resampled = scratch;
+            scratch = data;
+            data = resampled;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package io.improbable.keanu.algorithms.particlefiltering;
+
+import io.improbable.keanu.KeanuRandom;
+
+/**
+ * How the particles of an {@link OnlineParticleFilter} are resampled. Both schemes take one draw from each of N
+ * equal strata of the cumulative weights, which has less variance than drawing N particles independently.
+ */
+public enum ResamplingScheme {
+
+    /**
+     * One uniform draw, shared by every stratum
+     */
+    SYSTEMATIC {
+        @Override
+        double positionInStratum(KeanuRandom random, double sharedDraw) {
+            return sharedDraw;
+        }
+    },
+
+    /**
+     * An independent uniform draw in each stratum
+     */
+    STRATIFIED {
+        @Override
+        double positionInStratum(KeanuRandom random, double sharedDraw) {
+            return random.nextDouble();
+        }
+    };
+
+    abstract double positionInStratum(KeanuRandom random, double sharedDraw);
+
+    /**
+     * @param weights   the normalised weight of each particle
+     * @param random    the source of randomness
+     * @param ancestors filled with the particle that each resampled particle is a copy of
+     */
+    void resample(double[] weights, KeanuRandom random, int[] ancestors) {
+        int particleCount = weights.length;
+        double sharedDraw = random.nextDouble();
+
+        int ancestor = 0;
+        double cumulativeWeight = weights[0];
+        for (int i = 0; i < particleCount; i++) {
+            double position = (i + positionInStratum(random, sharedDraw)) / particleCount;
+            while (position > cumulativeWeight && ancestor < particleCount - 1) {
+                ancestor++;
+                cumulativeWeight += weights[ancestor];
+            }
+            ancestors[i] = ancestor;
+        }
+    }
+}
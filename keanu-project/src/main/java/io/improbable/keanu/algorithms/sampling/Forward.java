@@ -24,20 +24,33 @@ public class Forward implements PosteriorSamplingAlgorithm {
 
     private final KeanuRandom random;
     private final boolean calculateSampleProbability;
+    private final int batchSize;
 
     public static ForwardBuilder builder() {
         return new ForwardBuilder();
     }
 
     public Forward(KeanuRandom random, boolean calculateSampleProbability) {
+        this(random, calculateSampleProbability, 1);
+    }
+
+    /**
+     * @param random                     the source of randomness
+     * @param calculateSampleProbability whether to calculate the log prob of each sample
+     * @param batchSize                  the number of samples to draw from the prior at once. See {@link ForwardSampler}.
+     */
+    public Forward(KeanuRandom random, boolean calculateSampleProbability, int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "Batch size of %s is invalid. It must be at least 1.", batchSize);
         this.random = random;
         this.calculateSampleProbability = calculateSampleProbability;
+        this.batchSize = batchSize;
     }
 
     /**
      * Samples from the prior of a Probabilistic Model.
      * <p>
-     * Samples are taken by sampling from the prior of the desired variables in topological order.
+     * Samples are taken by sampling from the prior of the desired variables in topological order. With a batch size
+     * greater than 1 the graph is walked once per batch rather than once per sample.
      *
      * @param model                 the model to sample from
      * @param variablesToSampleFrom the variables to sample from
@@ -76,7 +89,7 @@ public class Forward implements PosteriorSamplingAlgorithm {
 
         List<Vertex> sortedVertices = TopologicalSort.sort(intersection);
 
-        return new ForwardSampler(network, verticesToSampleFrom, sortedVertices, random, calculateSampleProbability);
+        return new ForwardSampler(network, verticesToSampleFrom, sortedVertices, random, calculateSampleProbability, batchSize);
     }
 
     private BayesianNetwork checkSampleFromVariablesComeFromConnectedGraph(List<? extends Variable> variablesToSampleFrom) {
@@ -106,6 +119,7 @@ public class Forward implements PosteriorSamplingAlgorithm {
     public static class ForwardBuilder {
         private KeanuRandom random = KeanuRandom.getDefaultRandom();
         private boolean calculateSampleProbability = false;
+        private int batchSize = 1;
 
         ForwardBuilder() {
         }
@@ -120,12 +134,23 @@ public class Forward implements PosteriorSamplingAlgorithm {
             return this;
         }
 
+        /**
+         * @param batchSize the number of samples to draw at once by sampling every vertex with an extra leading
+         *                  dimension. This needs every sampled operation to broadcast over that dimension. This
+         *                  defaults to 1, which samples one at a time.
+         * @return the builder for Forward
+         */
+        public ForwardBuilder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
         public Forward build() {
-            return new Forward(random, calculateSampleProbability);
+            return new Forward(random, calculateSampleProbability, batchSize);
         }
 
         public String toString() {
-            return "ForwardBuilder(random=" + this.random + ", calculateSampleProbability=" + this.calculateSampleProbability + ")";
+            return "ForwardBuilder(random=" + this.random + ", calculateSampleProbability=" + this.calculateSampleProbability + ", batchSize=" + this.batchSize + ")";
         }
     }
 }
@@ -1,17 +1,27 @@
 package io.improbable.keanu.algorithms.sampling;
 
+import com.google.common.base.Preconditions;
 import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.algorithms.NetworkSample;
 import io.improbable.keanu.algorithms.Variable;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.algorithms.mcmc.SamplingAlgorithm;
 import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.Tensor;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.NonProbabilistic;
 import io.improbable.keanu.vertices.Probabilistic;
+import io.improbable.keanu.vertices.SamplableWithShape;
 import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.VertexId;
+import io.improbable.keanu.vertices.tensor.VertexWrapper;
 
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static io.improbable.keanu.algorithms.mcmc.SamplingUtil.takeSamples;
 
@@ -25,17 +35,50 @@ public class ForwardSampler implements SamplingAlgorithm {
     private final List<Vertex> topologicallySortedVertices;
     private final KeanuRandom random;
     private final boolean calculateSampleProbability;
+    private final int batchSize;
+
+    private final Tensor[] batch;
+    private int nextInBatch;
 
     public ForwardSampler(BayesianNetwork network, List<? extends Variable> variablesToSampleFrom, List<Vertex> topologicallySortedVertices, KeanuRandom random, boolean calculateSampleProbability) {
+        this(network, variablesToSampleFrom, topologicallySortedVertices, random, calculateSampleProbability, 1);
+    }
+
+    /**
+     * @param batchSize the number of samples to draw at once. When this is greater than 1 every vertex is given a
+     *                  value with an extra leading dimension of this length, each probabilistic vertex is sampled
+     *                  with that shape and each non-probabilistic vertex calculates its value from its batched
+     *                  parents. This is only done for non-probabilistic vertices whose operation is elementwise, and
+     *                  whose batched parents have the same rank as them, so that their values broadcast over the
+     *                  leading dimension. An exception is thrown for any other non-probabilistic vertex.
+     *                  Each step then sets the vertices to the next sample of the batch.
+     */
+    public ForwardSampler(BayesianNetwork network, List<? extends Variable> variablesToSampleFrom, List<Vertex> topologicallySortedVertices, KeanuRandom random, boolean calculateSampleProbability, int batchSize) {
+        Preconditions.checkArgument(batchSize > 0, "Batch size of %s is invalid. It must be at least 1.", batchSize);
         this.network = network;
         this.variablesToSampleFrom = variablesToSampleFrom;
         this.topologicallySortedVertices = topologicallySortedVertices;
         this.random = random;
         this.calculateSampleProbability = calculateSampleProbability;
+        this.batchSize = batchSize;
+        this.batch = new Tensor[topologicallySortedVertices.size()];
+        this.nextInBatch = batchSize;
     }
 
     @Override
     public void step() {
+        if (batchSize == 1) {
+            sampleOnce();
+        } else {
+            if (nextInBatch == batchSize) {
+                sampleBatch();
+                nextInBatch = 0;
+            }
+            setFromBatch(nextInBatch++);
+        }
+    }
+
+    private void sampleOnce() {
         for (Vertex vertex : topologicallySortedVertices) {
             if (vertex instanceof Probabilistic) {
                 vertex.setValue(((Probabilistic) vertex).sample(random));
@@ -47,6 +90,59 @@ public class ForwardSampler implements SamplingAlgorithm {
         }
     }
 
+    private void sampleBatch() {
+        Set<VertexId> batched = new HashSet<>();
+        for (int i = 0; i < batch.length; i++) {
+            Vertex vertex = topologicallySortedVertices.get(i);
+            if (vertex.isObserved()) {
+                batch[i] = null;
+                continue;
+            }
+
+            long[] batchedShape = TensorShape.concat(new long[]{batchSize}, vertex.getShape());
+            if (vertex instanceof Probabilistic && vertex instanceof SamplableWithShape) {
+                vertex.setValue(((SamplableWithShape) vertex).sampleWithShape(batchedShape, random));
+            } else if (vertex instanceof NonProbabilistic) {
+                checkBroadcastsOverTheBatch(vertex, batchedShape.length, batched);
+                vertex.setValue(((NonProbabilistic) vertex).calculate());
+            } else {
+                throw new IllegalArgumentException("Forward sampler can only sample in batches from vertices that can be sampled with a shape. Invalid Vertex: [" + vertex + "]");
+            }
+
+            Object value = vertex.getValue();
+            if (!(value instanceof Tensor) || !Arrays.equals(batchedShape, ((Tensor) value).getShape())) {
+                throw new IllegalArgumentException("Forward sampler cannot sample in batches from a vertex whose value does not broadcast over the batch. Invalid Vertex: [" + vertex + "]");
+            }
+            batch[i] = (Tensor) value;
+            batched.add(vertex.getId());
+        }
+    }
+
+    /**
+     * Operations that index dimensions, such as a sum or a cumulative sum over a dimension, would treat the batch
+     * as part of the value. Whether they do can't be told from the shape of their result, so only elementwise
+     * operations are allowed.
+     */
+    private static void checkBroadcastsOverTheBatch(Vertex<?, ?> vertex, int batchedRank, Set<VertexId> batched) {
+        Vertex<?, ?> operation = vertex instanceof VertexWrapper ? ((VertexWrapper<?, ?>) vertex).unwrap() : vertex;
+
+        boolean broadcasts = operation instanceof Elementwise &&
+            operation.getParents().stream()
+                .allMatch(parent -> !batched.contains(parent.getId()) || parent.getRank() == batchedRank);
+
+        if (!broadcasts) {
+            throw new IllegalArgumentException("Forward sampler cannot sample in batches from a vertex whose value does not broadcast over the batch. Invalid Vertex: [" + vertex + "]");
+        }
+    }
+
+    private void setFromBatch(int index) {
+        for (int i = 0; i < batch.length; i++) {
+            if (batch[i] != null) {
+                topologicallySortedVertices.get(i).setValue(batch[i].slice(0, index));
+            }
+        }
+    }
+
     @Override
     public void sample(Map<VariableReference, List<?>> samples, List<Double> logOfMasterPForEachSample) {
         step();
@@ -0,0 +1,119 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The moments of one chain of scalar samples, held as the {@link RunningMoments} of consecutive batches of equal
+ * size, so that the effective sample size and the split R-hat of the chain can be calculated at any point while it
+ * is sampled, in memory that does not grow with the length of the chain.
+ * <p>
+ * Batches start with one sample each. Whenever there are as many batches as the maximum, neighbouring batches are
+ * merged and the batch size doubles. Samples in the batch that is being filled are not used by the diagnostics until
+ * it is full.
+ */
+public class BatchedMoments {
+
+    private static final int DEFAULT_MAX_BATCH_COUNT = 64;
+
+    private final int maxBatchCount;
+    private final List<RunningMoments> batches;
+    private RunningMoments currentBatch;
+    private long batchSize;
+
+    public BatchedMoments() {
+        this(DEFAULT_MAX_BATCH_COUNT);
+    }
+
+    /**
+     * @param maxBatchCount the number of batches at which neighbouring batches are merged. The effective sample size
+     *                      is estimated from between half this many and this many batch means.
+     */
+    public BatchedMoments(int maxBatchCount) {
+        Preconditions.checkArgument(maxBatchCount >= 4 && maxBatchCount % 2 == 0,
+            "Max batch count of %s is invalid. It must be an even number of at least 4.", maxBatchCount
+        );
+        this.maxBatchCount = maxBatchCount;
+        this.batches = new ArrayList<>(maxBatchCount);
+        this.currentBatch = new RunningMoments();
+        this.batchSize = 1;
+    }
+
+    public void add(double sample) {
+        currentBatch.add(sample);
+        if (currentBatch.getCount() < batchSize) {
+            return;
+        }
+
+        batches.add(currentBatch);
+        currentBatch = new RunningMoments();
+
+        if (batches.size() == maxBatchCount) {
+            for (int i = 0; i < maxBatchCount / 2; i++) {
+                RunningMoments merged = batches.get(2 * i);
+                merged.add(batches.get(2 * i + 1));
+                batches.set(i, merged);
+            }
+            batches.subList(maxBatchCount / 2, maxBatchCount).clear();
+            batchSize *= 2;
+        }
+    }
+
+    /**
+     * @return the number of samples in full batches
+     */
+    public long getCount() {
+        return batches.size() * batchSize;
+    }
+
+    /**
+     * @return the moments of every sample in full batches
+     */
+    public RunningMoments getMoments() {
+        return combine(0, batches.size());
+    }
+
+    /**
+     * Estimates the effective sample size from the variance of the batch means, which is the variance of the mean of a
+     * batch of correlated samples.
+     *
+     * @return the number of independent samples that would give the mean the same variance as the samples so far, or
+     * NaN if there are fewer than two full batches or the samples have not varied
+     */
+    public double getEffectiveSampleSize() {
+        if (batches.size() < 2) {
+            return Double.NaN;
+        }
+
+        RunningMoments batchMeans = new RunningMoments();
+        for (RunningMoments batch : batches) {
+            batchMeans.add(batch.getMean());
+        }
+
+        double variance = getMoments().getVariance();
+        double varianceOfMean = batchMeans.getVariance() * batchSize;
+        if (variance == 0.0 || varianceOfMean == 0.0) {
+            return Double.NaN;
+        }
+        return getCount() * variance / varianceOfMean;
+    }
+
+    /**
+     * @return the moments of the first and second halves of the full batches, which split R-hat treats as two chains
+     * of equal length. Both are empty if there are fewer than two full batches.
+     */
+    public RunningMoments[] getHalves() {
+        int halfCount = batches.size() / 2;
+        return new RunningMoments[]{combine(0, halfCount), combine(halfCount, 2 * halfCount)};
+    }
+
+    private RunningMoments combine(int from, int to) {
+        RunningMoments combined = new RunningMoments();
+        for (int i = from; i < to; i++) {
+            combined.add(batches.get(i));
+        }
+        return combined;
+    }
+}
@@ -0,0 +1,55 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.List;
+
+/**
+ * Convergence diagnostics of scalar samples from one or more chains, calculated from {@link BatchedMoments} so that
+ * they can be checked while sampling.
+ */
+@UtilityClass
+public class ConvergenceDiagnostics {
+
+    /**
+     * Calculates the split R-hat of Gelman et al, which compares the variance between the halves of the chains with
+     * the variance within them. Values close to 1 suggest that the chains have converged to the same distribution.
+     *
+     * @param chains the samples of each chain
+     * @return the split R-hat, or NaN if a chain has fewer than two full batches or the samples have not varied
+     */
+    public static double splitRHat(List<BatchedMoments> chains) {
+        RunningMoments halfChainMeans = new RunningMoments();
+        RunningMoments withinHalfChainVariances = new RunningMoments();
+        long halfChainLength = Long.MAX_VALUE;
+
+        for (BatchedMoments chain : chains) {
+            for (RunningMoments half : chain.getHalves()) {
+                halfChainMeans.add(half.getMean());
+                withinHalfChainVariances.add(half.getVariance());
+                halfChainLength = Math.min(halfChainLength, half.getCount());
+            }
+        }
+
+        double withinVariance = withinHalfChainVariances.getMean();
+        double betweenVarianceOverLength = halfChainMeans.getVariance();
+        if (halfChainLength < 2 || Double.isNaN(withinVariance) || withinVariance == 0.0) {
+            return Double.NaN;
+        }
+
+        double pooledVariance = (halfChainLength - 1.0) / halfChainLength * withinVariance + betweenVarianceOverLength;
+        return Math.sqrt(pooledVariance / withinVariance);
+    }
+
+    /**
+     * @param chains the samples of each chain
+     * @return the sum of the batch means effective sample size of each chain, or NaN if it is not known for a chain
+     */
+    public static double effectiveSampleSize(List<BatchedMoments> chains) {
+        double effectiveSampleSize = 0.0;
+        for (BatchedMoments chain : chains) {
+            effectiveSampleSize += chain.getEffectiveSampleSize();
+        }
+        return effectiveSampleSize;
+    }
+}
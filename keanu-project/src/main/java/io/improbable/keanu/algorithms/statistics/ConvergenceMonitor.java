@@ -0,0 +1,224 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.tensor.NumberTensor;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks the effective sample size and split R-hat of every element of some variables while they are sampled, so that
+ * sampling can stop as soon as they have converged (see
+ * {@link io.improbable.keanu.algorithms.mcmc.NetworkSamplesGenerator#stopWhenConverged(ConvergenceMonitor)}).
+ * <p>
+ * The samples are held as {@link BatchedMoments}, so the memory used does not grow with the number of samples. The
+ * monitored variables have converged once every element of every variable has at least the target effective sample
+ * size, summed over the chains, and a split R-hat no greater than the maximum. An element whose samples have not
+ * varied has no effective sample size, so is never considered converged.
+ */
+public class ConvergenceMonitor {
+
+    private final List<VariableReference> references;
+    private final int chainCount;
+    private final double targetEffectiveSampleSize;
+    private final double maxRHat;
+    private final int maxBatchCount;
+
+    private final Map<VariableReference, List<List<BatchedMoments>>> momentsByVariable;
+
+    private ConvergenceMonitor(List<VariableReference> references,
+                               int chainCount,
+                               double targetEffectiveSampleSize,
+                               double maxRHat,
+                               int maxBatchCount) {
+        this.references = references;
+        this.chainCount = chainCount;
+        this.targetEffectiveSampleSize = targetEffectiveSampleSize;
+        this.maxRHat = maxRHat;
+        this.maxBatchCount = maxBatchCount;
+        this.momentsByVariable = new HashMap<>();
+    }
+
+    public static ConvergenceMonitorBuilder builder() {
+        return new ConvergenceMonitorBuilder();
+    }
+
+    public List<VariableReference> getReferences() {
+        return references;
+    }
+
+    /**
+     * Records a sample of a monitored variable.
+     *
+     * @param chainId   the chain the sample was taken by, from 0 to the chain count - 1
+     * @param reference the monitored variable
+     * @param value     the sampled value, which must be a number tensor or a boolean tensor
+     */
+    public void record(int chainId, VariableReference reference, Object value) {
+        Preconditions.checkArgument(chainId >= 0 && chainId < chainCount, "Chain %s is not one of the %s monitored chains", chainId, chainCount);
+
+        double[] elements = asFlatDoubleArray(reference, value);
+        List<List<BatchedMoments>> momentsByElement = momentsByVariable.computeIfAbsent(reference, r -> newMoments(elements.length));
+        Preconditions.checkArgument(momentsByElement.size() == elements.length,
+            "Sample of %s has %s elements but earlier samples had %s", reference, elements.length, momentsByElement.size()
+        );
+
+        for (int i = 0; i < elements.length; i++) {
+            momentsByElement.get(i).get(chainId).add(elements[i]);
+        }
+    }
+
+    /**
+     * @return the smallest effective sample size of any element of the monitored variables, summed over the chains,
+     * or NaN if it is not yet known for an element
+     */
+    public double getMinEffectiveSampleSize() {
+        double min = Double.POSITIVE_INFINITY;
+        for (List<BatchedMoments> chains : allElements()) {
+            double effectiveSampleSize = ConvergenceDiagnostics.effectiveSampleSize(chains);
+            if (Double.isNaN(effectiveSampleSize)) {
+                return Double.NaN;
+            }
+            min = Math.min(min, effectiveSampleSize);
+        }
+        return min;
+    }
+
+    /**
+     * @return the largest split R-hat of any element of the monitored variables, or NaN if it is not yet known for an
+     * element
+     */
+    public double getMaxRHat() {
+        double max = Double.NEGATIVE_INFINITY;
+        for (List<BatchedMoments> chains : allElements()) {
+            double rHat = ConvergenceDiagnostics.splitRHat(chains);
+            if (Double.isNaN(rHat)) {
+                return Double.NaN;
+            }
+            max = Math.max(max, rHat);
+        }
+        return max;
+    }
+
+    /**
+     * @return true if every monitored variable has been sampled and has converged
+     */
+    public boolean hasConverged() {
+        if (momentsByVariable.size() < references.size()) {
+            return false;
+        }
+
+        double minEffectiveSampleSize = getMinEffectiveSampleSize();
+        double maxRHatSoFar = getMaxRHat();
+        return minEffectiveSampleSize >= targetEffectiveSampleSize && maxRHatSoFar <= maxRHat;
+    }
+
+    private List<List<BatchedMoments>> allElements() {
+        List<List<BatchedMoments>> elements = new ArrayList<>();
+        for (List<List<BatchedMoments>> momentsByElement : momentsByVariable.values()) {
+            elements.addAll(momentsByElement);
+        }
+        return elements;
+    }
+
+    private List<List<BatchedMoments>> newMoments(int elementCount) {
+        List<List<BatchedMoments>> momentsByElement = new ArrayList<>(elementCount);
+        for (int i = 0; i < elementCount; i++) {
+            List<BatchedMoments> momentsByChain = new ArrayList<>(chainCount);
+            for (int chainId = 0; chainId < chainCount; chainId++) {
+                momentsByChain.add(new BatchedMoments(maxBatchCount));
+            }
+            momentsByElement.add(momentsByChain);
+        }
+        return momentsByElement;
+    }
+
+    private static double[] asFlatDoubleArray(VariableReference reference, Object value) {
+        if (value instanceof NumberTensor) {
+            return ((NumberTensor<?, ?>) value).asFlatDoubleArray();
+        } else if (value instanceof BooleanTensor) {
+            return ((BooleanTensor) value).asFlatDoubleArray();
+        } else if (value instanceof Number) {
+            return new double[]{((Number) value).doubleValue()};
+        }
+        throw new IllegalArgumentException("Cannot monitor the convergence of " + reference + " with values of " + value.getClass());
+    }
+
+    public static class ConvergenceMonitorBuilder {
+        private List<VariableReference> references = new ArrayList<>();
+        private int chainCount = 1;
+        private double targetEffectiveSampleSize = 400.0;
+        private double maxRHat = 1.01;
+        private int maxBatchCount = 64;
+
+        /**
+         * @param variables the variables to monitor
+         * @return the builder for ConvergenceMonitor
+         */
+        public ConvergenceMonitorBuilder variables(List<? extends Variable> variables) {
+            this.references = new ArrayList<>(variables.size());
+            for (Variable variable : variables) {
+                references.add(variable.getReference());
+            }
+            return this;
+        }
+
+        public ConvergenceMonitorBuilder variables(Variable... variables) {
+            return variables(Arrays.asList(variables));
+        }
+
+        /**
+         * @param chainCount the number of chains whose samples are recorded. This defaults to 1.
+         * @return the builder for ConvergenceMonitor
+         */
+        public ConvergenceMonitorBuilder chainCount(int chainCount) {
+            Preconditions.checkArgument(chainCount > 0, "Chain count of %s is invalid. At least one chain is required.", chainCount);
+            this.chainCount = chainCount;
+            return this;
+        }
+
+        /**
+         * @param targetEffectiveSampleSize the effective sample size every element must reach. This defaults to 400.
+         * @return the builder for ConvergenceMonitor
+         */
+        public ConvergenceMonitorBuilder targetEffectiveSampleSize(double targetEffectiveSampleSize) {
+            this.targetEffectiveSampleSize = targetEffectiveSampleSize;
+            return this;
+        }
+
+        /**
+         * @param maxRHat the split R-hat that no element may exceed. This defaults to 1.01.
+         * @return the builder for ConvergenceMonitor
+         */
+        public ConvergenceMonitorBuilder maxRHat(double maxRHat) {
+            Preconditions.checkArgument(maxRHat >= 1.0, "Max R-hat of %s is invalid. It must be at least 1.", maxRHat);
+            this.maxRHat = maxRHat;
+            return this;
+        }
+
+        /**
+         * @param maxBatchCount the number of batch means each element is held as (see {@link BatchedMoments}).
+         *                      This defaults to 64.
+         * @return the builder for ConvergenceMonitor
+         */
+        public ConvergenceMonitorBuilder maxBatchCount(int maxBatchCount) {
+            this.maxBatchCount = maxBatchCount;
+            return this;
+        }
+
+        public ConvergenceMonitor build() {
+            Preconditions.checkArgument(!references.isEmpty(), "At least one variable must be monitored");
+            return new ConvergenceMonitor(references, chainCount, targetEffectiveSampleSize, maxRHat, maxBatchCount);
+        }
+
+        public String toString() {
+            return "ConvergenceMonitor.ConvergenceMonitorBuilder(references=" + this.references + ", chainCount=" + this.chainCount + ", targetEffectiveSampleSize=" + this.targetEffectiveSampleSize + ", maxRHat=" + this.maxRHat + ", maxBatchCount=" + this.maxBatchCount + ")";
+        }
+    }
+}
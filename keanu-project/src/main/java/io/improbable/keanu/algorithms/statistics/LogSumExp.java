@@ -0,0 +1,43 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * The log of a sum of values that are given as logs, calculated relative to the largest so that it neither overflows
+ * nor underflows.
+ */
+@UtilityClass
+public class LogSumExp {
+
+    /**
+     * @return log(exp(a) + exp(b)), which is negative infinity if both are negative infinity
+     */
+    public static double logSumExp(double a, double b) {
+        final double max = Math.max(a, b);
+        if (max == Double.NEGATIVE_INFINITY) {
+            return max;
+        }
+        return max + Math.log(Math.exp(a - max) + Math.exp(b - max));
+    }
+
+    /**
+     * @return the log of the sum of the exp of each value, which is negative infinity if every value is negative
+     * infinity or there are no values
+     */
+    public static double logSumExp(double[] logValues) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (double logValue : logValues) {
+            max = Math.max(max, logValue);
+        }
+
+        if (max == Double.NEGATIVE_INFINITY) {
+            return max;
+        }
+
+        double sum = 0.0;
+        for (double logValue : logValues) {
+            sum += Math.exp(logValue - max);
+        }
+        return max + Math.log(sum);
+    }
+}
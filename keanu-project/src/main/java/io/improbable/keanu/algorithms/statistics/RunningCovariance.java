@@ -0,0 +1,112 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import java.util.Arrays;
+
+/**
+ * The mean and covariance of a stream of vectors, updated one vector at a time with Welford's algorithm, which is the
+ * multivariate form of {@link RunningMoments}.
+ * <p>
+ * The covariance is the sum of the outer products of the deviations from the mean divided by the weight of the
+ * vectors, rather than by one less than it. The accumulator can start with a prior weight, as if that many vectors
+ * with a given mean and variance had already been added.
+ */
+public class RunningCovariance {
+
+    private final int dimension;
+    private final double[] mean;
+    private final double[] delta;
+
+    /**
+     * The sums of the products of deviations from the mean. Only the lower triangle, where j is at most i, is kept
+     * up to date.
+     */
+    private final double[] sumOfProducts;
+
+    private long count = 0;
+    private double weight;
+
+    public RunningCovariance(int dimension) {
+        this(dimension, 0.0, 0.0, 0.0);
+    }
+
+    /**
+     * @param dimension     the length of each vector
+     * @param priorMean     the mean of every element before any vector is added
+     * @param priorVariance the variance of every element before any vector is added. Elements start uncorrelated.
+     * @param priorWeight   how many vectors the prior counts as
+     */
+    public RunningCovariance(int dimension, double priorMean, double priorVariance, double priorWeight) {
+        this.dimension = dimension;
+        this.mean = new double[dimension];
+        this.delta = new double[dimension];
+        this.sumOfProducts = new double[dimension * dimension];
+        this.weight = priorWeight;
+
+        Arrays.fill(mean, priorMean);
+        for (int i = 0; i < dimension; i++) {
+            sumOfProducts[i * dimension + i] = priorVariance * priorWeight;
+        }
+    }
+
+    public void add(double[] value) {
+        count++;
+        weight += 1.0;
+
+        for (int i = 0; i < dimension; i++) {
+            delta[i] = value[i] - mean[i];
+            mean[i] += delta[i] / weight;
+        }
+
+        for (int i = 0; i < dimension; i++) {
+            final double deltaAfter = value[i] - mean[i];
+            final int row = i * dimension;
+            for (int j = 0; j <= i; j++) {
+                sumOfProducts[row + j] += delta[j] * deltaAfter;
+            }
+        }
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    /**
+     * @return the number of vectors added, not counting the prior weight
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of vectors added, plus the prior weight
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    public double getMean(int i) {
+        return mean[i];
+    }
+
+    /**
+     * @return the covariance of the ith and jth elements
+     */
+    public double getCovariance(int i, int j) {
+        return i >= j ? sumOfProducts[i * dimension + j] / weight : sumOfProducts[j * dimension + i] / weight;
+    }
+
+    /**
+     * @return the covariance matrix in row major order
+     */
+    public double[] getCovariance() {
+        double[] covariance = new double[dimension * dimension];
+        for (int i = 0; i < dimension; i++) {
+            for (int j = 0; j <= i; j++) {
+                final double value = sumOfProducts[i * dimension + j] / weight;
+                covariance[i * dimension + j] = value;
+                covariance[j * dimension + i] = value;
+            }
+        }
+        return covariance;
+    }
+}
@@ -0,0 +1,51 @@
+package io.improbable.keanu.algorithms.statistics;
+
+/**
+ * The count, mean and variance of a stream of values, updated one value at a time with Welford's algorithm, which
+ * does not lose precision when the variance is small relative to the mean.
+ */
+public class RunningMoments {
+
+    private long count = 0;
+    private double mean = 0.0;
+    private double sumOfSquaredDeviations = 0.0;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumOfSquaredDeviations += delta * (value - mean);
+    }
+
+    /**
+     * Adds every value that was added to other, as if they had been added to this one at a time.
+     *
+     * @param other the moments to combine with these
+     */
+    public void add(RunningMoments other) {
+        if (other.count == 0) {
+            return;
+        }
+
+        long combinedCount = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / combinedCount;
+        sumOfSquaredDeviations += other.sumOfSquaredDeviations + delta * delta * count * other.count / combinedCount;
+        count = combinedCount;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the unbiased sample variance of the values, or NaN if fewer than two values have been added
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : sumOfSquaredDeviations / (count - 1);
+    }
+}
@@ -0,0 +1,32 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.nonprobabilistic.diff.AutoDiffBroadcast;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+
+/**
+ * Called by compiled graphs to sum the partials of a reverse pass into the adjoint of each value.
+ */
+@UtilityClass
+public class KeanuCompiledAdjoints {
+
+    /**
+     * @param adjoint the adjoint so far, or null if nothing has been added to it
+     * @param partial a partial of the adjoint. If the value was broadcast by the operation the partial came from, the
+     *                partial has the shape of the broadcast value.
+     * @param shape   the shape of the value
+     * @return the sum of the adjoint so far and the partial. Neither of the arguments are mutated.
+     */
+    public static DoubleTensor accumulate(Object adjoint, DoubleTensor partial, long[] shape) {
+        DoubleTensor correctedPartial = Arrays.equals(partial.getShape(), shape) ? partial : sumToShape(partial, shape);
+        return adjoint == null ? correctedPartial : ((DoubleTensor) adjoint).plus(correctedPartial);
+    }
+
+    private static DoubleTensor sumToShape(DoubleTensor partial, long[] shape) {
+        int[] broadcastDimensions = AutoDiffBroadcast.dimensionsWithShapeChange(partial.getShape(), partial.getRank(), shape);
+        DoubleTensor summed = broadcastDimensions.length == 0 ? partial : partial.sum(broadcastDimensions);
+        return summed.reshape(shape);
+    }
+}
@@ -0,0 +1,62 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import io.improbable.keanu.tensor.NumberTensor;
+import io.improbable.keanu.tensor.Tensor;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Called by compiled graphs that are evaluated at many points at once. A batched value has a leading dimension that
+ * indexes the point, followed by the shape that the value has at a single point.
+ */
+@UtilityClass
+public class KeanuCompiledBatches {
+
+    /**
+     * @param batched a batched value
+     * @param rank    the rank, at a single point, of the result of the operation that the value is an operand of
+     * @return the value with dimensions of length one inserted after the batch dimension, so that it broadcasts
+     * against unbatched operands of the given rank
+     */
+    public static <T extends Tensor<?, T>> T align(T batched, int rank) {
+        long[] shape = batched.getShape();
+        if (shape.length >= rank + 1) {
+            return batched;
+        }
+
+        long[] alignedShape = new long[rank + 1];
+        int ones = alignedShape.length - shape.length;
+        alignedShape[0] = shape[0];
+        for (int i = 1; i <= ones; i++) {
+            alignedShape[i] = 1;
+        }
+        System.arraycopy(shape, 1, alignedShape, ones + 1, shape.length - 1);
+
+        return batched.reshape(alignedShape);
+    }
+
+    /**
+     * @param batched        a batched value
+     * @param overDimensions the dimensions to sum over at a single point, or null to sum over all of them
+     * @return the sum at each point
+     */
+    public static <T extends NumberTensor<?, T>> T sum(T batched, int[] overDimensions) {
+        int rank = batched.getRank();
+
+        if (overDimensions == null) {
+            if (rank == 1) {
+                return batched;
+            }
+            int[] allButBatch = new int[rank - 1];
+            for (int i = 0; i < allButBatch.length; i++) {
+                allButBatch[i] = i + 1;
+            }
+            return batched.sum(allButBatch);
+        }
+
+        int[] batchedDimensions = new int[overDimensions.length];
+        for (int i = 0; i < overDimensions.length; i++) {
+            batchedDimensions[i] = overDimensions[i] >= 0 ? overDimensions[i] + 1 : overDimensions[i];
+        }
+        return batchedDimensions.length == 0 ? batched : batched.sum(batchedDimensions);
+    }
+}
@@ -0,0 +1,32 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import lombok.Value;
+
+/**
+ * A java expression in a compiled graph, with the closure that evaluates it. The closure reads its operands straight
+ * from the inputs and the slots of the graph. The source is only used to display the graph
+ * (see {@link KeanuCompiledGraphBuilder#getSource()}) and is never evaluated.
+ */
+@Value
+class KeanuCompiledExpression {
+
+    /**
+     * the expression as java source
+     */
+    String source;
+
+    Evaluation evaluation;
+
+    /**
+     * @param inputs the inputs of the graph, ordered by position
+     * @param slots  the values that have been calculated so far in this evaluation of the graph
+     * @return the value of the expression
+     */
+    Object evaluate(Object[] inputs, Object[] slots) {
+        return evaluation.evaluate(inputs, slots);
+    }
+
+    interface Evaluation {
+        Object evaluate(Object[] inputs, Object[] slots);
+    }
+}
@@ -1,120 +1,174 @@
 package io.improbable.keanu.backend.keanu.compiled;
 
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.backend.ComputableGraph;
 import io.improbable.keanu.backend.ComputableGraphBuilder;
 import io.improbable.keanu.backend.StringVariableReference;
+import io.improbable.keanu.tensor.NumberTensor;
+import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.tensor.VertexWrapper;
 import io.improbable.keanu.vertices.tensor.bool.nonprobabilistic.ConstantBooleanVertex;
 import io.improbable.keanu.vertices.tensor.number.fixed.intgr.nonprobabilistic.ConstantIntegerVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.nonprobabilistic.ConstantDoubleVertex;
-import org.joor.Reflect;
+import io.improbable.keanu.vertices.tensor.number.operators.unary.SumVertex;
+import lombok.Value;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
-
-import static java.util.stream.Collectors.toMap;
-
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Builds a {@link ComputableGraph} that performs the calculation described by a graph. The op mapper of each
+ * operation gives a closure that calls the operation on the values of its operands (see
+ * {@link KeanuCompiledExpression}), so building a graph doesn't need the java compiler at runtime and its cost grows
+ * linearly with the size of the graph.
+ * <p>
+ * Every value is held in a slot of an array. Inputs, constants and slots are referred to by position.
+ * <p>
+ * The builder can also add the reverse mode gradient of an output to the graph (see {@link #addGradient}), which is
+ * calculated in the same call as the outputs.
+ * <p>
+ * A batched builder (see {@link #batched()}) builds graphs that are evaluated at many points in one call. Each
+ * input is given with an extra leading dimension that indexes the point, and the batch dimension is carried through
+ * every operation that depends on an input by broadcasting.
+ */
 public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<ComputableGraph> {
 
     private static final String PACKAGE = "io.improbable.keanu.backend.keanu";
     private static final String CLASS_NAME_PREFIX = "CompiledKeanuGraph";
 
-    private StringBuilder computeSourceBuilder;
-    private StringBuilder instanceVariableBuilder;
-    private StringBuilder constructorBuilder;
-    private Map<VariableReference, KeanuCompiledVariable> lookup;
-    private Map<VariableReference, Object> variableValues;
-    private Map<VariableReference, Object> constantValues;
-    private List<VariableReference> outputs;
-
-    private int internalOpCount = 0;
+    private final List<Statement> statements;
+    private final StringBuilder instanceVariableBuilder;
+    private final StringBuilder constructorBuilder;
+    private final Map<VariableReference, KeanuCompiledVariable> lookup;
+    private final List<VariableReference> inputs;
+    private final Map<VariableReference, Object> variableValues;
+    private final List<VariableReference> outputs;
+    private final List<Operation> operations;
+    private final boolean inPlaceOperationsEnabled;
+    private final boolean batched;
+    private final Set<KeanuCompiledVariable> batchedVariables;
+
+    private int slotCount = 0;
+    private int constantCount = 0;
 
     private final String className = CLASS_NAME_PREFIX + this.hashCode();
 
     public KeanuCompiledGraphBuilder() {
-        computeSourceBuilder = new StringBuilder();
+        this(KeanuVertexToTensorOpMapper.ENABLE_IN_PLACE);
+    }
+
+    /**
+     * @param inPlaceOperationsEnabled true if operations can reuse the memory of values that are not needed after
+     *                                 them. This must be false to add a gradient to the graph, as the reverse pass
+     *                                 reads values that would otherwise be overwritten.
+     */
+    public KeanuCompiledGraphBuilder(boolean inPlaceOperationsEnabled) {
+        this(inPlaceOperationsEnabled, false);
+    }
+
+    private KeanuCompiledGraphBuilder(boolean inPlaceOperationsEnabled, boolean batched) {
+        this.inPlaceOperationsEnabled = inPlaceOperationsEnabled;
+        this.batched = batched;
+        batchedVariables = Collections.newSetFromMap(new IdentityHashMap<>());
+        statements = new ArrayList<>();
         instanceVariableBuilder = new StringBuilder();
         constructorBuilder = new StringBuilder();
         lookup = new HashMap<>();
+        inputs = new ArrayList<>();
         variableValues = new HashMap<>();
-        constantValues = new HashMap<>();
         outputs = new ArrayList<>();
+        operations = new ArrayList<>();
+    }
+
+    /**
+     * @return a builder for graphs that are evaluated at many points in one call. Every input of the graph must be
+     * given with a leading batch dimension of the same length. Only elementwise operations and sums can depend on
+     * inputs, and {@link #create} throws an IllegalArgumentException for any other operation that does.
+     */
+    public static KeanuCompiledGraphBuilder batched() {
+        return new KeanuCompiledGraphBuilder(false, true);
     }
 
     private void startSource(StringBuilder sb) {
 
         sb.append("package " + PACKAGE + ";\n");
-        sb.append(importString(Collection.class));
-        sb.append(importString(Collections.class));
-        sb.append(importString(HashMap.class));
-        sb.append(importString(Map.class));
-        sb.append(importString(VariableReference.class));
         sb.append(importString(DoubleTensor.class));
         sb.append(importString(IntegerTensor.class));
         sb.append(importString(BooleanTensor.class));
 
-        append(sb, "public final class ", className, " implements java.util.function.Function<Map<String, ?>, Map<String, ?>> {\n");
+        append(sb, "public final class ", className, " implements java.util.function.Function<Object[], Object[]> {\n");
     }
 
     private String importString(Class<?> clazz) {
         return "import " + clazz.getCanonicalName() + ";\n";
     }
 
-    private void endSource(StringBuilder sb) {
-        sb.append("Map<String, Object>  results = new HashMap<>();\n");
-        sb.append("\n");
-
-        for (VariableReference out : outputs) {
-            String name = lookup.get(out).getName();
-            append(sb, "results.put(\"", out.toStringReference(), "\", ", name, ");\n");
+    private void appendCompute(StringBuilder sb) {
+        sb.append("public Object[] apply(final Object[] inputs) {\n");
+        append(sb, "final Object[] s = new Object[", Integer.toString(slotCount), "];\n");
+        for (Statement statement : statements) {
+            append(sb, "s[", Integer.toString(statement.getSlot()), "] = ", statement.getExpression().getSource(), ";\n");
         }
 
-        sb.append("return results;\n");
-
-        sb.append("}\n}\n");
+        sb.append("return new Object[]{");
+        for (int i = 0; i < outputs.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(lookup.get(outputs.get(i)).getName());
+        }
+        sb.append("};\n");
+        sb.append("}\n");
     }
 
     @Override
     public void createConstant(Vertex visiting) {
 
         String type = getAssigmentType(visiting);
-        String lookupName = visiting.getReference().toStringReference();
-        String name = toSourceVariableName(visiting.getReference());
+        int position = constantCount++;
+        String name = "c_" + position;
+        Object value = visiting.getValue();
 
         append(instanceVariableBuilder, "private final ", type, " ", name, ";\n");
-        append(constructorBuilder, name, " = ", "(", type, ")", "constants.get(\"", lookupName, "\");\n");
-
-        lookup.put(visiting.getReference(), new KeanuCompiledVariable(name, false));
-        constantValues.put(visiting.getReference(), visiting.getValue());
+        append(constructorBuilder, name, " = ", "(", type, ") constants[", Integer.toString(position), "];\n");
 
+        lookup.put(visiting.getReference(), new KeanuCompiledVariable(new KeanuCompiledExpression(name, (inputs, slots) -> value), false));
     }
 
     @Override
     public void createVariable(Vertex visiting) {
 
         String variableType = getAssigmentType(visiting);
-        String variableName = toSourceVariableName(visiting.getReference());
+        int slot = nextSlot();
+        int position = inputs.size();
 
-        declareInput(variableType, variableName, visiting.getReference().toStringReference());
+        statements.add(new Statement(slot, new KeanuCompiledExpression("inputs[" + position + "]", (inputs, slots) -> inputs[position])));
 
-        lookup.put(visiting.getReference(), new KeanuCompiledVariable(variableName, false));
+        KeanuCompiledVariable variable = new KeanuCompiledVariable(slotValue(variableType, slot), false);
+        lookup.put(visiting.getReference(), variable);
+        if (batched) {
+            batchedVariables.add(variable);
+        }
+        inputs.add(visiting.getReference());
         variableValues.put(visiting.getReference(), visiting.getValue());
     }
 
-    private void declareInput(String type, String name, String inputName) {
-        append(computeSourceBuilder, "final ", type, " ", name, " = (", type, ") inputs.get(\"", inputName, "\");\n");
-    }
-
     @Override
     public void create(Vertex visiting) {
 
@@ -128,11 +182,84 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
         KeanuVertexToTensorOpMapper.OpMapper opMapperFor = KeanuVertexToTensorOpMapper.getOpMapperFor(clazz);
 
         String variableType = getAssigmentType(visiting);
-        String name = toSourceVariableName(visiting.getReference());
+        int slot = nextSlot();
+
+        boolean isBatched = batched && unwrappedVisiting.getParents().stream().anyMatch(this::isBatched);
+        KeanuCompiledExpression operation = isBatched ? batchedOperation(unwrappedVisiting, opMapperFor) : opMapperFor.apply(unwrappedVisiting, lookup);
+
+        statements.add(new Statement(slot, operation));
+
+        KeanuCompiledVariable variable = new KeanuCompiledVariable(slotValue(variableType, slot), inPlaceOperationsEnabled);
+        lookup.put(visiting.getReference(), variable);
+        if (isBatched) {
+            batchedVariables.add(variable);
+        }
 
-        append(computeSourceBuilder, "final ", variableType, " ", name, " = (", variableType, ") ", opMapperFor.apply(unwrappedVisiting, lookup), ";\n");
+        List<VariableReference> operands = new ArrayList<>();
+        for (Object parent : unwrappedVisiting.getParents()) {
+            operands.add(((Vertex<?, ?>) parent).getReference());
+        }
+
+        KeanuVertexToAdjointOpMapper.AdjointMapper adjointMapper = KeanuVertexToAdjointOpMapper.getAdjointMapperFor(clazz);
+        operations.add(new Operation(
+            variable,
+            operands,
+            DoubleTensor.class.equals(visiting.ofType()),
+            clazz.getSimpleName(),
+            adjointMapper == null ? null : (adjoint, result, partials) -> adjointMapper.apply(unwrappedVisiting, adjoint, result, lookup, partials)
+        ));
+    }
 
-        lookup.put(visiting.getReference(), new KeanuCompiledVariable(name, true));
+    private boolean isBatched(Object vertex) {
+        return batchedVariables.contains(lookup.get(((Vertex<?, ?>) vertex).getReference()));
+    }
+
+    /**
+     * @return the right hand side of an operation with at least one batched operand. Batched operands that have a
+     * lower rank than the result at a single point are reshaped so that their batch dimension lines up with the
+     * batch dimension of the result.
+     */
+    private KeanuCompiledExpression batchedOperation(Vertex<?, ?> visiting, KeanuVertexToTensorOpMapper.OpMapper opMapper) {
+        String batches = KeanuCompiledBatches.class.getCanonicalName();
+
+        if (visiting instanceof SumVertex) {
+            SumVertex sumVertex = (SumVertex) visiting;
+            int[] dimensions = sumVertex.getOverDimensions();
+            KeanuCompiledVariable input = lookup.get(sumVertex.getInputVertex().getReference());
+            KeanuCompiledExpression inputValue = input.getValue();
+            String dimensionsArray = dimensions == null ? "null" : "new int[]{" + Arrays.stream(dimensions)
+                .mapToObj(Integer::toString)
+                .collect(Collectors.joining(",")) + "}";
+
+            return new KeanuCompiledExpression(
+                batches + ".sum(" + input.getName() + ", " + dimensionsArray + ")",
+                (inputs, slots) -> KeanuCompiledBatches.sum((NumberTensor) inputValue.evaluate(inputs, slots), dimensions)
+            );
+        }
+
+        if (!(visiting instanceof Elementwise)) {
+            throw new IllegalArgumentException(visiting.getClass().getSimpleName() + " cannot be evaluated in a batch by the compiled backend");
+        }
+
+        int rank = visiting.getRank();
+        Map<VariableReference, KeanuCompiledVariable> alignedLookup = new HashMap<>();
+        for (Object parent : visiting.getParents()) {
+            Vertex<?, ?> parentVertex = (Vertex<?, ?>) parent;
+            KeanuCompiledVariable parentVariable = lookup.get(parentVertex.getReference());
+
+            if (batchedVariables.contains(parentVariable) && parentVertex.getRank() < rank) {
+                KeanuCompiledExpression parentValue = parentVariable.getValue();
+                KeanuCompiledExpression aligned = new KeanuCompiledExpression(
+                    batches + ".align(" + parentVariable.getName() + ", " + rank + ")",
+                    (inputs, slots) -> KeanuCompiledBatches.align((Tensor) parentValue.evaluate(inputs, slots), rank)
+                );
+                alignedLookup.put(parentVertex.getReference(), new KeanuCompiledVariable(aligned, false));
+            } else {
+                alignedLookup.put(parentVertex.getReference(), parentVariable);
+            }
+        }
+
+        return opMapper.apply(visiting, alignedLookup);
     }
 
     private boolean isConstant(Vertex v) {
@@ -143,8 +270,15 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
         return v.ofType().getCanonicalName();
     }
 
-    private String toSourceVariableName(VariableReference variableReference) {
-        return "v_" + variableReference.toStringReference();
+    private int nextSlot() {
+        return slotCount++;
+    }
+
+    /**
+     * @return an expression that reads the value in a slot, which is shown in the source cast to its type
+     */
+    private static KeanuCompiledExpression slotValue(String type, int slot) {
+        return new KeanuCompiledExpression("((" + type + ") s[" + slot + "])", (inputs, slots) -> slots[slot]);
     }
 
     @Override
@@ -163,20 +297,120 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
 
         String variableType = DoubleTensor.class.getCanonicalName();
 
-        String leftName = lookup.get(left).getName();
-        String rightName = lookup.get(right).getName();
+        KeanuCompiledVariable leftVariable = lookup.get(left);
+        KeanuCompiledVariable rightVariable = lookup.get(right);
+        KeanuCompiledExpression leftValue = leftVariable.getValue();
+        KeanuCompiledExpression rightValue = rightVariable.getValue();
 
-        String name = "vv_" + internalOpCount;
-        internalOpCount++;
+        int slot = nextSlot();
+        String name = "vv_" + slot;
 
-        append(computeSourceBuilder, "final ", variableType, " ", name, " = ", leftName, ".plus(", rightName + ");\n");
+        statements.add(new Statement(slot, new KeanuCompiledExpression(
+            leftVariable.getName() + ".plus(" + rightVariable.getName() + ")",
+            (inputs, slots) -> ((DoubleTensor) leftValue.evaluate(inputs, slots)).plus((DoubleTensor) rightValue.evaluate(inputs, slots))
+        )));
 
         StringVariableReference reference = new StringVariableReference(name);
-        lookup.put(reference, new KeanuCompiledVariable(name, true));
+        KeanuCompiledVariable variable = new KeanuCompiledVariable(slotValue(variableType, slot), inPlaceOperationsEnabled);
+        lookup.put(reference, variable);
+        if (batchedVariables.contains(lookup.get(left)) || batchedVariables.contains(lookup.get(right))) {
+            batchedVariables.add(variable);
+        }
+
+        operations.add(new Operation(variable, ImmutableList.of(left, right), true, "add", (adjoint, result, partials) -> {
+            partials.accept(left, adjoint);
+            partials.accept(right, adjoint);
+        }));
 
         return reference;
     }
 
+    /**
+     * Adds the reverse mode gradient of a scalar to the graph. The gradient is calculated after, and in the same call
+     * as, everything that has been added to the graph so far. In place operations must be disabled for the graph.
+     *
+     * @param of  a reference to the scalar to take the gradient of
+     * @param wrt references to the inputs to take the gradient with respect to
+     * @return a reference to the gradient with respect to each input that the scalar depends on, keyed by input. The
+     * references need to be registered as outputs to be returned by the graph.
+     * @throws IllegalArgumentException if the scalar depends on an input through an operation that the compiled
+     *                                  backend cannot differentiate
+     */
+    public Map<VariableReference, VariableReference> addGradient(VariableReference of, Collection<? extends VariableReference> wrt) {
+        Preconditions.checkState(!inPlaceOperationsEnabled, "Gradients require in place operations to be disabled");
+        Preconditions.checkState(!batched, "Gradients of batched graphs are not supported");
+
+        Set<KeanuCompiledVariable> dependsOnWrt = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (VariableReference input : wrt) {
+            dependsOnWrt.add(lookup.get(input));
+        }
+
+        for (Operation operation : operations) {
+            if (operation.isDifferentiable() && operation.getOperands().stream().anyMatch(o -> dependsOnWrt.contains(lookup.get(o)))) {
+                dependsOnWrt.add(operation.getVariable());
+            }
+        }
+
+        KeanuCompiledVariable ofVariable = lookup.get(of);
+        if (!dependsOnWrt.contains(ofVariable)) {
+            return Collections.emptyMap();
+        }
+
+        Map<KeanuCompiledVariable, Integer> adjointSlots = new IdentityHashMap<>();
+        int seedSlot = nextSlot();
+        adjointSlots.put(ofVariable, seedSlot);
+        KeanuCompiledExpression ofValue = ofVariable.getValue();
+        statements.add(new Statement(seedSlot, new KeanuCompiledExpression(
+            "DoubleTensor.ones(" + ofVariable.getName() + ".getShape())",
+            (inputs, slots) -> DoubleTensor.ones(((DoubleTensor) ofValue.evaluate(inputs, slots)).getShape())
+        )));
+
+        for (int i = operations.size() - 1; i >= 0; i--) {
+            Operation operation = operations.get(i);
+            Integer adjointSlot = adjointSlots.get(operation.getVariable());
+
+            if (adjointSlot == null || !dependsOnWrt.contains(operation.getVariable())) {
+                continue;
+            }
+
+            if (operation.getAdjoint() == null) {
+                throw new IllegalArgumentException("Gradient of " + operation.getName() + " is not supported by the compiled backend");
+            }
+
+            KeanuCompiledExpression adjoint = slotValue(DoubleTensor.class.getCanonicalName(), adjointSlot);
+            operation.getAdjoint().apply(adjoint, operation.getVariable().getValue(), (operand, partial) -> {
+                KeanuCompiledVariable operandVariable = lookup.get(operand);
+                if (!dependsOnWrt.contains(operandVariable)) {
+                    return;
+                }
+
+                int operandAdjointSlot = adjointSlots.computeIfAbsent(operandVariable, v -> nextSlot());
+                KeanuCompiledExpression operandValue = operandVariable.getValue();
+                statements.add(new Statement(operandAdjointSlot, new KeanuCompiledExpression(
+                    KeanuCompiledAdjoints.class.getCanonicalName() + ".accumulate(" +
+                        "s[" + operandAdjointSlot + "], " + partial.getSource() + ", " + operandVariable.getName() + ".getShape())",
+                    (inputs, slots) -> KeanuCompiledAdjoints.accumulate(
+                        slots[operandAdjointSlot],
+                        (DoubleTensor) partial.evaluate(inputs, slots),
+                        ((Tensor) operandValue.evaluate(inputs, slots)).getShape()
+                    )
+                )));
+            });
+        }
+
+        Map<VariableReference, VariableReference> gradients = new HashMap<>();
+        for (VariableReference input : wrt) {
+            Integer adjointSlot = adjointSlots.get(lookup.get(input));
+            if (adjointSlot != null) {
+                StringVariableReference gradient = new StringVariableReference("d" + of.toStringReference() + "/d" + input.toStringReference());
+                lookup.put(gradient, new KeanuCompiledVariable(slotValue(DoubleTensor.class.getCanonicalName(), adjointSlot), false));
+                gradients.put(input, gradient);
+            }
+        }
+
+        return gradients;
+    }
+
     @Override
     public void connect(Map<? extends Vertex<?, ?>, ? extends Vertex<?, ?>> connections) {
         connections.forEach((to, from) ->
@@ -185,8 +419,9 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
     }
 
     /**
-     * @return The java source to be used for compilation. This will be the entire .java file that represents a class
-     * that can be used for doing a calculation described by the graph that was passed to this builder.
+     * @return java source that is equivalent to the graph that is built. This will be the entire .java file of a
+     * class that does the calculation described by the graph that was passed to this builder. The graph itself is
+     * evaluated without compiling this source, which is only meant for reading.
      */
     public String getSource() {
         StringBuilder stringBuilder = new StringBuilder();
@@ -195,19 +430,43 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
 
         stringBuilder.append(instanceVariableBuilder);
 
-        append(stringBuilder, "public ", className, "(final Map<String, ?> constants) {\n");
+        append(stringBuilder, "public ", className, "(final Object[] constants) {\n");
 
         stringBuilder.append(constructorBuilder);
         stringBuilder.append("}\n");
 
-        stringBuilder.append("public Map<String, ?> apply(Map<String, ?> inputs) {\n");
-        stringBuilder.append(computeSourceBuilder);
+        appendCompute(stringBuilder);
 
-        endSource(stringBuilder);
+        stringBuilder.append("}\n");
 
         return stringBuilder.toString();
     }
 
+    private interface Adjoint {
+        void apply(KeanuCompiledExpression adjoint, KeanuCompiledExpression result, BiConsumer<VariableReference, KeanuCompiledExpression> partials);
+    }
+
+    /**
+     * Assigns the value of an expression to a slot
+     */
+    @Value
+    private static class Statement {
+        int slot;
+        KeanuCompiledExpression expression;
+    }
+
+    /**
+     * An operation that has been added to the graph, with what is needed to add it to a reverse pass
+     */
+    @Value
+    private static class Operation {
+        KeanuCompiledVariable variable;
+        List<VariableReference> operands;
+        boolean differentiable;
+        String name;
+        Adjoint adjoint;
+    }
+
     private void append(StringBuilder sb, String... line) {
         for (String token : line) {
             sb.append(token);
@@ -217,24 +476,21 @@ public class KeanuCompiledGraphBuilder implements ComputableGraphBuilder<Computa
     @Override
     public WrappedCompiledGraph build() {
 
-        String source = getSource();
-
-//        System.out.println(source);
-
-        return compile(source);
-    }
-
-    private WrappedCompiledGraph compile(String source) {
+        int[] statementSlots = new int[statements.size()];
+        KeanuCompiledExpression[] statementExpressions = new KeanuCompiledExpression[statements.size()];
+        for (int i = 0; i < statements.size(); i++) {
+            statementSlots[i] = statements.get(i).getSlot();
+            statementExpressions[i] = statements.get(i).getExpression();
+        }
 
-        Map<String, ?> constantsByString = constantValues.entrySet().stream()
-            .collect(toMap(e -> e.getKey().toStringReference(), Map.Entry::getValue));
+        KeanuCompiledExpression[] outputExpressions = new KeanuCompiledExpression[outputs.size()];
+        for (int i = 0; i < outputs.size(); i++) {
+            outputExpressions[i] = lookup.get(outputs.get(i)).getValue();
+        }
 
-        Function<Map<String, ?>, Map<String, ?>> computeFunction = Reflect.compile(
-            PACKAGE + "." + className,
-            source
-        ).create(constantsByString).get();
+        KeanuCompiledProgram program = new KeanuCompiledProgram(slotCount, statementSlots, statementExpressions, outputExpressions);
 
-        return new WrappedCompiledGraph(computeFunction, outputs);
+        return new WrappedCompiledGraph(program, inputs, variableValues, outputs);
     }
 
 }
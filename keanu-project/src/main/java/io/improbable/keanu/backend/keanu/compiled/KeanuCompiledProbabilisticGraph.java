@@ -1,13 +1,15 @@
 package io.improbable.keanu.backend.keanu.compiled;
 
+import com.google.common.base.Preconditions;
 import io.improbable.keanu.algorithms.ProbabilisticModel;
 import io.improbable.keanu.algorithms.Variable;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.backend.ComputableGraph;
 import io.improbable.keanu.backend.VariableImpl;
 import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 
 import java.util.List;
@@ -18,7 +20,11 @@ import java.util.stream.Collectors;
 import static io.improbable.keanu.backend.ProbabilisticGraphConverter.convertLogProbObservation;
 import static io.improbable.keanu.backend.ProbabilisticGraphConverter.convertLogProbPrior;
 
-@AllArgsConstructor
+/**
+ * A compiled {@link ProbabilisticModel}. The log prob of a batch of points (see {@link #logProbBatch(Map)}) is
+ * calculated by a second compiled graph that carries a batch dimension through the log prob calculation, which is
+ * compiled the first time that it is needed.
+ */
 public class KeanuCompiledProbabilisticGraph implements ProbabilisticModel {
 
     /**
@@ -50,6 +56,7 @@ public class KeanuCompiledProbabilisticGraph implements ProbabilisticModel {
             .collect(Collectors.toList());
 
         return new KeanuCompiledProbabilisticGraph(
+            network,
             computableGraph,
             latentVariables,
             logProbReference,
@@ -57,6 +64,9 @@ public class KeanuCompiledProbabilisticGraph implements ProbabilisticModel {
         );
     }
 
+    @Getter(AccessLevel.PROTECTED)
+    private final BayesianNetwork network;
+
     @Getter
     private final ComputableGraph computableGraph;
 
@@ -69,6 +79,33 @@ public class KeanuCompiledProbabilisticGraph implements ProbabilisticModel {
     @Getter
     private final VariableReference logLikelihoodOp;
 
+    private WrappedCompiledGraph batchGraph;
+    private VariableReference batchLogProbOp;
+    private boolean batchUnsupported;
+
+    public KeanuCompiledProbabilisticGraph(ComputableGraph computableGraph,
+                                           List<Variable> latentVariables,
+                                           VariableReference logProbOp,
+                                           VariableReference logLikelihoodOp) {
+        this(null, computableGraph, latentVariables, logProbOp, logLikelihoodOp);
+    }
+
+    /**
+     * @param network the network that the graph was compiled from, which is needed to compile the log prob of a
+     *                batch. If it is null, batches are evaluated one point at a time.
+     */
+    protected KeanuCompiledProbabilisticGraph(BayesianNetwork network,
+                                              ComputableGraph computableGraph,
+                                              List<Variable> latentVariables,
+                                              VariableReference logProbOp,
+                                              VariableReference logLikelihoodOp) {
+        this.network = network;
+        this.computableGraph = computableGraph;
+        this.latentVariables = latentVariables;
+        this.logProbOp = logProbOp;
+        this.logLikelihoodOp = logLikelihoodOp;
+    }
+
     @Override
     public double logProb(Map<VariableReference, ?> inputs) {
         DoubleTensor logProb = (DoubleTensor) computableGraph.compute(inputs).get(logProbOp);
@@ -86,4 +123,61 @@ public class KeanuCompiledProbabilisticGraph implements ProbabilisticModel {
         return logLikelihood.scalar();
     }
 
+    /**
+     * Evaluates the log prob at every point of the batch in one call of a compiled graph. If the log prob depends on
+     * the latent variables through an operation that cannot be evaluated over a batch dimension, the points are
+     * evaluated one at a time instead.
+     *
+     * @param batchedLatentValues a value for every latent variable, with an extra leading dimension that indexes the
+     *                            point
+     * @return the log prob at each point
+     */
+    @Override
+    public double[] logProbBatch(Map<VariableReference, ? extends Tensor<?, ?>> batchedLatentValues) {
+        int batchSize = ProbabilisticModel.batchSize(batchedLatentValues);
+
+        if (batchGraph == null && !batchUnsupported && network != null) {
+            compileBatch();
+        }
+
+        if (batchGraph == null) {
+            return ProbabilisticModel.super.logProbBatch(batchedLatentValues);
+        }
+
+        for (Variable latent : latentVariables) {
+            Preconditions.checkArgument(
+                batchedLatentValues.containsKey(latent.getReference()),
+                "A batch needs a value for every latent variable but %s is missing", latent.getReference()
+            );
+        }
+
+        DoubleTensor logProbs = (DoubleTensor) batchGraph.compute(batchedLatentValues).get(batchLogProbOp);
+
+        if (logProbs.getLength() != batchSize) {
+            return DoubleTensor.create(logProbs.scalar(), new long[]{batchSize}).asFlatDoubleArray();
+        }
+        return logProbs.asFlatDoubleArray();
+    }
+
+    private void compileBatch() {
+        KeanuCompiledGraphBuilder builder = KeanuCompiledGraphBuilder.batched();
+
+        try {
+            builder.convert(network.getVertices());
+
+            Optional<VariableReference> logLikelihoodReference = convertLogProbObservation(network, builder);
+            VariableReference priorLogProbReference = convertLogProbPrior(network, builder);
+
+            batchLogProbOp = logLikelihoodReference
+                .map(ll -> builder.add(ll, priorLogProbReference))
+                .orElse(priorLogProbReference);
+        } catch (IllegalArgumentException e) {
+            batchUnsupported = true;
+            return;
+        }
+
+        builder.registerOutput(batchLogProbOp);
+        batchGraph = builder.build();
+    }
+
 }
@@ -0,0 +1,187 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.backend.VariableImpl;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static io.improbable.keanu.backend.ProbabilisticGraphConverter.convertLogProbObservation;
+import static io.improbable.keanu.backend.ProbabilisticGraphConverter.convertLogProbPrior;
+
+/**
+ * A compiled {@link ProbabilisticModelWithGradient}. The log prob and its gradient with respect to every continuous
+ * latent variable are calculated by one compiled class, in a single call, using a reverse pass that is generated
+ * along with the log prob calculation.
+ * <p>
+ * The log prob of the last call is kept, so asking for the log prob after the gradient, without new inputs, does
+ * not evaluate the graph again. The gradient of the log likelihood is compiled separately, the first time that it
+ * is needed.
+ */
+public class KeanuCompiledProbabilisticGraphWithGradient extends KeanuCompiledProbabilisticGraph implements ProbabilisticModelWithGradient {
+
+    /**
+     * Takes a BayesianNetwork and converts it to a KeanuCompiledProbabilisticGraphWithGradient. This compiles the
+     * graph in the bayesian network, the logProb graph and the reverse mode gradient of the logProb.
+     *
+     * @param network The bayesian network for conversions
+     * @return A compiled ProbabilisticModelWithGradient that represents the BayesianNetwork
+     * @throws IllegalArgumentException if the log prob depends on an operation that cannot be differentiated by
+     *                                  the compiled backend
+     */
+    public static KeanuCompiledProbabilisticGraphWithGradient convert(BayesianNetwork network) {
+        KeanuCompiledGraphBuilder builder = new KeanuCompiledGraphBuilder(false);
+
+        builder.convert(network.getVertices());
+
+        Optional<VariableReference> logLikelihoodReference = convertLogProbObservation(network, builder);
+        VariableReference priorLogProbReference = convertLogProbPrior(network, builder);
+
+        VariableReference logProbReference = logLikelihoodReference
+            .map(ll -> builder.add(ll, priorLogProbReference))
+            .orElse(priorLogProbReference);
+
+        builder.registerOutput(logProbReference);
+        logLikelihoodReference.ifPresent(builder::registerOutput);
+
+        Map<VariableReference, VariableReference> logProbGradientReferences = builder.addGradient(
+            logProbReference,
+            continuousLatentReferences(network)
+        );
+        logProbGradientReferences.values().forEach(builder::registerOutput);
+
+        WrappedCompiledGraph computableGraph = builder.build();
+
+        List latentVariables = builder.getLatentVariables().stream()
+            .map(v -> new VariableImpl<>(computableGraph, v))
+            .collect(Collectors.toList());
+
+        return new KeanuCompiledProbabilisticGraphWithGradient(
+            network,
+            computableGraph,
+            latentVariables,
+            logProbReference,
+            logLikelihoodReference.orElse(null),
+            logProbGradientReferences
+        );
+    }
+
+    private final WrappedCompiledGraph compiledGraph;
+    private final Map<VariableReference, VariableReference> logProbGradientReferences;
+
+    private Map<VariableReference, ?> lastResults;
+
+    private WrappedCompiledGraph logLikelihoodGradientGraph;
+    private Map<VariableReference, VariableReference> logLikelihoodGradientReferences;
+
+    private KeanuCompiledProbabilisticGraphWithGradient(BayesianNetwork network,
+                                                        WrappedCompiledGraph compiledGraph,
+                                                        List<Variable> latentVariables,
+                                                        VariableReference logProbOp,
+                                                        VariableReference logLikelihoodOp,
+                                                        Map<VariableReference, VariableReference> logProbGradientReferences) {
+        super(network, compiledGraph, latentVariables, logProbOp, logLikelihoodOp);
+        this.compiledGraph = compiledGraph;
+        this.logProbGradientReferences = logProbGradientReferences;
+    }
+
+    @Override
+    public double logProb(Map<VariableReference, ?> inputs) {
+        return ((DoubleTensor) results(inputs).get(getLogProbOp())).scalar();
+    }
+
+    @Override
+    public double logLikelihood(Map<VariableReference, ?> inputs) {
+
+        if (getLogLikelihoodOp() == null) {
+            throw new IllegalStateException("Likelihood is undefined");
+        }
+
+        return ((DoubleTensor) results(inputs).get(getLogLikelihoodOp())).scalar();
+    }
+
+    @Override
+    public Map<VariableReference, DoubleTensor> logProbGradients(Map<VariableReference, ?> inputs) {
+        lastResults = compiledGraph.compute(inputs == null ? Collections.emptyMap() : inputs);
+        return gradients(lastResults, logProbGradientReferences);
+    }
+
+    @Override
+    public Map<VariableReference, DoubleTensor> logProbGradients() {
+        return logProbGradients(null);
+    }
+
+    @Override
+    public Map<VariableReference, DoubleTensor> logLikelihoodGradients(Map<VariableReference, ?> inputs) {
+
+        if (getLogLikelihoodOp() == null) {
+            throw new IllegalStateException("Likelihood is undefined");
+        }
+
+        if (inputs != null && !inputs.isEmpty()) {
+            compiledGraph.setInputs(inputs);
+            lastResults = null;
+        }
+
+        if (logLikelihoodGradientGraph == null) {
+            compileLogLikelihoodGradient();
+        }
+
+        Map<VariableReference, Object> latentValues = new HashMap<>();
+        for (Variable latent : getLatentVariables()) {
+            latentValues.put(latent.getReference(), latent.getValue());
+        }
+
+        return gradients(logLikelihoodGradientGraph.compute(latentValues), logLikelihoodGradientReferences);
+    }
+
+    @Override
+    public Map<VariableReference, DoubleTensor> logLikelihoodGradients() {
+        return logLikelihoodGradients(null);
+    }
+
+    private Map<VariableReference, ?> results(Map<VariableReference, ?> inputs) {
+        if (lastResults == null || !inputs.isEmpty()) {
+            lastResults = compiledGraph.compute(inputs);
+        }
+        return lastResults;
+    }
+
+    private void compileLogLikelihoodGradient() {
+        KeanuCompiledGraphBuilder builder = new KeanuCompiledGraphBuilder(false);
+
+        builder.convert(getNetwork().getVertices());
+
+        VariableReference logLikelihoodReference = convertLogProbObservation(getNetwork(), builder)
+            .orElseThrow(() -> new IllegalStateException("Likelihood is undefined"));
+
+        logLikelihoodGradientReferences = builder.addGradient(logLikelihoodReference, continuousLatentReferences(getNetwork()));
+        logLikelihoodGradientReferences.values().forEach(builder::registerOutput);
+
+        logLikelihoodGradientGraph = builder.build();
+    }
+
+    private static List<VariableReference> continuousLatentReferences(BayesianNetwork network) {
+        return network.getContinuousLatentVertices().stream()
+            .map(Vertex::getReference)
+            .collect(Collectors.toList());
+    }
+
+    private static Map<VariableReference, DoubleTensor> gradients(Map<VariableReference, ?> results,
+                                                                  Map<VariableReference, VariableReference> gradientReferences) {
+        Map<VariableReference, DoubleTensor> gradients = new HashMap<>();
+        for (Map.Entry<VariableReference, VariableReference> gradientReference : gradientReferences.entrySet()) {
+            gradients.put(gradientReference.getKey(), (DoubleTensor) results.get(gradientReference.getValue()));
+        }
+        return gradients;
+    }
+}
@@ -0,0 +1,40 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import java.util.function.Function;
+
+/**
+ * Evaluates a compiled graph with a tree of closures. Each statement calculates the value of one slot, and the
+ * statements are evaluated in order. Slots are allocated for each evaluation, so a program can be evaluated by many
+ * threads at once.
+ */
+class KeanuCompiledProgram implements Function<Object[], Object[]> {
+
+    private final int slotCount;
+    private final int[] statementSlots;
+    private final KeanuCompiledExpression[] statements;
+    private final KeanuCompiledExpression[] outputs;
+
+    KeanuCompiledProgram(int slotCount,
+                         int[] statementSlots,
+                         KeanuCompiledExpression[] statements,
+                         KeanuCompiledExpression[] outputs) {
+        this.slotCount = slotCount;
+        this.statementSlots = statementSlots;
+        this.statements = statements;
+        this.outputs = outputs;
+    }
+
+    @Override
+    public Object[] apply(Object[] inputs) {
+        Object[] slots = new Object[slotCount];
+        for (int i = 0; i < statements.length; i++) {
+            slots[statementSlots[i]] = statements[i].evaluate(inputs, slots);
+        }
+
+        Object[] results = new Object[outputs.length];
+        for (int i = 0; i < outputs.length; i++) {
+            results[i] = outputs[i].evaluate(inputs, slots);
+        }
+        return results;
+    }
+}
@@ -9,9 +9,9 @@ public class KeanuCompiledVariable {
 
     @Getter
     /**
-     * the name of the variable in the source
+     * reads the value of the variable, which is a slot, input or constant
      */
-    private final String name;
+    private final KeanuCompiledExpression value;
 
     @Getter
     @Setter
@@ -19,4 +19,11 @@ public class KeanuCompiledVariable {
      * True if the variable is not a constant, input or output
      */
     private boolean mutable;
+
+    /**
+     * @return the name of the variable in the source
+     */
+    public String getName() {
+        return value.getSource();
+    }
 }
@@ -0,0 +1,399 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.VertexBinaryOp;
+import io.improbable.keanu.vertices.VertexUnaryOp;
+import io.improbable.keanu.vertices.tensor.ReshapeVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.nonprobabilistic.DoubleProxyVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.CeilVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.CosVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.ExpM1Vertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.ExpVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.FloorVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.Log1pVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.LogGammaVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.LogVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.RoundVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.SigmoidVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.SinVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.operators.unary.TanhVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.AdditionVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.DifferenceVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.DivisionVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.GreaterThanMaskVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.GreaterThanOrEqualToMaskVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.LessThanMaskVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.LessThanOrEqualToMaskVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.MatrixMultiplicationVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.MultiplicationVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.binary.PowerVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.ternary.SetWithMaskVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.unary.AbsVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.unary.SignVertex;
+import io.improbable.keanu.vertices.tensor.number.operators.unary.SumVertex;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * This class provides a static lookup per vertex to the reverse mode auto diff of that vertex in a compiled graph.
+ * The lookup is the compiled equivalent of {@link io.improbable.keanu.vertices.tensor.number.floating.dbl.Differentiable#reverseModeAutoDifferentiation}
+ * for the gradient of a scalar. The adjoint of a vertex is the gradient of the scalar with respect to the value of
+ * the vertex, so it has the same shape as the vertex.
+ * <p>
+ * e.g. MultiplicationVertex.class -&gt;
+ * <p>
+ * left partial &lt;= a closure that calls adjoint.times(right), shown as adjoint + ".times(" + rightArg + ")"
+ * right partial &lt;= a closure that calls adjoint.times(left), shown as adjoint + ".times(" + leftArg + ")"
+ * <p>
+ * Partials do not need to be corrected for broadcasting. That is done when they are added to the adjoint of the
+ * parent.
+ */
+public class KeanuVertexToAdjointOpMapper {
+
+    private static Map<Class<?>, AdjointMapper> adjointMappers;
+
+    static {
+        adjointMappers = new HashMap<>();
+
+        //Tensor ops
+        adjointMappers.put(ReshapeVertex.class, KeanuVertexToAdjointOpMapper::reshapeAdjoint);
+
+        //Number ops
+        adjointMappers.put(AdditionVertex.class, KeanuVertexToAdjointOpMapper::additionAdjoint);
+        adjointMappers.put(DifferenceVertex.class, KeanuVertexToAdjointOpMapper::differenceAdjoint);
+        adjointMappers.put(MultiplicationVertex.class, KeanuVertexToAdjointOpMapper::multiplicationAdjoint);
+        adjointMappers.put(DivisionVertex.class, KeanuVertexToAdjointOpMapper::divisionAdjoint);
+        adjointMappers.put(PowerVertex.class, KeanuVertexToAdjointOpMapper::powerAdjoint);
+        adjointMappers.put(MatrixMultiplicationVertex.class, KeanuVertexToAdjointOpMapper::matrixMultiplyAdjoint);
+        adjointMappers.put(SumVertex.class, KeanuVertexToAdjointOpMapper::sumAdjoint);
+        adjointMappers.put(SetWithMaskVertex.class, KeanuVertexToAdjointOpMapper::setWithMaskAdjoint);
+        adjointMappers.put(AbsVertex.class, unaryAdjoint(
+            (adjoint, result, input) -> adjoint + ".times(" + input + ".sign())",
+            (adjoint, result, input) -> adjoint.times(input.sign())
+        ));
+
+        //Piecewise constant ops
+        adjointMappers.put(SignVertex.class, KeanuVertexToAdjointOpMapper::zeroAdjoint);
+        adjointMappers.put(GreaterThanOrEqualToMaskVertex.class, KeanuVertexToAdjointOpMapper::zeroAdjoint);
+        adjointMappers.put(GreaterThanMaskVertex.class, KeanuVertexToAdjointOpMapper::zeroAdjoint);
+        adjointMappers.put(LessThanOrEqualToMaskVertex.class, KeanuVertexToAdjointOpMapper::zeroAdjoint);
+        adjointMappers.put(LessThanMaskVertex.class, KeanuVertexToAdjointOpMapper::zeroAdjoint);
+        adjointMappers.put(CeilVertex.class, KeanuVertexToAdjointOpMapper::zeroAdjoint);
+        adjointMappers.put(FloorVertex.class, KeanuVertexToAdjointOpMapper::zeroAdjoint);
+        adjointMappers.put(RoundVertex.class, KeanuVertexToAdjointOpMapper::zeroAdjoint);
+
+        //Floating point ops
+        adjointMappers.put(ExpVertex.class, unaryAdjoint(
+            (adjoint, result, input) -> adjoint + ".times(" + result + ")",
+            (adjoint, result, input) -> adjoint.times(result)
+        ));
+        adjointMappers.put(ExpM1Vertex.class, unaryAdjoint(
+            (adjoint, result, input) -> adjoint + ".times(" + result + ".plus(1.0))",
+            (adjoint, result, input) -> adjoint.times(result.plus(1.0))
+        ));
+        adjointMappers.put(LogVertex.class, unaryAdjoint(
+            (adjoint, result, input) -> adjoint + ".div(" + input + ")",
+            (adjoint, result, input) -> adjoint.div(input)
+        ));
+        adjointMappers.put(Log1pVertex.class, unaryAdjoint(
+            (adjoint, result, input) -> adjoint + ".div(" + input + ".plus(1.0))",
+            (adjoint, result, input) -> adjoint.div(input.plus(1.0))
+        ));
+        adjointMappers.put(SinVertex.class, unaryAdjoint(
+            (adjoint, result, input) -> adjoint + ".times(" + input + ".cos())",
+            (adjoint, result, input) -> adjoint.times(input.cos())
+        ));
+        adjointMappers.put(CosVertex.class, unaryAdjoint(
+            (adjoint, result, input) -> adjoint + ".times(" + input + ".sin()).unaryMinus()",
+            (adjoint, result, input) -> adjoint.times(input.sin()).unaryMinus()
+        ));
+        adjointMappers.put(TanhVertex.class, unaryAdjoint(
+            (adjoint, result, input) -> adjoint + ".times(" + result + ".pow(2.0).reverseMinus(1.0))",
+            (adjoint, result, input) -> adjoint.times(result.pow(2.0).reverseMinus(1.0))
+        ));
+        adjointMappers.put(SigmoidVertex.class, unaryAdjoint(
+            (adjoint, result, input) -> adjoint + ".times(" + result + ").times(" + result + ".reverseMinus(1.0))",
+            (adjoint, result, input) -> adjoint.times(result).times(result.reverseMinus(1.0))
+        ));
+        adjointMappers.put(LogGammaVertex.class, unaryAdjoint(
+            (adjoint, result, input) -> adjoint + ".times(" + input + ".digamma())",
+            (adjoint, result, input) -> adjoint.times(input.digamma())
+        ));
+
+        //Double ops
+        adjointMappers.put(DoubleProxyVertex.class, KeanuVertexToAdjointOpMapper::doubleProxyAdjoint);
+    }
+
+    interface AdjointMapper {
+        /**
+         * @param vertex   the operation (e.g. times, plus)
+         * @param adjoint  the adjoint of the operation
+         * @param result   the value of the operation
+         * @param lookup   lookup other variables
+         * @param partials accepts the reference of a parent of the operation and an expression of its partial.
+         *                 A parent can be given more than once.
+         */
+        void apply(Vertex<?, ?> vertex,
+                   KeanuCompiledExpression adjoint,
+                   KeanuCompiledExpression result,
+                   Map<VariableReference, KeanuCompiledVariable> lookup,
+                   BiConsumer<VariableReference, KeanuCompiledExpression> partials);
+    }
+
+    /**
+     * The partial of the input of a unary operation, which is written once for the source it is shown as and once
+     * for the tensors it is calculated from
+     */
+    private interface UnaryPartial<T> {
+        T apply(T adjoint, T result, T input);
+    }
+
+    public static AdjointMapper getAdjointMapperFor(Class<?> clazz) {
+        return adjointMappers.get(clazz);
+    }
+
+    private static AdjointMapper unaryAdjoint(UnaryPartial<String> source, UnaryPartial<DoubleTensor> partial) {
+        return (vertex, adjoint, result, lookup, partials) -> {
+            VertexUnaryOp unaryOpVertex = (VertexUnaryOp) vertex;
+            Vertex<?, ?> input = unaryOpVertex.getInputVertex();
+            KeanuCompiledVariable inputVariable = lookup.get(input.getReference());
+
+            partials.accept(input.getReference(), partial(
+                source.apply(adjoint.getSource(), result.getSource(), inputVariable.getName()),
+                adjoint, result, inputVariable.getValue(),
+                partial
+            ));
+        };
+    }
+
+    /**
+     * @return an expression that calculates a partial from the value of one other expression
+     */
+    private static KeanuCompiledExpression partial(String source,
+                                                   KeanuCompiledExpression x,
+                                                   Function<DoubleTensor, DoubleTensor> partial) {
+        return new KeanuCompiledExpression(source, (inputs, slots) ->
+            partial.apply((DoubleTensor) x.evaluate(inputs, slots))
+        );
+    }
+
+    /**
+     * @return an expression that calculates a partial from the values of two other expressions
+     */
+    private static KeanuCompiledExpression partial(String source,
+                                                   KeanuCompiledExpression x,
+                                                   KeanuCompiledExpression y,
+                                                   BinaryOperator<DoubleTensor> partial) {
+        return new KeanuCompiledExpression(source, (inputs, slots) ->
+            partial.apply((DoubleTensor) x.evaluate(inputs, slots), (DoubleTensor) y.evaluate(inputs, slots))
+        );
+    }
+
+    /**
+     * @return an expression that calculates a partial from the values of three other expressions
+     */
+    private static KeanuCompiledExpression partial(String source,
+                                                   KeanuCompiledExpression x,
+                                                   KeanuCompiledExpression y,
+                                                   KeanuCompiledExpression z,
+                                                   UnaryPartial<DoubleTensor> partial) {
+        return new KeanuCompiledExpression(source, (inputs, slots) ->
+            partial.apply(
+                (DoubleTensor) x.evaluate(inputs, slots),
+                (DoubleTensor) y.evaluate(inputs, slots),
+                (DoubleTensor) z.evaluate(inputs, slots)
+            )
+        );
+    }
+
+    private static void zeroAdjoint(Vertex<?, ?> vertex,
+                                    KeanuCompiledExpression adjoint,
+                                    KeanuCompiledExpression result,
+                                    Map<VariableReference, KeanuCompiledVariable> lookup,
+                                    BiConsumer<VariableReference, KeanuCompiledExpression> partials) {
+    }
+
+    private static void additionAdjoint(Vertex<?, ?> vertex,
+                                        KeanuCompiledExpression adjoint,
+                                        KeanuCompiledExpression result,
+                                        Map<VariableReference, KeanuCompiledVariable> lookup,
+                                        BiConsumer<VariableReference, KeanuCompiledExpression> partials) {
+        VertexBinaryOp<?, ?> addition = (VertexBinaryOp<?, ?>) vertex;
+        partials.accept(addition.getLeft().getReference(), adjoint);
+        partials.accept(addition.getRight().getReference(), adjoint);
+    }
+
+    private static void differenceAdjoint(Vertex<?, ?> vertex,
+                                          KeanuCompiledExpression adjoint,
+                                          KeanuCompiledExpression result,
+                                          Map<VariableReference, KeanuCompiledVariable> lookup,
+                                          BiConsumer<VariableReference, KeanuCompiledExpression> partials) {
+        VertexBinaryOp<?, ?> difference = (VertexBinaryOp<?, ?>) vertex;
+        partials.accept(difference.getLeft().getReference(), adjoint);
+        partials.accept(difference.getRight().getReference(),
+            partial(adjoint.getSource() + ".unaryMinus()", adjoint, DoubleTensor::unaryMinus)
+        );
+    }
+
+    private static void multiplicationAdjoint(Vertex<?, ?> vertex,
+                                              KeanuCompiledExpression adjoint,
+                                              KeanuCompiledExpression result,
+                                              Map<VariableReference, KeanuCompiledVariable> lookup,
+                                              BiConsumer<VariableReference, KeanuCompiledExpression> partials) {
+        VertexBinaryOp<Vertex<?, ?>, Vertex<?, ?>> multiplication = (VertexBinaryOp<Vertex<?, ?>, Vertex<?, ?>>) vertex;
+        KeanuCompiledVariable left = lookup.get(multiplication.getLeft().getReference());
+        KeanuCompiledVariable right = lookup.get(multiplication.getRight().getReference());
+
+        partials.accept(multiplication.getLeft().getReference(),
+            partial(adjoint.getSource() + ".times(" + right.getName() + ")", adjoint, right.getValue(), DoubleTensor::times)
+        );
+        partials.accept(multiplication.getRight().getReference(),
+            partial(adjoint.getSource() + ".times(" + left.getName() + ")", adjoint, left.getValue(), DoubleTensor::times)
+        );
+    }
+
+    private static void divisionAdjoint(Vertex<?, ?> vertex,
+                                        KeanuCompiledExpression adjoint,
+                                        KeanuCompiledExpression result,
+                                        Map<VariableReference, KeanuCompiledVariable> lookup,
+                                        BiConsumer<VariableReference, KeanuCompiledExpression> partials) {
+        VertexBinaryOp<Vertex<?, ?>, Vertex<?, ?>> division = (VertexBinaryOp<Vertex<?, ?>, Vertex<?, ?>>) vertex;
+        KeanuCompiledVariable right = lookup.get(division.getRight().getReference());
+
+        //d(l/r)/dr = -(l/r)/r
+        partials.accept(division.getLeft().getReference(),
+            partial(adjoint.getSource() + ".div(" + right.getName() + ")", adjoint, right.getValue(), DoubleTensor::div)
+        );
+        partials.accept(division.getRight().getReference(), partial(
+            adjoint.getSource() + ".times(" + result.getSource() + ").div(" + right.getName() + ").unaryMinus()",
+            adjoint, result, right.getValue(),
+            (a, quotient, r) -> a.times(quotient).div(r).unaryMinus()
+        ));
+    }
+
+    private static void powerAdjoint(Vertex<?, ?> vertex,
+                                     KeanuCompiledExpression adjoint,
+                                     KeanuCompiledExpression result,
+                                     Map<VariableReference, KeanuCompiledVariable> lookup,
+                                     BiConsumer<VariableReference, KeanuCompiledExpression> partials) {
+        VertexBinaryOp<Vertex<?, ?>, Vertex<?, ?>> power = (VertexBinaryOp<Vertex<?, ?>, Vertex<?, ?>>) vertex;
+        KeanuCompiledVariable base = lookup.get(power.getLeft().getReference());
+        KeanuCompiledVariable exponent = lookup.get(power.getRight().getReference());
+
+        partials.accept(power.getLeft().getReference(), partial(
+            adjoint.getSource() + ".times(" + exponent.getName() + ").times(" + base.getName() + ".pow(" + exponent.getName() + ".minus(1.0)))",
+            adjoint, exponent.getValue(), base.getValue(),
+            (a, e, b) -> a.times(e).times(b.pow(e.minus(1.0)))
+        ));
+        partials.accept(power.getRight().getReference(), partial(
+            adjoint.getSource() + ".times(" + result.getSource() + ").times(" + base.getName() + ".log())",
+            adjoint, result, base.getValue(),
+            (a, p, b) -> a.times(p).times(b.log())
+        ));
+    }
+
+    /**
+     * For C = op(A) op(B), where op optionally transposes its argument, the adjoint of op(A) is adjoint(C) op(B)^T
+     * and the adjoint of op(B) is op(A)^T adjoint(C).
+     */
+    private static void matrixMultiplyAdjoint(Vertex<?, ?> vertex,
+                                              KeanuCompiledExpression adjoint,
+                                              KeanuCompiledExpression result,
+                                              Map<VariableReference, KeanuCompiledVariable> lookup,
+                                              BiConsumer<VariableReference, KeanuCompiledExpression> partials) {
+        MatrixMultiplicationVertex<?, ?, ?> mmul = (MatrixMultiplicationVertex<?, ?, ?>) vertex;
+
+        if (mmul.getLeft().getShape().length != 2 || mmul.getRight().getShape().length != 2) {
+            throw new IllegalArgumentException("Compiled gradient of matrix multiply is only supported for matrices");
+        }
+
+        KeanuCompiledVariable left = lookup.get(mmul.getLeft().getReference());
+        KeanuCompiledVariable right = lookup.get(mmul.getRight().getReference());
+        String adjointName = adjoint.getSource();
+        boolean transposeLeft = mmul.isTransposeLeft();
+        boolean transposeRight = mmul.isTransposeRight();
+
+        KeanuCompiledExpression leftPartial = transposeLeft ?
+            partial(right.getName() + ".matrixMultiply(" + adjointName + "," + transposeRight + ",true)",
+                adjoint, right.getValue(), (a, r) -> r.matrixMultiply(a, transposeRight, true)) :
+            partial(adjointName + ".matrixMultiply(" + right.getName() + ",false," + !transposeRight + ")",
+                adjoint, right.getValue(), (a, r) -> a.matrixMultiply(r, false, !transposeRight));
+
+        KeanuCompiledExpression rightPartial = transposeRight ?
+            partial(adjointName + ".matrixMultiply(" + left.getName() + ",true," + transposeLeft + ")",
+                adjoint, left.getValue(), (a, l) -> a.matrixMultiply(l, true, transposeLeft)) :
+            partial(left.getName() + ".matrixMultiply(" + adjointName + "," + !transposeLeft + ",false)",
+                adjoint, left.getValue(), (a, l) -> l.matrixMultiply(a, !transposeLeft, false));
+
+        partials.accept(mmul.getLeft().getReference(), leftPartial);
+        partials.accept(mmul.getRight().getReference(), rightPartial);
+    }
+
+    private static void sumAdjoint(Vertex<?, ?> vertex,
+                                   KeanuCompiledExpression adjoint,
+                                   KeanuCompiledExpression result,
+                                   Map<VariableReference, KeanuCompiledVariable> lookup,
+                                   BiConsumer<VariableReference, KeanuCompiledExpression> partials) {
+        SumVertex<?, ?, ?> sumVertex = (SumVertex<?, ?, ?>) vertex;
+        Vertex<?, ?> input = sumVertex.getInputVertex();
+
+        long[] inputShape = input.getShape();
+        long[] shapeWithoutRankLoss = TensorShape.getReductionResultShapeWithoutRankLoss(inputShape, sumVertex.getOverDimensions());
+
+        partials.accept(input.getReference(), partial(
+            adjoint.getSource() + ".reshape(" + KeanuVertexToTensorOpMapper.toJavaArrayCreation(shapeWithoutRankLoss) + ").broadcast(" + KeanuVertexToTensorOpMapper.toJavaArrayCreation(inputShape) + ")",
+            adjoint,
+            a -> a.reshape(shapeWithoutRankLoss).broadcast(inputShape)
+        ));
+    }
+
+    private static void reshapeAdjoint(Vertex<?, ?> vertex,
+                                       KeanuCompiledExpression adjoint,
+                                       KeanuCompiledExpression result,
+                                       Map<VariableReference, KeanuCompiledVariable> lookup,
+                                       BiConsumer<VariableReference, KeanuCompiledExpression> partials) {
+        Vertex<?, ?> input = ((ReshapeVertex<?, ?, ?>) vertex).getInputVertex();
+        long[] inputShape = input.getShape();
+
+        partials.accept(input.getReference(), partial(
+            adjoint.getSource() + ".reshape(" + KeanuVertexToTensorOpMapper.toJavaArrayCreation(inputShape) + ")",
+            adjoint,
+            a -> a.reshape(inputShape)
+        ));
+    }
+
+    private static void setWithMaskAdjoint(Vertex<?, ?> vertex,
+                                           KeanuCompiledExpression adjoint,
+                                           KeanuCompiledExpression result,
+                                           Map<VariableReference, KeanuCompiledVariable> lookup,
+                                           BiConsumer<VariableReference, KeanuCompiledExpression> partials) {
+        SetWithMaskVertex<?, ?, ?> setWithMaskVertex = (SetWithMaskVertex<?, ?, ?>) vertex;
+        KeanuCompiledVariable mask = lookup.get(setWithMaskVertex.getMask().getReference());
+
+        partials.accept(setWithMaskVertex.getOperand().getReference(), partial(
+            adjoint.getSource() + ".times(" + mask.getName() + ".reverseMinus(1.0))",
+            adjoint, mask.getValue(),
+            (a, m) -> a.times(m.reverseMinus(1.0))
+        ));
+        partials.accept(setWithMaskVertex.getSetValue().getReference(), partial(
+            adjoint.getSource() + ".times(" + mask.getName() + ")",
+            adjoint, mask.getValue(),
+            DoubleTensor::times
+        ));
+    }
+
+    private static void doubleProxyAdjoint(Vertex<?, ?> vertex,
+                                           KeanuCompiledExpression adjoint,
+                                           KeanuCompiledExpression result,
+                                           Map<VariableReference, KeanuCompiledVariable> lookup,
+                                           BiConsumer<VariableReference, KeanuCompiledExpression> partials) {
+        partials.accept(((DoubleProxyVertex) vertex).getParent().getReference(), adjoint);
+    }
+}
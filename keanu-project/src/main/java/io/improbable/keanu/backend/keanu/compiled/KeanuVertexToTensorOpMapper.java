@@ -4,7 +4,13 @@ import com.google.common.primitives.Booleans;
 import com.google.common.primitives.Ints;
 import com.google.common.primitives.Longs;
 import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.tensor.FixedPointTensor;
+import io.improbable.keanu.tensor.FloatingPointTensor;
+import io.improbable.keanu.tensor.NumberTensor;
+import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
 import io.improbable.keanu.tensor.jvm.Slicer;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.VertexBinaryOp;
@@ -135,12 +141,15 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 
 /**
- * This class provides a static lookup per vertex to a string that represents the right hand side the assignment
- * in compiled graph. This should include everything up to but not including the semicolon that ends the line of code
- * that is the complete assignment.
+ * This class provides a static lookup per vertex to the right hand side of the assignment of its value in a compiled
+ * graph. The right hand side is a {@link KeanuCompiledExpression}, which is a closure that calls the operation on the
+ * values of its operands, along with the java source of the call for display.
  * <p>
  * e.g. AdditionVertex.class -&gt;
  * <p>
@@ -148,7 +157,8 @@ import java.util.stream.Collectors;
  * rightArg &lt;= right hand arg from additionVertex
  * <p>
  * lookup leftArg and rightArg
- * return leftArg + ".plus(" + rightArg + ")"
+ * return a closure that calls left.plus(right) on the values of leftArg and rightArg, with the source
+ * leftArg + ".plus(" + rightArg + ")"
  */
 public class KeanuVertexToTensorOpMapper {
 
@@ -166,20 +176,24 @@ public class KeanuVertexToTensorOpMapper {
         opMappers.put(TakeVertex.class, KeanuVertexToTensorOpMapper::takeOp);
         opMappers.put(SliceVertex.class, KeanuVertexToTensorOpMapper::sliceOp);
         opMappers.put(StridedSliceVertex.class, KeanuVertexToTensorOpMapper::stridedSliceOp);
-        opMappers.put(DiagVertex.class, fluentUnaryOp("diag"));
+        opMappers.put(DiagVertex.class, fluentUnaryOp(Tensor.class, "diag", Tensor::diag));
         opMappers.put(TriUpperVertex.class, KeanuVertexToTensorOpMapper::triUpperOp);
         opMappers.put(TriLowerVertex.class, KeanuVertexToTensorOpMapper::triLowerOp);
         opMappers.put(FillTriangularVertex.class, KeanuVertexToTensorOpMapper::fillTriangular);
-        opMappers.put(DiagPartVertex.class, fluentUnaryOp("diagPart"));
+        opMappers.put(DiagPartVertex.class, fluentUnaryOp(Tensor.class, "diagPart", Tensor::diagPart));
         opMappers.put(TrianglePartVertex.class, KeanuVertexToTensorOpMapper::trianglePartOp);
-        opMappers.put(GetBooleanIndexVertex.class, fluentBinaryOp("get"));
+        opMappers.put(GetBooleanIndexVertex.class, KeanuVertexToTensorOpMapper::getBooleanIndexOp);
         opMappers.put(WhereVertex.class, KeanuVertexToTensorOpMapper::genericIfOp);
 
         //Number ops
-        opMappers.put(DifferenceVertex.class, fluentBinaryOp("minus", "minusInPlace"));
-        opMappers.put(AdditionVertex.class, fluentBinaryOp("plus", "plusInPlace"));
-        opMappers.put(MultiplicationVertex.class, fluentBinaryOp("times", "timesInPlace"));
-        opMappers.put(DivisionVertex.class, fluentBinaryOp("div", "divInPlace"));
+        opMappers.put(DifferenceVertex.class, fluentBinaryOp(NumberTensor.class,
+            "minus", NumberTensor::minus, "minusInPlace", NumberTensor::minusInPlace));
+        opMappers.put(AdditionVertex.class, fluentBinaryOp(NumberTensor.class,
+            "plus", NumberTensor::plus, "plusInPlace", NumberTensor::plusInPlace));
+        opMappers.put(MultiplicationVertex.class, fluentBinaryOp(NumberTensor.class,
+            "times", NumberTensor::times, "timesInPlace", NumberTensor::timesInPlace));
+        opMappers.put(DivisionVertex.class, fluentBinaryOp(NumberTensor.class,
+            "div", NumberTensor::div, "divInPlace", NumberTensor::divInPlace));
         opMappers.put(SumVertex.class, KeanuVertexToTensorOpMapper::sumOp);
         opMappers.put(ArgMinVertex.class, KeanuVertexToTensorOpMapper::argMinOp);
         opMappers.put(ArgMaxVertex.class, KeanuVertexToTensorOpMapper::argMaxOp);
@@ -190,103 +204,164 @@ public class KeanuVertexToTensorOpMapper {
         opMappers.put(ProductVertex.class, KeanuVertexToTensorOpMapper::productOp);
         opMappers.put(MatrixMultiplicationVertex.class, KeanuVertexToTensorOpMapper::matrixMultiply);
         opMappers.put(TensorMultiplicationVertex.class, KeanuVertexToTensorOpMapper::tensorMultiply);
-        opMappers.put(PowerVertex.class, fluentBinaryOp("pow", "powInPlace"));
-        opMappers.put(AbsVertex.class, fluentUnaryOp("abs", "absInPlace"));
-        opMappers.put(SignVertex.class, fluentUnaryOp("sign", "signInPlace"));
-
-        opMappers.put(GreaterThanOrEqualToMaskVertex.class, fluentBinaryOp("greaterThanOrEqualToMask"));
-        opMappers.put(GreaterThanMaskVertex.class, fluentBinaryOp("greaterThanMask"));
-        opMappers.put(LessThanOrEqualToMaskVertex.class, fluentBinaryOp("lessThanOrEqualToMask"));
-        opMappers.put(LessThanMaskVertex.class, fluentBinaryOp("lessThanMask"));
+        opMappers.put(PowerVertex.class, fluentBinaryOp(NumberTensor.class,
+            "pow", NumberTensor::pow, "powInPlace", NumberTensor::powInPlace));
+        opMappers.put(AbsVertex.class, fluentUnaryOp(NumberTensor.class,
+            "abs", NumberTensor::abs, "absInPlace", NumberTensor::absInPlace));
+        opMappers.put(SignVertex.class, fluentUnaryOp(NumberTensor.class,
+            "sign", NumberTensor::sign, "signInPlace", NumberTensor::signInPlace));
+
+        opMappers.put(GreaterThanOrEqualToMaskVertex.class, fluentBinaryOp(NumberTensor.class,
+            "greaterThanOrEqualToMask", NumberTensor::greaterThanOrEqualToMask));
+        opMappers.put(GreaterThanMaskVertex.class, fluentBinaryOp(NumberTensor.class,
+            "greaterThanMask", NumberTensor::greaterThanMask));
+        opMappers.put(LessThanOrEqualToMaskVertex.class, fluentBinaryOp(NumberTensor.class,
+            "lessThanOrEqualToMask", NumberTensor::lessThanOrEqualToMask));
+        opMappers.put(LessThanMaskVertex.class, fluentBinaryOp(NumberTensor.class,
+            "lessThanMask", NumberTensor::lessThanMask));
         opMappers.put(SetWithMaskVertex.class, KeanuVertexToTensorOpMapper::setWithMaskOp);
-        opMappers.put(MaxVertex.class, fluentBinaryOp("max"));
-        opMappers.put(MinVertex.class, fluentBinaryOp("min"));
-        opMappers.put(MaxUnaryVertex.class, fluentUnaryOp("max"));
-        opMappers.put(MinUnaryVertex.class, fluentUnaryOp("min"));
+        opMappers.put(MaxVertex.class, fluentBinaryOp(NumberTensor.class, "max", NumberTensor::max));
+        opMappers.put(MinVertex.class, fluentBinaryOp(NumberTensor.class, "min", NumberTensor::min));
+        opMappers.put(MaxUnaryVertex.class, fluentUnaryOp(NumberTensor.class, "max", NumberTensor::max));
+        opMappers.put(MinUnaryVertex.class, fluentUnaryOp(NumberTensor.class, "min", NumberTensor::min));
 
         //Floating point ops
-        opMappers.put(CosVertex.class, fluentUnaryOp("cos", "cosInPlace"));
-        opMappers.put(CoshVertex.class, fluentUnaryOp("cosh", "coshInPlace"));
-        opMappers.put(ArcCosVertex.class, fluentUnaryOp("acos", "acosInPlace"));
-        opMappers.put(TanhVertex.class, fluentUnaryOp("tanh", "tanhInPlace"));
-        opMappers.put(ArcTanhVertex.class, fluentUnaryOp("atanh", "atanhInPlace"));
-        opMappers.put(ArcCoshVertex.class, fluentUnaryOp("acosh", "acoshInPlace"));
-        opMappers.put(SinhVertex.class, fluentUnaryOp("sinh", "sinhInPlace"));
-        opMappers.put(ArcSinhVertex.class, fluentUnaryOp("asinh", "asinhInPlace"));
-        opMappers.put(ArcTan2Vertex.class, fluentBinaryOp("atan2", "atan2InPlace"));
-        opMappers.put(SinVertex.class, fluentUnaryOp("sin", "sinInPlace"));
-        opMappers.put(TanVertex.class, fluentUnaryOp("tan", "tanInPlace"));
-        opMappers.put(ArcSinVertex.class, fluentUnaryOp("asin", "asinInPlace"));
-        opMappers.put(ArcTanVertex.class, fluentUnaryOp("atan", "atanInPlace"));
-
-        opMappers.put(CeilVertex.class, fluentUnaryOp("ceil", "ceilInPlace"));
-        opMappers.put(FloorVertex.class, fluentUnaryOp("floor", "floorInPlace"));
-        opMappers.put(RoundVertex.class, fluentUnaryOp("round", "roundInPlace"));
-
-        opMappers.put(ExpVertex.class, fluentUnaryOp("exp", "expInPlace"));
-        opMappers.put(LogVertex.class, fluentUnaryOp("log", "logInPlace"));
-        opMappers.put(LogGammaVertex.class, fluentUnaryOp("logGamma", "logGammaInPlace"));
-        opMappers.put(Log2Vertex.class, fluentUnaryOp("log2", "log2InPlace"));
-        opMappers.put(Exp2Vertex.class, fluentUnaryOp("exp2", "exp2InPlace"));
-        opMappers.put(Log10Vertex.class, fluentUnaryOp("log10", "log10InPlace"));
-        opMappers.put(LogAddExp2Vertex.class, fluentBinaryOp("logAddExp2"));
-        opMappers.put(LogAddExpVertex.class, fluentBinaryOp("logAddExp2"));
-        opMappers.put(Log1pVertex.class, fluentUnaryOp("log1p", "log1pInPlace"));
-        opMappers.put(ExpM1Vertex.class, fluentUnaryOp("expM1", "expM1InPlace"));
-
-        opMappers.put(DigammaVertex.class, fluentUnaryOp("digamma", "digammaInPlace"));
-        opMappers.put(TrigammaVertex.class, fluentUnaryOp("trigamma", "trigammaInPlace"));
-        opMappers.put(SigmoidVertex.class, fluentUnaryOp("sigmoid", "sigmoidInPlace"));
-        opMappers.put(MatrixDeterminantVertex.class, fluentUnaryOp("matrixDeterminant"));
-        opMappers.put(MatrixInverseVertex.class, fluentUnaryOp("matrixInverse"));
-        opMappers.put(CholeskyDecompositionVertex.class, fluentUnaryOp("choleskyDecomposition"));
-        opMappers.put(CholeskyInverseVertex.class, fluentUnaryOp("choleskyInverse"));
-        opMappers.put(StandardizeVertex.class, fluentUnaryOp("standardize"));
+        opMappers.put(CosVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "cos", FloatingPointTensor::cos, "cosInPlace", FloatingPointTensor::cosInPlace));
+        opMappers.put(CoshVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "cosh", FloatingPointTensor::cosh, "coshInPlace", FloatingPointTensor::coshInPlace));
+        opMappers.put(ArcCosVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "acos", FloatingPointTensor::acos, "acosInPlace", FloatingPointTensor::acosInPlace));
+        opMappers.put(TanhVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "tanh", FloatingPointTensor::tanh, "tanhInPlace", FloatingPointTensor::tanhInPlace));
+        opMappers.put(ArcTanhVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "atanh", FloatingPointTensor::atanh, "atanhInPlace", FloatingPointTensor::atanhInPlace));
+        opMappers.put(ArcCoshVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "acosh", FloatingPointTensor::acosh, "acoshInPlace", FloatingPointTensor::acoshInPlace));
+        opMappers.put(SinhVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "sinh", FloatingPointTensor::sinh, "sinhInPlace", FloatingPointTensor::sinhInPlace));
+        opMappers.put(ArcSinhVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "asinh", FloatingPointTensor::asinh, "asinhInPlace", FloatingPointTensor::asinhInPlace));
+        opMappers.put(ArcTan2Vertex.class, fluentBinaryOp(FloatingPointTensor.class,
+            "atan2", FloatingPointTensor::atan2, "atan2InPlace", FloatingPointTensor::atan2InPlace));
+        opMappers.put(SinVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "sin", FloatingPointTensor::sin, "sinInPlace", FloatingPointTensor::sinInPlace));
+        opMappers.put(TanVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "tan", FloatingPointTensor::tan, "tanInPlace", FloatingPointTensor::tanInPlace));
+        opMappers.put(ArcSinVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "asin", FloatingPointTensor::asin, "asinInPlace", FloatingPointTensor::asinInPlace));
+        opMappers.put(ArcTanVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "atan", FloatingPointTensor::atan, "atanInPlace", FloatingPointTensor::atanInPlace));
+
+        opMappers.put(CeilVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "ceil", FloatingPointTensor::ceil, "ceilInPlace", FloatingPointTensor::ceilInPlace));
+        opMappers.put(FloorVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "floor", FloatingPointTensor::floor, "floorInPlace", FloatingPointTensor::floorInPlace));
+        opMappers.put(RoundVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "round", FloatingPointTensor::round, "roundInPlace", FloatingPointTensor::roundInPlace));
+
+        opMappers.put(ExpVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "exp", FloatingPointTensor::exp, "expInPlace", FloatingPointTensor::expInPlace));
+        opMappers.put(LogVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "log", FloatingPointTensor::log, "logInPlace", FloatingPointTensor::logInPlace));
+        opMappers.put(LogGammaVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "logGamma", FloatingPointTensor::logGamma, "logGammaInPlace", FloatingPointTensor::logGammaInPlace));
+        opMappers.put(Log2Vertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "log2", FloatingPointTensor::log2, "log2InPlace", FloatingPointTensor::log2InPlace));
+        opMappers.put(Exp2Vertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "exp2", FloatingPointTensor::exp2, "exp2InPlace", FloatingPointTensor::exp2InPlace));
+        opMappers.put(Log10Vertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "log10", FloatingPointTensor::log10, "log10InPlace", FloatingPointTensor::log10InPlace));
+        opMappers.put(LogAddExp2Vertex.class, fluentBinaryOp(FloatingPointTensor.class,
+            "logAddExp2", FloatingPointTensor::logAddExp2));
+        opMappers.put(LogAddExpVertex.class, fluentBinaryOp(FloatingPointTensor.class,
+            "logAddExp2", FloatingPointTensor::logAddExp2));
+        opMappers.put(Log1pVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "log1p", FloatingPointTensor::log1p, "log1pInPlace", FloatingPointTensor::log1pInPlace));
+        opMappers.put(ExpM1Vertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "expM1", FloatingPointTensor::expM1, "expM1InPlace", FloatingPointTensor::expM1InPlace));
+
+        opMappers.put(DigammaVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "digamma", FloatingPointTensor::digamma, "digammaInPlace", FloatingPointTensor::digammaInPlace));
+        opMappers.put(TrigammaVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "trigamma", FloatingPointTensor::trigamma, "trigammaInPlace", FloatingPointTensor::trigammaInPlace));
+        opMappers.put(SigmoidVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "sigmoid", FloatingPointTensor::sigmoid, "sigmoidInPlace", FloatingPointTensor::sigmoidInPlace));
+        opMappers.put(MatrixDeterminantVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "matrixDeterminant", FloatingPointTensor::matrixDeterminant));
+        opMappers.put(MatrixInverseVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "matrixInverse", FloatingPointTensor::matrixInverse));
+        opMappers.put(CholeskyDecompositionVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "choleskyDecomposition", FloatingPointTensor::choleskyDecomposition));
+        opMappers.put(CholeskyInverseVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "choleskyInverse", FloatingPointTensor::choleskyInverse));
+        opMappers.put(StandardizeVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "standardize", FloatingPointTensor::standardize));
         opMappers.put(MeanVertex.class, KeanuVertexToTensorOpMapper::meanOp);
-        opMappers.put(StandardDeviationVertex.class, fluentUnaryOp("standardDeviation"));
+        opMappers.put(StandardDeviationVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "standardDeviation", FloatingPointTensor::standardDeviation));
         opMappers.put(ReplaceNaNVertex.class, KeanuVertexToTensorOpMapper::replaceNaNOp);
-        opMappers.put(NotNaNVertex.class, fluentUnaryOp("notNaN"));
-        opMappers.put(IsNaNVertex.class, fluentUnaryOp("isNaN"));
-        opMappers.put(IsNegativeInfinityVertex.class, fluentUnaryOp("isNegativeInfinity"));
-        opMappers.put(IsPositiveInfinityVertex.class, fluentUnaryOp("isPositiveInfinity"));
-        opMappers.put(IsInfiniteVertex.class, fluentUnaryOp("isInfinite"));
-        opMappers.put(IsFiniteVertex.class, fluentUnaryOp("isFinite"));
-        opMappers.put(SafeLogTimesVertex.class, fluentBinaryOp("safeLogTimes", "safeLogTimesInPlace"));
+        opMappers.put(NotNaNVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "notNaN", FloatingPointTensor::notNaN));
+        opMappers.put(IsNaNVertex.class, fluentUnaryOp(FloatingPointTensor.class, "isNaN", FloatingPointTensor::isNaN));
+        opMappers.put(IsNegativeInfinityVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "isNegativeInfinity", FloatingPointTensor::isNegativeInfinity));
+        opMappers.put(IsPositiveInfinityVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "isPositiveInfinity", FloatingPointTensor::isPositiveInfinity));
+        opMappers.put(IsInfiniteVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "isInfinite", FloatingPointTensor::isInfinite));
+        opMappers.put(IsFiniteVertex.class, fluentUnaryOp(FloatingPointTensor.class,
+            "isFinite", FloatingPointTensor::isFinite));
+        opMappers.put(SafeLogTimesVertex.class, fluentBinaryOp(FloatingPointTensor.class,
+            "safeLogTimes", FloatingPointTensor::safeLogTimes, "safeLogTimesInPlace", FloatingPointTensor::safeLogTimesInPlace));
 
         //Fixed point ops
-        opMappers.put(ModVertex.class, fluentBinaryOp("mod", "modInPlace"));
+        opMappers.put(ModVertex.class, fluentBinaryOp(FixedPointTensor.class,
+            "mod", FixedPointTensor::mod, "modInPlace", FixedPointTensor::modInPlace));
 
         //Double ops
         opMappers.put(ConcatenationVertex.class, KeanuVertexToTensorOpMapper::concatDoubleOp);
-        opMappers.put(CastNumberToDoubleVertex.class, fluentUnaryOp("toDouble"));
+        opMappers.put(CastNumberToDoubleVertex.class, fluentUnaryOp(NumberTensor.class,
+            "toDouble", NumberTensor::toDouble));
         opMappers.put(DoubleProxyVertex.class, KeanuVertexToTensorOpMapper::doubleProxyOp);
 
         //Integer ops
         opMappers.put(IntegerConcatenationVertex.class, KeanuVertexToTensorOpMapper::concatIntegerOp);
-        opMappers.put(CastNumberToIntegerVertex.class, fluentUnaryOp("toInteger"));
+        opMappers.put(CastNumberToIntegerVertex.class, fluentUnaryOp(NumberTensor.class,
+            "toInteger", NumberTensor::toInteger));
         opMappers.put(IntegerProxyVertex.class, KeanuVertexToTensorOpMapper::integerProxyOp);
 
         //Booleans ops
         opMappers.put(BooleanConcatenationVertex.class, KeanuVertexToTensorOpMapper::concatBoolOp);
-        opMappers.put(GreaterThanOrEqualVertex.class, fluentBinaryOp("greaterThanOrEqual"));
-        opMappers.put(GreaterThanVertex.class, fluentBinaryOp("greaterThan"));
-        opMappers.put(LessThanOrEqualVertex.class, fluentBinaryOp("lessThanOrEqual"));
-        opMappers.put(LessThanVertex.class, fluentBinaryOp("lessThan"));
-        opMappers.put(EqualsVertex.class, fluentBinaryOp("elementwiseEquals"));
+        opMappers.put(GreaterThanOrEqualVertex.class, fluentBinaryOp(NumberTensor.class,
+            "greaterThanOrEqual", NumberTensor::greaterThanOrEqual));
+        opMappers.put(GreaterThanVertex.class, fluentBinaryOp(NumberTensor.class,
+            "greaterThan", NumberTensor::greaterThan));
+        opMappers.put(LessThanOrEqualVertex.class, fluentBinaryOp(NumberTensor.class,
+            "lessThanOrEqual", NumberTensor::lessThanOrEqual));
+        opMappers.put(LessThanVertex.class, fluentBinaryOp(NumberTensor.class, "lessThan", NumberTensor::lessThan));
+        opMappers.put(EqualsVertex.class, fluentBinaryOp(Tensor.class, "elementwiseEquals", Tensor::elementwiseEquals));
         opMappers.put(NotEqualsVertex.class, KeanuVertexToTensorOpMapper::notOp);
         opMappers.put(NumericalEqualsVertex.class, KeanuVertexToTensorOpMapper::numericalEqualsOp);
-        opMappers.put(OrBinaryVertex.class, fluentBinaryOp("or", "orInPlace"));
-        opMappers.put(AndBinaryVertex.class, fluentBinaryOp("and", "andInPlace"));
-        opMappers.put(NotBinaryVertex.class, fluentUnaryOp("not", "notInPlace"));
-        opMappers.put(XorBinaryVertex.class, fluentUnaryOp("xor", "xorInPlace"));
-        opMappers.put(CastToBooleanVertex.class, fluentUnaryOp("toBoolean"));
-        opMappers.put(CastNumberToBooleanVertex.class, fluentUnaryOp("toBoolean"));
-        opMappers.put(BooleanToIntegerMaskVertex.class, fluentUnaryOp("toIntegerMask"));
-        opMappers.put(BooleanToDoubleMaskVertex.class, fluentUnaryOp("toDoubleMask"));
-        opMappers.put(AllTrueVertex.class, fluentUnaryOp("allTrue"));
-        opMappers.put(AnyTrueVertex.class, fluentUnaryOp("anyTrue"));
-        opMappers.put(AllFalseVertex.class, fluentUnaryOp("allFalse"));
-        opMappers.put(AnyFalseVertex.class, fluentUnaryOp("anyFalse"));
+        opMappers.put(OrBinaryVertex.class, fluentBinaryOp(BooleanTensor.class,
+            "or", BooleanTensor::or, "orInPlace", BooleanTensor::orInPlace));
+        opMappers.put(AndBinaryVertex.class, fluentBinaryOp(BooleanTensor.class,
+            "and", BooleanTensor::and, "andInPlace", BooleanTensor::andInPlace));
+        opMappers.put(NotBinaryVertex.class, fluentUnaryOp(BooleanTensor.class,
+            "not", BooleanTensor::not, "notInPlace", BooleanTensor::notInPlace));
+        opMappers.put(XorBinaryVertex.class, fluentBinaryOp(BooleanTensor.class,
+            "xor", BooleanTensor::xor, "xorInPlace", BooleanTensor::xorInPlace));
+        opMappers.put(CastToBooleanVertex.class, KeanuVertexToTensorOpMapper::castToBooleanOp);
+        opMappers.put(CastNumberToBooleanVertex.class, fluentUnaryOp(NumberTensor.class,
+            "toBoolean", NumberTensor::toBoolean));
+        opMappers.put(BooleanToIntegerMaskVertex.class, fluentUnaryOp(BooleanTensor.class,
+            "toIntegerMask", BooleanTensor::toIntegerMask));
+        opMappers.put(BooleanToDoubleMaskVertex.class, fluentUnaryOp(BooleanTensor.class,
+            "toDoubleMask", BooleanTensor::toDoubleMask));
+        opMappers.put(AllTrueVertex.class, fluentUnaryOp(BooleanTensor.class, "allTrue", BooleanTensor::allTrue));
+        opMappers.put(AnyTrueVertex.class, fluentUnaryOp(BooleanTensor.class, "anyTrue", BooleanTensor::anyTrue));
+        opMappers.put(AllFalseVertex.class, fluentUnaryOp(BooleanTensor.class, "allFalse", BooleanTensor::allFalse));
+        opMappers.put(AnyFalseVertex.class, fluentUnaryOp(BooleanTensor.class, "anyFalse", BooleanTensor::anyFalse));
         opMappers.put(BooleanProxyVertex.class, KeanuVertexToTensorOpMapper::booleanProxyOp);
 
         //Constants
@@ -305,30 +380,34 @@ public class KeanuVertexToTensorOpMapper {
     interface OpMapper {
         /**
          * @param vertex the operation (e.g. times, plus)
-         * @param lookup lookup other variable names and any metadata about them (e.g. mutable)
+         * @param lookup lookup other variables and any metadata about them (e.g. mutable)
          * @return the right hand side of the assignment
          */
-        String apply(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup);
+        KeanuCompiledExpression apply(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup);
     }
 
     public static OpMapper getOpMapperFor(Class<?> clazz) {
         return opMappers.get(clazz);
     }
 
-    private static OpMapper fluentBinaryOp(String methodName) {
-        return fluentBinaryOp(methodName, methodName);
+    private static <T> OpMapper fluentBinaryOp(Class<T> type, String methodName, BiFunction<T, T, ?> op) {
+        return fluentBinaryOp(type, methodName, op, methodName, op);
     }
 
     /**
-     * Assumes that the left hand arg has a method called methodName and a method called
-     * inPlaceMethodName. The inPlaceMethodName is used if the variable is considered mutable. It is considered
-     * mutable if it is not an input, constant, or output.
+     * Calls op on the left hand arg with the right hand arg. The inPlaceOp is called instead if the variable is
+     * considered mutable. It is considered mutable if it is not an input, constant, or output.
      *
-     * @param methodName        the method to call when not mutating the left hand variable of the binary op
-     * @param inPlaceMethodName the method to call when mutating the left hand variable of the binary op
+     * @param type              the type of the operands
+     * @param methodName        the method that op calls, which is shown in the source
+     * @param op                the operation to use when not mutating the left hand variable of the binary op
+     * @param inPlaceMethodName the method that inPlaceOp calls, which is shown in the source
+     * @param inPlaceOp         the operation to use when mutating the left hand variable of the binary op
      * @return a OpMapper that provides the right hand side of an assignment. e.g. v1.plus(v2)
      */
-    private static OpMapper fluentBinaryOp(String methodName, String inPlaceMethodName) {
+    private static <T> OpMapper fluentBinaryOp(Class<T> type,
+                                               String methodName, BiFunction<T, T, ?> op,
+                                               String inPlaceMethodName, BiFunction<T, T, ?> inPlaceOp) {
         return (vertex, lookup) -> {
             VertexBinaryOp<?, ?> binaryOpVertex = (VertexBinaryOp<?, ?>) vertex;
             Vertex<?, ?> left = binaryOpVertex.getLeft();
@@ -337,27 +416,31 @@ public class KeanuVertexToTensorOpMapper {
             KeanuCompiledVariable leftVariable = lookup.get(left.getReference());
             KeanuCompiledVariable rightVariable = lookup.get(right.getReference());
             boolean doInPlace = leftVariable.isMutable() && isLastChildByTopographicalSort(vertex, left) && ENABLE_IN_PLACE;
-            String call = doInPlace ? inPlaceMethodName : methodName;
 
-            return leftVariable.getName() + "." + call + "(" + rightVariable.getName() + ")";
+            String call = (doInPlace ? inPlaceMethodName : methodName) + "(" + rightVariable.getName() + ")";
 
+            return call(type, leftVariable, type, rightVariable, call, doInPlace ? inPlaceOp : op);
         };
     }
 
-    private static OpMapper fluentUnaryOp(String methodName) {
-        return fluentUnaryOp(methodName, methodName);
+    private static <T> OpMapper fluentUnaryOp(Class<T> type, String methodName, Function<T, ?> op) {
+        return fluentUnaryOp(type, methodName, op, methodName, op);
     }
 
     /**
-     * Assumes that the left hand arg has a method called methodName and a method called
-     * inPlaceMethodName. The inPlaceMethodName is used if the variable is considered mutable. It is considered
+     * Calls op on the input. The inPlaceOp is called instead if the variable is considered mutable. It is considered
      * mutable if it is not an input, constant, or output.
      *
-     * @param methodName        the method to call when not mutating the variable of the unary op
-     * @param inPlaceMethodName the method to call when mutating the variable of the unary op
+     * @param type              the type of the input
+     * @param methodName        the method that op calls, which is shown in the source
+     * @param op                the operation to use when not mutating the variable of the unary op
+     * @param inPlaceMethodName the method that inPlaceOp calls, which is shown in the source
+     * @param inPlaceOp         the operation to use when mutating the variable of the unary op
      * @return a OpMapper that provides the right hand side of an assignment. e.g. v1.cos()
      */
-    private static OpMapper fluentUnaryOp(String methodName, String inPlaceMethodName) {
+    private static <T> OpMapper fluentUnaryOp(Class<T> type,
+                                              String methodName, Function<T, ?> op,
+                                              String inPlaceMethodName, Function<T, ?> inPlaceOp) {
         return (vertex, lookup) -> {
             VertexUnaryOp unaryOpVertex = (VertexUnaryOp) vertex;
             Vertex<?, ?> input = unaryOpVertex.getInputVertex();
@@ -365,12 +448,45 @@ public class KeanuVertexToTensorOpMapper {
             KeanuCompiledVariable inputVariable = lookup.get(input.getReference());
             boolean doInPlace = inputVariable.isMutable() && isLastChildByTopographicalSort(vertex, input) && ENABLE_IN_PLACE;
 
-            String call = doInPlace ? inPlaceMethodName : methodName;
+            String call = (doInPlace ? inPlaceMethodName : methodName) + "()";
 
-            return inputVariable.getName() + "." + call + "()";
+            return call(type, inputVariable, call, doInPlace ? inPlaceOp : op);
         };
     }
 
+    /**
+     * @param type     the type of the receiver
+     * @param receiver the variable that the method is called on
+     * @param call     the call as it is shown in the source, e.g. reshape(new long[]{2,3})
+     * @param op       the operation on the value of the receiver
+     * @return an expression that calls the operation on the value of the receiver
+     */
+    private static <T> KeanuCompiledExpression call(Class<T> type, KeanuCompiledVariable receiver,
+                                                    String call, Function<T, ?> op) {
+        KeanuCompiledExpression receiverValue = receiver.getValue();
+        return new KeanuCompiledExpression(
+            receiver.getName() + "." + call,
+            (inputs, slots) -> op.apply(type.cast(receiverValue.evaluate(inputs, slots)))
+        );
+    }
+
+    /**
+     * @return an expression that calls the operation on the values of the receiver and an argument
+     */
+    private static <T, A> KeanuCompiledExpression call(Class<T> type, KeanuCompiledVariable receiver,
+                                                       Class<A> argumentType, KeanuCompiledVariable argument,
+                                                       String call, BiFunction<T, A, ?> op) {
+        KeanuCompiledExpression receiverValue = receiver.getValue();
+        KeanuCompiledExpression argumentValue = argument.getValue();
+        return new KeanuCompiledExpression(
+            receiver.getName() + "." + call,
+            (inputs, slots) -> op.apply(
+                type.cast(receiverValue.evaluate(inputs, slots)),
+                argumentType.cast(argumentValue.evaluate(inputs, slots))
+            )
+        );
+    }
+
     /**
      * If the child is the last child by topographic sort order of the parent then it can reuse the memory of its
      * parent.
@@ -388,60 +504,79 @@ public class KeanuVertexToTensorOpMapper {
             .orElse(false);
     }
 
-    private static String constant(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression constant(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         throw new IllegalArgumentException("Constant should not be operation mapped");
     }
 
-    private static String matrixMultiply(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression matrixMultiply(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         MatrixMultiplicationVertex mmul = (MatrixMultiplicationVertex) vertex;
-        String leftName = lookup.get(mmul.getLeft().getId()).getName();
-        String rightName = lookup.get(mmul.getRight().getId()).getName();
+        KeanuCompiledVariable left = lookup.get(mmul.getLeft().getId());
+        KeanuCompiledVariable right = lookup.get(mmul.getRight().getId());
         boolean transposeLeft = mmul.isTransposeLeft();
         boolean transposeRight = mmul.isTransposeRight();
-        return leftName + ".matrixMultiply(" + rightName + "," + transposeLeft + "," + transposeRight + ");";
+        return call(NumberTensor.class, left, NumberTensor.class, right,
+            "matrixMultiply(" + right.getName() + "," + transposeLeft + "," + transposeRight + ")",
+            (l, r) -> l.matrixMultiply(r, transposeLeft, transposeRight)
+        );
     }
 
-    private static String tensorMultiply(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression tensorMultiply(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         TensorMultiplicationVertex tmul = (TensorMultiplicationVertex) vertex;
-        String leftName = lookup.get(tmul.getLeft().getId()).getName();
-        String rightName = lookup.get(tmul.getRight().getId()).getName();
+        KeanuCompiledVariable left = lookup.get(tmul.getLeft().getId());
+        KeanuCompiledVariable right = lookup.get(tmul.getRight().getId());
         int[] dimsLeft = tmul.getDimsLeft();
         int[] dimsRight = tmul.getDimsRight();
-        return leftName + ".tensorMultiply(" + rightName + "," + toJavaArrayCreation(dimsLeft) + "," + toJavaArrayCreation(dimsRight) + ");";
+        return call(NumberTensor.class, left, NumberTensor.class, right,
+            "tensorMultiply(" + right.getName() + "," + toJavaArrayCreation(dimsLeft) + "," + toJavaArrayCreation(dimsRight) + ")",
+            (l, r) -> l.tensorMultiply(r, dimsLeft, dimsRight)
+        );
     }
 
-    private static String setWithMaskOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression setWithMaskOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         SetWithMaskVertex setWithMaskVertex = (SetWithMaskVertex) vertex;
         Vertex mask = setWithMaskVertex.getMask();
         Vertex operand = setWithMaskVertex.getOperand();
         Vertex setValue = setWithMaskVertex.getSetValue();
 
-        String operandName = lookup.get(operand.getId()).getName();
-        String maskName = lookup.get(mask.getId()).getName();
-        String setValueName = lookup.get(setValue.getId()).getName();
+        KeanuCompiledVariable operandVariable = lookup.get(operand.getId());
+        KeanuCompiledVariable maskVariable = lookup.get(mask.getId());
+        KeanuCompiledVariable setValueVariable = lookup.get(setValue.getId());
+
+        KeanuCompiledExpression operandValue = operandVariable.getValue();
+        KeanuCompiledExpression maskValue = maskVariable.getValue();
+        KeanuCompiledExpression setValueValue = setValueVariable.getValue();
 
-        return operandName + ".setWithMask(" + maskName + "," + setValueName + ".scalar())";
+        return new KeanuCompiledExpression(
+            operandVariable.getName() + ".setWithMask(" + maskVariable.getName() + "," + setValueVariable.getName() + ".scalar())",
+            (inputs, slots) -> ((NumberTensor) operandValue.evaluate(inputs, slots)).setWithMask(
+                (NumberTensor) maskValue.evaluate(inputs, slots),
+                (Number) ((NumberTensor) setValueValue.evaluate(inputs, slots)).scalar()
+            )
+        );
     }
 
-    private static String reshapeOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression reshapeOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         ReshapeVertex reshapeVertex = (ReshapeVertex) vertex;
-        String variableName = lookup.get(reshapeVertex.getInputVertex().getId()).getName();
-        return variableName + ".reshape(" + toJavaArrayCreation(reshapeVertex.getProposedShape()) + ")";
+        KeanuCompiledVariable variable = lookup.get(reshapeVertex.getInputVertex().getId());
+        long[] proposedShape = reshapeVertex.getProposedShape();
+        return call(Tensor.class, variable, "reshape(" + toJavaArrayCreation(proposedShape) + ")", t -> t.reshape(proposedShape));
     }
 
-    private static String takeOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression takeOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         TakeVertex takeVertex = (TakeVertex) vertex;
-        String variableName = lookup.get(takeVertex.getInputVertex().getId()).getName();
-        return variableName + ".take(" + toJavaArrayCreation(takeVertex.getIndex()) + ");";
+        KeanuCompiledVariable variable = lookup.get(takeVertex.getInputVertex().getId());
+        long[] index = takeVertex.getIndex();
+        return call(Tensor.class, variable, "take(" + toJavaArrayCreation(index) + ")", t -> t.take(index));
     }
 
-    private static String broadcastOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression broadcastOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         BroadcastVertex broadcastVertex = (BroadcastVertex) vertex;
-        String variableName = lookup.get(broadcastVertex.getInputVertex().getId()).getName();
-        return variableName + ".broadcast(" + toJavaArrayCreation(broadcastVertex.getToShape()) + ");";
+        KeanuCompiledVariable variable = lookup.get(broadcastVertex.getInputVertex().getId());
+        long[] toShape = broadcastVertex.getToShape();
+        return call(Tensor.class, variable, "broadcast(" + toJavaArrayCreation(toShape) + ")", t -> t.broadcast(toShape));
     }
 
-    private static String notOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression notOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         VertexBinaryOp<?, ?> binaryOpVertex = (VertexBinaryOp<?, ?>) vertex;
         Vertex<?, ?> left = binaryOpVertex.getLeft();
         Vertex<?, ?> right = binaryOpVertex.getRight();
@@ -449,289 +584,344 @@ public class KeanuVertexToTensorOpMapper {
         KeanuCompiledVariable leftVariable = lookup.get(left.getReference());
         KeanuCompiledVariable rightVariable = lookup.get(right.getReference());
 
-        return leftVariable.getName() + ".elementwiseEquals(" + rightVariable.getName() + ").not()";
+        return call(Tensor.class, leftVariable, Tensor.class, rightVariable,
+            "elementwiseEquals(" + rightVariable.getName() + ").not()",
+            (l, r) -> l.elementwiseEquals(r).not()
+        );
     }
 
-    private static String sliceOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression sliceOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         SliceVertex sliceVertex = (SliceVertex) vertex;
-        String variableName = lookup.get(sliceVertex.getInputVertex().getId()).getName();
-        return variableName + ".slice(" + sliceVertex.getDimension() + "," + sliceVertex.getIndex() + ")";
+        KeanuCompiledVariable variable = lookup.get(sliceVertex.getInputVertex().getId());
+        int dimension = sliceVertex.getDimension();
+        long index = sliceVertex.getIndex();
+        return call(Tensor.class, variable, "slice(" + dimension + "," + index + ")", t -> t.slice(dimension, index));
     }
 
-    private static String stridedSliceOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression stridedSliceOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         StridedSliceVertex sliceVertex = (StridedSliceVertex) vertex;
-        String variableName = lookup.get(sliceVertex.getInputVertex().getId()).getName();
+        KeanuCompiledVariable variable = lookup.get(sliceVertex.getInputVertex().getId());
+
+        long[] start = sliceVertex.getStart();
+        long[] end = sliceVertex.getEnd();
+        long[] stride = sliceVertex.getStride();
+        Integer ellipsis = sliceVertex.getEllipsis();
+        boolean[] upperBoundStop = sliceVertex.getUpperBoundStop();
+        boolean[] dropDimension = sliceVertex.getDropDimension();
 
         String slicerClassName = Slicer.class.getCanonicalName();
-        return variableName + ".slice(new " + slicerClassName + "(" +
-            toJavaArrayCreation(sliceVertex.getStart()) + "," +
-            toJavaArrayCreation(sliceVertex.getEnd()) + "," +
-            toJavaArrayCreation(sliceVertex.getStride()) + "," +
-            sliceVertex.getEllipsis() + "," +
-            toJavaArrayCreation(sliceVertex.getUpperBoundStop()) + "," +
-            toJavaArrayCreation(sliceVertex.getDropDimension()) +
+        String call = "slice(new " + slicerClassName + "(" +
+            toJavaArrayCreation(start) + "," +
+            toJavaArrayCreation(end) + "," +
+            toJavaArrayCreation(stride) + "," +
+            ellipsis + "," +
+            toJavaArrayCreation(upperBoundStop) + "," +
+            toJavaArrayCreation(dropDimension) +
             "))";
+
+        return call(Tensor.class, variable, call,
+            t -> t.slice(new Slicer(start, end, stride, ellipsis, upperBoundStop, dropDimension))
+        );
     }
 
-    private static String permuteOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression permuteOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         PermuteVertex permuteVertex = (PermuteVertex) vertex;
-        String variableName = lookup.get(permuteVertex.getId()).getName();
-        return variableName + ".permute(" + toJavaArrayCreation(permuteVertex.getRearrange()) + ")";
+        KeanuCompiledVariable variable = lookup.get(permuteVertex.getInputVertex().getId());
+        int[] rearrange = permuteVertex.getRearrange();
+        return call(Tensor.class, variable, "permute(" + toJavaArrayCreation(rearrange) + ")", t -> t.permute(rearrange));
     }
 
-    private static String concatDoubleOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression getBooleanIndexOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+        GetBooleanIndexVertex getVertex = (GetBooleanIndexVertex) vertex;
+        KeanuCompiledVariable variable = lookup.get(getVertex.getLeft().getId());
+        KeanuCompiledVariable booleanIndex = lookup.get(getVertex.getRight().getId());
+        return call(Tensor.class, variable, BooleanTensor.class, booleanIndex,
+            "get(" + booleanIndex.getName() + ")",
+            Tensor::get
+        );
+    }
+
+    private static KeanuCompiledExpression concatDoubleOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         ConcatenationVertex concatenationVertex = (ConcatenationVertex) vertex;
         Vertex[] operands = concatenationVertex.getOperands();
         int dimension = concatenationVertex.getDimension();
 
-        return concatOp(dimension, operands, "DoubleTensor.concat", lookup);
+        return concatOp(dimension, operands, "DoubleTensor.concat", DoubleTensor[]::new, DoubleTensor::concat, lookup);
     }
 
-    private static String concatIntegerOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression concatIntegerOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         IntegerConcatenationVertex concatenationVertex = (IntegerConcatenationVertex) vertex;
         IntegerVertex[] operands = concatenationVertex.getOperands();
         int dimension = concatenationVertex.getDimension();
 
-        return concatOp(dimension, operands, "IntegerTensor.concat", lookup);
+        return concatOp(dimension, operands, "IntegerTensor.concat", IntegerTensor[]::new, IntegerTensor::concat, lookup);
     }
 
-    private static String concatBoolOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression concatBoolOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         BooleanConcatenationVertex concatenationVertex = (BooleanConcatenationVertex) vertex;
         BooleanVertex[] operands = concatenationVertex.getOperands();
         int dimension = concatenationVertex.getDimension();
 
-        return concatOp(dimension, operands, "BooleanTensor.concat", lookup);
+        return concatOp(dimension, operands, "BooleanTensor.concat", BooleanTensor[]::new, BooleanTensor::concat, lookup);
     }
 
-    private static String concatOp(int dimension,
-                                   Vertex[] operands,
-                                   String concatOp,
-                                   Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static <T> KeanuCompiledExpression concatOp(int dimension,
+                                                        Vertex[] operands,
+                                                        String concatOp,
+                                                        IntFunction<T[]> arrayOfLength,
+                                                        BiFunction<Integer, T[], ?> concat,
+                                                        Map<VariableReference, KeanuCompiledVariable> lookup) {
 
         String operandArg = Arrays.stream(operands)
             .map(v -> lookup.get(v.getId()).getName())
             .collect(Collectors.joining(","));
 
-        return concatOp + "(" + dimension + "," + operandArg + ")";
+        KeanuCompiledExpression[] operandValues = valuesOf(operands, lookup);
 
+        return new KeanuCompiledExpression(
+            concatOp + "(" + dimension + "," + operandArg + ")",
+            (inputs, slots) -> concat.apply(dimension, evaluateAll(operandValues, inputs, slots, arrayOfLength))
+        );
     }
 
-    private static String replaceNaNOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression replaceNaNOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         ReplaceNaNVertex replaceNaNVertex = (ReplaceNaNVertex) vertex;
-        String variableName = lookup.get(replaceNaNVertex.getInputVertex().getId()).getName();
-        return variableName + ".replaceNaN(" + replaceNaNVertex.getReplaceWithValue().doubleValue() + ");";
+        KeanuCompiledVariable variable = lookup.get(replaceNaNVertex.getInputVertex().getId());
+        Double replaceWithValue = replaceNaNVertex.getReplaceWithValue().doubleValue();
+        return call(FloatingPointTensor.class, variable, "replaceNaN(" + replaceWithValue + ")", t -> t.replaceNaN(replaceWithValue));
     }
 
-    private static String cumSumOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression cumSumOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         CumSumVertex cumSumVertex = (CumSumVertex) vertex;
 
         int dim = cumSumVertex.getRequestedDimension();
-        String declaration = lookup.get(cumSumVertex.getInputVertex().getReference()).getName();
+        KeanuCompiledVariable variable = lookup.get(cumSumVertex.getInputVertex().getReference());
 
-        return declaration + ".cumSum(" + dim + ")";
+        return call(NumberTensor.class, variable, "cumSum(" + dim + ")", t -> t.cumSum(dim));
     }
 
-    private static String cumProdOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression cumProdOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         CumProdVertex cumProdVertex = (CumProdVertex) vertex;
 
         int dim = cumProdVertex.getRequestedDimension();
-        String declaration = lookup.get(cumProdVertex.getInputVertex().getReference()).getName();
+        KeanuCompiledVariable variable = lookup.get(cumProdVertex.getInputVertex().getReference());
 
-        return declaration + ".cumProd(" + dim + ")";
+        return call(NumberTensor.class, variable, "cumProd(" + dim + ")", t -> t.cumProd(dim));
     }
 
-    private static String argMinOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression argMinOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         ArgMinVertex opVertex = (ArgMinVertex) vertex;
 
         Integer dim = opVertex.getAxis();
-        String declaration = lookup.get(opVertex.getInputVertex().getReference()).getName();
+        KeanuCompiledVariable variable = lookup.get(opVertex.getInputVertex().getReference());
 
         if (dim != null) {
-            return declaration + ".argMin(" + dim + ")";
+            return call(NumberTensor.class, variable, "argMin(" + dim + ")", t -> t.argMin(dim));
         } else {
-            return declaration + ".argMin()";
+            return call(NumberTensor.class, variable, "argMin()", NumberTensor::argMin);
         }
     }
 
-    private static String argMaxOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression argMaxOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         ArgMaxVertex opVertex = (ArgMaxVertex) vertex;
 
         Integer dim = opVertex.getAxis();
-        String declaration = lookup.get(opVertex.getInputVertex().getReference()).getName();
+        KeanuCompiledVariable variable = lookup.get(opVertex.getInputVertex().getReference());
 
         if (dim != null) {
-            return declaration + ".argMax(" + dim + ")";
+            return call(NumberTensor.class, variable, "argMax(" + dim + ")", t -> t.argMax(dim));
         } else {
-            return declaration + ".argMax()";
+            return call(NumberTensor.class, variable, "argMax()", NumberTensor::argMax);
         }
     }
 
-    private static String nanArgMaxOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression nanArgMaxOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         NaNArgMaxVertex opVertex = (NaNArgMaxVertex) vertex;
 
         Integer dim = opVertex.getAxis();
-        String declaration = lookup.get(opVertex.getInputVertex().getReference()).getName();
+        KeanuCompiledVariable variable = lookup.get(opVertex.getInputVertex().getReference());
 
         if (dim != null) {
-            return declaration + ".nanArgMax(" + dim + ")";
+            return call(FloatingPointTensor.class, variable, "nanArgMax(" + dim + ")", t -> t.nanArgMax(dim));
         } else {
-            return declaration + ".nanArgMax()";
+            return call(FloatingPointTensor.class, variable, "nanArgMax()", FloatingPointTensor::nanArgMax);
         }
     }
 
-    private static String nanArgMinOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
-        NaNArgMaxVertex opVertex = (NaNArgMaxVertex) vertex;
+    private static KeanuCompiledExpression nanArgMinOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+        NaNArgMinVertex opVertex = (NaNArgMinVertex) vertex;
 
         Integer dim = opVertex.getAxis();
-        String declaration = lookup.get(opVertex.getInputVertex().getReference()).getName();
+        KeanuCompiledVariable variable = lookup.get(opVertex.getInputVertex().getReference());
 
         if (dim != null) {
-            return declaration + ".nanArgMin(" + dim + ")";
+            return call(FloatingPointTensor.class, variable, "nanArgMin(" + dim + ")", t -> t.nanArgMin(dim));
         } else {
-            return declaration + ".nanArgMin()";
+            return call(FloatingPointTensor.class, variable, "nanArgMin()", FloatingPointTensor::nanArgMin);
         }
     }
 
-    private static String sumOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression sumOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         SumVertex sumVertex = (SumVertex) vertex;
 
         int[] dimensions = sumVertex.getOverDimensions();
-        String declaration = lookup.get(sumVertex.getInputVertex().getReference()).getName();
+        KeanuCompiledVariable variable = lookup.get(sumVertex.getInputVertex().getReference());
 
         if (dimensions != null) {
-            String dims = Arrays.stream(dimensions)
-                .mapToObj(i -> i + "")
-                .collect(Collectors.joining(","));
-
-            String args = "new int[]{" + dims + "}";
-            return declaration + ".sum(" + args + ")";
+            return call(NumberTensor.class, variable, "sum(" + toJavaArrayCreation(dimensions) + ")", t -> t.sum(dimensions));
         } else {
-            return declaration + ".sum()";
+            return call(NumberTensor.class, variable, "sum()", NumberTensor::sum);
         }
     }
 
-    private static String meanOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression meanOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         MeanVertex meanVertex = (MeanVertex) vertex;
 
         int[] dimensions = meanVertex.getOverDimensions();
-        String declaration = lookup.get(meanVertex.getInputVertex().getReference()).getName();
+        KeanuCompiledVariable variable = lookup.get(meanVertex.getInputVertex().getReference());
 
         if (dimensions != null) {
-            String dims = Arrays.stream(dimensions)
-                .mapToObj(i -> i + "")
-                .collect(Collectors.joining(","));
-
-            String args = "new int[]{" + dims + "}";
-            return declaration + ".mean(" + args + ")";
+            return call(FloatingPointTensor.class, variable, "mean(" + toJavaArrayCreation(dimensions) + ")", t -> t.mean(dimensions));
         } else {
-            return declaration + ".mean()";
+            return call(FloatingPointTensor.class, variable, "mean()", FloatingPointTensor::mean);
         }
     }
 
-    private static String productOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression productOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         ProductVertex productVertex = (ProductVertex) vertex;
 
         int[] dimensions = productVertex.getOverDimensions();
-        String declaration = lookup.get(productVertex.getInputVertex().getReference()).getName();
+        KeanuCompiledVariable variable = lookup.get(productVertex.getInputVertex().getReference());
 
         if (dimensions != null) {
-            String dims = Arrays.stream(dimensions)
-                .mapToObj(i -> i + "")
-                .collect(Collectors.joining(","));
-
-            String args = "new int[]{" + dims + "}";
-            return declaration + ".product(" + args + ")";
+            return call(NumberTensor.class, variable, "product(" + toJavaArrayCreation(dimensions) + ")", t -> t.product(dimensions));
         } else {
-            return declaration + ".product()";
+            return call(NumberTensor.class, variable, "product()", NumberTensor::product);
         }
     }
 
-    private static String triLowerOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression triLowerOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         TriLowerVertex triLower = (TriLowerVertex) vertex;
         int k = triLower.getK();
-        String triName = lookup.get(triLower.getInputVertex().getId()).getName();
-        return triName + ".triLower(" + k + ")";
+        KeanuCompiledVariable variable = lookup.get(triLower.getInputVertex().getId());
+        return call(Tensor.class, variable, "triLower(" + k + ")", t -> t.triLower(k));
     }
 
-    private static String triUpperOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression triUpperOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         TriUpperVertex triUpper = (TriUpperVertex) vertex;
         int k = triUpper.getK();
-        String triName = lookup.get(triUpper.getInputVertex().getId()).getName();
-        return triName + ".triUpper(" + k + ")";
+        KeanuCompiledVariable variable = lookup.get(triUpper.getInputVertex().getId());
+        return call(Tensor.class, variable, "triUpper(" + k + ")", t -> t.triUpper(k));
     }
 
-    private static String fillTriangular(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression fillTriangular(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         FillTriangularVertex fillTriangularVertex = (FillTriangularVertex) vertex;
         boolean fillUpper = fillTriangularVertex.isFillUpper();
         boolean fillLower = fillTriangularVertex.isFillLower();
-        String inputName = lookup.get(fillTriangularVertex.getInputVertex().getId()).getName();
-        return inputName + ".fillTriangular(" + fillUpper + "," + fillLower + ")";
+        KeanuCompiledVariable variable = lookup.get(fillTriangularVertex.getInputVertex().getId());
+        return call(Tensor.class, variable, "fillTriangular(" + fillUpper + "," + fillLower + ")",
+            t -> t.fillTriangular(fillUpper, fillLower)
+        );
     }
 
-    private static String trianglePartOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression trianglePartOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         TrianglePartVertex trianglePartVertex = (TrianglePartVertex) vertex;
         boolean isUpper = trianglePartVertex.isUpperPart();
-        String name = lookup.get(trianglePartVertex.getInputVertex().getId()).getName();
-        return name + ".trianglePart(" + isUpper + ")";
+        KeanuCompiledVariable variable = lookup.get(trianglePartVertex.getInputVertex().getId());
+        return call(Tensor.class, variable, "trianglePart(" + isUpper + ")", t -> t.trianglePart(isUpper));
     }
 
-    private static String genericIfOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression genericIfOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         WhereVertex whereVertex = (WhereVertex) vertex;
 
         Vertex<BooleanTensor, ?> predicate = whereVertex.getPredicate();
         Vertex<?, ?> thn = whereVertex.getThn();
         Vertex<?, ?> els = whereVertex.getEls();
 
-        String predicateName = lookup.get(predicate.getId()).getName();
-        String thnName = lookup.get(thn.getId()).getName();
-        String elsName = lookup.get(els.getId()).getName();
+        KeanuCompiledVariable predicateVariable = lookup.get(predicate.getId());
+        KeanuCompiledVariable thnVariable = lookup.get(thn.getId());
+        KeanuCompiledVariable elsVariable = lookup.get(els.getId());
 
-        return thnName + ".where(" + predicateName + "," + elsName + ")";
+        KeanuCompiledExpression predicateValue = predicateVariable.getValue();
+        KeanuCompiledExpression thnValue = thnVariable.getValue();
+        KeanuCompiledExpression elsValue = elsVariable.getValue();
+
+        return new KeanuCompiledExpression(
+            thnVariable.getName() + ".where(" + predicateVariable.getName() + "," + elsVariable.getName() + ")",
+            (inputs, slots) -> ((Tensor) thnValue.evaluate(inputs, slots)).where(
+                (BooleanTensor) predicateValue.evaluate(inputs, slots),
+                (Tensor) elsValue.evaluate(inputs, slots)
+            )
+        );
     }
 
-    private static String doubleProxyOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression doubleProxyOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         DoubleProxyVertex proxyVertex = (DoubleProxyVertex) vertex;
-        return lookup.get(proxyVertex.getParent().getId()).getName();
+        return lookup.get(proxyVertex.getParent().getId()).getValue();
     }
 
-    private static String integerProxyOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression integerProxyOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         IntegerProxyVertex proxyVertex = (IntegerProxyVertex) vertex;
-        return lookup.get(proxyVertex.getParent().getId()).getName();
+        return lookup.get(proxyVertex.getParent().getId()).getValue();
     }
 
-    private static String booleanProxyOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression booleanProxyOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         BooleanProxyVertex proxyVertex = (BooleanProxyVertex) vertex;
-        return lookup.get(proxyVertex.getParent().getId()).getName();
+        return lookup.get(proxyVertex.getParent().getId()).getValue();
+    }
+
+    private static KeanuCompiledExpression castToBooleanOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+        CastToBooleanVertex castVertex = (CastToBooleanVertex) vertex;
+        return lookup.get(castVertex.getInputVertex().getId()).getValue();
     }
 
-    private static String numericalEqualsOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression numericalEqualsOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         NumericalEqualsVertex numericalEquals = (NumericalEqualsVertex) vertex;
         Vertex a = numericalEquals.getA();
         Vertex b = numericalEquals.getB();
         Number epsilon = numericalEquals.getEpsilon();
 
-        String aName = lookup.get(a.getId()).getName();
-        String bName = lookup.get(b.getId()).getName();
+        KeanuCompiledVariable aVariable = lookup.get(a.getId());
+        KeanuCompiledVariable bVariable = lookup.get(b.getId());
 
-        return aName + ".equalsWithinEpsilon(" + bName + "," + epsilon.toString() + ")";
+        return call(NumberTensor.class, aVariable, NumberTensor.class, bVariable,
+            "equalsWithinEpsilon(" + bVariable.getName() + "," + epsilon.toString() + ")",
+            (l, r) -> l.equalsWithinEpsilon(r, epsilon)
+        );
     }
 
-    private static String assertOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression assertOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         AssertVertex assertVertex = (AssertVertex) vertex;
 
         KeanuCompiledVariable predicateVariable = lookup.get(assertVertex.getPredicate().getId());
-
-        return AssertVertex.class.getCanonicalName() + ".assertion(" +
-            predicateVariable.getName() + ",\"" +
-            escapeChars(assertVertex.getErrorMessage()) + "\"," +
-            (assertVertex.getLabel() != null ? "\"" + escapeChars(assertVertex.getLabel().getQualifiedName()) + "\"" : "null") + ")";
-    }
-
-    private static String printOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+        KeanuCompiledExpression predicateValue = predicateVariable.getValue();
+        String errorMessage = assertVertex.getErrorMessage();
+        String labelQualifiedName = assertVertex.getLabel() != null ? assertVertex.getLabel().getQualifiedName() : null;
+
+        return new KeanuCompiledExpression(
+            AssertVertex.class.getCanonicalName() + ".assertion(" +
+                predicateVariable.getName() + ",\"" +
+                escapeChars(errorMessage) + "\"," +
+                (labelQualifiedName != null ? "\"" + escapeChars(labelQualifiedName) + "\"" : "null") + ")",
+            (inputs, slots) -> AssertVertex.assertion(
+                (BooleanTensor) predicateValue.evaluate(inputs, slots),
+                errorMessage,
+                labelQualifiedName
+            )
+        );
+    }
+
+    private static KeanuCompiledExpression printOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         PrintVertex printVertex = (PrintVertex) vertex;
         KeanuCompiledVariable parentVariable = lookup.get(printVertex.getParent().getId());
+        KeanuCompiledExpression parentValue = parentVariable.getValue();
+        String message = printVertex.getMessage();
+        boolean printData = printVertex.getPrintData();
 
-        return PrintVertex.class.getCanonicalName() + ".print(" + parentVariable.getName() + ",\"" + escapeChars(printVertex.getMessage()) + "\"," + printVertex.getPrintData() + ")";
+        return new KeanuCompiledExpression(
+            PrintVertex.class.getCanonicalName() + ".print(" + parentVariable.getName() + ",\"" + escapeChars(message) + "\"," + printData + ")",
+            (inputs, slots) -> PrintVertex.print(parentValue.evaluate(inputs, slots), message, printData)
+        );
     }
 
     private static String escapeChars(String s) {
@@ -746,20 +936,45 @@ public class KeanuVertexToTensorOpMapper {
             .replace("\"", "\\\"");
     }
 
-    private static String multiplexerOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
+    private static KeanuCompiledExpression multiplexerOp(Vertex<?, ?> vertex, Map<VariableReference, KeanuCompiledVariable> lookup) {
         MultiplexerVertex muxVertex = (MultiplexerVertex) vertex;
 
         KeanuCompiledVariable select = lookup.get(muxVertex.getSelectorControlVertex().getId());
+        KeanuCompiledExpression selectValue = select.getValue();
 
         String outputs = Arrays
             .stream(muxVertex.getSelectVertices())
             .map(v -> lookup.get(v.getId()).getName())
             .collect(Collectors.joining(","));
 
-        return MultiplexerVertex.class.getCanonicalName() + ".mux(" + select.getName() + "," + outputs + ")";
+        KeanuCompiledExpression[] outputValues = valuesOf(muxVertex.getSelectVertices(), lookup);
+
+        return new KeanuCompiledExpression(
+            MultiplexerVertex.class.getCanonicalName() + ".mux(" + select.getName() + "," + outputs + ")",
+            (inputs, slots) -> MultiplexerVertex.mux(
+                (IntegerTensor) selectValue.evaluate(inputs, slots),
+                evaluateAll(outputValues, inputs, slots, Object[]::new)
+            )
+        );
+    }
+
+    private static KeanuCompiledExpression[] valuesOf(Vertex<?, ?>[] vertices, Map<VariableReference, KeanuCompiledVariable> lookup) {
+        KeanuCompiledExpression[] values = new KeanuCompiledExpression[vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            values[i] = lookup.get(vertices[i].getId()).getValue();
+        }
+        return values;
+    }
+
+    private static <T> T[] evaluateAll(KeanuCompiledExpression[] expressions, Object[] inputs, Object[] slots, IntFunction<T[]> arrayOfLength) {
+        T[] values = arrayOfLength.apply(expressions.length);
+        for (int i = 0; i < expressions.length; i++) {
+            values[i] = (T) expressions[i].evaluate(inputs, slots);
+        }
+        return values;
     }
 
-    private static String toJavaArrayCreation(long[] array) {
+    static String toJavaArrayCreation(long[] array) {
         return "new long[]{" + Longs.join(",", array) + "}";
     }
 
@@ -8,51 +8,82 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
-import static java.util.stream.Collectors.toMap;
-
 /**
  * A computable graph that wraps a compiled Keanu graph. This compiled graph is generated at runtime from Keanu
  * vertices.
+ * <p>
+ * The compiled graph takes its inputs and returns its outputs as arrays, ordered by position. Inputs that are not
+ * given to {@link #compute(Map)} keep the value they were last given, or the value of their vertex when the graph
+ * was built.
+ * <p>
+ * Each call to {@link #compute(Map)} works on its own copy of the inputs, so a graph can be computed by many threads
+ * at once. Inputs that are given by concurrent calls are stored in the order the calls take the lock on the inputs.
  */
 class WrappedCompiledGraph implements ComputableGraph {
 
-    private Map<String, VariableReference> outputsByString;
-    private Function<Map<String, ?>, Map<String, ?>> computeFunction;
-
-    private Map<VariableReference, Object> cachedInputs;
+    private final Function<Object[], Object[]> computeFunction;
+    private final Map<VariableReference, Integer> inputPositions;
+    private final Object[] inputValues;
+    private final List<VariableReference> outputs;
 
-    WrappedCompiledGraph(Function<Map<String, ?>, Map<String, ?>> computeFunction,
+    WrappedCompiledGraph(Function<Object[], Object[]> computeFunction,
+                         List<VariableReference> inputs,
+                         Map<VariableReference, ?> initialInputValues,
                          List<VariableReference> outputs) {
         this.computeFunction = computeFunction;
-        this.outputsByString = outputs.stream()
-            .collect(toMap(VariableReference::toStringReference, output -> output));
-        this.cachedInputs = new HashMap<>();
+        this.inputPositions = new HashMap<>();
+        this.inputValues = new Object[inputs.size()];
+        for (int i = 0; i < inputs.size(); i++) {
+            inputPositions.put(inputs.get(i), i);
+            inputValues[i] = initialInputValues.get(inputs.get(i));
+        }
+        this.outputs = outputs;
     }
 
     @Override
     public Map<VariableReference, ?> compute(Map<VariableReference, ?> inputs) {
 
-        cachedInputs.putAll(inputs);
-
-        final Map<String, Object> inputsByString = new HashMap<>();
-
-        for (Map.Entry<VariableReference, ?> input : inputs.entrySet()) {
-            inputsByString.put(input.getKey().toStringReference(), input.getValue());
+        final Object[] inputsByPosition;
+        synchronized (inputValues) {
+            setInputs(inputs);
+            inputsByPosition = inputValues.clone();
         }
 
-        final Map<String, ?> resultsByString = computeFunction.apply(inputsByString);
+        final Object[] resultsByPosition = computeFunction.apply(inputsByPosition);
 
         final Map<VariableReference, Object> results = new HashMap<>();
 
-        for (Map.Entry<String, ?> result : resultsByString.entrySet()) {
-            results.put(outputsByString.get(result.getKey()), result.getValue());
+        for (int i = 0; i < outputs.size(); i++) {
+            results.put(outputs.get(i), resultsByPosition[i]);
         }
 
         return results;
     }
 
+    /**
+     * Sets the value of inputs without computing the outputs
+     *
+     * @param inputs values of inputs to the graph. Values of variables that are not inputs are ignored.
+     */
+    void setInputs(Map<VariableReference, ?> inputs) {
+        synchronized (inputValues) {
+            for (Map.Entry<VariableReference, ?> input : inputs.entrySet()) {
+                Integer position = inputPositions.get(input.getKey());
+                if (position != null) {
+                    inputValues[position] = input.getValue();
+                }
+            }
+        }
+    }
+
     @Override
     public <T> T getInput(VariableReference input) {
-        return (T) cachedInputs.get(input);
+        Integer position = inputPositions.get(input);
+        if (position == null) {
+            return null;
+        }
+        synchronized (inputValues) {
+            return (T) inputValues[position];
+        }
     }
 }
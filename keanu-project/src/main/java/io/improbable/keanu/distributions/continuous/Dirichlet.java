@@ -3,6 +3,7 @@ package io.improbable.keanu.distributions.continuous;
 import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.distributions.ContinuousDistribution;
 import io.improbable.keanu.distributions.hyperparam.Diffs;
+import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.ConstantVertex;
 import io.improbable.keanu.vertices.tensor.bool.BooleanVertex;
@@ -25,14 +26,16 @@ public class Dirichlet implements ContinuousDistribution {
         this.concentration = concentration;
     }
 
+    /**
+     * Samples are normalised over blocks the shape of the concentration, so a shape with extra leading dimensions
+     * gives a batch of independent samples.
+     */
     @Override
     public DoubleTensor sample(long[] shape, KeanuRandom random) {
-        final ContinuousDistribution gamma = Gamma.withParameters(
-            DoubleTensor.ones(shape),
-            concentration
-        );
-        final DoubleTensor gammaSamples = gamma.sample(concentration.getShape(), random);
-        return normalise(gammaSamples);
+        long[] broadcastedShape = TensorShape.getBroadcastResultShape(shape, concentration.getShape());
+        final DoubleTensor gammaSamples = Gamma.withParameters(DoubleTensor.scalar(1.0), concentration)
+            .sample(broadcastedShape, random);
+        return normalise(gammaSamples, concentration.getRank());
     }
 
     @Override
@@ -68,8 +71,21 @@ public class Dirichlet implements ContinuousDistribution {
             .put(X, dLogPdx);
     }
 
-    private DoubleTensor normalise(DoubleTensor gammaSamples) {
-        double sum = gammaSamples.sumNumber();
-        return gammaSamples.div(sum);
+    private static DoubleTensor normalise(DoubleTensor gammaSamples, int concentrationRank) {
+        long[] shape = gammaSamples.getShape();
+        double[] samples = gammaSamples.asFlatDoubleArray();
+        int blockLength = TensorShape.getLengthAsInt(TensorShape.selectDimensions(shape.length - concentrationRank, shape.length, shape));
+
+        for (int start = 0; start < samples.length; start += blockLength) {
+            double sum = 0.;
+            for (int i = start; i < start + blockLength; i++) {
+                sum += samples[i];
+            }
+            for (int i = start; i < start + blockLength; i++) {
+                samples[i] /= sum;
+            }
+        }
+
+        return DoubleTensor.create(samples, shape);
     }
 }
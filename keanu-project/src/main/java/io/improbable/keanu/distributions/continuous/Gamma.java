@@ -3,7 +3,6 @@ package io.improbable.keanu.distributions.continuous;
 import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.distributions.ContinuousDistribution;
 import io.improbable.keanu.distributions.hyperparam.Diffs;
-import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoublePlaceholderVertex;
@@ -12,14 +11,12 @@ import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
 import static io.improbable.keanu.distributions.hyperparam.Diffs.K;
 import static io.improbable.keanu.distributions.hyperparam.Diffs.THETA;
 import static io.improbable.keanu.distributions.hyperparam.Diffs.X;
-import static java.lang.Math.exp;
 import static java.lang.Math.log;
 import static java.lang.Math.pow;
 import static java.lang.Math.sqrt;
 
 public class Gamma implements ContinuousDistribution {
 
-    private static final double M_E = 0.577215664901532860606512090082;
     private final DoubleTensor theta;
     private final DoubleTensor k;
 
@@ -37,71 +34,87 @@ public class Gamma implements ContinuousDistribution {
         this.k = k;
     }
 
+    /**
+     * Samples with the method of Marsaglia and Tsang (A Simple Method for Generating Gamma Variables, 2000). Every
+     * element is proposed at once from bulk draws of normal and uniform numbers, and only the rejected elements are
+     * proposed again, which is rarely more than a few percent of them. Shapes below 1 are sampled with a shape of
+     * k + 1 and scaled by U^(1 / k).
+     */
     @Override
     public DoubleTensor sample(long[] shape, KeanuRandom random) {
         long[] broadcastedShape = TensorShape.getBroadcastResultShape(shape, theta.getShape(), k.getShape());
-        Tensor.FlattenedView<Double> thetaWrapped = theta.broadcast(broadcastedShape).getFlattenedView();
-        Tensor.FlattenedView<Double> kWrapped = k.broadcast(broadcastedShape).getFlattenedView();
+        double[] thetas = theta.broadcast(broadcastedShape).asFlatDoubleArray();
+        double[] ks = k.broadcast(broadcastedShape).asFlatDoubleArray();
 
         int length = TensorShape.getLengthAsInt(broadcastedShape);
+        for (int i = 0; i < length; i++) {
+            if (thetas[i] <= 0. || ks[i] <= 0.) {
+                throw new IllegalArgumentException("Invalid value for theta or k. Theta: " + thetas[i] + ". k: " + ks[i]);
+            }
+        }
+
         double[] samples = new double[length];
+        sampleStandardGammas(ks, samples, random);
         for (int i = 0; i < length; i++) {
-            samples[i] = sample(thetaWrapped.get(i), kWrapped.get(i), random);
+            samples[i] *= thetas[i];
         }
 
-        return DoubleTensor.create(samples, shape);
+        return DoubleTensor.create(samples, broadcastedShape);
     }
 
-    private static double sample(double theta, double k, KeanuRandom random) {
-        if (theta <= 0. || k <= 0.) {
-            throw new IllegalArgumentException("Invalid value for theta or k. Theta: " + theta + ". k: " + k);
+    private static void sampleStandardGammas(double[] ks, double[] samples, KeanuRandom random) {
+        int length = ks.length;
+        double[] d = new double[length];
+        double[] c = new double[length];
+        for (int i = 0; i < length; i++) {
+            d[i] = (ks[i] < 1. ? ks[i] + 1. : ks[i]) - 1. / 3.;
+            c[i] = 1. / sqrt(9. * d[i]);
+        }
+
+        int[] pending = new int[length];
+        for (int i = 0; i < length; i++) {
+            pending[i] = i;
         }
-        final double A = 1. / sqrt(2. * k - 1.);
-        final double B = k - log(4.);
-        final double Q = k + 1. / A;
-        final double T = 4.5;
-        final double D = 1. + log(T);
-        final double C = 1. + k / M_E;
-
-        if (k < 1.) {
-            return sampleWhileKLessThanOne(C, k, theta, random);
-        } else if (k == 1.0) return exponentialSample(theta, random);
-        else {
-            while (true) {
-                double p1 = random.nextDouble();
-                double p2 = random.nextDouble();
-                double v = A * log(p1 / (1. - p1));
-                double y = k * exp(v);
-                double z = p1 * p1 * p2;
-                double w = B + Q * v - y;
-                if (w + D - T * z >= 0. || w >= log(z)) return theta * y;
+
+        int pendingCount = length;
+        while (pendingCount > 0) {
+            double[] normals = new double[pendingCount];
+            double[] uniforms = new double[pendingCount];
+            random.nextGaussian(normals);
+            random.nextDouble(uniforms);
+
+            int rejectedCount = 0;
+            for (int j = 0; j < pendingCount; j++) {
+                int i = pending[j];
+                double x = normals[j];
+                double v = 1. + c[i] * x;
+                if (v > 0.) {
+                    v = v * v * v;
+                    double u = uniforms[j];
+                    if (u < 1. - 0.0331 * x * x * x * x || log(u) < 0.5 * x * x + d[i] * (1. - v + log(v))) {
+                        samples[i] = d[i] * v;
+                        continue;
+                    }
+                }
+                pending[rejectedCount++] = i;
             }
+            pendingCount = rejectedCount;
         }
-    }
 
-    private static double sampleWhileKLessThanOne(double c, double k, double theta, KeanuRandom random) {
-        while (true) {
-            double p = c * random.nextDouble();
-            if (p > 1.) {
-                double y = -log((c - p) / k);
-                if (random.nextDouble() <= pow(y, k - 1.)) return theta * y;
-            } else {
-                double y = pow(p, 1. / k);
-                if (random.nextDouble() <= exp(-y)) return theta * y;
+        double[] boosts = null;
+        for (int i = 0; i < length; i++) {
+            if (ks[i] < 1.) {
+                if (boosts == null) {
+                    boosts = new double[length];
+                    random.nextDouble(boosts);
+                }
+                samples[i] *= pow(nonZero(boosts[i], random), 1. / ks[i]);
             }
         }
     }
 
-    /**
-     * @param lambda shape
-     * @param random source of randomness
-     * @return a random number from the Exponential distribution
-     */
-    private static double exponentialSample(double lambda, KeanuRandom random) {
-        if (lambda <= 0.0) {
-            throw new IllegalArgumentException("Invalid value for b");
-        }
-        return -lambda * Math.log(random.nextDouble());
+    private static double nonZero(double uniform, KeanuRandom random) {
+        return uniform == 0. ? random.nextDoubleNonZero() : uniform;
     }
 
     @Override
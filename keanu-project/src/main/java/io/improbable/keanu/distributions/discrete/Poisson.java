@@ -2,7 +2,6 @@ package io.improbable.keanu.distributions.discrete;
 
 import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.distributions.DiscreteDistribution;
-import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
@@ -18,6 +17,8 @@ import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
  */
 public class Poisson implements DiscreteDistribution {
 
+    private static final int MAX_UNIFORM_BUFFER_LENGTH = 1 << 16;
+
     private final DoubleTensor mu;
 
     public static Poisson withParameters(DoubleTensor mu) {
@@ -30,23 +31,29 @@ public class Poisson implements DiscreteDistribution {
 
     @Override
     public IntegerTensor sample(long[] shape, KeanuRandom random) {
-        Tensor.FlattenedView<Double> muWrapped = mu.getFlattenedView();
+        double[] mus = mu.asFlatDoubleArray();
+
+        double expectedDraws = 0.;
+        for (double muValue : mus) {
+            if (muValue <= 0.) {
+                throw new IllegalArgumentException("Invalid value for mu: " + muValue);
+            }
+            expectedDraws += muValue + 1.;
+        }
 
-        long muLength = muWrapped.size();
         int length = TensorShape.getLengthAsInt(shape);
+        expectedDraws *= (double) length / mus.length;
+        Uniforms uniforms = new Uniforms(random, (int) Math.min(Math.max(expectedDraws, 16.), MAX_UNIFORM_BUFFER_LENGTH));
+
         int[] samples = new int[length];
         for (int i = 0; i < length; i++) {
-            samples[i] = sample(muWrapped.get(i % muLength), random);
+            samples[i] = sample(mus[i % mus.length], uniforms);
         }
 
         return IntegerTensor.create(samples, shape);
     }
 
-    private static int sample(double mu, KeanuRandom random) {
-        if (mu <= 0.) {
-            throw new IllegalArgumentException("Invalid value for mu: " + mu);
-        }
-
+    private static int sample(double mu, Uniforms uniforms) {
         final double STEP_IN_MU = 500;
         double muLeft = mu;
         int k = 0;
@@ -60,7 +67,7 @@ public class Poisson implements DiscreteDistribution {
          */
         do {
             k++;
-            double u = random.nextDoubleNonZero();
+            double u = uniforms.nextNonZero();
             p *= u;
 
             while (p < 1.0 && muLeft > 0.0) {
@@ -103,4 +110,32 @@ public class Poisson implements DiscreteDistribution {
 
         return result;
     }
+
+    /**
+     * Hands out uniform numbers that are drawn in bulk, as the number each sample needs isn't known in advance.
+     */
+    private static class Uniforms {
+
+        private final KeanuRandom random;
+        private final double[] buffer;
+        private int next;
+
+        Uniforms(KeanuRandom random, int bufferLength) {
+            this.random = random;
+            this.buffer = new double[bufferLength];
+            this.next = bufferLength;
+        }
+
+        double nextNonZero() {
+            double u;
+            do {
+                if (next == buffer.length) {
+                    random.nextDouble(buffer);
+                    next = 0;
+                }
+                u = buffer[next++];
+            } while (u == 0.);
+            return u;
+        }
+    }
 }
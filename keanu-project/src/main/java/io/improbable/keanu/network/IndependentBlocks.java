@@ -0,0 +1,113 @@
+package io.improbable.keanu.network;
+
+import com.google.common.base.Preconditions;
+import io.improbable.keanu.vertices.Vertex;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partitions the vertices whose log probabilities are summed into blocks that can be evaluated independently.
+ * <p>
+ * Two vertices are put in the same block if they share a non-probabilistic ancestor that is reached without
+ * passing through a probabilistic vertex. Vertices that only share probabilistic ancestors, such as many
+ * observations of the same latent vertex, can be in different blocks, as the values of probabilistic vertices are
+ * fixed while log probabilities and gradients are being evaluated. Blocks never share a non-probabilistic vertex,
+ * so shared subgraphs are neither evaluated nor differentiated more than once.
+ */
+public class IndependentBlocks {
+
+    private IndependentBlocks() {
+    }
+
+    /**
+     * @param vertices   the vertices to partition
+     * @param blockCount the maximum number of blocks
+     * @return blocks of the given vertices. Both the order of the blocks and the order of vertices within each block
+     * follow the order of the given vertices, so the partition is the same every time it is made.
+     */
+    public static List<List<Vertex>> partition(List<? extends Vertex> vertices, int blockCount) {
+        Preconditions.checkArgument(blockCount > 0, "Block count must be greater than 0");
+
+        int[] componentParents = new int[vertices.size()];
+        for (int i = 0; i < componentParents.length; i++) {
+            componentParents[i] = i;
+        }
+
+        Map<Vertex, Integer> owners = new HashMap<>();
+        for (int i = 0; i < vertices.size(); i++) {
+            Vertex<?, ?> vertex = vertices.get(i);
+
+            Deque<Vertex> toVisit = new ArrayDeque<>();
+            if (vertex.isProbabilistic()) {
+                toVisit.addAll(vertex.getParents());
+            } else {
+                toVisit.add(vertex);
+            }
+
+            while (!toVisit.isEmpty()) {
+                Vertex<?, ?> visiting = toVisit.pop();
+                if (visiting.isProbabilistic()) {
+                    continue;
+                }
+
+                Integer owner = owners.putIfAbsent(visiting, i);
+                if (owner == null) {
+                    toVisit.addAll(visiting.getParents());
+                } else {
+                    union(componentParents, owner, i);
+                }
+            }
+        }
+
+        Map<Integer, List<Vertex>> components = new LinkedHashMap<>();
+        for (int i = 0; i < vertices.size(); i++) {
+            components.computeIfAbsent(find(componentParents, i), root -> new ArrayList<>()).add(vertices.get(i));
+        }
+
+        return pack(new ArrayList<>(components.values()), vertices.size(), blockCount);
+    }
+
+    /**
+     * Packs consecutive components into blocks of roughly equal numbers of vertices.
+     */
+    private static List<List<Vertex>> pack(List<List<Vertex>> components, int vertexCount, int blockCount) {
+        List<List<Vertex>> blocks = new ArrayList<>();
+        double targetBlockSize = (double) vertexCount / Math.min(blockCount, Math.max(components.size(), 1));
+
+        List<Vertex> block = new ArrayList<>();
+        for (List<Vertex> component : components) {
+            if (!block.isEmpty() && blocks.size() < blockCount - 1 && block.size() + component.size() / 2.0 > targetBlockSize) {
+                blocks.add(block);
+                block = new ArrayList<>();
+            }
+            block.addAll(component);
+        }
+        if (!block.isEmpty()) {
+            blocks.add(block);
+        }
+
+        return blocks;
+    }
+
+    private static int find(int[] componentParents, int i) {
+        while (componentParents[i] != i) {
+            componentParents[i] = componentParents[componentParents[i]];
+            i = componentParents[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] componentParents, int a, int b) {
+        int rootA = find(componentParents, a);
+        int rootB = find(componentParents, b);
+        if (rootA != rootB) {
+            componentParents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
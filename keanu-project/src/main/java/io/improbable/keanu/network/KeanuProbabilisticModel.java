@@ -1,10 +1,14 @@
 package io.improbable.keanu.network;
 
+import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import io.improbable.keanu.algorithms.ProbabilisticModel;
 import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableIndex;
 import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.graphtraversal.CascadePlan;
+import io.improbable.keanu.algorithms.graphtraversal.CascadePlanCache;
 import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.ProbabilityCalculator;
@@ -15,6 +19,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Collectors.toMap;
@@ -24,17 +29,41 @@ import static java.util.stream.Collectors.toMap;
  */
 public class KeanuProbabilisticModel implements ProbabilisticModel {
 
+    /**
+     * More blocks than threads evens out the time taken by each thread when blocks take different times
+     */
+    private static final int BLOCKS_PER_THREAD = 4;
+
     private final Map<VariableReference, Vertex> vertexLookup;
     private final List<Vertex> latentVertices;
     private final List<Vertex> observedVertices;
     private final List<Vertex> latentOrObservedVertices;
     private final LambdaSectionSnapshot lambdaSectionSnapshot;
+    private final CascadePlanCache cascadePlans;
+    private final VariableIndex<Variable> latentVariableIndex;
+    private CascadePlan latentCascadePlan;
+
+    private final ForkJoinPool pool;
+    private final List<List<Vertex>> latentOrObservedBlocks;
+    private final List<List<Vertex>> observedBlocks;
 
     public KeanuProbabilisticModel(Collection<? extends Vertex> variables) {
         this(new BayesianNetwork(variables));
     }
 
     public KeanuProbabilisticModel(BayesianNetwork bayesianNetwork) {
+        this(bayesianNetwork, null);
+    }
+
+    /**
+     * Creates a model that evaluates log probs in parallel. The latent and observed vertices are partitioned into
+     * {@link IndependentBlocks}, whose log probs are calculated in the pool and summed in a fixed order. This suits
+     * models with many conditionally independent observations.
+     *
+     * @param bayesianNetwork the network to model
+     * @param pool            the pool to evaluate blocks of vertices in, or null to evaluate them in the calling thread
+     */
+    public KeanuProbabilisticModel(BayesianNetwork bayesianNetwork, ForkJoinPool pool) {
         this.vertexLookup = bayesianNetwork.getLatentOrObservedVertices().stream()
             .collect(toMap(Vertex::getId, v -> v));
 
@@ -42,6 +71,12 @@ public class KeanuProbabilisticModel implements ProbabilisticModel {
         this.observedVertices = ImmutableList.copyOf(bayesianNetwork.getObservedVertices());
         this.latentOrObservedVertices = ImmutableList.copyOf(bayesianNetwork.getLatentOrObservedVertices());
         this.lambdaSectionSnapshot = new LambdaSectionSnapshot();
+        this.cascadePlans = new CascadePlanCache(this.latentVertices.size() + 1);
+        this.latentVariableIndex = VariableIndex.of((List) this.latentVertices);
+
+        this.pool = pool;
+        this.latentOrObservedBlocks = partition(this.latentOrObservedVertices, pool);
+        this.observedBlocks = partition(this.observedVertices, pool);
 
         resetModelToObservedState();
         checkBayesNetInHealthyState();
@@ -52,7 +87,7 @@ public class KeanuProbabilisticModel implements ProbabilisticModel {
         if (!inputs.isEmpty()) {
             cascadeValues(inputs);
         }
-        return ProbabilityCalculator.calculateLogProbFor(this.latentOrObservedVertices);
+        return ProbabilityCalculator.calculateLogProbFor(this.latentOrObservedBlocks, pool);
     }
 
     @Override
@@ -76,7 +111,18 @@ public class KeanuProbabilisticModel implements ProbabilisticModel {
         if (!inputs.isEmpty()) {
             cascadeValues(inputs);
         }
-        return ProbabilityCalculator.calculateLogProbFor(this.observedVertices);
+        return ProbabilityCalculator.calculateLogProbFor(this.observedBlocks, pool);
+    }
+
+    @Override
+    public VariableIndex<Variable> getLatentVariableIndex() {
+        return latentVariableIndex;
+    }
+
+    @Override
+    public double logProbAt(Object[] latentValues) {
+        latentCascadePlan = setValuesAndCascade(latentVertices, latentValues, latentCascadePlan);
+        return ProbabilityCalculator.calculateLogProbFor(this.latentOrObservedBlocks, pool);
     }
 
     @Override
@@ -92,6 +138,28 @@ public class KeanuProbabilisticModel implements ProbabilisticModel {
         return latentOrObservedVertices;
     }
 
+    /**
+     * @return the pool that blocks of vertices are evaluated in, or null if they are evaluated in the calling thread
+     */
+    protected ForkJoinPool getPool() {
+        return pool;
+    }
+
+    protected List<List<Vertex>> getLatentOrObservedBlocks() {
+        return latentOrObservedBlocks;
+    }
+
+    protected List<List<Vertex>> getObservedBlocks() {
+        return observedBlocks;
+    }
+
+    private static List<List<Vertex>> partition(List<Vertex> vertices, ForkJoinPool pool) {
+        if (pool == null) {
+            return ImmutableList.of(vertices);
+        }
+        return IndependentBlocks.partition(vertices, pool.getParallelism() * BLOCKS_PER_THREAD);
+    }
+
     @Override
     public List<Variable<DoubleTensor, ?>> getContinuousLatentVariables() {
         return getLatentVariables().stream()
@@ -112,7 +180,7 @@ public class KeanuProbabilisticModel implements ProbabilisticModel {
 
     protected void cascadeValues(Map<VariableReference, ?> inputs) {
 
-        List<Vertex> updatedVertices = new ArrayList<>();
+        List<Vertex> updatedVertices = new ArrayList<>(inputs.size());
         for (Map.Entry<VariableReference, ?> input : inputs.entrySet()) {
             Vertex updatingVertex = vertexLookup.get(input.getKey());
 
@@ -124,7 +192,29 @@ public class KeanuProbabilisticModel implements ProbabilisticModel {
             updatedVertices.add(updatingVertex);
         }
 
-        VertexValuePropagation.cascadeUpdate(updatedVertices);
+        cascadePlans.cascadeUpdate(inputs.keySet(), updatedVertices);
+    }
+
+    /**
+     * @param vertices the vertices to update
+     * @param values   the new value of each vertex, by position
+     * @param plan     the plan last used to cascade from these vertices, or null if there is none
+     * @return the plan used to cascade from the vertices, to be passed in next time
+     */
+    protected static CascadePlan setValuesAndCascade(List<? extends Vertex> vertices, Object[] values, CascadePlan plan) {
+        Preconditions.checkArgument(values.length == vertices.size(),
+            "Expected %s values but got %s", vertices.size(), values.length
+        );
+
+        for (int i = 0; i < values.length; i++) {
+            vertices.get(i).setValue(values[i]);
+        }
+
+        if (plan == null || plan.isOutOfDate()) {
+            plan = CascadePlan.of(vertices);
+        }
+        plan.apply();
+        return plan;
     }
 
 }
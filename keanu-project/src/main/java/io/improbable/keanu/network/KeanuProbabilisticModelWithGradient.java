@@ -1,7 +1,10 @@
 package io.improbable.keanu.network;
 
 import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableIndex;
 import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.graphtraversal.CascadePlan;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
@@ -10,29 +13,39 @@ import io.improbable.keanu.vertices.tensor.number.floating.dbl.nonprobabilistic.
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * An implementation of {@link ProbabilisticModelWithGradient} that is backed by a {@link BayesianNetwork}
  */
 public class KeanuProbabilisticModelWithGradient extends KeanuProbabilisticModel implements ProbabilisticModelWithGradient {
 
-    private final LogProbGradientCalculator logProbGradientCalculator;
-    private final LogProbGradientCalculator logLikelihoodGradientCalculator;
+    private final List<LogProbGradientCalculator> logProbGradientCalculators;
+    private final List<LogProbGradientCalculator> logLikelihoodGradientCalculators;
+    private final List<DoubleVertex> continuousLatentVertices;
+    private final VariableIndex<Variable<DoubleTensor, ?>> continuousLatentVariableIndex;
+    private CascadePlan continuousLatentCascadePlan;
 
     public KeanuProbabilisticModelWithGradient(BayesianNetwork bayesianNetwork) {
-        super(bayesianNetwork);
-
-        List<DoubleVertex> continuousLatentVertices = bayesianNetwork.getContinuousLatentVertices();
-
-        this.logProbGradientCalculator = new LogProbGradientCalculator(
-            bayesianNetwork.getLatentOrObservedVertices(),
-            continuousLatentVertices
-        );
+        this(bayesianNetwork, null);
+    }
 
-        this.logLikelihoodGradientCalculator = new LogProbGradientCalculator(
-            bayesianNetwork.getObservedVertices(),
-            continuousLatentVertices
-        );
+    /**
+     * Creates a model that evaluates log probs and their gradients in parallel, over blocks of vertices that do not
+     * share any non-probabilistic vertices. See {@link KeanuProbabilisticModel#KeanuProbabilisticModel(BayesianNetwork, ForkJoinPool)}.
+     *
+     * @param bayesianNetwork the network to model
+     * @param pool            the pool to evaluate blocks of vertices in, or null to evaluate them in the calling thread
+     */
+    public KeanuProbabilisticModelWithGradient(BayesianNetwork bayesianNetwork, ForkJoinPool pool) {
+        super(bayesianNetwork, pool);
+
+        this.continuousLatentVertices = bayesianNetwork.getContinuousLatentVertices();
+        this.continuousLatentVariableIndex = VariableIndex.of(continuousLatentVertices);
+
+        this.logProbGradientCalculators = gradientCalculators(getLatentOrObservedBlocks(), continuousLatentVertices);
+        this.logLikelihoodGradientCalculators = gradientCalculators(getObservedBlocks(), continuousLatentVertices);
     }
 
     public KeanuProbabilisticModelWithGradient(Set<Vertex> variables) {
@@ -41,7 +54,7 @@ public class KeanuProbabilisticModelWithGradient extends KeanuProbabilisticModel
 
     @Override
     public Map<VariableReference, DoubleTensor> logProbGradients(Map<VariableReference, ?> inputs) {
-        return gradients(inputs, logProbGradientCalculator);
+        return gradients(inputs, logProbGradientCalculators);
     }
 
     @Override
@@ -51,7 +64,7 @@ public class KeanuProbabilisticModelWithGradient extends KeanuProbabilisticModel
 
     @Override
     public Map<VariableReference, DoubleTensor> logLikelihoodGradients(Map<VariableReference, ?> inputs) {
-        return gradients(inputs, logLikelihoodGradientCalculator);
+        return gradients(inputs, logLikelihoodGradientCalculators);
     }
 
     @Override
@@ -59,12 +72,37 @@ public class KeanuProbabilisticModelWithGradient extends KeanuProbabilisticModel
         return logLikelihoodGradients(null);
     }
 
-    private Map gradients(Map<VariableReference, ?> inputs, LogProbGradientCalculator gradientCalculator) {
+    @Override
+    public VariableIndex<Variable<DoubleTensor, ?>> getContinuousLatentVariableIndex() {
+        return continuousLatentVariableIndex;
+    }
+
+    @Override
+    public DoubleTensor[] logProbGradientsAt(DoubleTensor[] continuousLatentValues) {
+        continuousLatentCascadePlan = setValuesAndCascade(continuousLatentVertices, continuousLatentValues, continuousLatentCascadePlan);
+        return ProbabilisticModelWithGradient.gradientsByPosition(
+            continuousLatentVariableIndex,
+            LogProbGradientCalculator.getJointLogProbGradientWrtLatents(logProbGradientCalculators, getPool())
+        );
+    }
+
+    @Override
+    public void setContinuousLatentValues(DoubleTensor[] continuousLatentValues) {
+        continuousLatentCascadePlan = setValuesAndCascade(continuousLatentVertices, continuousLatentValues, continuousLatentCascadePlan);
+    }
+
+    private Map gradients(Map<VariableReference, ?> inputs, List<LogProbGradientCalculator> gradientCalculators) {
         if (inputs != null && !inputs.isEmpty()) {
             cascadeValues(inputs);
         }
 
-        return gradientCalculator.getJointLogProbGradientWrtLatents();
+        return LogProbGradientCalculator.getJointLogProbGradientWrtLatents(gradientCalculators, getPool());
+    }
+
+    private static List<LogProbGradientCalculator> gradientCalculators(List<List<Vertex>> blocks, List<DoubleVertex> wrtVertices) {
+        return blocks.stream()
+            .map(block -> new LogProbGradientCalculator(block, wrtVertices))
+            .collect(Collectors.toList());
     }
 
 }
@@ -0,0 +1,95 @@
+package io.improbable.keanu.network;
+
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.util.io.ProtobufLoader;
+import io.improbable.keanu.util.io.ProtobufSaver;
+import io.improbable.keanu.vertices.Vertex;
+import lombok.Getter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A deep copy of a {@link BayesianNetwork}. The copy has its own vertices and vertex state, so it can be mutated
+ * (e.g. by a sampling algorithm) independently of the original network.
+ * <p>
+ * The copy is made by saving the network and its current values and loading them back, so every vertex in the
+ * network must be saveable.
+ */
+public class NetworkCopy {
+
+    @Getter
+    private final BayesianNetwork network;
+
+    private final Map<VariableReference, Vertex> copiesByOriginal;
+    private final Map<VariableReference, VariableReference> originalsByCopy;
+
+    private NetworkCopy(BayesianNetwork network,
+                        Map<VariableReference, Vertex> copiesByOriginal,
+                        Map<VariableReference, VariableReference> originalsByCopy) {
+        this.network = network;
+        this.copiesByOriginal = copiesByOriginal;
+        this.originalsByCopy = originalsByCopy;
+    }
+
+    /**
+     * @param original the network to copy
+     * @return a copy of the network including its current values and observations
+     * @throws IllegalArgumentException if the network contains vertices that cannot be saved
+     */
+    public static NetworkCopy of(BayesianNetwork original) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ProtobufLoader loader = new ProtobufLoader();
+        BayesianNetwork copiedNetwork;
+
+        try {
+            new ProtobufSaver(original).save(output, true, null);
+            copiedNetwork = loader.loadNetwork(new ByteArrayInputStream(output.toByteArray()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to copy network", e);
+        }
+
+        Map<VariableReference, Vertex> copiesByOriginal = new HashMap<>();
+        Map<VariableReference, VariableReference> originalsByCopy = new HashMap<>();
+
+        for (Vertex<?, ?> vertex : original.getVertices()) {
+            Vertex copy = loader.getLoadedVertex(vertex.getId().toString());
+            if (copy != null) {
+                copiesByOriginal.put(vertex.getId(), copy);
+                originalsByCopy.put(copy.getId(), vertex.getId());
+            }
+        }
+
+        return new NetworkCopy(copiedNetwork, copiesByOriginal, originalsByCopy);
+    }
+
+    /**
+     * @param originalReference a reference to a vertex in the original network
+     * @return the copy of the referenced vertex
+     * @throws IllegalArgumentException if the reference is not to a vertex in the original network
+     */
+    public Vertex getCopyOf(VariableReference originalReference) {
+        Vertex copy = copiesByOriginal.get(originalReference);
+        if (copy == null) {
+            throw new IllegalArgumentException("No copy found for " + originalReference);
+        }
+        return copy;
+    }
+
+    /**
+     * @param copyReference a reference to a vertex in the copied network
+     * @return the reference of the vertex that the referenced vertex was copied from
+     * @throws IllegalArgumentException if the reference is not to a vertex in the copied network
+     */
+    public VariableReference getOriginalOf(VariableReference copyReference) {
+        VariableReference original = originalsByCopy.get(copyReference);
+        if (original == null) {
+            throw new IllegalArgumentException("No original found for " + copyReference);
+        }
+        return original;
+    }
+}
@@ -8,7 +8,9 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.math3.util.FastMath;
 
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.function.BiFunction;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 public class DoubleBuffer {
@@ -54,9 +56,34 @@ public class DoubleBuffer {
         }
     }
 
+    /**
+     * A buffer of doubles. As well as the boxed accessors of {@link PrimitiveNumberWrapper}, this can be read, written
+     * and mapped with primitive doubles so that element-wise work does not box each element.
+     */
     public interface PrimitiveDoubleWrapper extends PrimitiveNumberWrapper<Double, PrimitiveDoubleWrapper> {
         @Override
         Double[] asArray();
+
+        double getDouble(long index);
+
+        PrimitiveDoubleWrapper setDouble(double value, long index);
+
+        PrimitiveDoubleWrapper applyDouble(DoubleUnaryOperator mapper);
+
+        @Override
+        default PrimitiveDoubleWrapper copyElementFrom(PrimitiveDoubleWrapper src, long srcIndex, long destIndex) {
+            return setDouble(src.getDouble(srcIndex), destIndex);
+        }
+
+        @Override
+        default PrimitiveDoubleWrapper plus(long index, PrimitiveDoubleWrapper src, long srcIndex) {
+            return setDouble(getDouble(index) + src.getDouble(srcIndex), index);
+        }
+
+        @Override
+        default PrimitiveDoubleWrapper times(long index, PrimitiveDoubleWrapper src, long srcIndex) {
+            return setDouble(getDouble(index) * src.getDouble(srcIndex), index);
+        }
     }
 
     public static final class DoubleArrayWrapper implements PrimitiveDoubleWrapper {
@@ -78,6 +105,17 @@ public class DoubleBuffer {
             return this;
         }
 
+        @Override
+        public double getDouble(final long index) {
+            return array[Ints.checkedCast(index)];
+        }
+
+        @Override
+        public DoubleArrayWrapper setDouble(final double value, final long index) {
+            array[Ints.checkedCast(index)] = value;
+            return this;
+        }
+
         @Override
         public long getLength() {
             return array.length;
@@ -92,6 +130,11 @@ public class DoubleBuffer {
         public DoubleArrayWrapper copyFrom(JVMBuffer.PrimitiveArrayWrapper<Double, ?> src, long srcPos, long destPos, long length) {
             if (src instanceof DoubleArrayWrapper) {
                 System.arraycopy(((DoubleArrayWrapper) src).array, Ints.checkedCast(srcPos), array, Ints.checkedCast(destPos), Ints.checkedCast(length));
+            } else if (src instanceof PrimitiveDoubleWrapper) {
+                PrimitiveDoubleWrapper doubleSrc = (PrimitiveDoubleWrapper) src;
+                for (int i = 0; i < length; i++) {
+                    array[Ints.checkedCast(destPos + i)] = doubleSrc.getDouble(srcPos + i);
+                }
             } else {
                 for (int i = 0; i < length; i++) {
                     array[Ints.checkedCast(destPos + i)] = src.get(srcPos + i);
@@ -273,6 +316,14 @@ public class DoubleBuffer {
             return this;
         }
 
+        @Override
+        public DoubleArrayWrapper applyDouble(DoubleUnaryOperator mapper) {
+            for (int i = 0; i < array.length; i++) {
+                array[i] = mapper.applyAsDouble(array[i]);
+            }
+            return this;
+        }
+
         @Override
         public int[] asIntegerArray() {
 
@@ -318,10 +369,49 @@ public class DoubleBuffer {
         }
     }
 
-    public static final class DoubleWrapper extends JVMBuffer.SingleValueWrapper<Double, PrimitiveDoubleWrapper> implements PrimitiveDoubleWrapper {
+    public static final class DoubleWrapper implements PrimitiveDoubleWrapper {
+
+        private double value;
 
         public DoubleWrapper(final double value) {
-            super(value);
+            this.value = value;
+        }
+
+        @Override
+        public Double get(final long index) {
+            return value;
+        }
+
+        @Override
+        public PrimitiveDoubleWrapper set(final Double value, final long index) {
+            this.value = value;
+            return this;
+        }
+
+        @Override
+        public double getDouble(final long index) {
+            return value;
+        }
+
+        @Override
+        public PrimitiveDoubleWrapper setDouble(final double value, final long index) {
+            this.value = value;
+            return this;
+        }
+
+        @Override
+        public long getLength() {
+            return 1;
+        }
+
+        @Override
+        public PrimitiveDoubleWrapper copyFrom(JVMBuffer.PrimitiveArrayWrapper<Double, ?> src, long srcPos, long destPos, long length) {
+            if (length == 1 && destPos == 0) {
+                value = src instanceof PrimitiveDoubleWrapper ? ((PrimitiveDoubleWrapper) src).getDouble(srcPos) : src.get(srcPos);
+            } else if (length > 1 || length < 0 || destPos != 0) {
+                throw new IndexOutOfBoundsException();
+            }
+            return this;
         }
 
         @Override
@@ -420,17 +510,46 @@ public class DoubleBuffer {
 
         @Override
         public BooleanBuffer.PrimitiveBooleanWrapper equal(Double that) {
-            return BooleanBuffer.factory.createNew(value.equals(that));
+            return BooleanBuffer.factory.createNew(Double.doubleToLongBits(value) == Double.doubleToLongBits(that));
+        }
+
+        @Override
+        public PrimitiveDoubleWrapper apply(Function<Double, Double> mapper) {
+            value = mapper.apply(value);
+            return this;
+        }
+
+        @Override
+        public PrimitiveDoubleWrapper applyDouble(DoubleUnaryOperator mapper) {
+            value = mapper.applyAsDouble(value);
+            return this;
+        }
+
+        @Override
+        public PrimitiveDoubleWrapper applyRight(BiFunction<Double, Double, Double> mapper, Double rightArg) {
+            value = mapper.apply(value, rightArg);
+            return this;
+        }
+
+        @Override
+        public PrimitiveDoubleWrapper applyLeft(BiFunction<Double, Double, Double> mapper, Double leftArg) {
+            value = mapper.apply(leftArg, value);
+            return this;
+        }
+
+        @Override
+        public Double reduce(Double initial, BiFunction<Double, Double, Double> reducer) {
+            return reducer.apply(initial, value);
         }
 
         @Override
         public int[] asIntegerArray() {
-            return new int[]{value.intValue()};
+            return new int[]{(int) value};
         }
 
         @Override
         public long[] asLongArray() {
-            return new long[]{value.longValue()};
+            return new long[]{(long) value};
         }
 
         @Override
@@ -449,8 +568,16 @@ public class DoubleBuffer {
         }
 
         @Override
-        protected PrimitiveDoubleWrapper getThis() {
-            return this;
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DoubleWrapper that = (DoubleWrapper) o;
+            return Double.doubleToLongBits(value) == Double.doubleToLongBits(that.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(value);
         }
     }
 }
@@ -10,15 +10,20 @@ import io.improbable.keanu.tensor.intgr.IntegerTensor;
 import io.improbable.keanu.tensor.jvm.JVMFloatingPointTensor;
 import io.improbable.keanu.tensor.jvm.JVMNumberTensor;
 import io.improbable.keanu.tensor.jvm.JVMTensor;
+import io.improbable.keanu.tensor.jvm.JVMTensorBroadcast;
 import io.improbable.keanu.tensor.jvm.ResultWrapper;
 import io.improbable.keanu.tensor.lng.JVMLongTensorFactory;
 import io.improbable.keanu.tensor.lng.LongTensor;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.math3.linear.SingularMatrixException;
 import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.apache.commons.math3.util.FastMath;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.util.Arrays;
+import java.util.function.DoubleBinaryOperator;
 
 import static io.improbable.keanu.tensor.TensorShape.getBroadcastedFlatIndex;
 import static io.improbable.keanu.tensor.TensorShape.getRowFirstStride;
@@ -35,6 +40,14 @@ public class JVMDoubleTensor extends JVMFloatingPointTensor<Double, DoubleTensor
 
     static final DoubleBuffer.DoubleArrayWrapperFactory factory = new DoubleBuffer.DoubleArrayWrapperFactory();
 
+    /**
+     * The most doubles of direct memory that a thread keeps for batched matrix multiplies to reuse. Larger batches
+     * allocate their own, which costs little next to the multiply itself.
+     */
+    private static final int MAX_REUSED_BATCH_BUFFER_LENGTH = 1 << 20;
+
+    private static final ThreadLocal<java.nio.DoubleBuffer> BATCH_BUFFER = ThreadLocal.withInitial(() -> newDirectBuffer(0));
+
     JVMDoubleTensor(DoubleBuffer.PrimitiveDoubleWrapper buffer, long[] shape, long[] stride) {
         super(buffer, shape, stride);
     }
@@ -346,7 +359,7 @@ public class JVMDoubleTensor extends JVMFloatingPointTensor<Double, DoubleTensor
         final long[] batchStrideRight = ArrayUtils.subarray(rightStride, 0, rightStride.length - 2);
 
         final long[] batchShape = TensorShape.getBroadcastResultShape(batchShapeLeft, batchShapeRight);
-        final long batchLength = TensorShape.getLength(batchShape);
+        final int batchLength = TensorShape.getLengthAsInt(batchShape);
 
         //C = alpha*A*B + beta*C
         //(M,N) = (M,k)(k,N) + (M,N)
@@ -358,30 +371,83 @@ public class JVMDoubleTensor extends JVMFloatingPointTensor<Double, DoubleTensor
         final int batchSizeA = M * K;
         final int batchSizeB = N * K;
 
-        final double[] outputBuffer = new double[Ints.checkedCast(resultBatchSize * batchLength)];
+        final double[] outputBuffer = new double[Ints.checkedCast((long) resultBatchSize * batchLength)];
         final double[] leftInput = buffer.asDoubleArray();
         final double[] rightInput = getAsJVMTensor(that).getBuffer().asDoubleArray();
 
-        for (int i = 0; i < batchLength; i++) {
+        if (batchShapeRight.length == 0 && !transposeLeft) {
+
+            //e.g. [B, M, K] x [K, N] is the single matrix multiply [B * M, K] x [K, N]
+            cblas_dgemm(CblasRowMajor, CblasNoTrans, transposeRight ? CblasTrans : CblasNoTrans,
+                M * batchLength, N, K, 1, leftInput, lda, rightInput, ldb, 0, outputBuffer, N);
 
+            return new JVMDoubleTensor(outputBuffer, resultShape, resultStride);
+        }
+
+        //Heap arrays are copied to and from native memory on every BLAS call, so each batch would copy the whole
+        //of every array. Copying them to direct memory once means each batch only reads and writes its own part.
+        //The batches are multiplied one after another, as BLAS already spreads each multiply over its own threads.
+        final int rightOffset = leftInput.length;
+        final int outputOffset = rightOffset + rightInput.length;
+        final java.nio.DoubleBuffer direct = batchBuffer(Ints.checkedCast((long) outputOffset + outputBuffer.length));
+        view(direct, 0, leftInput.length).put(leftInput);
+        view(direct, rightOffset, rightInput.length).put(rightInput);
+
+        for (int i = 0; i < batchLength; i++) {
             final int resultPosition = i * resultBatchSize;
             final int k = Ints.checkedCast(getBroadcastedFlatIndex(resultPosition, batchResultStride, batchShapeLeft, batchStrideLeft));
             final int j = Ints.checkedCast(getBroadcastedFlatIndex(resultPosition, batchResultStride, batchShapeRight, batchStrideRight));
 
-            final java.nio.DoubleBuffer batchRightInputBuffer = java.nio.DoubleBuffer.wrap(leftInput, k, batchSizeA);
-            final java.nio.DoubleBuffer batchLeftInputBuffer = java.nio.DoubleBuffer.wrap(rightInput, j, batchSizeB);
-            final java.nio.DoubleBuffer batchOutputBuffer = java.nio.DoubleBuffer.wrap(outputBuffer, resultPosition, resultBatchSize);
-
             cblas_dgemm(CblasRowMajor, transposeLeft ? CblasTrans : CblasNoTrans, transposeRight ? CblasTrans : CblasNoTrans,
-                M, N, K, 1, batchRightInputBuffer, lda, batchLeftInputBuffer, ldb, 0, batchOutputBuffer, N);
+                M, N, K, 1,
+                view(direct, k, batchSizeA), lda,
+                view(direct, rightOffset + j, batchSizeB), ldb,
+                0, view(direct, outputOffset + resultPosition, resultBatchSize), N);
         }
 
+        view(direct, outputOffset, outputBuffer.length).get(outputBuffer);
+
         return new JVMDoubleTensor(outputBuffer, resultShape, resultStride);
     }
 
+    /**
+     * @return direct memory of at least the given length, which is reused by later calls on the same thread unless
+     * it is too large to keep
+     */
+    private static java.nio.DoubleBuffer batchBuffer(int length) {
+        final java.nio.DoubleBuffer reused = BATCH_BUFFER.get();
+        if (reused.capacity() >= length) {
+            return reused;
+        }
+
+        final java.nio.DoubleBuffer direct = newDirectBuffer(length);
+        if (length <= MAX_REUSED_BATCH_BUFFER_LENGTH) {
+            BATCH_BUFFER.set(direct);
+        }
+        return direct;
+    }
+
+    private static java.nio.DoubleBuffer newDirectBuffer(int length) {
+        return ByteBuffer
+            .allocateDirect(Ints.checkedCast((long) length * Double.BYTES))
+            .order(ByteOrder.nativeOrder())
+            .asDoubleBuffer();
+    }
+
+    /**
+     * @return a buffer over part of a direct buffer that can be used independently of other views of it
+     */
+    private static java.nio.DoubleBuffer view(java.nio.DoubleBuffer direct, int position, int length) {
+        final java.nio.DoubleBuffer view = direct.duplicate();
+        view.limit(position + length);
+        view.position(position);
+        return view;
+    }
+
     @Override
     public DoubleTensor setWithMaskInPlace(DoubleTensor mask, Double value) {
-        return broadcastableBinaryOpWithAutoBroadcastInPlace((l, r) -> r == 1.0 ? value : l, getAsJVMTensor(mask));
+        final double setTo = value;
+        return broadcastableDoubleOpInPlace((l, r) -> r == 1.0 ? setTo : l, mask);
     }
 
     @Override
@@ -401,7 +467,7 @@ public class JVMDoubleTensor extends JVMFloatingPointTensor<Double, DoubleTensor
 
         SummaryStatistics stats = new SummaryStatistics();
         for (int i = 0; i < buffer.getLength(); i++) {
-            stats.addValue(buffer.get(i));
+            stats.addValue(buffer.getDouble(i));
         }
 
         return new JVMDoubleTensor(stats.getStandardDeviation());
@@ -409,8 +475,110 @@ public class JVMDoubleTensor extends JVMFloatingPointTensor<Double, DoubleTensor
 
     @Override
     public DoubleTensor replaceNaNInPlace(Double value) {
-        buffer.apply(v -> Double.isNaN(v) ? value : v);
+        final double replaceWith = value;
+        buffer.applyDouble(v -> Double.isNaN(v) ? replaceWith : v);
         return this;
     }
 
+    @Override
+    public DoubleTensor plusInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.plusInPlace(that);
+        }
+        return broadcastableDoubleOpInPlace((l, r) -> l + r, that);
+    }
+
+    @Override
+    public DoubleTensor minusInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.minusInPlace(that);
+        }
+        return broadcastableDoubleOpInPlace((l, r) -> l - r, that);
+    }
+
+    @Override
+    public DoubleTensor reverseMinusInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.reverseMinusInPlace(that);
+        }
+        return broadcastableDoubleOpInPlace((l, r) -> r - l, that);
+    }
+
+    @Override
+    public DoubleTensor timesInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.timesInPlace(that);
+        }
+        return broadcastableDoubleOpInPlace((l, r) -> l * r, that);
+    }
+
+    @Override
+    public DoubleTensor divInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.divInPlace(that);
+        }
+        return broadcastableDoubleOpInPlace((l, r) -> l / r, that);
+    }
+
+    @Override
+    public DoubleTensor reverseDivInPlace(DoubleTensor that) {
+        if (isScalar() || that.isScalar()) {
+            return super.reverseDivInPlace(that);
+        }
+        return broadcastableDoubleOpInPlace((l, r) -> r / l, that);
+    }
+
+    @Override
+    public DoubleTensor powInPlace(DoubleTensor exponent) {
+        if (exponent.isScalar()) {
+            return super.powInPlace(exponent);
+        }
+        return broadcastableDoubleOpInPlace(FastMath::pow, exponent);
+    }
+
+    @Override
+    public DoubleTensor minInPlace(DoubleTensor that) {
+        return broadcastableDoubleOpInPlace(Math::min, that);
+    }
+
+    @Override
+    public DoubleTensor maxInPlace(DoubleTensor that) {
+        return broadcastableDoubleOpInPlace(Math::max, that);
+    }
+
+    @Override
+    public DoubleTensor sqrtInPlace() {
+        buffer.applyDouble(FastMath::sqrt);
+        return this;
+    }
+
+    @Override
+    public DoubleTensor logInPlace() {
+        buffer.applyDouble(FastMath::log);
+        return this;
+    }
+
+    @Override
+    public DoubleTensor expInPlace() {
+        buffer.applyDouble(FastMath::exp);
+        return this;
+    }
+
+    /**
+     * Applies op to each pair of broadcast elements of this and that as primitive doubles, rather than through
+     * the boxed operations of {@link #getOperations()}.
+     */
+    private DoubleTensor broadcastableDoubleOpInPlace(DoubleBinaryOperator op, DoubleTensor that) {
+        final JVMDoubleTensor right = (JVMDoubleTensor) asJVM(that);
+
+        final ResultWrapper<Double, DoubleBuffer.PrimitiveDoubleWrapper> result = JVMTensorBroadcast.broadcastIfNeeded(
+            factory,
+            buffer, shape, stride,
+            right.buffer, right.shape, right.stride,
+            op, true
+        );
+
+        return set(result.outputBuffer, result.outputShape, result.outputStride);
+    }
+
 }
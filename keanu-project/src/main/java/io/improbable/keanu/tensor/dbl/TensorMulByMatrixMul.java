@@ -20,16 +20,39 @@ public class TensorMulByMatrixMul {
         List<Integer> leftDimsKept = getKeptDimensions(leftShape.length, dimsLeft);
         List<Integer> rightDimsKept = getKeptDimensions(rightShape.length, dimsRight);
 
-        int[] leftDimsPermuted = Ints.concat(Ints.toArray(leftDimsKept), dimsLeft);
-        int[] rightDimsPermuted = Ints.concat(dimsRight, Ints.toArray(rightDimsKept));
-
         long dimsLength = calculateDimensionsLength(leftShape, dimsLeft);
-        long[] leftTensorAsMatrixShape = {-1, dimsLength};
-        long[] rightTensorAsMatrixShape = {dimsLength, -1};
 
-        TENSOR leftTensorAsMatrix = left.permute(leftDimsPermuted).reshape(leftTensorAsMatrixShape);
-        TENSOR rightTensorAsMatrix = right.permute(rightDimsPermuted).reshape(rightTensorAsMatrixShape);
-        TENSOR resultAsMatrix = leftTensorAsMatrix.matrixMultiply(rightTensorAsMatrix);
+        //When the multiplied dimensions are already the first or last dimensions, in order, the tensor is a matrix
+        //or the transpose of one without being permuted.
+        final TENSOR leftTensorAsMatrix;
+        final boolean transposeLeft;
+        if (areLastDimensions(dimsLeft, leftShape.length)) {
+            leftTensorAsMatrix = left.reshape(-1, dimsLength);
+            transposeLeft = false;
+        } else if (areFirstDimensions(dimsLeft)) {
+            leftTensorAsMatrix = left.reshape(dimsLength, -1);
+            transposeLeft = true;
+        } else {
+            int[] leftDimsPermuted = Ints.concat(Ints.toArray(leftDimsKept), dimsLeft);
+            leftTensorAsMatrix = left.permute(leftDimsPermuted).reshape(-1, dimsLength);
+            transposeLeft = false;
+        }
+
+        final TENSOR rightTensorAsMatrix;
+        final boolean transposeRight;
+        if (areFirstDimensions(dimsRight)) {
+            rightTensorAsMatrix = right.reshape(dimsLength, -1);
+            transposeRight = false;
+        } else if (areLastDimensions(dimsRight, rightShape.length)) {
+            rightTensorAsMatrix = right.reshape(-1, dimsLength);
+            transposeRight = true;
+        } else {
+            int[] rightDimsPermuted = Ints.concat(dimsRight, Ints.toArray(rightDimsKept));
+            rightTensorAsMatrix = right.permute(rightDimsPermuted).reshape(dimsLength, -1);
+            transposeRight = false;
+        }
+
+        TENSOR resultAsMatrix = leftTensorAsMatrix.matrixMultiply(rightTensorAsMatrix, transposeLeft, transposeRight);
 
         long[] leftKeptShape = getKeptShape(leftShape, leftDimsKept);
         long[] rightKeptShape = getKeptShape(rightShape, rightDimsKept);
@@ -108,6 +131,24 @@ public class TensorMulByMatrixMul {
         return keptShape;
     }
 
+    private static boolean areFirstDimensions(int[] dims) {
+        for (int i = 0; i < dims.length; i++) {
+            if (dims[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean areLastDimensions(int[] dims, int rank) {
+        for (int i = 0; i < dims.length; i++) {
+            if (dims[i] != rank - dims.length + i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static long calculateDimensionsLength(long[] shape, int[] dims) {
         long length = 1;
         int aLength = Math.min(shape.length, dims.length);
@@ -66,15 +66,15 @@ public abstract class JVMNumberTensor<T extends Number, TENSOR extends NumberTen
         );
     }
 
-    interface BufferOp<T extends Number, B extends PrimitiveNumberWrapper<T, B>> {
-        void apply(PrimitiveNumberWrapper<T, B> buffer, long j, T value);
+    interface BufferOp<B> {
+        void apply(B buffer, long j, B src, long i);
     }
 
     /**
      * This method works by iterating over the entire buffer and calculating which index in the result buffer
      * it should be combined with using the combine function.
      *
-     * @param combine        combines two numbers and returns a single number
+     * @param combine        combines element i of the source buffer into element j of the result buffer
      * @param init           a function that returns a buffer initialized with a number suitable for the combine function
      *                       to start. E.g. for a product reduction this would initialize a buffer to ones such that the
      *                       first reduction is called with 1 * element 0.
@@ -83,7 +83,7 @@ public abstract class JVMNumberTensor<T extends Number, TENSOR extends NumberTen
      * @param overDimensions The dimensions to reduce over.
      * @return a tensor with a shape with overDimensions dropped and with values reduced.
      */
-    private TENSOR reduceOverDimensions(BufferOp<T, B> combine,
+    private TENSOR reduceOverDimensions(BufferOp<B> combine,
                                         BiFunction<JVMBuffer.PrimitiveNumberWrapperFactory<T, B>, Long, B> init,
                                         Function<B, T> totalReduction,
                                         int... overDimensions) {
@@ -107,7 +107,7 @@ public abstract class JVMNumberTensor<T extends Number, TENSOR extends NumberTen
 
             long j = getFlatIndex(resultShape, resultStride, shapeIndices);
 
-            combine.apply(newBuffer, j, buffer.get(i));
+            combine.apply(newBuffer, j, buffer, i);
         }
 
         return create(newBuffer, resultShape, resultStride);
@@ -132,11 +132,11 @@ public abstract class JVMNumberTensor<T extends Number, TENSOR extends NumberTen
      * A cumulative reduce of the buffer. E.g. for summation of [1,2,3] this would return
      * [1, 3, 6] where the sum is applied as [1, 1+2, 1+2+3].
      *
-     * @param combine            combines two numbers and returns a single number
+     * @param combine            combines the previous element along the dimension into the next
      * @param requestedDimension cumulative operation over this dimension
      * @return a tensor of the same shape with the combine operation applied to the requestedDimension
      */
-    private TENSOR cumulativeInPlace(BufferOp<T, B> combine, int requestedDimension) {
+    private TENSOR cumulativeInPlace(BufferOp<B> combine, int requestedDimension) {
 
         final int dimension = getAbsoluteDimension(requestedDimension, shape.length);
         TensorShapeValidation.checkDimensionExistsInShape(dimension, shape);
@@ -145,7 +145,7 @@ public abstract class JVMNumberTensor<T extends Number, TENSOR extends NumberTen
 
         do {
 
-            T result = null;
+            long previous = 0;
             for (long i = 0; i < shape[dimension]; i++) {
 
                 index[dimension] = i;
@@ -153,10 +153,10 @@ public abstract class JVMNumberTensor<T extends Number, TENSOR extends NumberTen
                 long j = getFlatIndex(shape, stride, index);
 
                 if (i > 0) {
-                    combine.apply(buffer, j, result);
+                    combine.apply(buffer, j, buffer, previous);
                 }
 
-                result = buffer.get(j);
+                previous = j;
             }
 
         } while (incrementIndexByShape(shape, index, dimensionOrder));
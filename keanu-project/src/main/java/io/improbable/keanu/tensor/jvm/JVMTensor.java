@@ -90,7 +90,7 @@ public abstract class JVMTensor<T, TENSOR extends Tensor<T, TENSOR>, B extends J
         B newBuffer = getFactory().createNew(indices.size());
 
         for (int i = 0; i < newBuffer.getLength(); i++) {
-            newBuffer.set(buffer.get(indices.get(i)), i);
+            newBuffer.copyElementFrom(buffer, indices.get(i), i);
         }
 
         return create(newBuffer, new long[]{newBuffer.getLength()}, new long[]{1});
@@ -114,7 +114,7 @@ public abstract class JVMTensor<T, TENSOR extends Tensor<T, TENSOR>, B extends J
 
         for (long i = 0; i < bufferLength; i++) {
             final long pos = i + N * i - (i / N) * N;
-            newBuffer.set(buffer.get(pos), i);
+            newBuffer.copyElementFrom(buffer, pos, i);
         }
 
         return new ResultWrapper<>(newBuffer, resultShape, TensorShape.getRowFirstStride(resultShape));
@@ -137,7 +137,7 @@ public abstract class JVMTensor<T, TENSOR extends Tensor<T, TENSOR>, B extends J
 
         for (long i = 0; i < bufferLength; i++) {
             final long pos = i + endDim * i - (i / endDim) * endDim;
-            newBuffer.set(buffer.get(i), pos);
+            newBuffer.copyElementFrom(buffer, i, pos);
         }
 
         final long[] newShape = TensorShape.getDiagResultShape(shape);
@@ -167,7 +167,7 @@ public abstract class JVMTensor<T, TENSOR extends Tensor<T, TENSOR>, B extends J
         for (long i = 0; i < N; i++) {
             for (long j = Math.max(0, i + k); j < M; j++) {
                 final long index = toOffset + i * M + j;
-                to.set(from.get(index), index);
+                to.copyElementFrom(from, index, index);
             }
         }
     }
@@ -195,7 +195,7 @@ public abstract class JVMTensor<T, TENSOR extends Tensor<T, TENSOR>, B extends J
         for (long i = 0; i < N; i++) {
             for (long j = 0; j < Math.min(M, i - k + 1); j++) {
                 final long index = toOffset + i * M + j;
-                to.set(from.get(index), index);
+                to.copyElementFrom(from, index, index);
             }
         }
     }
@@ -232,12 +232,12 @@ public abstract class JVMTensor<T, TENSOR extends Tensor<T, TENSOR>, B extends J
 
             final long upperPos = batchOffset + row * N + col;
             if (fillUpper) {
-                newBuffer.set(buffer.get(i), upperPos);
+                newBuffer.copyElementFrom(buffer, i, upperPos);
             }
 
             if (fillLower) {
                 final long lowerPos = upperPos + (col - row) * (N - 1);
-                newBuffer.set(buffer.get(i), lowerPos);
+                newBuffer.copyElementFrom(buffer, i, lowerPos);
             }
 
             col++;
@@ -271,7 +271,7 @@ public abstract class JVMTensor<T, TENSOR extends Tensor<T, TENSOR>, B extends J
                 long batchOffset = i * batchSize;
                 for (int r = 0; r < N; r++) {
                     for (int c = r; c < N; c++) {
-                        resultBuffer.set(buffer.get(batchOffset + r * N + c), pos);
+                        resultBuffer.copyElementFrom(buffer, batchOffset + r * N + c, pos);
                         pos++;
                     }
                 }
@@ -281,7 +281,7 @@ public abstract class JVMTensor<T, TENSOR extends Tensor<T, TENSOR>, B extends J
                 long batchOffset = i * batchSize;
                 for (int c = 0; c < N; c++) {
                     for (int r = c; r < N; r++) {
-                        resultBuffer.set(buffer.get(batchOffset + r * N + c), pos);
+                        resultBuffer.copyElementFrom(buffer, batchOffset + r * N + c, pos);
                         pos++;
                     }
                 }
@@ -316,7 +316,7 @@ public abstract class JVMTensor<T, TENSOR extends Tensor<T, TENSOR>, B extends J
                 rearrange
             );
 
-            newBuffer.set(buffer.get(flatIndex), permutedFlatIndex);
+            newBuffer.copyElementFrom(buffer, flatIndex, permutedFlatIndex);
         }
 
         return new ResultWrapper<>(newBuffer, resultShape, resultStride);
@@ -379,7 +379,7 @@ public abstract class JVMTensor<T, TENSOR extends Tensor<T, TENSOR>, B extends J
     @Override
     public TENSOR take(long... index) {
         B newBuffer = getFactory().createNew(1);
-        newBuffer.set(buffer.get(TensorShape.getFlatIndex(shape, stride, index)), 0);
+        newBuffer.copyElementFrom(buffer, TensorShape.getFlatIndex(shape, stride, index), 0);
         return create(newBuffer, new long[0], new long[]{1});
     }
 
@@ -406,7 +406,7 @@ public abstract class JVMTensor<T, TENSOR extends Tensor<T, TENSOR>, B extends J
 
             final long j = indexMapper.getSourceIndexFromResultIndex(i);
 
-            newBuffer.set(buffer.get(j), i);
+            newBuffer.copyElementFrom(buffer, j, i);
         }
 
         return new ResultWrapper<>(newBuffer, resultShape, resultStride);
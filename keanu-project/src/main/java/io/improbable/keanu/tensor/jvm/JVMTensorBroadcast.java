@@ -1,10 +1,13 @@
 package io.improbable.keanu.tensor.jvm;
 
+import com.google.common.primitives.Ints;
 import io.improbable.keanu.tensor.TensorShape;
+import io.improbable.keanu.tensor.dbl.DoubleBuffer;
 import io.improbable.keanu.tensor.jvm.buffer.JVMBuffer;
 
 import java.util.Arrays;
 import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
 
 import static io.improbable.keanu.tensor.TensorShape.getBroadcastedFlatIndex;
 import static io.improbable.keanu.tensor.TensorShape.getRowFirstStride;
@@ -62,6 +65,214 @@ public class JVMTensorBroadcast {
         return new ResultWrapper<>(outputBuffer, outputShape, outputStride);
     }
 
+    /**
+     * The same as the generic broadcastIfNeeded but for buffers of doubles, which are operated on as primitive arrays
+     * so that no element is boxed.
+     *
+     * @param factory     creates the output buffer if it is not the left buffer
+     * @param leftBuffer  the left operand
+     * @param leftShape   the shape of the left operand
+     * @param leftStride  the stride of the left operand
+     * @param rightBuffer the right operand
+     * @param rightShape  the shape of the right operand
+     * @param rightStride the stride of the right operand
+     * @param op          the operation applied to each pair of broadcast elements
+     * @param inPlace     if true then the result is written to the left buffer when it has the result shape
+     * @return the result of op
+     */
+    public static ResultWrapper<Double, DoubleBuffer.PrimitiveDoubleWrapper> broadcastIfNeeded(DoubleBuffer.DoubleArrayWrapperFactory factory,
+                                                                                         DoubleBuffer.PrimitiveDoubleWrapper leftBuffer, long[] leftShape, long[] leftStride,
+                                                                                         DoubleBuffer.PrimitiveDoubleWrapper rightBuffer, long[] rightShape, long[] rightStride,
+                                                                                         DoubleBinaryOperator op,
+                                                                                         boolean inPlace) {
+
+        final double[] left = leftBuffer.asDoubleArray();
+        final double[] right = rightBuffer.asDoubleArray();
+
+        final boolean needsBroadcast = !Arrays.equals(leftShape, rightShape);
+        final long[] resultShape = needsBroadcast ? TensorShape.getBroadcastResultShape(leftShape, rightShape) : leftShape;
+        final boolean resultShapeIsLeftSideShape = !needsBroadcast || Arrays.equals(resultShape, leftShape);
+        final boolean resultShapeIsRightSideShape = Arrays.equals(resultShape, rightShape);
+
+        final boolean writeToLeft = inPlace && resultShapeIsLeftSideShape && leftBuffer instanceof DoubleBuffer.DoubleArrayWrapper;
+        final double[] output = writeToLeft ? left : new double[Ints.checkedCast(TensorShape.getLength(resultShape))];
+
+        final long[] outputStride;
+        if (resultShapeIsLeftSideShape) {
+            outputStride = leftStride;
+        } else if (resultShapeIsRightSideShape) {
+            outputStride = rightStride;
+        } else {
+            outputStride = getRowFirstStride(resultShape);
+        }
+
+        if (!needsBroadcast) {
+            contiguousRun(op, left, 0, right, 0, output, 0, output.length);
+        } else if (leftShape.length == 0) {
+            scalarLeftRun(op, left[0], right, 0, output, 0, output.length);
+        } else if (rightShape.length == 0) {
+            scalarRightRun(op, left, 0, right[0], output, 0, output.length);
+        } else if (isRowFirst(leftShape, leftStride) && isRowFirst(rightShape, rightStride)) {
+            broadcastInRuns(left, leftShape, right, rightShape, resultShape, output, op);
+        } else {
+            broadcastByIndexMapping(left, leftShape, leftStride, right, rightShape, rightStride, output, outputStride, op);
+        }
+
+        return new ResultWrapper<>(
+            writeToLeft ? leftBuffer : factory.create(output),
+            writeToLeft ? leftShape : Arrays.copyOf(resultShape, resultShape.length),
+            writeToLeft ? leftStride : Arrays.copyOf(outputStride, outputStride.length)
+        );
+    }
+
+    /**
+     * Broadcasts row first operands as runs of contiguous output elements. Neighbouring dimensions that both operands
+     * step through in the same way are merged first, so for example
+     * <p>
+     * [N, M] * [M] (a row vector) is N runs of M, where the right operand starts from 0 in every run,
+     * <p>
+     * [N, M] * [N, 1] (a column vector) is N runs of M, where the right operand is a single value in each run, and
+     * <p>
+     * [20, 200] * [20, 20, 200] is 20 runs of 4000.
+     * <p>
+     * Each run is a loop over contiguous arrays with no index arithmetic, which the JIT can unroll and vectorise.
+     */
+    private static void broadcastInRuns(double[] left, long[] leftShape,
+                                        double[] right, long[] rightShape,
+                                        long[] resultShape, double[] output,
+                                        DoubleBinaryOperator op) {
+
+        final long[] leftBroadcastStride = getBroadcastStride(leftShape, resultShape);
+        final long[] rightBroadcastStride = getBroadcastStride(rightShape, resultShape);
+
+        final int[] runShape = new int[resultShape.length];
+        final int[] leftRunStride = new int[resultShape.length];
+        final int[] rightRunStride = new int[resultShape.length];
+        int runRank = 0;
+
+        for (int d = 0; d < resultShape.length; d++) {
+            if (resultShape[d] == 1) {
+                continue;
+            }
+
+            final boolean canMergeWithPrevious = runRank > 0 &&
+                leftRunStride[runRank - 1] == leftBroadcastStride[d] * resultShape[d] &&
+                rightRunStride[runRank - 1] == rightBroadcastStride[d] * resultShape[d];
+
+            if (canMergeWithPrevious) {
+                runShape[runRank - 1] *= Ints.checkedCast(resultShape[d]);
+            } else {
+                runShape[runRank] = Ints.checkedCast(resultShape[d]);
+                runRank++;
+            }
+            leftRunStride[runRank - 1] = Ints.checkedCast(leftBroadcastStride[d]);
+            rightRunStride[runRank - 1] = Ints.checkedCast(rightBroadcastStride[d]);
+        }
+
+        if (runRank == 0) {
+            output[0] = op.applyAsDouble(left[0], right[0]);
+            return;
+        }
+
+        final int runLength = runShape[runRank - 1];
+        final boolean leftIsBroadcastInRun = leftRunStride[runRank - 1] == 0;
+        final boolean rightIsBroadcastInRun = rightRunStride[runRank - 1] == 0;
+
+        final int[] runIndex = new int[runRank - 1];
+        int leftOffset = 0;
+        int rightOffset = 0;
+
+        for (int outputOffset = 0; outputOffset < output.length; outputOffset += runLength) {
+
+            if (rightIsBroadcastInRun) {
+                scalarRightRun(op, left, leftOffset, right[rightOffset], output, outputOffset, runLength);
+            } else if (leftIsBroadcastInRun) {
+                scalarLeftRun(op, left[leftOffset], right, rightOffset, output, outputOffset, runLength);
+            } else {
+                contiguousRun(op, left, leftOffset, right, rightOffset, output, outputOffset, runLength);
+            }
+
+            for (int d = runRank - 2; d >= 0; d--) {
+                runIndex[d]++;
+                leftOffset += leftRunStride[d];
+                rightOffset += rightRunStride[d];
+
+                if (runIndex[d] < runShape[d]) {
+                    break;
+                }
+
+                runIndex[d] = 0;
+                leftOffset -= leftRunStride[d] * runShape[d];
+                rightOffset -= rightRunStride[d] * runShape[d];
+            }
+        }
+    }
+
+    /**
+     * The general case, where the source index of each operand is calculated for every output element. This is
+     * only needed when an operand is not row first.
+     */
+    private static void broadcastByIndexMapping(double[] left, long[] leftShape, long[] leftStride,
+                                                double[] right, long[] rightShape, long[] rightStride,
+                                                double[] output, long[] outputStride,
+                                                DoubleBinaryOperator op) {
+
+        for (int i = 0; i < output.length; i++) {
+            final int k = (int) getBroadcastedFlatIndex(i, outputStride, leftShape, leftStride);
+            final int j = (int) getBroadcastedFlatIndex(i, outputStride, rightShape, rightStride);
+            output[i] = op.applyAsDouble(left[k], right[j]);
+        }
+    }
+
+    private static void contiguousRun(DoubleBinaryOperator op,
+                                      double[] left, int leftOffset,
+                                      double[] right, int rightOffset,
+                                      double[] output, int outputOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            output[outputOffset + i] = op.applyAsDouble(left[leftOffset + i], right[rightOffset + i]);
+        }
+    }
+
+    private static void scalarLeftRun(DoubleBinaryOperator op,
+                                      double left,
+                                      double[] right, int rightOffset,
+                                      double[] output, int outputOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            output[outputOffset + i] = op.applyAsDouble(left, right[rightOffset + i]);
+        }
+    }
+
+    private static void scalarRightRun(DoubleBinaryOperator op,
+                                       double[] left, int leftOffset,
+                                       double right,
+                                       double[] output, int outputOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            output[outputOffset + i] = op.applyAsDouble(left[leftOffset + i], right);
+        }
+    }
+
+    /**
+     * @return the stride of an operand of the given shape over the broadcast result shape, which is 0 in each
+     * dimension that it is broadcast along.
+     */
+    private static long[] getBroadcastStride(long[] shape, long[] resultShape) {
+        final long[] broadcastStride = new long[resultShape.length];
+        final int rankDiff = resultShape.length - shape.length;
+
+        long elementStride = 1;
+        for (int d = resultShape.length - 1; d >= rankDiff; d--) {
+            final long dimLength = shape[d - rankDiff];
+            broadcastStride[d] = dimLength == 1 ? 0 : elementStride;
+            elementStride *= dimLength;
+        }
+
+        return broadcastStride;
+    }
+
+    private static boolean isRowFirst(long[] shape, long[] stride) {
+        return Arrays.equals(stride, getRowFirstStride(shape));
+    }
+
     private static <IN, OUT, INBUFFER extends JVMBuffer.PrimitiveArrayWrapper<IN, INBUFFER>, OUTBUFFER extends JVMBuffer.PrimitiveArrayWrapper<OUT, OUTBUFFER>>
     void scalarLeft(IN left, INBUFFER rightBuffer,
                     OUTBUFFER outputBuffer,
@@ -159,7 +370,7 @@ public class JVMTensorBroadcast {
 
             long j = getBroadcastedFlatIndex(i, outputStride, shape, stride);
 
-            outputBuffer.set(buffer.get(j), i);
+            outputBuffer.copyElementFrom(buffer, j, i);
         }
     }
 
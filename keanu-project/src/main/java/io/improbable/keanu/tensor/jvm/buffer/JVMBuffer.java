@@ -22,6 +22,19 @@ public class JVMBuffer {
 
         IMPL copyFrom(PrimitiveArrayWrapper<T, ?> src, long srcPos, long destPos, long length);
 
+        /**
+         * Copies one element of another buffer of the same type into this buffer. Buffers of primitives override this
+         * so that the element is not boxed on the way.
+         *
+         * @param src       the buffer to copy from
+         * @param srcIndex  the index of the element in src
+         * @param destIndex the index in this buffer to copy it to
+         * @return this buffer
+         */
+        default IMPL copyElementFrom(IMPL src, long srcIndex, long destIndex) {
+            return set(src.get(srcIndex), destIndex);
+        }
+
         IMPL apply(Function<T, T> mapper);
 
         IMPL applyRight(BiFunction<T, T, T> mapper, T rightArg);
@@ -22,12 +22,36 @@ public interface PrimitiveNumberWrapper<T extends Number, B extends JVMBuffer.Pr
 
     B times(long index, T that);
 
+    /**
+     * Multiplies an element of this buffer by an element of another buffer of the same type.
+     *
+     * @param index    the index of the element in this buffer
+     * @param src      the buffer holding the multiplier
+     * @param srcIndex the index of the multiplier in src
+     * @return this buffer
+     */
+    default B times(long index, B src, long srcIndex) {
+        return times(index, src.get(srcIndex));
+    }
+
     B div(T that);
 
     B plus(T that);
 
     B plus(long index, T that);
 
+    /**
+     * Adds an element of another buffer of the same type to an element of this buffer.
+     *
+     * @param index    the index of the element in this buffer
+     * @param src      the buffer holding the value to add
+     * @param srcIndex the index of the value in src
+     * @return this buffer
+     */
+    default B plus(long index, B src, long srcIndex) {
+        return plus(index, src.get(srcIndex));
+    }
+
     B minus(T that);
 
     B pow(T that);
@@ -30,9 +30,11 @@ import java.util.Map;
 public class ProtobufLoader implements NetworkLoader {
 
     private final Map<Vertex, SavedBayesNet.StoredValue> savedValues;
+    private final Map<String, Vertex> loadedVertices;
 
     public ProtobufLoader() {
         savedValues = new HashMap<>();
+        loadedVertices = new HashMap<>();
     }
 
     @Override
@@ -51,6 +53,7 @@ public class ProtobufLoader implements NetworkLoader {
         for (SavedBayesNet.Vertex vertex : graph.getVerticesList()) {
             Vertex newVertex = createVertexFromProtoBuf(vertex, instantiatedVertices);
             instantiatedVertices.put(vertex.getId(), newVertex);
+            loadedVertices.put(vertex.getId().getId(), newVertex);
         }
 
         BayesianNetwork bayesNet = new BayesianNetwork(instantiatedVertices.values());
@@ -60,6 +63,14 @@ public class ProtobufLoader implements NetworkLoader {
         return bayesNet;
     }
 
+    /**
+     * @param savedId the id that a vertex was saved with
+     * @return the vertex that was instantiated for the saved vertex or null if no vertex was loaded with that id
+     */
+    public Vertex getLoadedVertex(String savedId) {
+        return loadedVertices.get(savedId);
+    }
+
     private DoubleTensor extractDoubleValue(SavedBayesNet.VertexValue value) {
         if (value.getValueTypeCase() != SavedBayesNet.VertexValue.ValueTypeCase.DOUBLE_VAL) {
             throw new IllegalArgumentException("Non Double Value specified for Double Vertex");
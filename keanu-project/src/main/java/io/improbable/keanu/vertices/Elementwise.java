@@ -0,0 +1,10 @@
+package io.improbable.keanu.vertices;
+
+/**
+ * A marker for operations whose result at each element only depends on the same element of their broadcast operands.
+ * They give the right result when their operands have extra leading dimensions that broadcast against each other,
+ * such as a batch of samples.
+ */
+public interface Elementwise {
+
+}
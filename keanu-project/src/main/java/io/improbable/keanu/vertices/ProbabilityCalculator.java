@@ -1,6 +1,10 @@
 package io.improbable.keanu.vertices;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class ProbabilityCalculator {
     private ProbabilityCalculator() {
@@ -10,7 +14,7 @@ public class ProbabilityCalculator {
         double sum = 0.0;
         for (Vertex<?, ?> vertex : vertices) {
             if (vertex instanceof Probabilistic) {
-                double logProbAtValue = ((Probabilistic) vertex).logProbAtValue();
+                double logProbAtValue = logProbAtValue(vertex);
                 if (isImpossibleLogProb(logProbAtValue)) {
                     return Double.NEGATIVE_INFINITY;
                 }
@@ -26,6 +30,50 @@ public class ProbabilityCalculator {
         return sum;
     }
 
+    /**
+     * The log prob of a vertex is remembered by the state of the vertex, along with the states of its parents. It is
+     * only calculated again if the vertex or any of its parents have been given a new value since. This makes the log
+     * prob of vertices that a proposal did not change, or that a rejection restored, a lookup.
+     *
+     * @param vertex a probabilistic vertex
+     * @return the log prob of the value of the vertex
+     */
+    public static double logProbAtValue(Vertex<?, ?> vertex) {
+        Double rememberedLogProb = vertex.getState().getLogProb(vertex.getParents());
+        if (rememberedLogProb != null) {
+            return rememberedLogProb;
+        }
+
+        double logProb = ((Probabilistic) vertex).logProbAtValue();
+        vertex.getState().setLogProb(vertex.getParents(), logProb);
+        return logProb;
+    }
+
+    /**
+     * Calculates the log prob of each block of vertices in parallel. The log probs of the blocks are summed in the
+     * order of the blocks, so the result does not depend on the order in which the blocks are evaluated.
+     *
+     * @param blocks blocks of vertices whose log probs can be calculated at the same time
+     * @param pool   the pool to calculate the log prob of each block in
+     * @return the sum of the log probs of every vertex in every block
+     */
+    public static double calculateLogProbFor(List<? extends Collection<? extends Vertex>> blocks, ForkJoinPool pool) {
+        if (blocks.size() == 1) {
+            return calculateLogProbFor(blocks.get(0));
+        }
+
+        List<ForkJoinTask<Double>> blockLogProbs = new ArrayList<>(blocks.size());
+        for (Collection<? extends Vertex> block : blocks) {
+            blockLogProbs.add(pool.submit(() -> calculateLogProbFor(block)));
+        }
+
+        double sum = 0.0;
+        for (ForkJoinTask<Double> blockLogProb : blockLogProbs) {
+            sum += blockLogProb.join();
+        }
+        return isImpossibleLogProb(sum) ? Double.NEGATIVE_INFINITY : sum;
+    }
+
     /**
      * Tells you if a value of log probability is impossible, i.e. -Infinity.
      * It also includes the case where it is NaN.
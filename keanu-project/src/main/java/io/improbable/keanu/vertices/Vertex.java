@@ -2,6 +2,7 @@ package io.improbable.keanu.vertices;
 
 import io.improbable.keanu.algorithms.Variable;
 import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.graphtraversal.TopologyVersion;
 
 import java.util.Collection;
 import java.util.Optional;
@@ -69,6 +70,8 @@ public interface Vertex<T, VERTEX extends Vertex<T, VERTEX>> extends Observable<
 
     void addChild(Vertex<?, ?> v);
 
+    TopologyVersion getTopologyVersion();
+
     void setParents(Collection<? extends Vertex> parents);
 
     void setParents(Vertex<?, ?>... parents);
@@ -2,7 +2,6 @@ package io.improbable.keanu.vertices;
 
 import com.google.common.primitives.Ints;
 import io.improbable.keanu.algorithms.VariableReference;
-import lombok.EqualsAndHashCode;
 
 import java.util.Arrays;
 import java.util.Objects;
@@ -15,17 +14,20 @@ import java.util.stream.Collectors;
  * <p>
  * Ids also encapsulate the notion of "Depth".  When we have graphs within graphs, the depth tells us at what level the
  * graph exists - ie depth 1 is the outermost graph, depth 2 is a graph within a graph etc.
+ * <p>
+ * Ids are used as map keys throughout inference, so the hash code is calculated once and kept until the id changes.
  */
-@EqualsAndHashCode
 public class VertexId implements Comparable<VertexId>, VariableReference {
 
     private static final AtomicLong ID_GENERATOR = new AtomicLong(0L);
     private static final int TOP_LEVEL_ARRAY_SIZE = 1;
 
     private long[] idValues = new long[TOP_LEVEL_ARRAY_SIZE];
+    private int hashCode;
 
     public VertexId() {
         idValues[0] = ID_GENERATOR.getAndIncrement();
+        hashCode = Arrays.hashCode(idValues);
     }
 
     public void addPrefix(VertexId prefix) {
@@ -33,15 +35,33 @@ public class VertexId implements Comparable<VertexId>, VariableReference {
         System.arraycopy(prefix.idValues, 0, newIdValues, 0, prefix.idValues.length);
         System.arraycopy(idValues, 0, newIdValues, prefix.idValues.length, idValues.length);
         idValues = newIdValues;
+        hashCode = Arrays.hashCode(idValues);
     }
 
     public void resetID() {
         idValues = new long[TOP_LEVEL_ARRAY_SIZE];
         idValues[0] = ID_GENERATOR.getAndIncrement();
+        hashCode = Arrays.hashCode(idValues);
     }
 
     public VertexId(long id) {
         idValues[0] = id;
+        hashCode = Arrays.hashCode(idValues);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof VertexId)) return false;
+
+        VertexId that = (VertexId) o;
+
+        return hashCode == that.hashCode && Arrays.equals(idValues, that.idValues);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
     }
 
     @Override
@@ -3,6 +3,7 @@ package io.improbable.keanu.vertices;
 import com.google.common.collect.ImmutableSet;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.algorithms.graphtraversal.DiscoverGraph;
+import io.improbable.keanu.algorithms.graphtraversal.TopologyVersion;
 import io.improbable.keanu.algorithms.graphtraversal.VertexValuePropagation;
 import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.TensorShape;
@@ -28,6 +29,7 @@ public abstract class VertexImpl<T, VERTEX extends Vertex<T, VERTEX>> implements
     private Set<Vertex> parents = Collections.emptySet();
     private VertexState<T> state;
     private VertexLabel label = null;
+    private final TopologyVersion topologyVersion = new TopologyVersion();
 
     public VertexImpl() {
         this(Tensor.SCALAR_SHAPE);
@@ -112,7 +114,7 @@ public abstract class VertexImpl<T, VERTEX extends Vertex<T, VERTEX>> implements
      */
     public void setValue(T value) {
         if (!state.isObserved()) {
-            state = new VertexState<>(value, false);
+            replaceState(new VertexState<>(value, false));
         }
     }
 
@@ -127,9 +129,21 @@ public abstract class VertexImpl<T, VERTEX extends Vertex<T, VERTEX>> implements
     }
 
     public void setState(VertexState<T> newState) {
+        replaceState(newState);
+    }
+
+    /**
+     * Every change of state goes through here, so that it can be undone by a {@link VertexUndoLog}
+     */
+    private void replaceState(VertexState<T> newState) {
+        VertexUndoLog.recordOverwrite(this, state);
         state = newState;
     }
 
+    void restoreState(VertexState<T> previousState) {
+        state = previousState;
+    }
+
     public boolean hasValue() {
         return state.getValue() != null;
     }
@@ -196,7 +210,7 @@ public abstract class VertexImpl<T, VERTEX extends Vertex<T, VERTEX>> implements
         if (!isObservable(this.getClass())) {
             throw new UnsupportedOperationException("This type of vertex does not support being observed");
         }
-        state = new VertexState<>(value, true);
+        replaceState(new VertexState<>(value, true));
     }
 
     private static boolean isObservable(Class<? extends Vertex> v) {
@@ -215,7 +229,7 @@ public abstract class VertexImpl<T, VERTEX extends Vertex<T, VERTEX>> implements
 
     @Override
     public void unobserve() {
-        state = new VertexState<>(state.getValue(), false);
+        replaceState(new VertexState<>(state.getValue(), false));
     }
 
     @Override
@@ -246,7 +260,13 @@ public abstract class VertexImpl<T, VERTEX extends Vertex<T, VERTEX>> implements
     }
 
     public void addChild(Vertex<?, ?> v) {
-        children.add(v);
+        if (children.add(v)) {
+            TopologyVersion.addEdge(topologyVersion, v.getTopologyVersion());
+        }
+    }
+
+    public TopologyVersion getTopologyVersion() {
+        return topologyVersion;
     }
 
     public void setParents(Collection<? extends Vertex> parents) {
@@ -1,15 +1,53 @@
 package io.improbable.keanu.vertices;
 
 import io.improbable.keanu.network.VariableState;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 import lombok.Value;
+import lombok.experimental.NonFinal;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * The value of a vertex and whether it is observed. A new state is created every time the value of a vertex is set,
+ * so a state also remembers the log prob of its value (see {@link ProbabilityCalculator}), which stays valid for as
+ * long as the states of the vertex's parents are the ones it was calculated with.
+ * <p>
+ * Every state has a version that no other state has. The remembered log prob refers to the states of the parents by
+ * their versions, so it doesn't keep the parents' earlier states from being collected.
+ */
 @Value
+@EqualsAndHashCode(exclude = {"version", "logProbMemo"})
+@ToString(exclude = {"version", "logProbMemo"})
 public class VertexState<T> implements VariableState {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
     private T value;
     private boolean isObserved;
 
+    @Getter(AccessLevel.NONE)
+    private long version;
+
+    /**
+     * The log prob of the value, set the first time it is calculated. This is a cache rather than part of the state,
+     * so it is excluded from equality.
+     */
+    @NonFinal
+    @Getter(AccessLevel.NONE)
+    private volatile LogProbMemo logProbMemo;
+
+    public VertexState(T value, boolean isObserved) {
+        this.value = value;
+        this.isObserved = isObserved;
+        this.version = VERSIONS.incrementAndGet();
+    }
+
     public static <T> VertexState<T> nullState() {
         return new VertexState<>(null, false);
     }
@@ -21,4 +59,47 @@ public class VertexState<T> implements VariableState {
             return Optional.empty();
         }
     }
+
+    /**
+     * @param parents the parents of the vertex that this is the state of
+     * @return the remembered log prob of the value, or null if it was not calculated with the parents in their
+     * current states
+     */
+    Double getLogProb(Collection<? extends Vertex> parents) {
+        LogProbMemo memo = logProbMemo;
+        if (memo == null || memo.parentVersions.length != parents.size()) {
+            return null;
+        }
+
+        Iterator<? extends Vertex> parentIterator = parents.iterator();
+        for (long parentVersion : memo.parentVersions) {
+            if (parentIterator.next().getState().version != parentVersion) {
+                return null;
+            }
+        }
+        return memo.logProb;
+    }
+
+    /**
+     * @param parents the parents of the vertex that this is the state of, in the states the log prob was calculated with
+     * @param logProb the log prob of the value
+     */
+    void setLogProb(Collection<? extends Vertex> parents, double logProb) {
+        long[] parentVersions = new long[parents.size()];
+        int i = 0;
+        for (Vertex parent : parents) {
+            parentVersions[i++] = parent.getState().version;
+        }
+        logProbMemo = new LogProbMemo(parentVersions, logProb);
+    }
+
+    private static class LogProbMemo {
+        private final long[] parentVersions;
+        private final double logProb;
+
+        LogProbMemo(long[] parentVersions, double logProb) {
+            this.parentVersions = parentVersions;
+            this.logProb = logProb;
+        }
+    }
 }
@@ -0,0 +1,83 @@
+package io.improbable.keanu.vertices;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the state of each vertex that is given a new state while the log is recording, so that the changes can be
+ * undone. As a {@link VertexState} is never modified, recording a state is only a matter of keeping a reference to
+ * it, and restoring it also restores the log prob it remembers.
+ * <p>
+ * A log records the changes made on the thread that started it, until it is committed or rolled back. Committing
+ * only forgets what was recorded, and the log can be reused without allocating. Only one log records on a thread at
+ * a time. Whoever begins a log must commit or roll it back in a finally block, as the thread keeps a reference to
+ * the log, and keeps recording into it, until then.
+ */
+public class VertexUndoLog {
+
+    private static final ThreadLocal<VertexUndoLog> RECORDING = new ThreadLocal<>();
+
+    private final List<VertexImpl<?, ?>> vertices = new ArrayList<>();
+    private final List<VertexState<?>> states = new ArrayList<>();
+
+    /**
+     * Forgets anything previously recorded and starts recording the changes made on this thread.
+     */
+    public void begin() {
+        clear();
+        RECORDING.set(this);
+    }
+
+    /**
+     * Stops recording and keeps the changes.
+     */
+    public void commit() {
+        stopRecording();
+        clear();
+    }
+
+    /**
+     * Stops recording and restores every vertex that was changed to the state it had when the log began.
+     */
+    public void rollback() {
+        stopRecording();
+        for (int i = vertices.size() - 1; i >= 0; i--) {
+            restore(vertices.get(i), states.get(i));
+        }
+        clear();
+    }
+
+    public boolean isRecording() {
+        return RECORDING.get() == this;
+    }
+
+    /**
+     * @return the number of changes recorded since the log began
+     */
+    public int size() {
+        return vertices.size();
+    }
+
+    static <T> void recordOverwrite(VertexImpl<T, ?> vertex, VertexState<T> previousState) {
+        VertexUndoLog log = RECORDING.get();
+        if (log != null) {
+            log.vertices.add(vertex);
+            log.states.add(previousState);
+        }
+    }
+
+    private static <T> void restore(VertexImpl<T, ?> vertex, VertexState<?> state) {
+        vertex.restoreState((VertexState<T>) state);
+    }
+
+    private void stopRecording() {
+        if (isRecording()) {
+            RECORDING.remove();
+        }
+    }
+
+    private void clear() {
+        vertices.clear();
+        states.clear();
+    }
+}
@@ -1,6 +1,7 @@
 package io.improbable.keanu.vertices.tensor;
 
 import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.graphtraversal.TopologyVersion;
 import io.improbable.keanu.vertices.NonProbabilistic;
 import io.improbable.keanu.vertices.NonProbabilisticVertex;
 import io.improbable.keanu.vertices.NonSaveableVertex;
@@ -165,6 +166,11 @@ public class VertexWrapper<TENSOR, VERTEX extends Vertex<TENSOR, VERTEX>> implem
         vertex.addChild(v);
     }
 
+    @Override
+    public TopologyVersion getTopologyVersion() {
+        return vertex.getTopologyVersion();
+    }
+
     @Override
     public void setParents(Collection<? extends Vertex> parents) {
         vertex.setParents(parents);
@@ -1,6 +1,7 @@
 package io.improbable.keanu.vertices.tensor.bool;
 
 import io.improbable.keanu.algorithms.Samples;
+import io.improbable.keanu.algorithms.columnar.BooleanTensorSampleColumn;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
 
 import java.util.List;
@@ -13,6 +14,9 @@ public class BooleanVertexSamples extends Samples<BooleanTensor> {
 
     @Override
     public BooleanTensor asTensor() {
+        if (samples instanceof BooleanTensorSampleColumn && ((BooleanTensorSampleColumn) samples).hasSingleShape()) {
+            return ((BooleanTensorSampleColumn) samples).asTensor();
+        }
         return BooleanTensor.stack(0, samples.stream().toArray(BooleanTensor[]::new));
     }
 }
@@ -4,6 +4,7 @@ import com.google.common.collect.Iterables;
 import io.improbable.keanu.annotation.ExportVertexToPythonBindings;
 import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.NonProbabilistic;
@@ -16,7 +17,7 @@ import io.improbable.keanu.vertices.tensor.bool.BooleanVertex;
 
 import static io.improbable.keanu.tensor.TensorShapeValidation.checkTensorsMatchNonLengthOneShapeOrAreLengthOne;
 
-public class BooleanProxyVertex extends VertexImpl<BooleanTensor, BooleanVertex> implements BooleanVertex, ProxyVertex<Vertex<BooleanTensor, ?>>, NonProbabilistic<BooleanTensor> {
+public class BooleanProxyVertex extends VertexImpl<BooleanTensor, BooleanVertex> implements BooleanVertex, ProxyVertex<Vertex<BooleanTensor, ?>>, NonProbabilistic<BooleanTensor>, Elementwise {
 
     private final static String LABEL_NAME = "label";
     private final static String PARENT_NAME = "parent";
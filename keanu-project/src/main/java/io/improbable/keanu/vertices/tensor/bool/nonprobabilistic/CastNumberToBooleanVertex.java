@@ -3,6 +3,7 @@ package io.improbable.keanu.vertices.tensor.bool.nonprobabilistic;
 import io.improbable.keanu.annotation.ExportVertexToPythonBindings;
 import io.improbable.keanu.tensor.NumberTensor;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.NonProbabilistic;
 import io.improbable.keanu.vertices.SaveVertexParam;
@@ -11,7 +12,7 @@ import io.improbable.keanu.vertices.VertexImpl;
 import io.improbable.keanu.vertices.VertexUnaryOp;
 import io.improbable.keanu.vertices.tensor.bool.BooleanVertex;
 
-public class CastNumberToBooleanVertex<T extends NumberTensor> extends VertexImpl<BooleanTensor, BooleanVertex> implements BooleanVertex, NonProbabilistic<BooleanTensor>, VertexUnaryOp<Vertex<T, ?>> {
+public class CastNumberToBooleanVertex<T extends NumberTensor> extends VertexImpl<BooleanTensor, BooleanVertex> implements BooleanVertex, NonProbabilistic<BooleanTensor>, VertexUnaryOp<Vertex<T, ?>>, Elementwise {
 
     private final Vertex<T, ?> inputVertex;
     private static final String INPUT_VERTEX_NAME = "inputVertex";
@@ -3,11 +3,12 @@ package io.improbable.keanu.vertices.tensor.bool.nonprobabilistic.operators.bina
 import io.improbable.keanu.annotation.DisplayInformationForOutput;
 import io.improbable.keanu.annotation.ExportVertexToPythonBindings;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.Vertex;
 
 @DisplayInformationForOutput(displayName = "AND")
-public class AndBinaryVertex extends BooleanBinaryOpVertex<BooleanTensor, BooleanTensor> {
+public class AndBinaryVertex extends BooleanBinaryOpVertex<BooleanTensor, BooleanTensor> implements Elementwise {
 
     @ExportVertexToPythonBindings
     public AndBinaryVertex(@LoadVertexParam(A_NAME) Vertex<BooleanTensor, ?> a,
@@ -3,11 +3,12 @@ package io.improbable.keanu.vertices.tensor.bool.nonprobabilistic.operators.bina
 import io.improbable.keanu.annotation.ExportVertexToPythonBindings;
 import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.tensor.bool.nonprobabilistic.operators.binary.BooleanBinaryOpVertex;
 
-public class EqualsVertex<TENSOR extends Tensor> extends BooleanBinaryOpVertex<TENSOR, TENSOR> {
+public class EqualsVertex<TENSOR extends Tensor> extends BooleanBinaryOpVertex<TENSOR, TENSOR> implements Elementwise {
 
     @ExportVertexToPythonBindings
     public EqualsVertex(@LoadVertexParam(A_NAME) Vertex<TENSOR, ?> a, @LoadVertexParam(B_NAME) Vertex<TENSOR, ?> b) {
@@ -3,11 +3,12 @@ package io.improbable.keanu.vertices.tensor.bool.nonprobabilistic.operators.bina
 import io.improbable.keanu.annotation.ExportVertexToPythonBindings;
 import io.improbable.keanu.tensor.NumberTensor;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.tensor.bool.nonprobabilistic.operators.binary.BooleanBinaryOpVertex;
 
-public class GreaterThanVertex<A extends NumberTensor, B extends NumberTensor> extends BooleanBinaryOpVertex<A, B> {
+public class GreaterThanVertex<A extends NumberTensor, B extends NumberTensor> extends BooleanBinaryOpVertex<A, B> implements Elementwise {
 
     @ExportVertexToPythonBindings
     public GreaterThanVertex(@LoadVertexParam(A_NAME) Vertex<A, ?> a, @LoadVertexParam(B_NAME) Vertex<B, ?> b) {
@@ -3,12 +3,13 @@ package io.improbable.keanu.vertices.tensor.bool.nonprobabilistic.operators.unar
 import io.improbable.keanu.annotation.ExportVertexToPythonBindings;
 import io.improbable.keanu.tensor.FloatingPointTensor;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.tensor.TensorVertex;
 
 public class IsFiniteVertex<T extends Number, TENSOR extends FloatingPointTensor<T, TENSOR>, VERTEX extends TensorVertex<T, TENSOR, VERTEX>>
-    extends BooleanUnaryOpVertex<TENSOR> {
+    extends BooleanUnaryOpVertex<TENSOR> implements Elementwise {
 
     @ExportVertexToPythonBindings
     public IsFiniteVertex(@LoadVertexParam(INPUT_NAME) Vertex<TENSOR, VERTEX> inputVertex) {
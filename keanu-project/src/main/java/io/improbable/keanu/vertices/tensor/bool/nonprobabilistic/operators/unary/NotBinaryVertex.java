@@ -2,10 +2,11 @@ package io.improbable.keanu.vertices.tensor.bool.nonprobabilistic.operators.unar
 
 import io.improbable.keanu.annotation.ExportVertexToPythonBindings;
 import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.Vertex;
 
-public class NotBinaryVertex extends BooleanUnaryOpVertex<BooleanTensor> {
+public class NotBinaryVertex extends BooleanUnaryOpVertex<BooleanTensor> implements Elementwise {
 
     @ExportVertexToPythonBindings
     public NotBinaryVertex(@LoadVertexParam(INPUT_NAME) Vertex<BooleanTensor, ?> a) {
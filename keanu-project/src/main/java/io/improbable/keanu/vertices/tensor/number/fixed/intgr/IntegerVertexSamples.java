@@ -1,6 +1,7 @@
 package io.improbable.keanu.vertices.tensor.number.fixed.intgr;
 
 import io.improbable.keanu.algorithms.Samples;
+import io.improbable.keanu.algorithms.columnar.IntegerTensorSampleColumn;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
 
@@ -22,6 +23,10 @@ public class IntegerVertexSamples extends Samples<IntegerTensor> {
             throw new IllegalStateException("No samples exist for averaging.");
         }
 
+        if (isSingleShapeColumn()) {
+            return ((IntegerTensorSampleColumn) samples).mean();
+        }
+
         long[] shape = samples.iterator().next().getShape();
 
         return this.samples.stream()
@@ -56,8 +61,15 @@ public class IntegerVertexSamples extends Samples<IntegerTensor> {
         }
     }
 
+    private boolean isSingleShapeColumn() {
+        return samples instanceof IntegerTensorSampleColumn && ((IntegerTensorSampleColumn) samples).hasSingleShape();
+    }
+
     @Override
     public IntegerTensor asTensor() {
+        if (isSingleShapeColumn()) {
+            return ((IntegerTensorSampleColumn) samples).asTensor();
+        }
         return IntegerTensor.stack(0, samples.toArray(new IntegerTensor[0]));
     }
 }
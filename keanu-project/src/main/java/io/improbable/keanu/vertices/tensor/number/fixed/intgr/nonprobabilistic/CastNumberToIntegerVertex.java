@@ -3,6 +3,7 @@ package io.improbable.keanu.vertices.tensor.number.fixed.intgr.nonprobabilistic;
 import io.improbable.keanu.annotation.ExportVertexToPythonBindings;
 import io.improbable.keanu.tensor.NumberTensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.NonProbabilistic;
 import io.improbable.keanu.vertices.SaveVertexParam;
@@ -11,7 +12,7 @@ import io.improbable.keanu.vertices.VertexImpl;
 import io.improbable.keanu.vertices.VertexUnaryOp;
 import io.improbable.keanu.vertices.tensor.number.fixed.intgr.IntegerVertex;
 
-public class CastNumberToIntegerVertex<T extends NumberTensor> extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, NonProbabilistic<IntegerTensor>, VertexUnaryOp<Vertex<T, ?>> {
+public class CastNumberToIntegerVertex<T extends NumberTensor> extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, NonProbabilistic<IntegerTensor>, VertexUnaryOp<Vertex<T, ?>>, Elementwise {
 
     private final Vertex<T, ?> inputVertex;
     private static final String INPUT_NAME = "inputVertex";
@@ -4,6 +4,7 @@ import com.google.common.collect.Iterables;
 import io.improbable.keanu.annotation.ExportVertexToPythonBindings;
 import io.improbable.keanu.tensor.Tensor;
 import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.LoadShape;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.NonProbabilistic;
@@ -16,7 +17,7 @@ import io.improbable.keanu.vertices.tensor.number.fixed.intgr.IntegerVertex;
 
 import static io.improbable.keanu.tensor.TensorShapeValidation.checkTensorsMatchNonLengthOneShapeOrAreLengthOne;
 
-public class IntegerProxyVertex extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, ProxyVertex<Vertex<IntegerTensor, ?>>, NonProbabilistic<IntegerTensor> {
+public class IntegerProxyVertex extends VertexImpl<IntegerTensor, IntegerVertex> implements IntegerVertex, ProxyVertex<Vertex<IntegerTensor, ?>>, NonProbabilistic<IntegerTensor>, Elementwise {
 
     private static final String LABEL_NAME = "label";
     private static final String PARENT_NAME = "parent";
@@ -1,7 +1,9 @@
 package io.improbable.keanu.vertices.tensor.number.floating.dbl;
 
 import io.improbable.keanu.algorithms.Samples;
+import io.improbable.keanu.algorithms.columnar.DoubleTensorSampleColumn;
 import io.improbable.keanu.algorithms.statistics.Autocorrelation;
+import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.TensorShapeValidation;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 
@@ -16,12 +18,18 @@ public class DoubleVertexSamples extends Samples<DoubleTensor> {
     }
 
     public DoubleTensor getAverages() {
+        if (isSingleShapeColumn()) {
+            return ((DoubleTensorSampleColumn) samples).mean();
+        }
         return this.samples.stream()
             .reduce(DoubleTensor.zeros(sampleShape), DoubleTensor::plusInPlace)
             .divInPlace((double) samples.size());
     }
 
     public DoubleTensor getVariances() {
+        if (isSingleShapeColumn()) {
+            return ((DoubleTensorSampleColumn) samples).variance();
+        }
         DoubleTensor sumOfSquares = this.samples.stream()
             .reduce(DoubleTensor.zeros(sampleShape), (l, r) -> l.plusInPlace(r.pow(2)));
         return sumOfSquares
@@ -40,9 +48,15 @@ public class DoubleVertexSamples extends Samples<DoubleTensor> {
     public DoubleTensor getAutocorrelation(long... index) {
         TensorShapeValidation.checkIndexIsValid(sampleShape, index);
         long[] indexToGet = getCorrectIndexIfScalar(index);
-        double[] sampleValuesAtIndex = samples.stream()
-            .mapToDouble(x -> x.getValue(indexToGet))
-            .toArray();
+        double[] sampleValuesAtIndex;
+        if (isSingleShapeColumn()) {
+            long flatIndex = sampleShape.length == 0 ? 0 : TensorShape.getFlatIndex(sampleShape, TensorShape.getRowFirstStride(sampleShape), index);
+            sampleValuesAtIndex = ((DoubleTensorSampleColumn) samples).valuesAt((int) flatIndex);
+        } else {
+            sampleValuesAtIndex = samples.stream()
+                .mapToDouble(x -> x.getValue(indexToGet))
+                .toArray();
+        }
         double[] autocorr = Autocorrelation.calculate(sampleValuesAtIndex);
         return DoubleTensor.create(autocorr);
     }
@@ -52,8 +66,15 @@ public class DoubleVertexSamples extends Samples<DoubleTensor> {
     }
 
 
+    private boolean isSingleShapeColumn() {
+        return samples instanceof DoubleTensorSampleColumn && ((DoubleTensorSampleColumn) samples).hasSingleShape();
+    }
+
     @Override
     public DoubleTensor asTensor() {
+        if (isSingleShapeColumn()) {
+            return ((DoubleTensorSampleColumn) samples).asTensor();
+        }
         return DoubleTensor.stack(0, samples.stream().toArray(DoubleTensor[]::new));
     }
 }
@@ -3,6 +3,7 @@ package io.improbable.keanu.vertices.tensor.number.floating.dbl.nonprobabilistic
 import io.improbable.keanu.annotation.ExportVertexToPythonBindings;
 import io.improbable.keanu.tensor.NumberTensor;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Elementwise;
 import io.improbable.keanu.vertices.LoadVertexParam;
 import io.improbable.keanu.vertices.NonProbabilistic;
 import io.improbable.keanu.vertices.SaveVertexParam;
@@ -11,7 +12,7 @@ import io.improbable.keanu.vertices.VertexImpl;
 import io.improbable.keanu.vertices.VertexUnaryOp;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
 
-public class CastNumberToDoubleVertex<T extends NumberTensor> extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, NonProbabilistic<DoubleTensor>, VertexUnaryOp<Vertex<T, ?>> {
+public class CastNumberToDoubleVertex<T extends NumberTensor> extends VertexImpl<DoubleTensor, DoubleVertex> implements DoubleVertex, NonProbabilistic<DoubleTensor>, VertexUnaryOp<Vertex<T, ?>>, Elementwise {
 
     private final Vertex<T, ?> inputVertex;
     private static final String INPUT_VERTEX_NAME = "inputVertex";
@@ -6,15 +6,29 @@ import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.Probabilistic;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.VertexId;
-import io.improbable.keanu.vertices.tensor.number.floating.dbl.Differentiator;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.Differentiable;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 
+/**
+ * Calculates the gradient of the sum of the log probabilities of some vertices with respect to some latent vertices.
+ * <p>
+ * The log probability is a scalar, so the reverse mode partials of every vertex's log probability can be summed at
+ * each vertex before they are propagated further. The gradient is therefore found with a single reverse sweep over
+ * a tape of every differentiable vertex between the log prob vertices and the latent vertices. The tape is found
+ * when the calculator is created and is ordered by descending vertex id, which is a reverse topological order.
+ */
 public class LogProbGradientCalculator {
 
     private final Set<Vertex> logProbOfVertices;
@@ -23,12 +37,32 @@ public class LogProbGradientCalculator {
     private final Map<Vertex, Set<Vertex>> parentToLatentLookup;
     private final Map<Vertex, Set<Vertex>> verticesWithNonzeroDiffWrtLatent;
 
+    /**
+     * The latent vertices that gradients are accumulated for. A reverse sweep stops at these.
+     */
+    private final Set<Vertex> latentVertices;
+
+    /**
+     * Differentiable, non-probabilistic vertices in descending id order
+     */
+    private final Vertex[] tape;
+    private final Map<Vertex, Integer> tapePositions;
+
     public LogProbGradientCalculator(List<? extends Vertex> logProbOfVerticesList, List<? extends Vertex<?, ?>> wrtVerticesList) {
         this.logProbOfVertices = new HashSet<>(logProbOfVerticesList);
         this.wrtVertices = new HashSet<>(wrtVerticesList);
 
         parentToLatentLookup = getParentsThatAreConnectedToWrtVertices(logProbOfVertices);
         verticesWithNonzeroDiffWrtLatent = getVerticesWithNonzeroDiffWrt(logProbOfVertices, parentToLatentLookup);
+
+        latentVertices = new HashSet<>();
+        parentToLatentLookup.values().forEach(latentVertices::addAll);
+
+        tape = getTape(parentToLatentLookup.keySet(), latentVertices);
+        tapePositions = new HashMap<>();
+        for (int i = 0; i < tape.length; i++) {
+            tapePositions.put(tape[i], i);
+        }
     }
 
     /**
@@ -36,15 +70,54 @@ public class LogProbGradientCalculator {
      */
     public Map<VertexId, DoubleTensor> getJointLogProbGradientWrtLatents() {
         LogProbGradients totalLogProbGradients = new LogProbGradients();
+        ReverseModePartialDerivative[] adjoints = new ReverseModePartialDerivative[tape.length];
+        boolean[] ownedAdjoints = new boolean[tape.length];
 
         for (final Vertex<?, ?> ofVertex : logProbOfVertices) {
-            LogProbGradients logProbGradientOfVertex = reverseModeLogProbGradientWrtLatents(ofVertex);
-            totalLogProbGradients.add(logProbGradientOfVertex);
+            seedAdjoints(ofVertex, totalLogProbGradients, adjoints, ownedAdjoints);
+        }
+
+        for (int i = 0; i < tape.length; i++) {
+            if (adjoints[i] == null) {
+                continue;
+            }
+
+            Map<Vertex, ReverseModePartialDerivative> partialDerivatives = ((Differentiable) tape[i]).reverseModeAutoDifferentiation(adjoints[i]);
+            adjoints[i] = null;
+
+            for (Map.Entry<Vertex, ReverseModePartialDerivative> partial : partialDerivatives.entrySet()) {
+                accumulate(partial.getKey(), partial.getValue(), totalLogProbGradients, adjoints, ownedAdjoints);
+            }
         }
 
         return totalLogProbGradients.getPartials();
     }
 
+    /**
+     * Calculates the gradient of each block in parallel. The gradients of the blocks are summed in the order of the
+     * blocks, so the result does not depend on the order in which the blocks are evaluated.
+     *
+     * @param blocks calculators for blocks of log prob vertices that do not share any non-probabilistic vertices
+     * @param pool   the pool to calculate the gradient of each block in
+     * @return the partial derivatives of the sum of the log probs of every block
+     */
+    public static Map<VertexId, DoubleTensor> getJointLogProbGradientWrtLatents(List<LogProbGradientCalculator> blocks,
+                                                                              ForkJoinPool pool) {
+        if (blocks.size() == 1) {
+            return blocks.get(0).getJointLogProbGradientWrtLatents();
+        }
+
+        List<ForkJoinTask<Map<VertexId, DoubleTensor>>> blockGradients = new ArrayList<>(blocks.size());
+        for (LogProbGradientCalculator block : blocks) {
+            blockGradients.add(pool.submit(block::getJointLogProbGradientWrtLatents));
+        }
+
+        LogProbGradients totalLogProbGradients = new LogProbGradients();
+        for (ForkJoinTask<Map<VertexId, DoubleTensor>> blockGradient : blockGradients) {
+            totalLogProbGradients.add(blockGradient.join());
+        }
+        return totalLogProbGradients.getPartials();
+    }
     /**
      * The dLogProb(x) method on Vertex returns a partial derivative of the Log Prob with respect to each
      * of its arguments and with respect to its value, x. This method searches these partials for any that
@@ -112,10 +185,48 @@ public class LogProbGradientCalculator {
     }
 
     /**
+     * Finds the vertices that reverse mode partials are propagated through on the way from the parents of the
+     * log prob vertices to the latent vertices.
+     *
+     * @param parents        parents of the log prob vertices that are connected to a latent vertex
+     * @param latentVertices the latent vertices at which propagation stops
+     * @return the differentiable, non-probabilistic vertices in descending id order
+     */
+    private static Vertex[] getTape(Set<Vertex> parents, Set<Vertex> latentVertices) {
+        Set<Vertex> onTape = new HashSet<>();
+        Deque<Vertex> toVisit = new ArrayDeque<>(parents);
+
+        while (!toVisit.isEmpty()) {
+            Vertex<?, ?> visiting = toVisit.pop();
+
+            if (onTape.contains(visiting) || latentVertices.contains(visiting) ||
+                visiting.isProbabilistic() || !visiting.isDifferentiable()) {
+                continue;
+            }
+
+            onTape.add(visiting);
+            for (Vertex parent : visiting.getParents()) {
+                if (parent.isDifferentiable()) {
+                    toVisit.push(parent);
+                }
+            }
+        }
+
+        return onTape.stream()
+            .sorted(Comparator.<Vertex, VertexId>comparing(Vertex::getId, Comparator.naturalOrder()).reversed())
+            .toArray(Vertex[]::new);
+    }
+
+    /**
+     * Adds the partial derivatives of the log prob of ofVertex with respect to its value and its parents to the
+     * gradients and adjoints.
+     *
      * @param ofVertex the vertex we are taking the derivative of
-     * @return partial derivatives of the "ofVertex" wrt to any "this.wrtVertices" that it descends.
      */
-    private LogProbGradients reverseModeLogProbGradientWrtLatents(final Vertex ofVertex) {
+    private void seedAdjoints(final Vertex ofVertex,
+                              LogProbGradients gradients,
+                              ReverseModePartialDerivative[] adjoints,
+                              boolean[] ownedAdjoints) {
         Preconditions.checkArgument(
             ofVertex instanceof Probabilistic<?>,
             "Cannot get logProb gradient on non-probabilistic vertex %s", ofVertex
@@ -124,35 +235,59 @@ public class LogProbGradientCalculator {
         Set<? extends Vertex> verticesWithNonzeroDiff = verticesWithNonzeroDiffWrtLatent.get(ofVertex);
         final Map<Vertex, DoubleTensor> dlogProbOfVertexWrtVertices = ((Probabilistic<?>) ofVertex).dLogProbAtValue(verticesWithNonzeroDiff);
 
-        LogProbGradients dOfWrtLatentsAccumulated = new LogProbGradients();
-
         for (Map.Entry<Vertex, DoubleTensor> dlogProbWrtVertex : dlogProbOfVertexWrtVertices.entrySet()) {
 
             Vertex vertexWithDiff = dlogProbWrtVertex.getKey();
             DoubleTensor dLogProbOfWrtVertexWithDiff = dlogProbWrtVertex.getValue();
 
             if (vertexWithDiff.equals(ofVertex)) {
-                dOfWrtLatentsAccumulated.putWithRespectTo(vertexWithDiff.getId(), dLogProbOfWrtVertexWithDiff);
+                gradients.addWithRespectTo(vertexWithDiff.getId(), dLogProbOfWrtVertexWithDiff);
             } else {
 
+                //ensures values and shapes of lazily evaluated vertices are set before the sweep
+                vertexWithDiff.getValue();
+
                 ReverseModePartialDerivative partialWrtVertexWithDiff = new ReverseModePartialDerivative(new long[0], dLogProbOfWrtVertexWithDiff);
 
                 ReverseModePartialDerivative correctForScalarReverse = AutoDiffBroadcast.correctForBroadcastPartialReverse(
                     partialWrtVertexWithDiff, dLogProbOfWrtVertexWithDiff.getShape(), vertexWithDiff.getShape()
                 );
 
-                PartialsOf dOfWrtLatentsContributionFromParent = Differentiator.reverseModeAutoDiff(
-                    vertexWithDiff,
-                    correctForScalarReverse,
-                    this.parentToLatentLookup.get(vertexWithDiff)
-                );
-
-                dOfWrtLatentsAccumulated = dOfWrtLatentsAccumulated.add(dOfWrtLatentsContributionFromParent);
+                accumulate(vertexWithDiff, correctForScalarReverse, gradients, adjoints, ownedAdjoints);
             }
+        }
+    }
+
+    /**
+     * Adds a partial derivative of the log prob with respect to a vertex to the gradient, if the vertex is latent,
+     * or otherwise to the adjoint of the vertex, if it is on the tape. An adjoint is only added to in place once it
+     * has been copied, as partials may be shared between vertices.
+     */
+    private void accumulate(Vertex wrtVertex,
+                            ReverseModePartialDerivative partial,
+                            LogProbGradients gradients,
+                            ReverseModePartialDerivative[] adjoints,
+                            boolean[] ownedAdjoints) {
+
+        if (latentVertices.contains(wrtVertex)) {
+            gradients.addWithRespectTo(wrtVertex.getId(), partial.get());
+            return;
+        }
 
+        Integer position = tapePositions.get(wrtVertex);
+        if (position == null) {
+            return;
         }
 
-        return dOfWrtLatentsAccumulated;
+        ReverseModePartialDerivative existing = adjoints[position];
+        if (existing == null) {
+            adjoints[position] = partial;
+        } else if (ownedAdjoints[position]) {
+            adjoints[position] = new ReverseModePartialDerivative(existing.getOfShape(), existing.get().plusInPlace(partial.get()));
+        } else {
+            adjoints[position] = existing.add(partial);
+            ownedAdjoints[position] = true;
+        }
     }
 
 }
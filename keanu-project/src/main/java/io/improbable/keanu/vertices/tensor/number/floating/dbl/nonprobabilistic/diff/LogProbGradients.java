@@ -40,6 +40,16 @@ public class LogProbGradients {
         return this;
     }
 
+    /**
+     * Adds to the gradient with respect to a vertex. The given value is not modified.
+     *
+     * @param id    the id of the vertex
+     * @param value the gradient to add
+     */
+    public void addWithRespectTo(VertexId id, DoubleTensor value) {
+        putPartial(id, value);
+    }
+
     private void putPartial(VertexId id, DoubleTensor value) {
         final DoubleTensor existingPartialDerivative = partials.get(id);
 
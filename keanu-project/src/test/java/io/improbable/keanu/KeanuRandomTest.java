@@ -61,4 +61,56 @@ public class KeanuRandomTest {
         DoubleTensor A = random.nextGaussian(new long[]{1000}).times(5.0);
         Assert.assertEquals(5.0, A.standardDeviation().scalar(), 0.1);
     }
+
+    @Test
+    public void bulkFillsDrawTheSameNumbersAsSingleDraws() {
+        double[] doubles = new double[5];
+        double[] gaussians = new double[5];
+        new KeanuRandom(1).nextDouble(doubles);
+        new KeanuRandom(1).nextGaussian(gaussians);
+
+        KeanuRandom doubleRandom = new KeanuRandom(1);
+        KeanuRandom gaussianRandom = new KeanuRandom(1);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(doubleRandom.nextDouble(), doubles[i], 0.0);
+            Assert.assertEquals(gaussianRandom.nextGaussian(), gaussians[i], 0.0);
+        }
+    }
+
+    @Test
+    public void splittableRandomsAreReproducible() {
+        KeanuRandom first = KeanuRandom.splittable(1);
+        KeanuRandom second = KeanuRandom.splittable(1);
+        KeanuRandom firstSplit = first.split();
+        KeanuRandom secondSplit = second.split();
+
+        Assert.assertArrayEquals(first.nextGaussian(new long[]{10}).asFlatDoubleArray(), second.nextGaussian(new long[]{10}).asFlatDoubleArray(), 0.0);
+        Assert.assertArrayEquals(firstSplit.nextDouble(new long[]{10}).asFlatDoubleArray(), secondSplit.nextDouble(new long[]{10}).asFlatDoubleArray(), 0.0);
+        Assert.assertEquals(first.nextLong(), second.nextLong());
+    }
+
+    @Test
+    public void aSplitRandomDrawsDifferentNumbers() {
+        KeanuRandom parent = KeanuRandom.splittable(1);
+        KeanuRandom child = parent.split();
+
+        Assert.assertNotEquals(parent.nextLong(), child.nextLong());
+        Assert.assertNotEquals(new KeanuRandom(1).split().nextLong(), new KeanuRandom(1).nextLong());
+    }
+
+    @Test
+    public void splittableRandomsDrawFromTheRightDistributions() {
+        KeanuRandom splittable = KeanuRandom.splittable(1);
+
+        DoubleTensor uniforms = splittable.nextDouble(new long[]{100000});
+        DoubleTensor gaussians = splittable.nextGaussian(new long[]{100000});
+        Assert.assertEquals(0.5, uniforms.mean().scalar(), 0.01);
+        Assert.assertEquals(1.0 / 12, uniforms.standardDeviation().scalar() * uniforms.standardDeviation().scalar(), 0.002);
+        Assert.assertEquals(0.0, gaussians.mean().scalar(), 0.02);
+        Assert.assertEquals(1.0, gaussians.standardDeviation().scalar(), 0.02);
+        for (int i = 0; i < 1000; i++) {
+            int value = splittable.nextInt(7);
+            Assert.assertTrue(value >= 0 && value < 7);
+        }
+    }
 }
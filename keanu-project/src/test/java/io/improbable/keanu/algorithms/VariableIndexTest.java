@@ -0,0 +1,70 @@
+package io.improbable.keanu.algorithms;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class VariableIndexTest {
+
+    private final GaussianVertex A = new GaussianVertex(0, 1);
+    private final GaussianVertex B = new GaussianVertex(0, 1);
+    private final GaussianVertex C = new GaussianVertex(0, 1);
+    private final List<Vertex> vertices = Arrays.asList(C, A, B);
+
+    @Test
+    public void positionsFollowTheOrderOfTheVariables() {
+        VariableIndex<Vertex> index = VariableIndex.of(vertices);
+
+        assertEquals(3, index.size());
+        assertEquals(0, index.indexOf(C.getId()));
+        assertEquals(1, index.indexOf(A.getId()));
+        assertEquals(2, index.indexOf(B.getId()));
+        assertEquals(A, index.get(1));
+    }
+
+    @Test
+    public void unindexedVariablesHaveNoPosition() {
+        VariableIndex<Vertex> index = VariableIndex.of(Arrays.asList(A, B));
+
+        assertEquals(-1, index.indexOf(C.getId()));
+        assertFalse(index.contains(C.getId()));
+    }
+
+    @Test
+    public void canConvertBetweenArraysAndMaps() {
+        VariableIndex<Vertex> index = VariableIndex.of(vertices);
+        Map<VariableReference, DoubleTensor> values = new HashMap<>();
+        values.put(A.getId(), DoubleTensor.scalar(1.0));
+        values.put(B.getId(), DoubleTensor.scalar(2.0));
+        values.put(C.getId(), DoubleTensor.scalar(3.0));
+
+        DoubleTensor[] valuesByPosition = index.toArray(values, new DoubleTensor[3]);
+
+        assertArrayEquals(new DoubleTensor[]{DoubleTensor.scalar(3.0), DoubleTensor.scalar(1.0), DoubleTensor.scalar(2.0)}, valuesByPosition);
+        assertEquals(values, index.toMap(valuesByPosition));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotIndexAVariableTwice() {
+        VariableIndex.of(Arrays.asList(A, A));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotConvertAMapWithMissingValues() {
+        VariableIndex<Vertex> index = VariableIndex.of(vertices);
+        Map<VariableReference, DoubleTensor> values = new HashMap<>();
+        values.put(A.getId(), DoubleTensor.scalar(1.0));
+
+        index.toArray(values, new DoubleTensor[3]);
+    }
+}
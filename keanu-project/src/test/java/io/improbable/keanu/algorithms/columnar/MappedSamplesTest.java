@@ -0,0 +1,165 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import io.improbable.keanu.algorithms.NetworkSample;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.mcmc.NetworkSamplesGenerator;
+import io.improbable.keanu.algorithms.mcmc.SamplingAlgorithm;
+import io.improbable.keanu.algorithms.mcmc.SamplingUtil;
+import io.improbable.keanu.backend.StringVariableReference;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.util.status.StatusBar;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MappedSamplesTest {
+
+    private static final VariableReference TENSOR_VARIABLE = new StringVariableReference("tensor");
+    private static final VariableReference SCALAR_VARIABLE = new StringVariableReference("scalar");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void generatorWritesSamplesThatCanBeReadBackAndReopened() throws Exception {
+        Path directory = folder.newFolder().toPath();
+
+        NetworkSamples samples = new NetworkSamplesGenerator(new CountingSamplingAlgorithm(), StatusBar::new)
+            .spillToDisk(directory)
+            .generate(20);
+
+        assertSamplesAreCounts(samples, 20);
+        assertTrue(Files.exists(directory.resolve("index.txt")));
+        assertTrue(Files.exists(directory.resolve("logProbs.bin")));
+
+        NetworkSamples reopened = MappedSamples.open(directory);
+        assertSamplesAreCounts(reopened, 20);
+    }
+
+    @Test
+    public void canReopenSamplesKeyedByOriginalVariables() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        VariableReference variable = () -> "tensor";
+
+        new NetworkSamplesGenerator(new CountingSamplingAlgorithm(), StatusBar::new)
+            .spillToDisk(directory)
+            .generate(5);
+
+        NetworkSamples reopened = MappedSamples.open(directory, Collections.singletonList(variable));
+        assertEquals(DoubleTensor.create(new double[]{4, 8, 12}, 3), reopened.<DoubleTensor>get(variable).asList().get(4));
+    }
+
+    @Test
+    public void storeGrowsAcrossSegmentsAndKeepsSampleShapes() throws Exception {
+        Path file = folder.newFile().toPath();
+        int largeSampleLength = 700_000;
+        double[] large = new double[largeSampleLength];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = i;
+        }
+
+        try (MappedDoubleColumnStore store = MappedDoubleColumnStore.create(file)) {
+            store.append(large, new long[]{largeSampleLength});
+            store.append(large, new long[]{largeSampleLength});
+            store.append(2.5);
+
+            store.flush();
+            MappedDoubleColumnStore reopened = MappedDoubleColumnStore.open(file, store.describeBlocks());
+
+            assertEquals(3, reopened.getSampleCount());
+            assertEquals(largeSampleLength - 1, reopened.get(2L * largeSampleLength - 1), 0.0);
+            assertEquals(2.5, reopened.get(2L * largeSampleLength), 0.0);
+            assertArrayEquals(new long[0], reopened.getSampleShape(2));
+        }
+    }
+
+    @Test
+    public void closingTheStoreTruncatesItsFileToTheValuesWritten() throws Exception {
+        Path file = folder.newFile().toPath();
+
+        MappedDoubleColumnStore store = MappedDoubleColumnStore.create(file);
+        store.append(new double[]{1, 2, 3}, new long[]{3});
+        store.append(4.5);
+        store.close();
+
+        assertEquals(4 * Double.BYTES, Files.size(file));
+        assertEquals(4.5, store.get(3), 0.0);
+
+        MappedDoubleColumnStore reopened = MappedDoubleColumnStore.open(file, store.describeBlocks());
+        assertEquals(2, reopened.getSampleCount());
+        assertEquals(4.5, reopened.get(3), 0.0);
+    }
+
+    @Test
+    public void generatorClosesItsFilesWhenSamplingThrows() throws Exception {
+        Path directory = folder.newFolder().toPath();
+        CountingSamplingAlgorithm algorithm = new CountingSamplingAlgorithm() {
+            @Override
+            public void sample(Map<VariableReference, List<?>> samples, List<Double> logOfMasterPForEachSample) {
+                super.sample(samples, logOfMasterPForEachSample);
+                if (samples.get(SCALAR_VARIABLE).size() == 3) {
+                    throw new IllegalStateException("sampling failed");
+                }
+            }
+        };
+
+        try {
+            new NetworkSamplesGenerator(algorithm, StatusBar::new)
+                .spillToDisk(directory)
+                .generate(20);
+            fail("Expected sampling to throw");
+        } catch (IllegalStateException e) {
+            assertEquals("sampling failed", e.getMessage());
+        }
+
+        assertEquals(3 * Double.BYTES, Files.size(directory.resolve("logProbs.bin")));
+        assertFalse(Files.exists(directory.resolve("index.txt")));
+    }
+
+    private static void assertSamplesAreCounts(NetworkSamples samples, int sampleCount) {
+        assertEquals(sampleCount, samples.size());
+        List<DoubleTensor> tensors = samples.<DoubleTensor>get(TENSOR_VARIABLE).asList();
+        List<Double> scalars = samples.<Double>get(SCALAR_VARIABLE).asList();
+        for (int i = 0; i < sampleCount; i++) {
+            assertEquals(DoubleTensor.create(new double[]{i, 2 * i, 3 * i}, 3), tensors.get(i));
+            assertEquals(-i, scalars.get(i), 0.0);
+            assertEquals(i * 0.5, samples.getLogOfMasterP(i), 0.0);
+        }
+    }
+
+    private static class CountingSamplingAlgorithm implements SamplingAlgorithm {
+
+        private int count = 0;
+
+        @Override
+        public void step() {
+            count++;
+        }
+
+        @Override
+        public void sample(Map<VariableReference, List<?>> samples, List<Double> logOfMasterPForEachSample) {
+            SamplingUtil.addSampleForVariable(TENSOR_VARIABLE, DoubleTensor.create(new double[]{count, 2 * count, 3 * count}, 3), samples);
+            SamplingUtil.addSampleForVariable(SCALAR_VARIABLE, (double) -count, samples);
+            logOfMasterPForEachSample.add(count * 0.5);
+            step();
+        }
+
+        @Override
+        public NetworkSample sample() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package io.improbable.keanu.algorithms.columnar;
+
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertexSamples;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SampleColumnTest {
+
+    private List<DoubleTensor> tensors;
+    private DoubleTensorSampleColumn column;
+
+    @Before
+    public void setup() {
+        tensors = new ArrayList<>();
+        column = new DoubleTensorSampleColumn();
+        for (int i = 0; i < 10; i++) {
+            DoubleTensor sample = DoubleTensor.create(new double[]{i, i * i, -i, 0.5 * i}, 2, 2);
+            tensors.add(sample);
+            column.add(sample);
+        }
+    }
+
+    @Test
+    public void readsBackTheSamplesThatWereAdded() {
+        assertEquals(tensors, column);
+    }
+
+    @Test
+    public void subListIsAViewOfTheColumn() {
+        DoubleTensorSampleColumn dropped = column.subList(3, 10);
+
+        assertEquals(tensors.subList(3, 10), dropped);
+        assertEquals(tensors.subList(5, 8), dropped.subList(2, 5));
+    }
+
+    @Test
+    public void downSampleTakesEveryNthSample() {
+        DoubleTensorSampleColumn downSampled = column.downSample(3);
+
+        assertEquals(Arrays.asList(tensors.get(0), tensors.get(3), tensors.get(6), tensors.get(9)), downSampled);
+        assertEquals(Arrays.asList(tensors.get(3), tensors.get(9)), downSampled.subList(1, 4).downSample(2));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void cannotAddToAView() {
+        column.subList(0, 2).add(tensors.get(0));
+    }
+
+    @Test
+    public void meanAndVarianceMatchTheTensorCalculation() {
+        DoubleVertexSamples fromList = new DoubleVertexSamples(new ArrayList<>(tensors));
+        DoubleVertexSamples fromColumn = new DoubleVertexSamples(column);
+
+        assertArrayEquals(fromList.getAverages().asFlatDoubleArray(), fromColumn.getAverages().asFlatDoubleArray(), 1e-10);
+        assertArrayEquals(fromList.getVariances().asFlatDoubleArray(), fromColumn.getVariances().asFlatDoubleArray(), 1e-10);
+        assertEquals(fromList.asTensor(), fromColumn.asTensor());
+    }
+
+    @Test
+    public void autocorrelationMatchesTheTensorCalculation() {
+        DoubleVertexSamples fromList = new DoubleVertexSamples(new ArrayList<>(tensors));
+        DoubleVertexSamples fromColumn = new DoubleVertexSamples(column);
+
+        assertArrayEquals(
+            fromList.getAutocorrelation(1, 0).asFlatDoubleArray(),
+            fromColumn.getAutocorrelation(1, 0).asFlatDoubleArray(),
+            1e-10
+        );
+    }
+
+    @Test
+    public void samplesWithDifferentShapesAreStoredInSeparateBlocks() {
+        DoubleTensorSampleColumn mixed = new DoubleTensorSampleColumn();
+        List<DoubleTensor> expected = Arrays.asList(
+            DoubleTensor.scalar(1.0),
+            DoubleTensor.create(2.0, 3.0),
+            DoubleTensor.create(4.0, 5.0),
+            DoubleTensor.scalar(6.0)
+        );
+        mixed.addAll(expected);
+
+        assertEquals(expected, mixed);
+        assertEquals(expected.subList(1, 4), mixed.subList(1, 4));
+    }
+
+    @Test
+    public void integerAndBooleanColumnsReadBackTheirSamples() {
+        IntegerTensorSampleColumn integers = new IntegerTensorSampleColumn();
+        BooleanTensorSampleColumn booleans = new BooleanTensorSampleColumn();
+        for (int i = 0; i < 5; i++) {
+            integers.add(IntegerTensor.create(new int[]{i, 2 * i}, 2));
+            booleans.add(BooleanTensor.create(new boolean[]{i % 2 == 0, i % 3 == 0}, 2));
+        }
+
+        assertEquals(IntegerTensor.create(new int[]{3, 6}, 2), integers.get(3));
+        assertEquals(BooleanTensor.create(new boolean[]{true, true}, 2), booleans.get(0));
+        assertArrayEquals(new double[]{2.0, 4.0}, integers.mean().asFlatDoubleArray(), 1e-10);
+    }
+
+    @Test
+    public void createsColumnsForTensorSamples() {
+        assertThat(SampleColumns.newListFor(DoubleTensor.scalar(1.0)), instanceOf(DoubleTensorSampleColumn.class));
+        assertThat(SampleColumns.newListFor(IntegerTensor.scalar(1)), instanceOf(IntegerTensorSampleColumn.class));
+        assertThat(SampleColumns.newListFor(BooleanTensor.scalar(true)), instanceOf(BooleanTensorSampleColumn.class));
+        assertThat(SampleColumns.newListFor(1.0), instanceOf(DoubleSampleColumn.class));
+        assertThat(SampleColumns.newListFor("a"), instanceOf(ArrayList.class));
+    }
+}
@@ -0,0 +1,104 @@
+package io.improbable.keanu.algorithms.graphtraversal;
+
+import com.google.common.collect.ImmutableSet;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CascadePlanCacheTest {
+
+    private DoubleVertex A;
+    private DoubleVertex B;
+    private DoubleVertex C;
+    private DoubleVertex D;
+    private DoubleVertex E;
+
+    @Before
+    public void setup() {
+        A = new GaussianVertex(0, 1);
+        B = new GaussianVertex(0, 1);
+        C = A.times(2);
+        D = C.plus(B);
+        E = new GaussianVertex(D, 1);
+    }
+
+    @Test
+    public void planContainsNonProbabilisticDescendantsInTopologicalOrder() {
+        CascadePlan plan = CascadePlan.of(Collections.singletonList(A));
+
+        assertEquals(3, plan.size());
+    }
+
+    @Test
+    public void cascadesTheSameAsVertexValuePropagation() {
+        CascadePlanCache cache = new CascadePlanCache();
+
+        for (double value = 0; value < 5; value++) {
+            A.setValue(value);
+            B.setValue(-value);
+            cache.cascadeUpdate(ImmutableSet.of(A, B));
+
+            assertEquals(value, D.getValue().scalar(), 0.0);
+        }
+    }
+
+    @Test
+    public void planIsRecalculatedWhenGraphChanges() {
+        CascadePlanCache cache = new CascadePlanCache();
+        A.setValue(1.0);
+        cache.cascadeUpdate(ImmutableSet.of(A));
+
+        CascadePlan plan = CascadePlan.of(Collections.singletonList(A));
+        DoubleVertex F = C.minus(10);
+
+        A.setValue(3.0);
+        cache.cascadeUpdate(ImmutableSet.of(A));
+
+        assertTrue(plan.isOutOfDate());
+        assertEquals(-4.0, F.getValue().scalar(), 0.0);
+    }
+
+    @Test
+    public void planIsNotOutOfDateWhenAnUnrelatedGraphChanges() {
+        CascadePlan plan = CascadePlan.of(Collections.singletonList(A));
+
+        DoubleVertex F = new GaussianVertex(0, 1);
+        F.times(2);
+
+        assertFalse(plan.isOutOfDate());
+    }
+
+    @Test
+    public void planIsOutOfDateWhenItsGraphIsJoinedToAnother() {
+        CascadePlan plan = CascadePlan.of(Collections.singletonList(A));
+        DoubleVertex F = new GaussianVertex(0, 1);
+        DoubleVertex G = F.times(2);
+
+        CascadePlan otherPlan = CascadePlan.of(Collections.singletonList(F));
+        G.plus(C);
+
+        assertTrue(plan.isOutOfDate());
+        assertTrue(otherPlan.isOutOfDate());
+    }
+
+    @Test
+    public void forgetsPlansWhenFull() {
+        CascadePlanCache cache = new CascadePlanCache(1);
+
+        A.setValue(1.0);
+        cache.cascadeUpdate(ImmutableSet.of(A));
+        B.setValue(2.0);
+        cache.cascadeUpdate(ImmutableSet.of(B));
+        A.setValue(5.0);
+        cache.cascadeUpdate(ImmutableSet.of(A));
+
+        assertEquals(12.0, D.getValue().scalar(), 0.0);
+    }
+}
@@ -0,0 +1,171 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+import io.improbable.keanu.algorithms.NetworkSample;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.util.status.StatusBar;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AsyncSampleStreamTest {
+
+    @Test
+    public void streamsSamplesInOrderAfterDroppingAndDownSampling() {
+        CountingSamplingAlgorithm algorithm = new CountingSamplingAlgorithm();
+
+        List<Double> sampleNumbers;
+        try (AsyncSampleStream samples = new NetworkSamplesGenerator(algorithm, StatusBar::new)
+            .dropCount(3)
+            .downSampleInterval(2)
+            .streamAsync(4, BackPressurePolicy.BLOCK)) {
+
+            sampleNumbers = samples.stream()
+                .limit(10)
+                .map(NetworkSample::getLogOfMasterP)
+                .collect(Collectors.toList());
+        }
+
+        for (int i = 0; i < sampleNumbers.size(); i++) {
+            assertEquals(3 + 2 * (i + 1), sampleNumbers.get(i), 0.0);
+        }
+    }
+
+    @Test
+    public void blockingSamplerWaitsForTheConsumer() throws InterruptedException {
+        CountingSamplingAlgorithm algorithm = new CountingSamplingAlgorithm();
+
+        try (AsyncSampleStream samples = new NetworkSamplesGenerator(algorithm, StatusBar::new)
+            .streamAsync(4, BackPressurePolicy.BLOCK)) {
+
+            waitForSteps(algorithm, 5);
+            Thread.sleep(50);
+
+            assertEquals(5, algorithm.steps.get());
+            assertEquals(1.0, samples.next().getLogOfMasterP(), 0.0);
+            assertEquals(0, samples.getDiscardedCount());
+        }
+    }
+
+    @Test
+    public void dropNewestKeepsTheFirstSamples() {
+        CountingSamplingAlgorithm algorithm = new CountingSamplingAlgorithm();
+
+        try (AsyncSampleStream samples = new NetworkSamplesGenerator(algorithm, StatusBar::new)
+            .streamAsync(2, BackPressurePolicy.DROP_NEWEST)) {
+
+            waitForSteps(algorithm, 50);
+
+            assertEquals(1.0, samples.next().getLogOfMasterP(), 0.0);
+            assertEquals(2.0, samples.next().getLogOfMasterP(), 0.0);
+            assertTrue(samples.getDiscardedCount() > 0);
+        }
+    }
+
+    @Test
+    public void dropOldestKeepsTheLatestSamples() {
+        CountingSamplingAlgorithm algorithm = new CountingSamplingAlgorithm();
+
+        try (AsyncSampleStream samples = new NetworkSamplesGenerator(algorithm, StatusBar::new)
+            .streamAsync(2, BackPressurePolicy.DROP_OLDEST)) {
+
+            waitForSteps(algorithm, 50);
+
+            assertTrue(samples.next().getLogOfMasterP() > 40.0);
+            assertTrue(samples.getDiscardedCount() > 0);
+        }
+    }
+
+    @Test
+    public void closingStopsTheSampler() throws InterruptedException {
+        CountingSamplingAlgorithm algorithm = new CountingSamplingAlgorithm();
+
+        AsyncSampleStream samples = new NetworkSamplesGenerator(algorithm, StatusBar::new)
+            .streamAsync(2, BackPressurePolicy.DROP_OLDEST);
+        waitForSteps(algorithm, 10);
+        samples.close();
+
+        int stepsWhenClosed = algorithm.steps.get();
+        Thread.sleep(50);
+
+        assertEquals(stepsWhenClosed, algorithm.steps.get());
+        assertFalse(samples.hasNext());
+    }
+
+    @Test
+    public void failureOfTheSamplerIsThrownToTheConsumer() {
+        IllegalStateException failure = new IllegalStateException("Sampling failed");
+        SamplingAlgorithm failingAlgorithm = new CountingSamplingAlgorithm() {
+            @Override
+            public NetworkSample sample() {
+                throw failure;
+            }
+        };
+
+        assertSamplerFailureIsThrownToTheConsumer(failingAlgorithm, failure);
+    }
+
+    @Test
+    public void errorOfTheSamplerIsThrownToTheConsumer() {
+        AssertionError failure = new AssertionError("Sampling failed");
+        SamplingAlgorithm failingAlgorithm = new CountingSamplingAlgorithm() {
+            @Override
+            public NetworkSample sample() {
+                throw failure;
+            }
+        };
+
+        assertSamplerFailureIsThrownToTheConsumer(failingAlgorithm, failure);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void doesNotAllowAnEmptyBuffer() {
+        new NetworkSamplesGenerator(new CountingSamplingAlgorithm(), StatusBar::new)
+            .streamAsync(0, BackPressurePolicy.BLOCK);
+    }
+
+    private static void assertSamplerFailureIsThrownToTheConsumer(SamplingAlgorithm failingAlgorithm, Throwable failure) {
+        try (AsyncSampleStream samples = new NetworkSamplesGenerator(failingAlgorithm, StatusBar::new)
+            .streamAsync(2, BackPressurePolicy.BLOCK)) {
+            samples.next();
+            fail("Expected the failure of the sampler to be thrown");
+        } catch (SamplerFailedException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    private static void waitForSteps(CountingSamplingAlgorithm algorithm, int steps) {
+        while (algorithm.steps.get() < steps) {
+            Thread.yield();
+        }
+    }
+
+    private static class CountingSamplingAlgorithm implements SamplingAlgorithm {
+
+        private final AtomicInteger steps = new AtomicInteger(0);
+
+        @Override
+        public void step() {
+            steps.incrementAndGet();
+        }
+
+        @Override
+        public void sample(Map<VariableReference, List<?>> samples, List<Double> logOfMasterPForEachSample) {
+            logOfMasterPForEachSample.add((double) steps.incrementAndGet());
+        }
+
+        @Override
+        public NetworkSample sample() {
+            return new NetworkSample(Collections.emptyMap(), steps.incrementAndGet());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import io.improbable.keanu.DeterministicRule;
 import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.algorithms.ProbabilisticModel;
 import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.algorithms.mcmc.proposal.PriorProposalDistribution;
 import io.improbable.keanu.algorithms.mcmc.proposal.Proposal;
 import io.improbable.keanu.algorithms.mcmc.proposal.ProposalDistribution;
@@ -20,11 +21,13 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -132,6 +135,33 @@ public class MetropolisHastingsStepTest {
         assertEquals(0.5, A.getValue(0), 1e-10);
     }
 
+    @Test
+    public void rollsBackTheProposalWhenCalculatingItsLogProbThrows() {
+        DoubleVertex A = new GaussianVertex(0, 1);
+        A.setValue(0.5);
+        DoubleVertex B = A.times(2);
+        B.eval();
+        ProbabilisticModel model = new KeanuProbabilisticModel(A.getConnectedGraph()) {
+            @Override
+            public double logProbAfter(Map<VariableReference, Object> newValues, double logProbBefore) {
+                super.logProbAfter(newValues, logProbBefore);
+                throw new IllegalStateException("log prob failed");
+            }
+        };
+
+        MetropolisHastingsStep mhStep = stepFunctionWithConstantProposal(model, 10, alwaysAccept);
+
+        try {
+            mhStep.step(Collections.singleton(A), 0.0);
+            fail("Expected the step to throw");
+        } catch (IllegalStateException e) {
+            assertEquals("log prob failed", e.getMessage());
+        }
+
+        assertEquals(0.5, A.getValue(0), 1e-10);
+        assertEquals(1.0, B.getValue(0), 1e-10);
+    }
+
     private MetropolisHastingsStep stepFunctionWithConstantProposal(ProbabilisticModel model, double constant, KeanuRandom random) {
 
         return new MetropolisHastingsStep(
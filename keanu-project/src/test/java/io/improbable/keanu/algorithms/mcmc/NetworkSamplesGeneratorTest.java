@@ -1,9 +1,12 @@
 package io.improbable.keanu.algorithms.mcmc;
 
+import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.algorithms.NetworkSample;
 import io.improbable.keanu.algorithms.NetworkSamples;
 import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.statistics.ConvergenceMonitor;
 import io.improbable.keanu.util.status.StatusBar;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
 import lombok.Value;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -16,6 +19,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -122,6 +126,36 @@ public class NetworkSamplesGeneratorTest {
         Mockito.verify(progressBar).finish();
     }
 
+    @Test
+    public void stopsSamplingWhenConverged() {
+        GaussianVertex vertex = new GaussianVertex(0, 1);
+        IndependentSamplingAlgorithm algorithm = new IndependentSamplingAlgorithm(vertex, new KeanuRandom(1));
+
+        ConvergenceMonitor monitor = ConvergenceMonitor.builder()
+            .variables(vertex)
+            .targetEffectiveSampleSize(500)
+            .build();
+
+        NetworkSamples samples = new NetworkSamplesGenerator(algorithm, StatusBar::new)
+            .stopWhenConverged(monitor)
+            .generate(100000);
+
+        assertTrue(monitor.hasConverged());
+        assertTrue(samples.size() < 100000);
+        assertEquals(0, samples.size() % 100);
+        assertEquals(samples.size(), samples.get(vertex).asList().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotMonitorAVariableThatIsNotSampled() {
+        GaussianVertex vertex = new GaussianVertex(0, 1);
+        IndependentSamplingAlgorithm algorithm = new IndependentSamplingAlgorithm(vertex, new KeanuRandom(1));
+
+        new NetworkSamplesGenerator(algorithm, StatusBar::new)
+            .stopWhenConverged(ConvergenceMonitor.builder().variables(new GaussianVertex(0, 1)).build())
+            .generate(100);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void doesNotAllowZeroDownSample() {
         TestSamplingAlgorithm algorithm = new TestSamplingAlgorithm(new AtomicInteger(0), new AtomicInteger(0));
@@ -143,6 +177,31 @@ public class NetworkSamplesGeneratorTest {
         unitUnderTest.dropCount(200).generate(100);
     }
 
+    @Value
+    private static class IndependentSamplingAlgorithm implements SamplingAlgorithm {
+
+        private final GaussianVertex vertex;
+        private final KeanuRandom random;
+
+        @Override
+        public void step() {
+            vertex.setValue(vertex.sample(random));
+        }
+
+        @Override
+        public void sample(Map<VariableReference, List<?>> samples, List<Double> logOfMasterPForEachSample) {
+            step();
+            SamplingUtil.takeSamples(samples, Collections.singletonList(vertex));
+            logOfMasterPForEachSample.add(vertex.logProb(vertex.getValue()));
+        }
+
+        @Override
+        public NetworkSample sample() {
+            step();
+            return new NetworkSample(SamplingAlgorithm.takeSample(Collections.singletonList(vertex)), vertex.logProb(vertex.getValue()));
+        }
+    }
+
     @Value
     public static class TestSamplingAlgorithm implements SamplingAlgorithm {
 
@@ -0,0 +1,115 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.Keanu;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.MultiChainNetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.testcases.SumGaussianTestCase;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.NetworkCopy;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.Vertex;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class ParallelChainsTest {
+
+    @Rule
+    public DeterministicRule rule = new DeterministicRule();
+
+    @Test
+    public void samplesFromEveryChainAreMerged() {
+        SumGaussianTestCase testCase = new SumGaussianTestCase();
+
+        MultiChainNetworkSamples samples = Keanu.Sampling.MetropolisHastings.runChains(testCase.getModel(), 4, 5000);
+
+        assertEquals(4, samples.getChainCount());
+        assertEquals(4 * 5000, samples.size());
+        for (int chainId = 0; chainId < samples.getChainCount(); chainId++) {
+            assertEquals(5000, samples.getChain(chainId).size());
+            assertEquals(chainId, samples.getChainId(chainId * 5000));
+            testCase.assertExpected(samples.getChain(chainId));
+        }
+
+        testCase.assertExpected(samples);
+    }
+
+    @Test
+    public void chainsCanTakeNoSamples() {
+        SumGaussianTestCase testCase = new SumGaussianTestCase();
+
+        MultiChainNetworkSamples samples = Keanu.Sampling.MetropolisHastings.runChains(testCase.getModel(), 2, 0);
+
+        assertEquals(2, samples.getChainCount());
+        assertEquals(0, samples.size());
+        assertEquals(0, samples.getChain(1).getDoubleTensorSamples(testCase.getA()).asList().size());
+    }
+
+    @Test
+    public void chainsDoNotChangeTheOriginalNetwork() {
+        SumGaussianTestCase testCase = new SumGaussianTestCase();
+        DoubleTensor startingA = testCase.getA().getValue();
+        DoubleTensor startingB = testCase.getB().getValue();
+
+        Keanu.Sampling.MetropolisHastings.runChains(testCase.getModel(), 2, 100);
+
+        assertEquals(startingA, testCase.getA().getValue());
+        assertEquals(startingB, testCase.getB().getValue());
+    }
+
+    @Test
+    public void chainsAreSeededIndependently() {
+        SumGaussianTestCase testCase = new SumGaussianTestCase();
+
+        MultiChainNetworkSamples samples = ParallelChains.builder()
+            .algorithmForChain(Keanu.Sampling.MetropolisHastings::withDefaultConfig)
+            .random(new KeanuRandom(1))
+            .build()
+            .getPosteriorSamples(testCase.getModel(), 2, 100);
+
+        List<DoubleTensor> firstChain = samples.getChain(0).getDoubleTensorSamples(testCase.getA()).asList();
+        List<DoubleTensor> secondChain = samples.getChain(1).getDoubleTensorSamples(testCase.getA()).asList();
+
+        assertNotEquals(firstChain, secondChain);
+    }
+
+    @Test
+    public void dropAppliesToEachChain() {
+        SumGaussianTestCase testCase = new SumGaussianTestCase();
+
+        MultiChainNetworkSamples samples = Keanu.Sampling.MetropolisHastings.runChains(testCase.getModel(), 3, 100)
+            .drop(10)
+            .downSample(2);
+
+        assertEquals(3, samples.getChainCount());
+        assertEquals(45, samples.getChain(1).size());
+        assertEquals(3 * 45, samples.size());
+    }
+
+    @Test
+    public void networkCopyHasItsOwnVerticesWithTheSameValues() {
+        SumGaussianTestCase testCase = new SumGaussianTestCase();
+        BayesianNetwork network = testCase.getModel();
+
+        NetworkCopy copy = NetworkCopy.of(network);
+
+        List<Vertex> latents = network.getLatentVertices();
+        List<Vertex> copiedLatents = latents.stream()
+            .map(v -> copy.getCopyOf(v.getId()))
+            .collect(Collectors.toList());
+
+        for (int i = 0; i < latents.size(); i++) {
+            assertNotSame(latents.get(i), copiedLatents.get(i));
+            assertEquals(latents.get(i).getValue(), copiedLatents.get(i).getValue());
+            assertEquals(latents.get(i).getId(), copy.getOriginalOf(copiedLatents.get(i).getId()));
+        }
+        assertEquals(network.getObservedVertices().size(), copy.getNetwork().getObservedVertices().size());
+    }
+}
@@ -0,0 +1,100 @@
+package io.improbable.keanu.algorithms.mcmc;
+
+import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.Keanu;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.proposal.GaussianProposalDistribution;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ParallelTemperingTest {
+
+    @Rule
+    public DeterministicRule rule = new DeterministicRule();
+
+    private DoubleVertex x;
+    private BayesianNetwork network;
+
+    @Before
+    public void setup() {
+        x = new GaussianVertex(0.0, 5.0);
+        x.setValue(3.0);
+        DoubleVertex y = new GaussianVertex(x.times(x), 2.0);
+        y.observe(9.0);
+
+        network = new BayesianNetwork(x.getConnectedGraph());
+    }
+
+    @Test
+    public void coldChainMovesBetweenModes() {
+        NetworkSamples samples = localProposalTempering()
+            .pool(null)
+            .build()
+            .getPosteriorSamples(network, network.getLatentVertices(), 20000)
+            .drop(2000);
+
+        List<DoubleTensor> xSamples = samples.getDoubleTensorSamples(x).asList();
+        long positiveCount = xSamples.stream().filter(sample -> sample.scalar() > 0).count();
+        double proportionPositive = (double) positiveCount / xSamples.size();
+        double meanOfMagnitude = xSamples.stream().mapToDouble(sample -> Math.abs(sample.scalar())).average().getAsDouble();
+
+        assertEquals(0.5, proportionPositive, 0.15);
+        assertEquals(3.0, meanOfMagnitude, 0.3);
+    }
+
+    @Test
+    public void samplesDoNotDependOnHowChainsAreScheduled() {
+        NetworkSamples sequential = localProposalTempering()
+            .random(new KeanuRandom(1))
+            .pool(null)
+            .build()
+            .getPosteriorSamples(network, 500);
+
+        NetworkSamples concurrent = localProposalTempering()
+            .random(new KeanuRandom(1))
+            .build()
+            .getPosteriorSamples(network, 500);
+
+        assertEquals(sequential.getDoubleTensorSamples(x).asList(), concurrent.getDoubleTensorSamples(x).asList());
+    }
+
+    @Test
+    public void doesNotChangeTheOriginalNetwork() {
+        Keanu.Sampling.ParallelTempering.withDefaultConfig().getPosteriorSamples(network, 100);
+
+        assertEquals(DoubleTensor.scalar(3.0), x.getValue());
+    }
+
+    @Test
+    public void geometricTemperaturesStartAtOneAndEndAtTheMax() {
+        assertArrayEquals(new double[]{1.0, 2.0, 4.0, 8.0}, ParallelTempering.geometricTemperatures(4, 8.0), 1e-12);
+        assertArrayEquals(new double[]{1.0}, ParallelTempering.geometricTemperatures(1, 8.0), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void coldestTemperatureMustBeOne() {
+        ParallelTempering.builder().temperatures(2.0, 4.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void temperaturesMustIncrease() {
+        ParallelTempering.builder().temperatures(1.0, 4.0, 2.0);
+    }
+
+    private ParallelTempering.ParallelTemperingBuilder localProposalTempering() {
+        return ParallelTempering.builder()
+            .proposalDistributionForChain(model -> new GaussianProposalDistribution(model.getLatentVariables(), DoubleTensor.scalar(0.5)))
+            .temperatures(ParallelTempering.geometricTemperatures(6, 40.0));
+    }
+}
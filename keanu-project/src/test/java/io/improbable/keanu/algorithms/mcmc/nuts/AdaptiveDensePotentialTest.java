@@ -0,0 +1,95 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.collect.ImmutableMap;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.apache.commons.math3.stat.correlation.Covariance;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveDensePotentialTest {
+
+    private VectorLayout layout;
+
+    @Before
+    public void setup() {
+        layout = VectorLayout.of(ImmutableMap.of(
+            new GaussianVertex(0, 1).getReference(), DoubleTensor.create(0, 0)
+        ));
+    }
+
+    @Test
+    public void usesInitialVarianceBeforeTheFirstWindowEnds() {
+        AdaptiveDensePotential potential = new AdaptiveDensePotential(0, 2, 10, 100);
+        potential.initialize(layout);
+
+        double[] momentum = new double[]{0.5, -1.0};
+        double[] velocity = new double[2];
+        potential.velocity(momentum, velocity);
+
+        assertArrayEquals(new double[]{1.0, -2.0}, velocity, 1e-9);
+        assertEquals(0.5 * (0.5 + 2.0), potential.kineticEnergy(momentum, velocity), 1e-9);
+    }
+
+    @Test
+    public void adaptsToCorrelatedPositions() {
+        KeanuRandom random = new KeanuRandom(1);
+        int windowSize = 2000;
+
+        AdaptiveDensePotential potential = new AdaptiveDensePotential(0, 1, 0, windowSize);
+        potential.initialize(layout);
+
+        double[][] samples = new double[windowSize][];
+        for (int i = 0; i < windowSize; i++) {
+            double x = random.nextGaussian();
+            samples[i] = new double[]{x, x + 0.5 * random.nextGaussian()};
+            potential.update(samples[i]);
+        }
+
+        double[][] expected = new Covariance(samples, false).getCovarianceMatrix().getData();
+        double[] covariance = potential.getCovariance();
+
+        assertEquals(expected[0][0], covariance[0], 1e-2);
+        assertEquals(expected[0][1], covariance[1], 1e-2);
+        assertEquals(expected[1][0], covariance[2], 1e-2);
+        assertEquals(expected[1][1], covariance[3], 1e-2);
+    }
+
+    /**
+     * The covariance of the random momentum should be the inverse of the position covariance
+     */
+    @Test
+    public void randomMomentumCovarianceIsInverseOfPositionCovariance() {
+        KeanuRandom random = new KeanuRandom(1);
+        int windowSize = 2000;
+
+        AdaptiveDensePotential potential = new AdaptiveDensePotential(0, 1, 0, windowSize);
+        potential.initialize(layout);
+
+        for (int i = 0; i < windowSize; i++) {
+            double x = random.nextGaussian();
+            potential.update(new double[]{x, x + 0.5 * random.nextGaussian()});
+        }
+
+        double[][] momenta = new double[20000][2];
+        for (double[] momentum : momenta) {
+            potential.randomMomentum(random, momentum);
+        }
+
+        double[][] momentumCovariance = new Covariance(momenta, false).getCovarianceMatrix().getData();
+        double[] positionCovariance = potential.getCovariance();
+
+        double[] product = new double[]{
+            momentumCovariance[0][0] * positionCovariance[0] + momentumCovariance[0][1] * positionCovariance[2],
+            momentumCovariance[0][0] * positionCovariance[1] + momentumCovariance[0][1] * positionCovariance[3],
+            momentumCovariance[1][0] * positionCovariance[0] + momentumCovariance[1][1] * positionCovariance[2],
+            momentumCovariance[1][0] * positionCovariance[1] + momentumCovariance[1][1] * positionCovariance[3]
+        };
+
+        assertArrayEquals(new double[]{1, 0, 0, 1}, product, 0.1);
+    }
+}
@@ -0,0 +1,121 @@
+package io.improbable.keanu.algorithms.mcmc.nuts;
+
+import com.google.common.collect.ImmutableMap;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.apache.commons.math3.stat.descriptive.SummaryStatistics;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class AdaptiveDiagonalPotentialTest {
+
+    @Test
+    public void layoutPacksAndUnpacksVariablesInOrder() {
+        DoubleVertex a = new GaussianVertex(new long[]{2}, 0, 1);
+        DoubleVertex b = new GaussianVertex(0, 1);
+        a.setValue(DoubleTensor.create(1, 2));
+        b.setValue(3);
+
+        Map<VariableReference, DoubleTensor> values = ImmutableMap.of(a.getReference(), a.getValue(), b.getReference(), b.getValue());
+        VectorLayout layout = VectorLayout.of(values);
+
+        double[] packed = layout.pack(values, new double[layout.getLength()]);
+
+        assertArrayEquals(new double[]{1, 2, 3}, packed, 0.0);
+        assertEquals(values, layout.unpackToMap(packed));
+    }
+
+    @Test
+    public void layoutCanUnpackIntoTheSameTensors() {
+        Map<VariableReference, DoubleTensor> values = ImmutableMap.of(
+            new GaussianVertex(new long[]{2}, 0, 1).getReference(), DoubleTensor.create(1, 2),
+            new GaussianVertex(0, 1).getReference(), DoubleTensor.scalar(3)
+        );
+        VectorLayout layout = VectorLayout.of(values);
+
+        DoubleTensor[] unpacked = layout.unpack(new double[]{1, 2, 3}, new DoubleTensor[2]);
+        DoubleTensor first = unpacked[0];
+        layout.unpack(new double[]{4, 5, 6}, unpacked);
+
+        assertSame(first, unpacked[0]);
+        assertEquals(DoubleTensor.create(4, 5), unpacked[0]);
+        assertEquals(DoubleTensor.scalar(6), unpacked[1]);
+    }
+
+    @Test
+    public void matchesQuadraticPotentialBeforeAnyUpdate() {
+        DoubleVertex v = new GaussianVertex(0, 1);
+        v.setValue(1);
+
+        Map<VariableReference, DoubleTensor> position = ImmutableMap.of(v.getReference(), v.getValue());
+
+        AdaptiveDiagonalPotential potential = new AdaptiveDiagonalPotential(0, 1, 10, 100);
+        potential.initialize(position);
+
+        Map<VariableReference, DoubleTensor> momentum = ImmutableMap.of(v.getReference(), DoubleTensor.scalar(0.5));
+        Map<VariableReference, DoubleTensor> velocity = potential.getVelocity(momentum);
+
+        double kineticEnergy = potential.getKineticEnergy(momentum, velocity);
+
+        assertEquals(0.5, velocity.get(v.getReference()).scalar(), 1e-6);
+        assertEquals(0.5 * Math.pow(0.5, 2), kineticEnergy, 1e-6);
+    }
+
+    @Test
+    public void adaptsTheSameAsQuadraticPotential() {
+        DoubleVertex v = new GaussianVertex(0, 1);
+        v.setValue(1.0);
+
+        Map<VariableReference, DoubleTensor> position = ImmutableMap.of(v.getReference(), v.getValue());
+
+        KeanuRandom random = new KeanuRandom(0);
+        int windowSize = 100;
+
+        AdaptiveDiagonalPotential diagonal = new AdaptiveDiagonalPotential(0, 1, 10, windowSize);
+        AdaptiveQuadraticPotential quadratic = new AdaptiveQuadraticPotential(0, 1, 10, windowSize);
+        diagonal.initialize(position);
+        quadratic.initialize(position);
+
+        for (int i = 0; i < 3 * windowSize + 1; i++) {
+            double r = random.nextGaussian() * 2;
+            diagonal.update(new double[]{r});
+            quadratic.update(ImmutableMap.of(v.getReference(), DoubleTensor.scalar(r)));
+
+            assertEquals(
+                quadratic.getStandardDeviation().get(v.getReference()).scalar(),
+                Math.sqrt(diagonal.getVariance()[0]),
+                1e-9
+            );
+        }
+    }
+
+    @Test
+    public void randomMomentumVarianceIsInverseOfPositionVariance() {
+        KeanuRandom random = new KeanuRandom(0);
+
+        AdaptiveDiagonalPotential potential = new AdaptiveDiagonalPotential(0, 1, 0, 1500);
+        potential.initialize(VectorLayout.of(ImmutableMap.of(new GaussianVertex(0, 1).getReference(), DoubleTensor.scalar(1.0))));
+
+        double targetStandardDeviation = 2;
+        for (int i = 0; i < 1000; i++) {
+            potential.update(new double[]{random.nextGaussian() * targetStandardDeviation});
+        }
+
+        SummaryStatistics statistics = new SummaryStatistics();
+        double[] momentum = new double[1];
+        for (int i = 0; i < 1000; i++) {
+            potential.randomMomentum(random, momentum);
+            statistics.addValue(momentum[0]);
+        }
+
+        assertEquals(1.0 / targetStandardDeviation, statistics.getStandardDeviation(), 1e-2);
+    }
+}
@@ -120,6 +120,63 @@ public class NUTSTest {
         MCMCTestDistributions.samplesMatchesSumOfGaussians(44.0, posteriorSamples.get(A).asList(), posteriorSamples.get(B).asList());
     }
 
+    @Test
+    public void samplesContinuousPriorWithFlatVectors() {
+
+        BayesianNetwork bayesNet = MCMCTestDistributions.createSumOfGaussianDistribution(20.0, 1.0, 46., 15.0);
+        ProbabilisticModelWithGradient model = new KeanuProbabilisticModelWithGradient(bayesNet);
+
+        int sampleCount = 500;
+        NUTS nuts = NUTS.builder()
+            .adaptCount(sampleCount)
+            .flatVectorsEnabled(true)
+            .build();
+
+        NetworkSamples posteriorSamples = nuts.getPosteriorSamples(
+            model,
+            model.getLatentVariables(),
+            sampleCount
+        ).drop(sampleCount / 4);
+
+        DoubleVertex A = bayesNet.getContinuousLatentVertices().get(0);
+        DoubleVertex B = bayesNet.getContinuousLatentVertices().get(1);
+
+        MCMCTestDistributions.samplesMatchesSumOfGaussians(44.0, posteriorSamples.get(A).asList(), posteriorSamples.get(B).asList());
+    }
+
+    @Test
+    public void samplesContinuousPriorWithDenseMassMatrix() {
+
+        BayesianNetwork bayesNet = MCMCTestDistributions.createSumOfGaussianDistribution(20.0, 1.0, 46., 15.0);
+        ProbabilisticModelWithGradient model = new KeanuProbabilisticModelWithGradient(bayesNet);
+
+        int sampleCount = 500;
+        NUTS nuts = NUTS.builder()
+            .adaptCount(sampleCount)
+            .flatVectorsEnabled(true)
+            .denseMassMatrixEnabled(true)
+            .build();
+
+        NetworkSamples posteriorSamples = nuts.getPosteriorSamples(
+            model,
+            model.getLatentVariables(),
+            sampleCount
+        ).drop(sampleCount / 4);
+
+        DoubleVertex A = bayesNet.getContinuousLatentVertices().get(0);
+        DoubleVertex B = bayesNet.getContinuousLatentVertices().get(1);
+
+        MCMCTestDistributions.samplesMatchesSumOfGaussians(44.0, posteriorSamples.get(A).asList(), posteriorSamples.get(B).asList());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void flatVectorsRequireAVectorPotential() {
+        NUTS.builder()
+            .potential(new AdaptiveQuadraticPotential(0, 1, 10.0, 100))
+            .flatVectorsEnabled(true)
+            .build();
+    }
+
     @Category(Slow.class)
     @Test
     public void samplesFromDonut() {
@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableMap;
 import io.improbable.keanu.KeanuRandom;
 import io.improbable.keanu.algorithms.ProbabilisticModelWithGradient;
 import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.algorithms.statistics.LogSumExp;
 import io.improbable.keanu.network.BayesianNetwork;
 import io.improbable.keanu.network.KeanuProbabilisticModelWithGradient;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
@@ -229,7 +230,7 @@ public class TreeTest {
 
         double expectedLogSumWeight = 0;
         for (int i = 0; i < tree.getTreeSize(); i++) {
-            expectedLogSumWeight = Tree.logSumExp(expectedLogSumWeight, -energyChange);
+            expectedLogSumWeight = LogSumExp.logSumExp(expectedLogSumWeight, -energyChange);
         }
         assertThat(tree.getLogSumWeight(), closeTo(expectedLogSumWeight, 1e-6));
 
@@ -243,7 +244,7 @@ public class TreeTest {
         double a = -0.25;
         double b = 0.5;
         double expected = Math.log(Math.exp(a) + Math.exp(b));
-        double actual = Tree.logSumExp(a, b);
+        double actual = LogSumExp.logSumExp(a, b);
 
         assertEquals(expected, actual, 1e-6);
     }
@@ -0,0 +1,182 @@
+package io.improbable.keanu.algorithms.mcmc.proposal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.MetropolisHastings;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.KeanuProbabilisticModel;
+import io.improbable.keanu.vertices.tensor.number.fixed.intgr.probabilistic.PoissonVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class AdaptiveProposalDistributionTest {
+
+    @Rule
+    public DeterministicRule deterministicRule = new DeterministicRule();
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void aBadlyScaledSigmaIsTunedTowardsTheTargetAcceptanceRate() {
+        GaussianVertex A = new GaussianVertex(0.0, 1.0);
+        KeanuProbabilisticModel model = new KeanuProbabilisticModel(new BayesianNetwork(A.getConnectedGraph()));
+
+        AdaptiveProposalDistribution proposalDistribution = AdaptiveProposalDistribution.builder()
+            .variables(ImmutableList.of(A))
+            .initialSigma(100.0)
+            .adaptationSteps(3000)
+            .build();
+
+        NetworkSamples samples = MetropolisHastings.builder()
+            .proposalDistribution(proposalDistribution)
+            .build()
+            .generatePosteriorSamples(model, model.getLatentVariables())
+            .dropCount(3000)
+            .generate(23000);
+
+        assertFalse(proposalDistribution.isAdapting());
+        double sigma = 100.0 * proposalDistribution.getScale(A);
+        assertThat(sigma, both(greaterThan(1.0)).and(lessThan(5.0)));
+        assertEquals(0.0, samples.getDoubleTensorSamples(A).getAverages().scalar(), 0.1);
+        assertEquals(1.0, samples.getDoubleTensorSamples(A).getVariances().scalar(), 0.15);
+    }
+
+    @Test
+    public void itLearnsTheCovarianceOfCorrelatedVariables() {
+        GaussianVertex A = new GaussianVertex(0.0, 1.0);
+        GaussianVertex B = new GaussianVertex(A, 0.1);
+        KeanuProbabilisticModel model = new KeanuProbabilisticModel(new BayesianNetwork(A.getConnectedGraph()));
+
+        AdaptiveProposalDistribution proposalDistribution = AdaptiveProposalDistribution.builder()
+            .variables(ImmutableList.of(A, B))
+            .learnCovariance(true)
+            .adaptationSteps(5000)
+            .build();
+
+        NetworkSamples samples = MetropolisHastings.builder()
+            .proposalDistribution(proposalDistribution)
+            .variableSelector(MHStepVariableSelector.FULL_VARIABLE_SELECTOR)
+            .build()
+            .generatePosteriorSamples(model, model.getLatentVariables())
+            .dropCount(5000)
+            .generate(25000);
+
+        assertFalse(proposalDistribution.isAdapting());
+        assertEquals(0.0, samples.getDoubleTensorSamples(B).getAverages().scalar(), 0.15);
+        assertEquals(1.01, samples.getDoubleTensorSamples(B).getVariances().scalar(), 0.2);
+    }
+
+    @Test
+    public void itStopsAdaptingAfterTheAdaptationSteps() {
+        DoubleVertex A = new GaussianVertex(0.0, 1.0);
+        AdaptiveProposalDistribution proposalDistribution = AdaptiveProposalDistribution.builder()
+            .variables(ImmutableList.of(A))
+            .adaptationSteps(10)
+            .build();
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(proposalDistribution.isAdapting());
+            proposalDistribution.getProposal(ImmutableSet.of(A), KeanuRandom.getDefaultRandom());
+            proposalDistribution.onProposalRejected();
+        }
+        proposalDistribution.getProposal(ImmutableSet.of(A), KeanuRandom.getDefaultRandom());
+        assertFalse(proposalDistribution.isAdapting());
+
+        double frozenScale = proposalDistribution.getScale(A);
+        assertThat(frozenScale, lessThan(1.0));
+        for (int i = 0; i < 10; i++) {
+            proposalDistribution.getProposal(ImmutableSet.of(A), KeanuRandom.getDefaultRandom());
+            proposalDistribution.onProposalRejected();
+        }
+        assertEquals(frozenScale, proposalDistribution.getScale(A), 0.0);
+    }
+
+    @Test
+    public void acceptedProposalsIncreaseTheScaleUntilItIsFrozen() {
+        DoubleVertex A = new GaussianVertex(0.0, 1.0);
+        AdaptiveProposalDistribution proposalDistribution = AdaptiveProposalDistribution.builder()
+            .variables(ImmutableList.of(A))
+            .build();
+
+        for (int i = 0; i < 3; i++) {
+            proposalDistribution.getProposal(ImmutableSet.of(A), KeanuRandom.getDefaultRandom());
+        }
+        double scale = proposalDistribution.getScale(A);
+        assertThat(scale, greaterThan(1.0));
+
+        proposalDistribution.freeze();
+        proposalDistribution.getProposal(ImmutableSet.of(A), KeanuRandom.getDefaultRandom());
+        assertFalse(proposalDistribution.isAdapting());
+        assertEquals(scale, proposalDistribution.getScale(A), 0.0);
+    }
+
+    @Test
+    public void youCanAddProposalListeners() {
+        DoubleVertex A = new GaussianVertex(0.0, 1.0);
+        ProposalListener listener = mock(ProposalListener.class);
+        AdaptiveProposalDistribution proposalDistribution = AdaptiveProposalDistribution.builder()
+            .variables(ImmutableList.of(A))
+            .listeners(ImmutableList.of(listener))
+            .build();
+
+        Proposal proposal = proposalDistribution.getProposal(ImmutableSet.of(A), KeanuRandom.getDefaultRandom());
+        verify(listener).onProposalCreated(proposal);
+
+        proposalDistribution.onProposalRejected();
+        verify(listener).onProposalRejected(proposal);
+    }
+
+    @Test
+    public void itThrowsIfYouUseItOnADiscreteVariable() {
+        PoissonVertex poisson = new PoissonVertex(1.);
+        AdaptiveProposalDistribution proposalDistribution = AdaptiveProposalDistribution.builder()
+            .variables(ImmutableList.of(poisson))
+            .build();
+
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("Adaptive proposal function cannot be used for discrete variable");
+        proposalDistribution.getProposal(ImmutableSet.of(poisson), KeanuRandom.getDefaultRandom());
+    }
+
+    @Test
+    public void itThrowsIfAVariableWasNotGiven() {
+        DoubleVertex A = new GaussianVertex(0.0, 1.0);
+        DoubleVertex notInProposalDistribution = new GaussianVertex(0.0, 1.0);
+        AdaptiveProposalDistribution proposalDistribution = AdaptiveProposalDistribution.builder()
+            .variables(Arrays.asList(A))
+            .build();
+
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("Adaptive proposal was not created with variable " + notInProposalDistribution);
+        proposalDistribution.getProposal(ImmutableSet.of(notInProposalDistribution), KeanuRandom.getDefaultRandom());
+    }
+
+    @Test
+    public void itThrowsIfThereAreNoVariables() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Adaptive proposal requires at least one variable");
+        AdaptiveProposalDistribution.builder()
+            .variables(Collections.emptyList())
+            .build();
+    }
+}
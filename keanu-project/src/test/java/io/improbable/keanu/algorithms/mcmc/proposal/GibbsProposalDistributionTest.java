@@ -0,0 +1,154 @@
+package io.improbable.keanu.algorithms.mcmc.proposal;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.algorithms.NetworkSamples;
+import io.improbable.keanu.algorithms.mcmc.MetropolisHastings;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.KeanuProbabilisticModel;
+import io.improbable.keanu.tensor.bool.BooleanTensor;
+import io.improbable.keanu.tensor.generic.GenericTensor;
+import io.improbable.keanu.tensor.intgr.IntegerTensor;
+import io.improbable.keanu.vertices.tensor.If;
+import io.improbable.keanu.vertices.tensor.bool.probabilistic.BernoulliVertex;
+import io.improbable.keanu.vertices.tensor.generic.probabilistic.discrete.CategoricalVertex;
+import io.improbable.keanu.vertices.tensor.number.fixed.intgr.probabilistic.UniformIntVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class GibbsProposalDistributionTest {
+
+    @Rule
+    public DeterministicRule deterministicRule = new DeterministicRule();
+
+    private static final double PROBABILITY_A_GIVEN_B = 0.3 * 0.9 / (0.3 * 0.9 + 0.7 * 0.2);
+
+    @Test
+    public void aBernoulliIsSampledFromItsConditionalAndAlwaysAccepted() {
+        BernoulliVertex A = new BernoulliVertex(0.3);
+        DoubleVertex probabilityOfB = If.isTrue(A).then(0.9).orElse(0.2);
+        BernoulliVertex B = new BernoulliVertex(probabilityOfB);
+        B.observe(true);
+        KeanuProbabilisticModel model = new KeanuProbabilisticModel(new BayesianNetwork(A.getConnectedGraph()));
+
+        AcceptanceRateTracker acceptanceRateTracker = new AcceptanceRateTracker();
+        GibbsProposalDistribution proposalDistribution = new GibbsProposalDistribution(
+            new PriorProposalDistribution(), 1024, ImmutableList.of(acceptanceRateTracker)
+        );
+
+        NetworkSamples samples = MetropolisHastings.builder()
+            .proposalDistribution(proposalDistribution)
+            .build()
+            .getPosteriorSamples(model, ImmutableList.of(A), 10000);
+
+        assertEquals(PROBABILITY_A_GIVEN_B, samples.get(A).probability(v -> v.scalar()), 0.02);
+        assertEquals(1.0, acceptanceRateTracker.getAcceptanceRate(A.getReference()), 1e-9);
+    }
+
+    @Test
+    public void theLogProbIsTheLogOfTheConditionalProbability() {
+        BernoulliVertex A = new BernoulliVertex(0.3);
+        DoubleVertex probabilityOfB = If.isTrue(A).then(0.9).orElse(0.2);
+        BernoulliVertex B = new BernoulliVertex(probabilityOfB);
+        B.observe(true);
+        A.setAndCascade(BooleanTensor.scalar(false));
+
+        GibbsProposalDistribution proposalDistribution = new GibbsProposalDistribution();
+        proposalDistribution.getProposal(ImmutableSet.of(A), KeanuRandom.getDefaultRandom());
+
+        assertEquals(Math.log(PROBABILITY_A_GIVEN_B),
+            proposalDistribution.logProb(A, BooleanTensor.scalar(true), BooleanTensor.scalar(false)), 1e-9);
+        assertEquals(Math.log(1 - PROBABILITY_A_GIVEN_B),
+            proposalDistribution.logProb(A, BooleanTensor.scalar(false), BooleanTensor.scalar(true)), 1e-9);
+        assertEquals(BooleanTensor.scalar(false), A.getValue());
+        assertEquals(0.9, probabilityOfB.getValue().scalar(), 0.0);
+    }
+
+    @Test
+    public void verticesAddedAfterAProposalAreScoredByTheNextProposal() {
+        BernoulliVertex A = new BernoulliVertex(0.3);
+        A.setValue(BooleanTensor.scalar(false));
+
+        GibbsProposalDistribution proposalDistribution = new GibbsProposalDistribution();
+        proposalDistribution.getProposal(ImmutableSet.of(A), KeanuRandom.getDefaultRandom());
+
+        assertEquals(Math.log(0.3),
+            proposalDistribution.logProb(A, BooleanTensor.scalar(true), BooleanTensor.scalar(false)), 1e-9);
+
+        DoubleVertex probabilityOfB = If.isTrue(A).then(0.9).orElse(0.2);
+        BernoulliVertex B = new BernoulliVertex(probabilityOfB);
+        B.observe(true);
+        A.setAndCascade(BooleanTensor.scalar(false));
+
+        proposalDistribution.getProposal(ImmutableSet.of(A), KeanuRandom.getDefaultRandom());
+
+        assertEquals(Math.log(PROBABILITY_A_GIVEN_B),
+            proposalDistribution.logProb(A, BooleanTensor.scalar(true), BooleanTensor.scalar(false)), 1e-9);
+    }
+
+    @Test
+    public void aCategoricalWithoutChildrenIsSampledFromItsPrior() {
+        CategoricalVertex<Integer> C = CategoricalVertex.of(ImmutableMap.of(0, 0.2, 1, 0.5, 2, 0.3));
+        C.setValue(GenericTensor.scalar(0));
+
+        GibbsProposalDistribution proposalDistribution = new GibbsProposalDistribution();
+        proposalDistribution.getProposal(ImmutableSet.of(C), KeanuRandom.getDefaultRandom());
+
+        assertEquals(Math.log(0.2), proposalDistribution.logProb(C, GenericTensor.scalar(0), GenericTensor.scalar(1)), 1e-9);
+        assertEquals(Math.log(0.5), proposalDistribution.logProb(C, GenericTensor.scalar(1), GenericTensor.scalar(0)), 1e-9);
+        assertEquals(Math.log(0.3), proposalDistribution.logProb(C, GenericTensor.scalar(2), GenericTensor.scalar(0)), 1e-9);
+    }
+
+    @Test
+    public void onlyOneElementOfATensorIsProposed() {
+        UniformIntVertex U = new UniformIntVertex(new long[]{3}, 0, 4);
+        IntegerTensor current = IntegerTensor.create(1, 2, 3);
+        U.setValue(current);
+
+        GibbsProposalDistribution proposalDistribution = new GibbsProposalDistribution();
+        for (int i = 0; i < 20; i++) {
+            IntegerTensor proposed = proposalDistribution.getProposal(ImmutableSet.of(U), KeanuRandom.getDefaultRandom()).getProposalTo(U);
+
+            int changedElements = 0;
+            for (int j = 0; j < 3; j++) {
+                if (!proposed.getValue(j).equals(current.getValue(j))) {
+                    changedElements++;
+                }
+            }
+            assertThat(changedElements, lessThanOrEqualTo(1));
+            assertEquals(Math.log(0.25), proposalDistribution.logProb(U, proposed, current), 1e-9);
+        }
+    }
+
+    @Test
+    public void variablesThatCannotBeEnumeratedAreProposedByTheFallback() {
+        ProposalDistribution fallback = mock(ProposalDistribution.class);
+        GibbsProposalDistribution proposalDistribution = new GibbsProposalDistribution(fallback, 4, Collections.emptyList());
+
+        GaussianVertex gaussian = new GaussianVertex(0, 1);
+        UniformIntVertex tooManyStates = new UniformIntVertex(0, 5);
+        BernoulliVertex first = new BernoulliVertex(0.5);
+        BernoulliVertex second = new BernoulliVertex(0.5);
+
+        proposalDistribution.getProposal(ImmutableSet.of(gaussian), KeanuRandom.getDefaultRandom());
+        proposalDistribution.getProposal(ImmutableSet.of(tooManyStates), KeanuRandom.getDefaultRandom());
+        proposalDistribution.getProposal(ImmutableSet.of(first, second), KeanuRandom.getDefaultRandom());
+
+        verify(fallback).getProposal(ImmutableSet.of(gaussian), KeanuRandom.getDefaultRandom());
+        verify(fallback).getProposal(ImmutableSet.of(tooManyStates), KeanuRandom.getDefaultRandom());
+        verify(fallback).getProposal(ImmutableSet.of(first, second), KeanuRandom.getDefaultRandom());
+    }
+}
@@ -0,0 +1,159 @@
+package io.improbable.keanu.algorithms.particlefiltering;
+
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class OnlineParticleFilterTest {
+
+    private static final double TRANSITION_SIGMA = 1.0;
+    private static final double OBSERVATION_SIGMA = 0.5;
+    private static final double[] OBSERVATIONS = new double[]{0.3, 1.1, 0.7, 2.0, 2.4};
+
+    private List<DoubleVertex> states;
+    private List<DoubleVertex> measurements;
+    private BayesianNetwork network;
+
+    @Before
+    public void setup() {
+        states = new ArrayList<>();
+        measurements = new ArrayList<>();
+
+        DoubleVertex previous = new GaussianVertex(0.0, TRANSITION_SIGMA);
+        for (int t = 0; t < OBSERVATIONS.length; t++) {
+            DoubleVertex state = t == 0 ? previous : new GaussianVertex(previous, TRANSITION_SIGMA);
+            states.add(state);
+            measurements.add(new GaussianVertex(state, OBSERVATION_SIGMA));
+            previous = state;
+        }
+
+        network = new BayesianNetwork(states.get(0).getConnectedGraph());
+    }
+
+    @Test
+    public void tracksARandomWalkAsObservationsArrive() {
+        OnlineParticleFilter filter = OnlineParticleFilter.ofNetwork(network)
+            .withNumParticles(5000)
+            .withRandom(new KeanuRandom(1))
+            .build();
+
+        assertFiltersLikeAKalmanFilter(filter);
+    }
+
+    @Test
+    public void tracksARandomWalkWithParticlesSplitBetweenThreads() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            OnlineParticleFilter filter = OnlineParticleFilter.ofNetwork(network)
+                .withNumParticles(5000)
+                .withResamplingScheme(ResamplingScheme.STRATIFIED)
+                .withRandom(new KeanuRandom(1))
+                .withPool(pool)
+                .build();
+
+            assertFiltersLikeAKalmanFilter(filter);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void filtersObservationsAlreadyInTheNetwork() {
+        measurements.get(0).observe(OBSERVATIONS[0]);
+
+        OnlineParticleFilter filter = OnlineParticleFilter.ofNetwork(network)
+            .withNumParticles(5000)
+            .withRandom(new KeanuRandom(1))
+            .build();
+
+        double posteriorMean = OBSERVATIONS[0] / (1.0 + OBSERVATION_SIGMA * OBSERVATION_SIGMA);
+        assertEquals(posteriorMean, filter.getWeightedMeanOf(states.get(0)).scalar(), 0.05);
+        assertEquals(5000, filter.getValuesOf(states.get(0)).size());
+    }
+
+    @Test
+    public void doesNotChangeTheNetwork() {
+        OnlineParticleFilter filter = OnlineParticleFilter.ofNetwork(network)
+            .withNumParticles(100)
+            .build();
+
+        filter.observe(measurements.get(0), DoubleTensor.scalar(OBSERVATIONS[0]));
+
+        assertEquals(false, measurements.get(0).isObserved());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotObserveAVertexTwice() {
+        OnlineParticleFilter filter = OnlineParticleFilter.ofNetwork(network)
+            .withNumParticles(100)
+            .build();
+
+        filter.observe(measurements.get(0), DoubleTensor.scalar(OBSERVATIONS[0]));
+        filter.observe(measurements.get(0), DoubleTensor.scalar(OBSERVATIONS[0]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cannotGetTheValuesOfAVertexNoObservationDependsOn() {
+        OnlineParticleFilter filter = OnlineParticleFilter.ofNetwork(network)
+            .withNumParticles(100)
+            .build();
+
+        filter.observe(measurements.get(0), DoubleTensor.scalar(OBSERVATIONS[0]));
+        filter.getValuesOf(states.get(1));
+    }
+
+    @Test
+    public void resamplingCopiesParticlesInProportionToTheirWeights() {
+        int[] ancestors = new int[4];
+
+        ResamplingScheme.SYSTEMATIC.resample(new double[]{0.0, 1.0, 0.0, 0.0}, new KeanuRandom(1), ancestors);
+        assertArrayEquals(new int[]{1, 1, 1, 1}, ancestors);
+
+        ResamplingScheme.STRATIFIED.resample(new double[]{0.5, 0.0, 0.0, 0.5}, new KeanuRandom(1), ancestors);
+        assertArrayEquals(new int[]{0, 0, 3, 3}, ancestors);
+    }
+
+    private void assertFiltersLikeAKalmanFilter(OnlineParticleFilter filter) {
+        double mean = 0.0;
+        double variance = TRANSITION_SIGMA * TRANSITION_SIGMA;
+        double observationVariance = OBSERVATION_SIGMA * OBSERVATION_SIGMA;
+        double logMarginalLikelihood = 0.0;
+
+        for (int t = 0; t < OBSERVATIONS.length; t++) {
+            if (t > 0) {
+                variance += TRANSITION_SIGMA * TRANSITION_SIGMA;
+            }
+
+            double predictiveVariance = variance + observationVariance;
+            double residual = OBSERVATIONS[t] - mean;
+            logMarginalLikelihood += -0.5 * (Math.log(2 * Math.PI * predictiveVariance) + residual * residual / predictiveVariance);
+
+            double gain = variance / predictiveVariance;
+            mean += gain * residual;
+            variance *= 1 - gain;
+
+            filter.observe(measurements.get(t), DoubleTensor.scalar(OBSERVATIONS[t]));
+
+            assertEquals(mean, filter.getWeightedMeanOf(states.get(t)).scalar(), 0.1);
+        }
+
+        assertEquals(logMarginalLikelihood, filter.getLogMarginalLikelihood(), 0.2);
+
+        double sumOfWeights = 0.0;
+        for (double weight : filter.getWeights()) {
+            sumOfWeights += weight;
+        }
+        assertEquals(1.0, sumOfWeights, 1e-9);
+    }
+}
@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -125,6 +126,81 @@ public class ForwardSamplerTest {
         assertTrue(samples.getLogOfMasterP(0) != samples.getLogOfMasterP(1));
     }
 
+    @Test
+    public void canSampleFromPriorInBatches() {
+        GaussianVertex A = new GaussianVertex(10, 1.);
+        GaussianVertex B = new GaussianVertex(A, 1.);
+        DoubleVertex C = B.plus(ConstantVertex.of(5.));
+
+        ProbabilisticModel model = new KeanuProbabilisticModel(A.getConnectedGraph());
+
+        final int sampleCount = 5000;
+        NetworkSamples samples = Keanu.Sampling.Forward.builder()
+            .random(random)
+            .batchSize(128)
+            .build()
+            .getPosteriorSamples(model, Arrays.asList(A, B, C), sampleCount);
+
+        assertEquals(sampleCount, samples.size());
+        assertArrayEquals(new long[0], samples.getDoubleTensorSamples(C).asList().get(0).getShape());
+        assertEquals(10.0, samples.getDoubleTensorSamples(A).getAverages().scalar(), 0.1);
+        assertEquals(15.0, samples.getDoubleTensorSamples(C).getAverages().scalar(), 0.1);
+        assertEquals(2.0, samples.getDoubleTensorSamples(B).getVariances().scalar(), 0.15);
+        assertEquals(5.0, C.getValue().scalar() - B.getValue().scalar(), 1e-9);
+    }
+
+    @Test
+    public void throwsWhenAVertexDoesNotBroadcastOverTheBatch() {
+        GaussianVertex A = new GaussianVertex(new long[]{2}, 0, 1.);
+        DoubleVertex B = A.sum();
+
+        ProbabilisticModel model = new KeanuProbabilisticModel(A.getConnectedGraph());
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("does not broadcast over the batch");
+
+        Keanu.Sampling.Forward.builder()
+            .random(random)
+            .batchSize(10)
+            .build()
+            .getPosteriorSamples(model, Arrays.asList(A, B), 20);
+    }
+
+    @Test
+    public void throwsWhenAVertexOperatesOnADimensionThatTheBatchShifts() {
+        GaussianVertex A = new GaussianVertex(new long[]{3}, 0, 1.);
+        DoubleVertex B = A.cumSum(0);
+
+        ProbabilisticModel model = new KeanuProbabilisticModel(A.getConnectedGraph());
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("does not broadcast over the batch");
+
+        Keanu.Sampling.Forward.builder()
+            .random(random)
+            .batchSize(10)
+            .build()
+            .getPosteriorSamples(model, Arrays.asList(A, B), 20);
+    }
+
+    @Test
+    public void throwsWhenAVertexCombinesBatchedParentsOfDifferentRanks() {
+        GaussianVertex A = new GaussianVertex(new long[]{2}, 0, 1.);
+        GaussianVertex B = new GaussianVertex(0, 1.);
+        DoubleVertex C = A.plus(B);
+
+        ProbabilisticModel model = new KeanuProbabilisticModel(C.getConnectedGraph());
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("does not broadcast over the batch");
+
+        Keanu.Sampling.Forward.builder()
+            .random(random)
+            .batchSize(2)
+            .build()
+            .getPosteriorSamples(model, Arrays.asList(A, B, C), 4);
+    }
+
     @Test
     public void nonProbabilisticVerticesAreRecomputedDuringForwardSample() {
         GaussianVertex A = mock(GaussianVertex.class);
@@ -0,0 +1,128 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import io.improbable.keanu.DeterministicRule;
+import io.improbable.keanu.KeanuRandom;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ConvergenceDiagnosticsTest {
+
+    @Rule
+    public DeterministicRule deterministicRule = new DeterministicRule();
+
+    @Test
+    public void runningMomentsMatchTheMomentsOfAllTheValues() {
+        double[] values = new double[]{1e9 + 4, 1e9 + 7, 1e9 + 13, 1e9 + 16};
+
+        RunningMoments moments = new RunningMoments();
+        for (double value : values) {
+            moments.add(value);
+        }
+
+        assertEquals(1e9 + 10, moments.getMean(), 1e-6);
+        assertEquals(30.0, moments.getVariance(), 1e-6);
+    }
+
+    @Test
+    public void combinedRunningMomentsMatchAddingOneAtATime() {
+        RunningMoments first = new RunningMoments();
+        RunningMoments second = new RunningMoments();
+        RunningMoments all = new RunningMoments();
+        for (int i = 0; i < 10; i++) {
+            double value = i * i;
+            (i < 3 ? first : second).add(value);
+            all.add(value);
+        }
+
+        first.add(second);
+
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.getMean(), first.getMean(), 1e-12);
+        assertEquals(all.getVariance(), first.getVariance(), 1e-9);
+    }
+
+    @Test
+    public void effectiveSampleSizeOfIndependentSamplesIsTheSampleCount() {
+        BatchedMoments chain = autoregressiveChain(0.0, 0.0, 100000, KeanuRandom.getDefaultRandom());
+
+        assertEquals(1.0, chain.getEffectiveSampleSize() / chain.getCount(), 0.5);
+    }
+
+    @Test
+    public void effectiveSampleSizeAllowsForAutocorrelation() {
+        double correlation = 0.9;
+        BatchedMoments chain = autoregressiveChain(0.0, correlation, 200000, KeanuRandom.getDefaultRandom());
+
+        double expectedProportion = (1 - correlation) / (1 + correlation);
+        assertEquals(expectedProportion, chain.getEffectiveSampleSize() / chain.getCount(), expectedProportion * 0.5);
+    }
+
+    @Test
+    public void batchesAreMergedSoMemoryDoesNotGrow() {
+        BatchedMoments chain = new BatchedMoments(8);
+        for (int i = 0; i < 1000; i++) {
+            chain.add(i);
+        }
+
+        assertTrue(chain.getCount() <= 1000);
+        assertThat(chain.getCount(), greaterThan(500L));
+        assertEquals((chain.getCount() - 1) / 2.0, chain.getMoments().getMean(), 1e-9);
+    }
+
+    @Test
+    public void splitRHatIsCloseToOneForChainsFromTheSameDistribution() {
+        KeanuRandom random = KeanuRandom.getDefaultRandom();
+        BatchedMoments first = autoregressiveChain(0.0, 0.5, 10000, random);
+        BatchedMoments second = autoregressiveChain(0.0, 0.5, 10000, random);
+
+        assertThat(ConvergenceDiagnostics.splitRHat(Arrays.asList(first, second)), lessThan(1.01));
+    }
+
+    @Test
+    public void splitRHatIsLargeForChainsInDifferentModes() {
+        KeanuRandom random = KeanuRandom.getDefaultRandom();
+        BatchedMoments first = autoregressiveChain(0.0, 0.5, 10000, random);
+        BatchedMoments second = autoregressiveChain(3.0, 0.5, 10000, random);
+
+        assertThat(ConvergenceDiagnostics.splitRHat(Arrays.asList(first, second)), greaterThan(1.5));
+    }
+
+    @Test
+    public void splitRHatDetectsAChainThatHasNotConverged() {
+        BatchedMoments drifting = new BatchedMoments();
+        KeanuRandom random = KeanuRandom.getDefaultRandom();
+        for (int i = 0; i < 10000; i++) {
+            drifting.add(i / 1000.0 + random.nextGaussian());
+        }
+
+        assertThat(ConvergenceDiagnostics.splitRHat(Arrays.asList(drifting)), greaterThan(1.1));
+    }
+
+    @Test
+    public void diagnosticsAreNotKnownUntilThereAreEnoughSamples() {
+        BatchedMoments chain = new BatchedMoments();
+        chain.add(1.0);
+
+        assertTrue(Double.isNaN(chain.getEffectiveSampleSize()));
+        assertTrue(Double.isNaN(ConvergenceDiagnostics.splitRHat(Arrays.asList(chain))));
+    }
+
+    private static BatchedMoments autoregressiveChain(double mean, double correlation, int length, KeanuRandom random) {
+        BatchedMoments chain = new BatchedMoments();
+        double innovationSigma = Math.sqrt(1 - correlation * correlation);
+        double value = random.nextGaussian();
+        for (int i = 0; i < length; i++) {
+            value = correlation * value + innovationSigma * random.nextGaussian();
+            chain.add(mean + value);
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,32 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LogSumExpTest {
+
+    @Test
+    public void matchesTheLogOfTheSumOfExps() {
+        double[] logValues = {-0.25, 0.5, -3.0};
+        double expected = Math.log(Math.exp(-0.25) + Math.exp(0.5) + Math.exp(-3.0));
+
+        assertEquals(expected, LogSumExp.logSumExp(logValues), 1e-12);
+    }
+
+    @Test
+    public void doesNotOverflowForLargeValues() {
+        assertEquals(1000.0 + Math.log(2.0), LogSumExp.logSumExp(new double[]{1000.0, 1000.0}), 1e-9);
+        assertEquals(1000.0 + Math.log(2.0), LogSumExp.logSumExp(1000.0, 1000.0), 1e-9);
+    }
+
+    @Test
+    public void isNegativeInfinityWhenEveryValueIsImpossible() {
+        double impossible = Double.NEGATIVE_INFINITY;
+
+        assertEquals(impossible, LogSumExp.logSumExp(new double[]{impossible, impossible}), 0.0);
+        assertEquals(impossible, LogSumExp.logSumExp(new double[0]), 0.0);
+        assertEquals(impossible, LogSumExp.logSumExp(impossible, impossible), 0.0);
+        assertEquals(0.0, LogSumExp.logSumExp(impossible, 0.0), 0.0);
+    }
+}
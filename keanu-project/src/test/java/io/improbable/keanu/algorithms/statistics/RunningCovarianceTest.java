@@ -0,0 +1,66 @@
+package io.improbable.keanu.algorithms.statistics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RunningCovarianceTest {
+
+    private static final double[][] VALUES = {
+        {1.0, 2.0, -1.0},
+        {2.0, 3.5, 0.0},
+        {4.0, 1.0, 2.0},
+        {-1.0, 0.5, 1.5}
+    };
+
+    @Test
+    public void matchesTheCovarianceCalculatedInTwoPasses() {
+        RunningCovariance runningCovariance = new RunningCovariance(3);
+        for (double[] value : VALUES) {
+            runningCovariance.add(value);
+        }
+
+        double[] mean = new double[3];
+        for (double[] value : VALUES) {
+            for (int i = 0; i < 3; i++) {
+                mean[i] += value[i] / VALUES.length;
+            }
+        }
+
+        double[] expected = new double[9];
+        for (double[] value : VALUES) {
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    expected[i * 3 + j] += (value[i] - mean[i]) * (value[j] - mean[j]) / VALUES.length;
+                }
+            }
+        }
+
+        assertEquals(VALUES.length, runningCovariance.getCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(mean[i], runningCovariance.getMean(i), 1e-12);
+            for (int j = 0; j < 3; j++) {
+                assertEquals(expected[i * 3 + j], runningCovariance.getCovariance(i, j), 1e-12);
+            }
+        }
+        assertArrayEquals(expected, runningCovariance.getCovariance(), 1e-12);
+    }
+
+    @Test
+    public void priorCountsAsVectorsWithTheGivenMeanAndVariance() {
+        RunningCovariance runningCovariance = new RunningCovariance(2, 1.0, 4.0, 3.0);
+
+        assertEquals(0, runningCovariance.getCount());
+        assertEquals(3.0, runningCovariance.getWeight(), 0.0);
+        assertArrayEquals(new double[]{4.0, 0.0, 0.0, 4.0}, runningCovariance.getCovariance(), 0.0);
+
+        runningCovariance.add(new double[]{5.0, 1.0});
+
+        assertEquals(1, runningCovariance.getCount());
+        assertEquals(2.0, runningCovariance.getMean(0), 1e-12);
+        assertEquals(1.0, runningCovariance.getMean(1), 1e-12);
+        assertEquals((12.0 + 4.0 * 3.0) / 4.0, runningCovariance.getCovariance(0, 0), 1e-12);
+        assertEquals(0.0, runningCovariance.getCovariance(0, 1), 1e-12);
+    }
+}
@@ -27,10 +27,15 @@ import io.improbable.keanu.vertices.utility.AssertVertex;
 import io.improbable.keanu.vertices.utility.GraphAssertionException;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -564,6 +569,79 @@ public class KeanuCompiledGraphTest {
         assertCompiledIsSameAsVertexEvaluation(A, B, select, mux);
     }
 
+    @Test
+    public void canCompileLargeGraphs() {
+        DoubleVertex A = new GaussianVertex(new long[]{2, 2}, 0, 1);
+        DoubleVertex B = A;
+        for (int i = 0; i < 500; i++) {
+            B = B.times(0.5).plus(A);
+        }
+
+        assertCompiledIsSameAsVertexEvaluation(A, B);
+    }
+
+    @Test
+    public void graphsWithTheSameStructureUseTheirOwnConstants() {
+        DoubleVertex A = new GaussianVertex(0, 1);
+        DoubleVertex B = A.times(2).plus(1);
+
+        DoubleVertex C = new GaussianVertex(5, 1);
+        DoubleVertex D = C.times(3).plus(4);
+
+        WrappedCompiledGraph first = compile(B);
+        WrappedCompiledGraph second = compile(D);
+
+        assertEquals(B.getValue(), first.compute(Collections.singletonMap(A.getReference(), A.getValue())).get(B.getReference()));
+        assertEquals(D.getValue(), second.compute(Collections.singletonMap(C.getReference(), C.getValue())).get(D.getReference()));
+    }
+
+    @Test
+    public void usesLastGivenValueOfInputsThatAreNotGiven() {
+        DoubleVertex A = new GaussianVertex(0, 1);
+        DoubleVertex B = new GaussianVertex(0, 1);
+        DoubleVertex C = A.plus(B);
+
+        WrappedCompiledGraph graph = compile(C);
+
+        A.setValue(2.0);
+        graph.compute(Collections.singletonMap(A.getReference(), A.getValue()));
+        B.setValue(3.0);
+        Map<VariableReference, ?> result = graph.compute(Collections.singletonMap(B.getReference(), B.getValue()));
+
+        assertEquals(DoubleTensor.scalar(5.0), result.get(C.getReference()));
+        assertEquals(DoubleTensor.scalar(2.0), graph.getInput(A.getReference()));
+    }
+
+    @Test
+    public void canComputeFromManyThreadsAtOnce() throws Exception {
+        DoubleVertex A = new GaussianVertex(0, 1);
+        DoubleVertex B = A.times(2).plus(1);
+
+        WrappedCompiledGraph graph = compile(B);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                DoubleTensor input = DoubleTensor.scalar(i);
+                results.add(executor.submit(() ->
+                    input.times(2).plus(1).equals(graph.compute(Collections.singletonMap(A.getReference(), input)).get(B.getReference()))
+                ));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private WrappedCompiledGraph compile(Vertex<?, ?> output) {
+        KeanuCompiledGraphBuilder compiler = new KeanuCompiledGraphBuilder();
+        compiler.convert(output.getConnectedGraph(), ImmutableList.of(output));
+        return compiler.build();
+    }
+
     private void assertCompiledIsSameAsVertexEvaluation(Vertex<?, ?> A, Vertex<?, ?> B, Vertex<?, ?> C, Vertex<?, ?> D) {
         KeanuCompiledGraphBuilder compiler = new KeanuCompiledGraphBuilder();
         compiler.convert(D.getConnectedGraph(), ImmutableList.of(D));
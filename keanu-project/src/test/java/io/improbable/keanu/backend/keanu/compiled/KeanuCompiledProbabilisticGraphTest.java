@@ -2,14 +2,18 @@ package io.improbable.keanu.backend.keanu.compiled;
 
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.KeanuProbabilisticModel;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.Vertex;
 import io.improbable.keanu.vertices.tensor.number.fixed.intgr.IntegerVertex;
 import io.improbable.keanu.vertices.tensor.number.fixed.intgr.probabilistic.PoissonVertex;
 import io.improbable.keanu.vertices.tensor.number.fixed.intgr.probabilistic.UniformIntVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GammaVertex;
 import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
 import org.junit.Test;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -57,6 +61,57 @@ public class KeanuCompiledProbabilisticGraphTest {
         matchesLogProb(new BayesianNetwork(C.getConnectedGraph()));
     }
 
+    @Test
+    public void canMatchLogProbOfBatchWithBroadcastObservation() {
+        GaussianVertex mu = new GaussianVertex(0, 1);
+        GammaVertex sigma = new GammaVertex(2, 2);
+        GaussianVertex x = new GaussianVertex(new long[]{3}, mu, sigma);
+        x.observe(DoubleTensor.create(1.0, 2.0, 3.0));
+
+        Map<VariableReference, DoubleTensor> batch = new HashMap<>();
+        batch.put(mu.getReference(), DoubleTensor.create(-1.0, 0.5, 2.0, 0.0));
+        batch.put(sigma.getReference(), DoubleTensor.create(0.5, 1.0, 2.0, 1.5));
+
+        matchesLogProbOfBatch(new BayesianNetwork(x.getConnectedGraph()), batch);
+    }
+
+    @Test
+    public void canMatchLogProbOfBatchOfVectorLatents() {
+        GaussianVertex A = new GaussianVertex(new long[]{2}, 0, 1);
+        GaussianVertex B = new GaussianVertex(A.times(2).exp().sum(), 1);
+        B.observe(1.5);
+
+        Map<VariableReference, DoubleTensor> batch = new HashMap<>();
+        batch.put(A.getReference(), DoubleTensor.create(new double[]{0.1, 0.2, -0.3, 0.4, 0.5, -0.6}, 3, 2));
+
+        matchesLogProbOfBatch(new BayesianNetwork(B.getConnectedGraph()), batch);
+    }
+
+    @Test
+    public void canMatchLogProbOfBatchWithOperationsThatCannotBeBatched() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        GaussianVertex B = new GaussianVertex(A.reshape(1), 1);
+        B.observe(DoubleTensor.create(new double[]{0.5}, 1));
+
+        Map<VariableReference, DoubleTensor> batch = new HashMap<>();
+        batch.put(A.getReference(), DoubleTensor.create(-1.0, 0.5, 2.0));
+
+        matchesLogProbOfBatch(new BayesianNetwork(B.getConnectedGraph()), batch);
+    }
+
+    private void matchesLogProbOfBatch(BayesianNetwork network, Map<VariableReference, DoubleTensor> batch) {
+        KeanuCompiledProbabilisticGraph compiled = KeanuCompiledProbabilisticGraph.convert(network);
+        KeanuProbabilisticModel interpreted = new KeanuProbabilisticModel(network);
+
+        double[] expected = interpreted.logProbBatch(batch);
+        double[] actual = compiled.logProbBatch(batch);
+
+        assertEquals(expected.length, actual.length);
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(expected[k], actual[k], 1e-10);
+        }
+    }
+
     private void matchesLogProb(BayesianNetwork bayesianNetwork) {
         KeanuCompiledProbabilisticGraph probabilisticGraph = KeanuCompiledProbabilisticGraph
             .convert(bayesianNetwork);
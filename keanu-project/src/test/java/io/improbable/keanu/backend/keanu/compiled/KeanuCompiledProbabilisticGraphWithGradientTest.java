@@ -0,0 +1,124 @@
+package io.improbable.keanu.backend.keanu.compiled;
+
+import io.improbable.keanu.algorithms.VariableReference;
+import io.improbable.keanu.network.BayesianNetwork;
+import io.improbable.keanu.network.KeanuProbabilisticModelWithGradient;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GammaVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertArrayEquals;
+
+public class KeanuCompiledProbabilisticGraphWithGradientTest {
+
+    @Test
+    public void canMatchGradientOfGaussian() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        A.setValue(0.5);
+
+        matchesLogProbGradients(new BayesianNetwork(A.getConnectedGraph()));
+    }
+
+    @Test
+    public void canMatchGradientOfHierarchyWithObservation() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        GaussianVertex B = new GaussianVertex(A.times(2), 2);
+        GammaVertex C = new GammaVertex(2, 2);
+
+        GaussianVertex D = new GaussianVertex(A.plus(B).exp(), C);
+        D.observe(1.5);
+
+        A.setValue(0.2);
+        B.setValue(-0.3);
+        C.setValue(1.2);
+
+        matchesLogProbGradients(new BayesianNetwork(D.getConnectedGraph()));
+    }
+
+    @Test
+    public void canMatchGradientOfBroadcastLatent() {
+        GaussianVertex mu = new GaussianVertex(0, 1);
+        GammaVertex sigma = new GammaVertex(2, 2);
+        GaussianVertex x = new GaussianVertex(new long[]{3}, mu, sigma);
+        x.observe(DoubleTensor.create(1.0, 2.0, 3.0));
+
+        mu.setValue(0.7);
+        sigma.setValue(1.3);
+
+        matchesLogProbGradients(new BayesianNetwork(x.getConnectedGraph()));
+    }
+
+    @Test
+    public void logProbIsCalculatedWithTheGradient() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        GaussianVertex B = new GaussianVertex(A, 1);
+        B.observe(2.0);
+
+        BayesianNetwork network = new BayesianNetwork(B.getConnectedGraph());
+        KeanuCompiledProbabilisticGraphWithGradient compiled = KeanuCompiledProbabilisticGraphWithGradient.convert(network);
+
+        Map<VariableReference, DoubleTensor> gradients = compiled.logProbGradients(
+            Collections.singletonMap(A.getReference(), DoubleTensor.scalar(1.0))
+        );
+
+        A.setValue(1.0);
+        assertEquals(network.getLogOfMasterP(), compiled.logProb(), 1e-10);
+        assertEquals(network.getLogOfMasterP(), compiled.logProb(Collections.emptyMap()), 1e-10);
+        assertEquals(-1.0 + 1.0, gradients.get(A.getReference()).scalar(), 1e-10);
+    }
+
+    @Test
+    public void canMatchGradientOfLogLikelihood() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        GaussianVertex B = new GaussianVertex(A.times(3), 1);
+        B.observe(2.0);
+        A.setValue(0.4);
+
+        BayesianNetwork network = new BayesianNetwork(B.getConnectedGraph());
+        KeanuCompiledProbabilisticGraphWithGradient compiled = KeanuCompiledProbabilisticGraphWithGradient.convert(network);
+        KeanuProbabilisticModelWithGradient interpreted = new KeanuProbabilisticModelWithGradient(network);
+
+        Map<VariableReference, DoubleTensor> inputs = Collections.singletonMap(A.getReference(), DoubleTensor.scalar(-0.6));
+
+        assertGradientsEqual(interpreted.logLikelihoodGradients(inputs), compiled.logLikelihoodGradients(inputs), A);
+        assertEquals(interpreted.logProb(), compiled.logProb(), 1e-10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void throwsIfGradientOfOperationIsNotSupported() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        GaussianVertex B = new GaussianVertex(A.atan2(A), 1);
+        B.observe(1.0);
+
+        KeanuCompiledProbabilisticGraphWithGradient.convert(new BayesianNetwork(B.getConnectedGraph()));
+    }
+
+    private void matchesLogProbGradients(BayesianNetwork network) {
+        KeanuCompiledProbabilisticGraphWithGradient compiled = KeanuCompiledProbabilisticGraphWithGradient.convert(network);
+        KeanuProbabilisticModelWithGradient interpreted = new KeanuProbabilisticModelWithGradient(network);
+
+        Map<VariableReference, DoubleTensor> expected = interpreted.logProbGradients();
+        Map<VariableReference, DoubleTensor> actual = compiled.logProbGradients();
+
+        assertEquals(interpreted.logProb(), compiled.logProb(), 1e-10);
+        for (DoubleVertex latent : network.getContinuousLatentVertices()) {
+            assertGradientsEqual(expected, actual, latent);
+        }
+    }
+
+    private void assertGradientsEqual(Map<VariableReference, DoubleTensor> expected,
+                                      Map<VariableReference, DoubleTensor> actual,
+                                      DoubleVertex latent) {
+        assertArrayEquals(
+            expected.get(latent.getReference()).asFlatDoubleArray(),
+            actual.get(latent.getReference()).asFlatDoubleArray(),
+            1e-8
+        );
+    }
+}
@@ -0,0 +1,50 @@
+package io.improbable.keanu.network;
+
+import com.google.common.collect.ImmutableList;
+import io.improbable.keanu.vertices.Vertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IndependentBlocksTest {
+
+    @Test
+    public void observationsOfTheSameLatentCanBeInDifferentBlocks() {
+        DoubleVertex mu = new GaussianVertex(0, 1);
+        List<Vertex> observations = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            GaussianVertex observation = new GaussianVertex(mu, 1);
+            observation.observe(i);
+            observations.add(observation);
+        }
+
+        List<List<Vertex>> blocks = IndependentBlocks.partition(observations, 4);
+
+        assertEquals(4, blocks.size());
+        for (List<Vertex> block : blocks) {
+            assertEquals(2, block.size());
+        }
+        assertEquals(observations.subList(0, 2), blocks.get(0));
+    }
+
+    @Test
+    public void verticesThatShareANonProbabilisticAncestorAreInTheSameBlock() {
+        DoubleVertex mu = new GaussianVertex(0, 1);
+        DoubleVertex shared = mu.times(2);
+        GaussianVertex A = new GaussianVertex(shared, 1);
+        GaussianVertex B = new GaussianVertex(mu, 1);
+        GaussianVertex C = new GaussianVertex(shared.plus(1), 1);
+
+        List<List<Vertex>> blocks = IndependentBlocks.partition(ImmutableList.of(A, B, C), 3);
+
+        assertEquals(2, blocks.size());
+        assertTrue(blocks.get(0).contains(A) && blocks.get(0).contains(C));
+        assertEquals(ImmutableList.of(B), blocks.get(1));
+    }
+}
@@ -1,5 +1,7 @@
 package io.improbable.keanu.network;
 
+import io.improbable.keanu.algorithms.Variable;
+import io.improbable.keanu.algorithms.VariableIndex;
 import io.improbable.keanu.algorithms.VariableReference;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.vertices.VertexId;
@@ -11,7 +13,9 @@ import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 
 import static junit.framework.TestCase.assertEquals;
 
@@ -59,6 +63,54 @@ public class KeanuProbabilisticModelWithGradientTest {
         canCalculateLogProbGradient(logProbGradientCalculator, logProbGradients);
     }
 
+    @Test
+    public void indexedGradientsMatchGradientsByReference() {
+        VariableIndex<Variable<DoubleTensor, ?>> index = model.getContinuousLatentVariableIndex();
+        DoubleTensor[] values = new DoubleTensor[index.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = DoubleTensor.scalar(index.get(i).getReference().equals(A.getId()) ? 0.75 : -0.5);
+        }
+
+        DoubleTensor[] indexedGradients = model.logProbGradientsAt(values);
+        Map<VariableReference, DoubleTensor> gradients = model.logProbGradients(index.toMap(values));
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(gradients.get(index.get(i).getReference()), indexedGradients[i]);
+        }
+        assertEquals(model.logProb(index.toMap(values)), model.logProbAt(values), 1e-12);
+    }
+
+    @Test
+    public void batchesAreEvaluatedAtEachPoint() {
+        Map<VariableReference, DoubleTensor> batch = new HashMap<>();
+        batch.put(A.getId(), DoubleTensor.create(0.75, -0.5, 0.1));
+        batch.put(B.getId(), DoubleTensor.create(0.2, 0.4, -0.3));
+
+        double[] logProbs = model.logProbBatch(batch);
+        Map<VariableReference, DoubleTensor> gradients = model.logProbGradientsBatch(batch);
+
+        for (int k = 0; k < 3; k++) {
+            Map<VariableReference, DoubleTensor> point = new HashMap<>();
+            point.put(A.getId(), batch.get(A.getId()).slice(0, k));
+            point.put(B.getId(), batch.get(B.getId()).slice(0, k));
+
+            Map<VariableReference, DoubleTensor> pointGradients = model.logProbGradients(point);
+
+            assertEquals(model.logProb(point), logProbs[k], 1e-12);
+            assertEquals(pointGradients.get(A.getId()).scalar(), gradients.get(A.getId()).getValue(k), 1e-12);
+            assertEquals(pointGradients.get(B.getId()).scalar(), gradients.get(B.getId()).getValue(k), 1e-12);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void batchesMustHaveTheSameNumberOfPointsForEveryVariable() {
+        Map<VariableReference, DoubleTensor> batch = new HashMap<>();
+        batch.put(A.getId(), DoubleTensor.create(0.75, -0.5, 0.1));
+        batch.put(B.getId(), DoubleTensor.create(0.2, 0.4));
+
+        model.logProbBatch(batch);
+    }
+
     public void canCalculateLogProbGradient(LogProbGradientCalculator gradientCalculator,
                                             Map<? extends VariableReference, DoubleTensor> actualGradients) {
 
@@ -71,4 +123,27 @@ public class KeanuProbabilisticModelWithGradientTest {
         assertEquals(expectedGradients.get(B.getId()), dLogProbWrtB);
     }
 
+    @Test
+    public void parallelEvaluationMatchesSequentialEvaluation() {
+        GaussianVertex mu = new GaussianVertex(0.0, 1.0);
+        mu.setValue(0.3);
+        GaussianVertex sigma = new GaussianVertex(1.0, 0.1);
+        sigma.setValue(1.2);
+        for (int i = 0; i < 100; i++) {
+            GaussianVertex observation = new GaussianVertex(mu.times(2).plus(i % 3), sigma);
+            observation.observe(i % 7);
+        }
+
+        BayesianNetwork network = new BayesianNetwork(mu.getConnectedGraph());
+        KeanuProbabilisticModelWithGradient sequential = new KeanuProbabilisticModelWithGradient(network);
+        KeanuProbabilisticModelWithGradient parallel = new KeanuProbabilisticModelWithGradient(network, new ForkJoinPool(4));
+
+        assertEquals(sequential.logProb(), parallel.logProb(), 1e-9);
+        assertEquals(sequential.logLikelihood(), parallel.logLikelihood(), 1e-9);
+
+        Map<VariableReference, DoubleTensor> sequentialGradients = sequential.logProbGradients();
+        Map<VariableReference, DoubleTensor> parallelGradients = parallel.logProbGradients();
+        assertEquals(sequentialGradients.get(mu.getId()).scalar(), parallelGradients.get(mu.getId()).scalar(), 1e-9);
+        assertEquals(sequentialGradients.get(sigma.getId()).scalar(), parallelGradients.get(sigma.getId()).scalar(), 1e-9);
+    }
 }
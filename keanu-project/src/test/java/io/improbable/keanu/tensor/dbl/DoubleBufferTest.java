@@ -0,0 +1,64 @@
+package io.improbable.keanu.tensor.dbl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class DoubleBufferTest {
+
+    private final DoubleBuffer.DoubleArrayWrapperFactory factory = new DoubleBuffer.DoubleArrayWrapperFactory();
+
+    @Test
+    public void canReadAndWritePrimitiveDoubles() {
+        DoubleBuffer.PrimitiveDoubleWrapper array = factory.create(new double[]{1, 2, 3});
+        DoubleBuffer.PrimitiveDoubleWrapper single = factory.createNew(1);
+
+        array.setDouble(5.0, 1);
+        single.setDouble(7.0, 0);
+
+        assertEquals(5.0, array.getDouble(1), 0.0);
+        assertEquals(Double.valueOf(5.0), array.get(1));
+        assertEquals(7.0, single.getDouble(0), 0.0);
+        assertEquals(Double.valueOf(7.0), single.get(0));
+    }
+
+    @Test
+    public void canApplyAPrimitiveFunction() {
+        DoubleBuffer.PrimitiveDoubleWrapper array = factory.create(new double[]{1, 2, 3}).applyDouble(x -> x * x);
+        DoubleBuffer.PrimitiveDoubleWrapper single = factory.createNew(3.0).applyDouble(x -> -x);
+
+        assertArrayEquals(new double[]{1, 4, 9}, array.asDoubleArray(), 0.0);
+        assertArrayEquals(new double[]{-3}, single.asDoubleArray(), 0.0);
+    }
+
+    @Test
+    public void canCopyElementsBetweenArrayAndSingleValueBuffers() {
+        DoubleBuffer.PrimitiveDoubleWrapper array = factory.create(new double[]{1, 2, 3});
+        DoubleBuffer.PrimitiveDoubleWrapper single = factory.createNew(9.0);
+
+        array.copyElementFrom(single, 0, 2);
+        single.copyFrom(array, 1, 0, 1);
+
+        assertArrayEquals(new double[]{1, 2, 9}, array.asDoubleArray(), 0.0);
+        assertEquals(2.0, single.getDouble(0), 0.0);
+    }
+
+    @Test
+    public void canCombineElementsOfAnotherBuffer() {
+        DoubleBuffer.PrimitiveDoubleWrapper array = factory.create(new double[]{1, 2, 3});
+        DoubleBuffer.PrimitiveDoubleWrapper other = factory.create(new double[]{10, 20});
+
+        array.plus(0, other, 1).times(2, other, 0);
+
+        assertArrayEquals(new double[]{21, 2, 30}, array.asDoubleArray(), 0.0);
+    }
+
+    @Test
+    public void singleValueBuffersAreEqualWhenTheirValuesAre() {
+        assertEquals(factory.createNew(Double.NaN), factory.createNew(Double.NaN));
+        assertEquals(factory.createNew(1.5).hashCode(), factory.createNew(1.5).hashCode());
+        assertNotEquals(factory.createNew(0.0), factory.createNew(-0.0));
+    }
+}
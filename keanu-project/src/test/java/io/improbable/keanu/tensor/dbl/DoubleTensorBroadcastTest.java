@@ -743,4 +743,15 @@ public class DoubleTensorBroadcastTest {
         assertPowInPlaceOperationEquals(matrix, exponent, expected);
     }
 
+    @Test
+    public void broadcastingInPlaceDoesNotChangeTheRightOperand() {
+        DoubleTensor row = DoubleTensor.create(new double[]{1, 2}, 1, 2);
+        DoubleTensor column = DoubleTensor.create(new double[]{10, 20}, 2, 1);
+
+        DoubleTensor result = row.duplicate().plusInPlace(column);
+
+        assertEquals(DoubleTensor.create(new double[]{11, 12, 21, 22}, 2, 2), result);
+        assertEquals(DoubleTensor.create(new double[]{10, 20}, 2, 1), column);
+    }
+
 }
@@ -448,6 +448,38 @@ public class DoubleTensorTest {
         assertThat(result, valuesAndShapesMatch(expected));
     }
 
+    @Test
+    public void canBatchMatrixMultiplyA2x2x3AndA3x2() {
+
+        DoubleTensor left = DoubleTensor.arange(1, 13).reshape(2, 2, 3);
+        DoubleTensor right = DoubleTensor.arange(1, 7).reshape(3, 2);
+        DoubleTensor result = left.matrixMultiply(right);
+
+        DoubleTensor expected = DoubleTensor.create(new double[]{
+            22, 28,
+            49, 64,
+
+            76, 100,
+            103, 136
+        }, 2, 2, 2);
+
+        assertThat(result, valuesAndShapesMatch(expected));
+    }
+
+    @Test
+    public void canBatchMatrixMultiplyManySmallMatrices() {
+
+        DoubleTensor left = KeanuRandom.getDefaultRandom().nextGaussian(new long[]{600, 8, 8});
+        DoubleTensor right = KeanuRandom.getDefaultRandom().nextGaussian(new long[]{600, 8, 8});
+        DoubleTensor result = left.matrixMultiply(right);
+
+        assertArrayEquals(new long[]{600, 8, 8}, result.getShape());
+        for (int i = 0; i < 600; i++) {
+            DoubleTensor expected = left.slice(0, i).matrixMultiply(right.slice(0, i));
+            assertThat(result.slice(0, i), valuesWithinEpsilonAndShapesMatch(expected, 1e-10));
+        }
+    }
+
     @Test
     public void canFindDeterminantOf2By2Matrix() {
         DoubleTensor A = DoubleTensor.create(1, 2, 3, 4).reshape(2, 2);
@@ -1031,6 +1063,34 @@ public class DoubleTensorTest {
         assertEquals(expected, c);
     }
 
+    @Test
+    public void canTensorMultiplyOverTheFirstDimensions() {
+        DoubleTensor a = DoubleTensor.arange(0, 12).reshape(2, 3, 2);
+        DoubleTensor b = DoubleTensor.arange(0, 18).reshape(2, 3, 3);
+        DoubleTensor c = a.tensorMultiply(b, new int[]{0, 1}, new int[]{0, 1});
+
+        DoubleTensor expected = DoubleTensor.create(new double[]{
+            330, 360, 390,
+            375, 411, 447
+        }, new long[]{2, 3});
+
+        assertEquals(expected, c);
+    }
+
+    @Test
+    public void canTensorMultiplyOverTheLastDimensions() {
+        DoubleTensor a = DoubleTensor.arange(1, 7).reshape(2, 3);
+        DoubleTensor b = DoubleTensor.arange(1, 13).reshape(4, 3);
+        DoubleTensor c = a.tensorMultiply(b, new int[]{1}, new int[]{1});
+
+        DoubleTensor expected = DoubleTensor.create(new double[]{
+            14, 32, 50, 68,
+            32, 77, 122, 167
+        }, new long[]{2, 4});
+
+        assertEquals(expected, c);
+    }
+
     @Test
     public void canTensorMultiplyAllDimensions() {
         DoubleTensor a = DoubleTensor.create(new double[]{2}).reshape(1);
@@ -1,10 +1,14 @@
 package io.improbable.keanu.tensor.jvm;
 
+import io.improbable.keanu.KeanuRandom;
+import io.improbable.keanu.tensor.TensorShape;
 import io.improbable.keanu.tensor.dbl.DoubleTensor;
 import io.improbable.keanu.tensor.dbl.JVMDoubleTensorFactory;
 import org.junit.Test;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
 public class JVMTensorTest {
@@ -63,4 +67,68 @@ public class JVMTensorTest {
                 "shape = []\n" +
                 "data = \n9.0\n}"));
     }
+
+    @Test
+    public void canBroadcastMaxAndMin() {
+        DoubleTensor matrix = JVMDoubleTensorFactory.INSTANCE.create(new double[]{1, 5, 3, 2}, 2, 2);
+        DoubleTensor column = JVMDoubleTensorFactory.INSTANCE.create(new double[]{2, 4}, 2, 1);
+
+        assertEquals(JVMDoubleTensorFactory.INSTANCE.create(new double[]{2, 5, 4, 4}, 2, 2), matrix.max(column));
+        assertEquals(JVMDoubleTensorFactory.INSTANCE.create(new double[]{1, 2, 3, 2}, 2, 2), matrix.min(column));
+    }
+
+    @Test
+    public void canSetWithABroadcastMask() {
+        DoubleTensor matrix = JVMDoubleTensorFactory.INSTANCE.create(new double[]{1, 2, 3, 4}, 2, 2);
+        DoubleTensor mask = JVMDoubleTensorFactory.INSTANCE.create(new double[]{0, 1}, 2);
+
+        assertEquals(JVMDoubleTensorFactory.INSTANCE.create(new double[]{1, -1, 3, -1}, 2, 2), matrix.setWithMask(mask, -1.0));
+    }
+
+    @Test
+    public void canSumAndCumSumOverADimension() {
+        DoubleTensor matrix = JVMDoubleTensorFactory.INSTANCE.arange(0, 6).reshape(2, 3);
+
+        assertEquals(JVMDoubleTensorFactory.INSTANCE.create(new double[]{3, 5, 7}, 3), matrix.sum(0));
+        assertEquals(JVMDoubleTensorFactory.INSTANCE.create(new double[]{0, 1, 3, 3, 7, 12}, 2, 3), matrix.cumSum(1));
+    }
+
+    @Test
+    public void broadcastMatchesBroadcastingEachElement() {
+        long[][][] shapes = new long[][][]{
+            {{3, 4}, {4}},
+            {{3, 4}, {1, 4}},
+            {{3, 4}, {3, 1}},
+            {{3, 1}, {3, 4}},
+            {{4}, {3, 4}},
+            {{3, 1}, {1, 4}},
+            {{2, 3, 4}, {3, 4}},
+            {{2, 1, 4}, {2, 3, 4}},
+            {{2, 3, 1}, {1, 3, 4}},
+            {{5, 1, 3, 1}, {2, 1, 4}},
+            {{1, 1}, {3, 4}}
+        };
+
+        KeanuRandom random = new KeanuRandom(1);
+        for (long[][] leftAndRight : shapes) {
+            DoubleTensor left = JVMDoubleTensorFactory.INSTANCE.create(random.nextGaussian(leftAndRight[0]).asFlatDoubleArray(), leftAndRight[0]);
+            DoubleTensor right = JVMDoubleTensorFactory.INSTANCE.create(random.nextGaussian(leftAndRight[1]).asFlatDoubleArray(), leftAndRight[1]);
+
+            DoubleTensor result = left.minus(right);
+
+            long[] resultShape = TensorShape.getBroadcastResultShape(left.getShape(), right.getShape());
+            long[] resultStride = TensorShape.getRowFirstStride(resultShape);
+            double[] leftValues = left.asFlatDoubleArray();
+            double[] rightValues = right.asFlatDoubleArray();
+            double[] expected = new double[(int) TensorShape.getLength(resultShape)];
+            for (int i = 0; i < expected.length; i++) {
+                long k = TensorShape.getBroadcastedFlatIndex(i, resultStride, left.getShape(), left.getStride());
+                long j = TensorShape.getBroadcastedFlatIndex(i, resultStride, right.getShape(), right.getStride());
+                expected[i] = leftValues[(int) k] - rightValues[(int) j];
+            }
+
+            assertArrayEquals(resultShape, result.getShape());
+            assertArrayEquals(expected, result.asFlatDoubleArray(), 0.0);
+        }
+    }
 }
@@ -0,0 +1,75 @@
+package io.improbable.keanu.vertices;
+
+import com.google.common.collect.ImmutableSet;
+import io.improbable.keanu.network.NetworkSnapshot;
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class ProbabilityCalculatorTest {
+
+    @Test
+    public void logProbIsRememberedUntilTheValueChanges() {
+        CountingGaussianVertex A = new CountingGaussianVertex(new GaussianVertex(0, 1), 1);
+        A.setValue(0.5);
+
+        double logProb = ProbabilityCalculator.calculateLogProbFor(Collections.singletonList(A));
+        assertEquals(logProb, ProbabilityCalculator.calculateLogProbFor(Collections.singletonList(A)));
+        assertEquals(1, A.calls);
+
+        A.setValue(0.5);
+        assertEquals(logProb, ProbabilityCalculator.calculateLogProbFor(Collections.singletonList(A)));
+        assertEquals(2, A.calls);
+    }
+
+    @Test
+    public void logProbIsCalculatedAgainWhenAParentChanges() {
+        GaussianVertex mu = new GaussianVertex(0, 1);
+        mu.setValue(0.0);
+        CountingGaussianVertex A = new CountingGaussianVertex(mu, 1);
+        A.setValue(0.5);
+
+        ProbabilityCalculator.calculateLogProbFor(Collections.singletonList(A));
+        mu.setValue(1.5);
+        double logProb = ProbabilityCalculator.calculateLogProbFor(Collections.singletonList(A));
+
+        assertEquals(new GaussianVertex(1.5, 1).logProb(DoubleTensor.scalar(0.5)), logProb, 1e-12);
+        assertEquals(2, A.calls);
+    }
+
+    @Test
+    public void logProbIsRememberedWhenASnapshotIsRestored() {
+        GaussianVertex mu = new GaussianVertex(0, 1);
+        mu.setValue(0.0);
+        CountingGaussianVertex A = new CountingGaussianVertex(mu, 1);
+        A.setValue(0.5);
+
+        double logProbBefore = ProbabilityCalculator.calculateLogProbFor(Collections.singletonList(A));
+        NetworkSnapshot snapshot = NetworkSnapshot.create(ImmutableSet.of(mu, A));
+
+        mu.setValue(1.5);
+        ProbabilityCalculator.calculateLogProbFor(Collections.singletonList(A));
+        snapshot.apply();
+
+        assertEquals(logProbBefore, ProbabilityCalculator.calculateLogProbFor(Collections.singletonList(A)));
+        assertEquals(2, A.calls);
+    }
+
+    private static class CountingGaussianVertex extends GaussianVertex {
+        private int calls = 0;
+
+        CountingGaussianVertex(Vertex<DoubleTensor, ?> mu, double sigma) {
+            super(mu, sigma);
+        }
+
+        @Override
+        public double logProb(DoubleTensor value) {
+            calls++;
+            return super.logProb(value);
+        }
+    }
+}
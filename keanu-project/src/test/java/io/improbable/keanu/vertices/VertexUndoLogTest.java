@@ -0,0 +1,112 @@
+package io.improbable.keanu.vertices;
+
+import io.improbable.keanu.tensor.dbl.DoubleTensor;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.DoubleVertex;
+import io.improbable.keanu.vertices.tensor.number.floating.dbl.probabilistic.GaussianVertex;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class VertexUndoLogTest {
+
+    private final VertexUndoLog undoLog = new VertexUndoLog();
+
+    @After
+    public void stopRecording() {
+        undoLog.commit();
+    }
+
+    @Test
+    public void rollingBackRestoresTheStatesOfChangedVertices() {
+        GaussianVertex mu = new GaussianVertex(0, 1);
+        mu.setValue(1.0);
+        DoubleVertex shifted = mu.plus(1.0);
+        shifted.eval();
+        VertexState<DoubleTensor> muState = mu.getState();
+        VertexState<DoubleTensor> shiftedState = shifted.getState();
+
+        undoLog.begin();
+        mu.setAndCascade(DoubleTensor.scalar(5.0));
+        mu.setValue(6.0);
+        undoLog.rollback();
+
+        assertFalse(undoLog.isRecording());
+        assertSame(muState, mu.getState());
+        assertSame(shiftedState, shifted.getState());
+        assertEquals(2.0, shifted.getValue().scalar(), 0.0);
+    }
+
+    @Test
+    public void onlyChangedVerticesAreRecorded() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        GaussianVertex B = new GaussianVertex(0, 1);
+        A.setValue(1.0);
+        B.setValue(2.0);
+
+        undoLog.begin();
+        A.setValue(3.0);
+
+        assertEquals(1, undoLog.size());
+        undoLog.rollback();
+        assertEquals(1.0, A.getValue().scalar(), 0.0);
+        assertEquals(2.0, B.getValue().scalar(), 0.0);
+    }
+
+    @Test
+    public void committingKeepsTheChangesAndStopsRecording() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        A.setValue(1.0);
+
+        undoLog.begin();
+        assertTrue(undoLog.isRecording());
+        A.setValue(3.0);
+        undoLog.commit();
+        A.setValue(4.0);
+
+        assertFalse(undoLog.isRecording());
+        assertEquals(0, undoLog.size());
+        undoLog.rollback();
+        assertEquals(4.0, A.getValue().scalar(), 0.0);
+    }
+
+    @Test
+    public void observingAndUnobservingCanBeUndone() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        A.setValue(1.0);
+
+        undoLog.begin();
+        A.observe(DoubleTensor.scalar(2.0));
+        undoLog.rollback();
+        assertFalse(A.isObserved());
+        assertEquals(1.0, A.getValue().scalar(), 0.0);
+
+        A.observe(DoubleTensor.scalar(2.0));
+        undoLog.begin();
+        A.unobserve();
+        undoLog.rollback();
+        assertTrue(A.isObserved());
+    }
+
+    @Test
+    public void theLogProbRememberedByARestoredStateIsReused() {
+        GaussianVertex mu = new GaussianVertex(0, 1);
+        mu.setValue(0.0);
+        GaussianVertex A = new GaussianVertex(mu, 1);
+        A.setValue(0.5);
+        double logProbBefore = ProbabilityCalculator.calculateLogProbFor(Collections.singletonList(A));
+
+        undoLog.begin();
+        mu.setValue(1.5);
+        double logProbDuring = ProbabilityCalculator.calculateLogProbFor(Collections.singletonList(A));
+        undoLog.rollback();
+
+        assertEquals(new GaussianVertex(1.5, 1).logProb(DoubleTensor.scalar(0.5)), logProbDuring, 1e-12);
+        assertEquals(logProbBefore, A.getState().getLogProb(A.getParents()), 0.0);
+    }
+}
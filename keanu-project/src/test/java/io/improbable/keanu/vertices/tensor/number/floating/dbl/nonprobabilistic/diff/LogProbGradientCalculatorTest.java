@@ -159,4 +159,34 @@ public class LogProbGradientCalculatorTest {
         assertThat(expectedDJLogProbWrtBValue, valuesWithinEpsilonAndShapesMatch(dJLogProbWrtBValue, 1e-8));
     }
 
+    @Test
+    public void sumsGradientsOfVerticesThatShareASubgraph() {
+        GaussianVertex A = new GaussianVertex(0, 1);
+        A.setValue(0.3);
+        GaussianVertex B = new GaussianVertex(0, 1);
+        B.setValue(-0.7);
+        DoubleVertex shared = A.times(B).plus(A).sin();
+        GaussianVertex J = new GaussianVertex(shared, 1);
+        J.observe(0.5);
+        GaussianVertex K = new GaussianVertex(shared.times(3), 2);
+        K.observe(-1.0);
+        GaussianVertex L = new GaussianVertex(shared.plus(B), 1);
+        L.observe(0.1);
+
+        LogProbGradientCalculator calculator = new LogProbGradientCalculator(ImmutableList.of(A, B, J, K, L), ImmutableList.of(A, B));
+        Map<VertexId, DoubleTensor> gradient = calculator.getJointLogProbGradientWrtLatents();
+
+        DoubleTensor expectedWrtA = DoubleTensor.scalar(0.0);
+        DoubleTensor expectedWrtB = DoubleTensor.scalar(0.0);
+        for (GaussianVertex ofVertex : ImmutableList.of(A, B, J, K, L)) {
+            Map<VertexId, DoubleTensor> single = new LogProbGradientCalculator(ImmutableList.of(ofVertex), ImmutableList.of(A, B))
+                .getJointLogProbGradientWrtLatents();
+            expectedWrtA = expectedWrtA.plus(single.getOrDefault(A.getId(), DoubleTensor.scalar(0.0)));
+            expectedWrtB = expectedWrtB.plus(single.getOrDefault(B.getId(), DoubleTensor.scalar(0.0)));
+        }
+
+        assertThat(gradient.get(A.getId()), valuesWithinEpsilonAndShapesMatch(expectedWrtA, 1e-10));
+        assertThat(gradient.get(B.getId()), valuesWithinEpsilonAndShapesMatch(expectedWrtB, 1e-10));
+    }
+
 }
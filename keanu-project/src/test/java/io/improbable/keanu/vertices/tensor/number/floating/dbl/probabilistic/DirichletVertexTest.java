@@ -157,6 +157,18 @@ public class DirichletVertexTest {
         LogProbGraphValueFeeder.feedValueAndCascade(logProbGraph, vertex, x);
     }
 
+    @Test
+    public void samplingWithALeadingDimensionGivesABatchOfSamples() {
+        DirichletVertex dirichlet = new DirichletVertex(10, 5, 3);
+
+        DoubleTensor samples = dirichlet.sampleWithShape(new long[]{4, 3}, random);
+
+        Assert.assertArrayEquals(new long[]{4, 3}, samples.getShape());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(1.0, samples.slice(0, i).sumNumber(), 1e-9);
+        }
+    }
+
     @Category(Slow.class)
     @Test
     public void canSplitManyStringsOfVaryingSizeWithKnownMean() {
@@ -171,6 +171,23 @@ public class GammaVertexTest {
             DELTA);
     }
 
+    @Test
+    public void samplesWithAShapeBelowOneHaveTheExpectedMeanAndVariance() {
+        int sampleCount = 200000;
+        GammaVertex vertex = new GammaVertex(
+            new long[]{sampleCount},
+            ConstantVertex.of(2.0),
+            ConstantVertex.of(0.3)
+        );
+
+        DoubleTensor samples = vertex.sample(random);
+        double mean = samples.mean().scalar();
+        double variance = samples.minus(mean).powInPlace(2.).mean().scalar();
+
+        assertEquals(0.6, mean, 1e-2);
+        assertEquals(1.2, variance, 0.06);
+    }
+
     @Category(Slow.class)
     @Test
     public void gammaSampledMethodMatchesLogProbMethod() {